@@ -0,0 +1,96 @@
+package org.medibloc.vc;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.key.Ed25519PrivateKey;
+import org.medibloc.vc.key.KeyDecoder;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialSubject;
+import org.medibloc.vc.model.Issuer;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.KeyPair;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inputs shared by benchmarks, which are similar to ones in tests.
+ */
+public final class BenchmarkFixtures {
+    public static final String NONCE = "this-is-random";
+    public static final String ISSUER = "did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm";
+    public static final String HOLDER = "did:panacea:7aR7Cg46JamVbJgk8azVgUm7Prd74ry1Uct87nZqL3ny";
+    public static final String VERIFIER = "did:panacea:gk8azVgUmamVbJ7Prd74ry1UnZqL3ny7aR7Cg46Jct87";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Credential credential() throws MalformedURLException, VerifiableCredentialException {
+        Issuer issuer = new Issuer(ISSUER);
+        issuer.addExtra("name", "Example University");
+
+        Map<String, Object> scores = new HashMap<String, Object>();
+        scores.put("math", "A+");
+        scores.put("physics", "D-");
+        Map<String, Object> degree = new HashMap<String, Object>();
+        degree.put("type", "BachelorDegree");
+        degree.put("name", "Bachelor of Science and Arts");
+        degree.put("scores", scores);
+        CredentialSubject credentialSubject = new CredentialSubject(HOLDER);
+        credentialSubject.addClaim("degree", degree);
+
+        return Credential.builder()
+                .contexts(Arrays.asList("https://www.w3.org/2018/credentials/v1", "https://www.w3.org/2018/credentials/examples/v1"))
+                .types(Arrays.asList("VerifiableCredential", "UniversityDegreeCredential"))
+                .id(new URL("http://example.edu/credentials/3732"))
+                .issuer(issuer)
+                .issuanceDate(new Date(1601857850000L))
+                .credentialSubject(credentialSubject)
+                .build();
+    }
+
+    public static ECKey ecKey(Curve curve) throws JOSEException {
+        return new ECKeyGenerator(com.nimbusds.jose.jwk.Curve.parse(curve.toString())).generate();
+    }
+
+    /**
+     * Generates a key pair of the EC curve or Ed25519.
+     */
+    public static KeyPair keyPair(Curve curve) throws JOSEException, InvalidKeySpecException {
+        if (curve == Curve.Ed25519) {
+            OctetKeyPair okp = new OctetKeyPairGenerator(com.nimbusds.jose.jwk.Curve.Ed25519).generate();
+            Ed25519PrivateKey privateKey = KeyDecoder.ed25519PrivateKey(okp.getDecodedD());
+            return new KeyPair(privateKey.getPublicKey(), privateKey);
+        }
+        ECKey ecKey = ecKey(curve);
+        return new KeyPair(ecKey.toECPublicKey(), ecKey.toECPrivateKey());
+    }
+
+    /**
+     * Returns the JWS algorithm for the curve.
+     */
+    public static String jwsAlgo(Curve curve) {
+        switch (curve) {
+            case P_256:
+                return "ES256";
+            case SECP256K1:
+                return "ES256K";
+            case P_384:
+                return "ES384";
+            case P_521:
+                return "ES512";
+            case Ed25519:
+                return "EdDSA";
+            default:
+                throw new IllegalArgumentException("Unsupported curve: " + curve);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.medibloc.vc.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares a new ObjectMapper per call (the previous behavior) with the shared codecs used by {@link Credential#toJson()}.
+ */
+@State(Scope.Benchmark)
+public class JsonCodecsBenchmark {
+    private Credential credential;
+
+    @Setup
+    public void setUp() throws Exception {
+        credential = BenchmarkFixtures.credential();
+    }
+
+    @Benchmark
+    public String newObjectMapper() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(credential);
+    }
+
+    @Benchmark
+    public String toJson() throws VerifiableCredentialException {
+        return credential.toJson();
+    }
+}
@@ -0,0 +1,39 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.spec.InvalidKeySpecException;
+
+/**
+ * Measures decoding raw Ed25519 keys.
+ */
+@State(Scope.Benchmark)
+public class Ed25519KeyDecoderBenchmark {
+    private byte[] x;
+    private byte[] d;
+
+    @Setup
+    public void setUp() throws Exception {
+        OctetKeyPair okp = new OctetKeyPairGenerator(com.nimbusds.jose.jwk.Curve.Ed25519).generate();
+        x = okp.getDecodedX();
+        d = okp.getDecodedD();
+    }
+
+    @Benchmark
+    public Ed25519PublicKey ed25519PublicKey() throws InvalidKeySpecException {
+        return KeyDecoder.ed25519PublicKey(x);
+    }
+
+    /**
+     * Derives the public key from the seed as well.
+     */
+    @Benchmark
+    public Ed25519PrivateKey ed25519PrivateKey() throws InvalidKeySpecException {
+        return KeyDecoder.ed25519PrivateKey(d);
+    }
+}
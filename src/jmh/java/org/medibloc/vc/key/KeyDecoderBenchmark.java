@@ -0,0 +1,67 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.ECKey;
+import org.medibloc.vc.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.InvalidKeySpecException;
+
+/**
+ * Measures decoding keys per EC curve without the public key cache.
+ * Ed25519 keys are measured by {@link Ed25519KeyDecoderBenchmark}, which is not parameterized by the curve.
+ */
+@State(Scope.Benchmark)
+public class KeyDecoderBenchmark {
+    @Param({"P_256", "SECP256K1", "P_384", "P_521"})
+    public Curve curve;
+
+    private byte[] compressed;
+    private BigInteger x;
+    private BigInteger y;
+    private BigInteger d;
+
+    @Setup
+    public void setUp() throws Exception {
+        ECKey ecKey = BenchmarkFixtures.ecKey(curve);
+        ECPublicKey publicKey = ecKey.toECPublicKey();
+        x = publicKey.getW().getAffineX();
+        y = publicKey.getW().getAffineY();
+        d = ecKey.toECPrivateKey().getS();
+        compressed = compress(x, y, (publicKey.getParams().getCurve().getField().getFieldSize() + 7) / 8);
+    }
+
+    @Benchmark
+    public ECPublicKey ecPublicKeyCompressed() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return KeyDecoder.ecPublicKey(compressed, curve);
+    }
+
+    @Benchmark
+    public ECPublicKey ecPublicKeyXY() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return KeyDecoder.ecPublicKey(x, y, curve);
+    }
+
+    @Benchmark
+    public ECPrivateKey ecPrivateKey() throws NoSuchAlgorithmException, InvalidKeySpecException {
+        return KeyDecoder.ecPrivateKey(d, curve);
+    }
+
+    /**
+     * Encodes a point in the SEC1 compressed form: 0x02 or 0x03 (by the parity of y) followed by x.
+     */
+    private static byte[] compress(BigInteger x, BigInteger y, int fieldLength) {
+        byte[] encoded = new byte[1 + fieldLength];
+        encoded[0] = (byte) (y.testBit(0) ? 0x03 : 0x02);
+        byte[] xBytes = x.toByteArray();
+        int length = Math.min(xBytes.length, fieldLength);  // without the leading sign byte, if any
+        System.arraycopy(xBytes, xBytes.length - length, encoded, encoded.length - length, length);
+        return encoded;
+    }
+}
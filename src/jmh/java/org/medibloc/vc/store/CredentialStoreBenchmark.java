@@ -0,0 +1,108 @@
+package org.medibloc.vc.store;
+
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialSubject;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures lookups in a store of credentials with distinct subjects and expiration dates.
+ * Set -PjmhInclude=CredentialStore and a larger count to see how lookups scale.
+ */
+@State(Scope.Benchmark)
+public class CredentialStoreBenchmark {
+    private static final long EXPIRATION_BASE = 1700000000000L;
+
+    @Param({"100000"})
+    public int count;
+
+    private File directory;
+    private CredentialStore store;
+    private JwtSigner signer;
+    private final Random random = new Random(42);
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = File.createTempFile("credential-store", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Failed to create a directory: " + directory);
+        }
+        store = CredentialStore.open(directory);
+
+        KeyPair keyPair = BenchmarkFixtures.keyPair(Curve.P_256);
+        signer = new JwtSigner(BenchmarkFixtures.jwsAlgo(Curve.P_256), BenchmarkFixtures.ISSUER + "#key1", keyPair.getPrivate());
+        for (int i = 0; i < count; i++) {
+            store.put(credential(i));
+        }
+        store.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public JwtVerifiableCredential get() throws IOException {
+        return store.get(random.nextInt(count));
+    }
+
+    @Benchmark
+    public List<Long> findBySubject() throws IOException, VerifiableCredentialException {
+        return store.findBySubject(subject(random.nextInt(count)), 10);
+    }
+
+    /**
+     * Finds credentials which expire in a random minute, which are 60 of them.
+     */
+    @Benchmark
+    public List<Long> findByExpiration() throws IOException {
+        int i = random.nextInt(count - 60);
+        return store.findByExpiration(expiration(i), expiration(i + 60), 100);
+    }
+
+    private JwtVerifiableCredential credential(int i) throws Exception {
+        Credential template = BenchmarkFixtures.credential();
+        Credential credential = Credential.builder()
+                .contexts(template.getContexts())
+                .types(template.getTypes())
+                .id(template.getId())
+                .issuer(template.getIssuer())
+                .credentialSubject(new CredentialSubject(subject(i), template.getCredentialSubject().getClaims()))
+                .issuanceDate(template.getIssuanceDate())
+                .expirationDate(expiration(i))
+                .build();
+        return new JwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE);
+    }
+
+    private static String subject(int i) {
+        return "did:panacea:subject" + i;
+    }
+
+    private static Date expiration(int i) {
+        return new Date(EXPIRATION_BASE + i * 1000L);
+    }
+}
@@ -0,0 +1,55 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+/**
+ * Measures signing, verification and decoding of CWT credentials, to be compared with
+ * {@link org.medibloc.vc.verifiable.jwt.JwtVerifiableCredentialBenchmark}.
+ * That a CWT is smaller than the JWT of the same credential is asserted in CwtVerifiableCredentialTest, not measured here.
+ */
+@State(Scope.Benchmark)
+public class CwtVerifiableCredentialBenchmark {
+    @Param({"P_256", "SECP256K1", "Ed25519"})
+    public Curve curve;
+
+    private Credential credential;
+    private JwtSigner signer;
+    private PublicKey publicKey;
+    private byte[] cwt;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = BenchmarkFixtures.keyPair(curve);
+        credential = BenchmarkFixtures.credential();
+        signer = new JwtSigner(BenchmarkFixtures.jwsAlgo(curve), BenchmarkFixtures.ISSUER + "#key1", keyPair.getPrivate());
+        publicKey = keyPair.getPublic();
+        cwt = new CwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE).toBytes();
+    }
+
+    @Benchmark
+    public CwtVerifiableCredential sign() throws VerifiableCredentialException {
+        return new CwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE);
+    }
+
+    @Benchmark
+    public void verify() throws VerifiableCredentialException {
+        new CwtVerifiableCredential(cwt).verify(publicKey, BenchmarkFixtures.NONCE);
+    }
+
+    @Benchmark
+    public Credential getCredential() throws VerifiableCredentialException {
+        return new CwtVerifiableCredential(cwt).getCredential();
+    }
+}
@@ -0,0 +1,82 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.model.Credential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+/**
+ * Measures signing, verification and decoding of JWT credentials per curve, including Ed25519 (EdDSA).
+ * Decoding benchmarks parse a new instance every time, since parsed results are cached per instance.
+ */
+@State(Scope.Benchmark)
+public class JwtVerifiableCredentialBenchmark {
+    @Param({"P_256", "SECP256K1", "P_384", "P_521", "Ed25519"})
+    public Curve curve;
+
+    private Credential credential;
+    private KeyPair keyPair;
+    private JwtSigner signer;
+    private PublicKey publicKey;
+    private String jwt;
+    private JwtVerifiableCredential vc;
+
+    @Setup
+    public void setUp() throws Exception {
+        keyPair = BenchmarkFixtures.keyPair(curve);
+        credential = BenchmarkFixtures.credential();
+        signer = new JwtSigner(BenchmarkFixtures.jwsAlgo(curve), BenchmarkFixtures.ISSUER + "#key1", keyPair.getPrivate());
+        publicKey = keyPair.getPublic();
+        vc = new JwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE);
+        jwt = vc.serialize();
+    }
+
+    /**
+     * Signs with a prepared {@link JwtSigner}, which is reused.
+     */
+    @Benchmark
+    public JwtVerifiableCredential sign() throws VerifiableCredentialException {
+        return new JwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE);
+    }
+
+    /**
+     * Signs with the private key, which prepares a signer for every credential.
+     */
+    @Benchmark
+    public JwtVerifiableCredential signWithPrivateKey() throws VerifiableCredentialException {
+        return new JwtVerifiableCredential(
+                credential, BenchmarkFixtures.jwsAlgo(curve), BenchmarkFixtures.ISSUER + "#key1", keyPair.getPrivate(), BenchmarkFixtures.NONCE
+        );
+    }
+
+    @Benchmark
+    public void verify() throws VerifiableCredentialException {
+        new JwtVerifiableCredential(jwt).verify(publicKey, BenchmarkFixtures.NONCE);
+    }
+
+    /**
+     * Verifies the same instance repeatedly, whose JWT has been parsed already.
+     */
+    @Benchmark
+    public void verifyParsed() throws VerifiableCredentialException {
+        vc.verify(publicKey, BenchmarkFixtures.NONCE);
+    }
+
+    @Benchmark
+    public Credential getCredential() throws VerifiableCredentialException {
+        return new JwtVerifiableCredential(jwt).getCredential();
+    }
+
+    @Benchmark
+    public String getKeyId() throws VerifiableCredentialException {
+        return new JwtVerifiableCredential(jwt).getKeyId();
+    }
+}
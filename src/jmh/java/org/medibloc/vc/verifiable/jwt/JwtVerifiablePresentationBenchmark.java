@@ -0,0 +1,77 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.URL;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures JWT presentations with N embedded credentials, signed with secp256k1.
+ */
+@State(Scope.Benchmark)
+public class JwtVerifiablePresentationBenchmark {
+    @Param({"1", "10", "100"})
+    public int credentialCount;
+
+    private Presentation presentation;
+    private JwtSigner signer;
+    private PublicKey publicKey;
+    private String jwt;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair issuerKey = BenchmarkFixtures.keyPair(Curve.SECP256K1);
+        JwtSigner issuerSigner = new JwtSigner("ES256K", BenchmarkFixtures.ISSUER + "#key1", issuerKey.getPrivate());
+        Credential credential = BenchmarkFixtures.credential();
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        for (int i = 0; i < credentialCount; i++) {
+            vcs.add(new JwtVerifiableCredential(credential, issuerSigner, BenchmarkFixtures.NONCE));
+        }
+
+        presentation = Presentation.builder()
+                .contexts(Arrays.asList("https://www.w3.org/2018/credentials/v1"))
+                .types(Arrays.asList("VerifiablePresentation"))
+                .id(new URL("http://example.edu/presentations/1234"))
+                .verifiableCredentials(vcs)
+                .holder(BenchmarkFixtures.HOLDER)
+                .verifier(BenchmarkFixtures.VERIFIER)
+                .build();
+
+        KeyPair holderKey = BenchmarkFixtures.keyPair(Curve.SECP256K1);
+        signer = new JwtSigner("ES256K", BenchmarkFixtures.HOLDER + "#key1", holderKey.getPrivate());
+        publicKey = holderKey.getPublic();
+        jwt = new JwtVerifiablePresentation(presentation, signer, BenchmarkFixtures.NONCE).serialize();
+    }
+
+    @Benchmark
+    public JwtVerifiablePresentation sign() throws VerifiableCredentialException {
+        return new JwtVerifiablePresentation(presentation, signer, BenchmarkFixtures.NONCE);
+    }
+
+    /**
+     * Verifies only the presentation, not the embedded credentials.
+     */
+    @Benchmark
+    public void verify() throws VerifiableCredentialException {
+        new JwtVerifiablePresentation(jwt).verify(publicKey, BenchmarkFixtures.VERIFIER, BenchmarkFixtures.NONCE);
+    }
+
+    @Benchmark
+    public Presentation getPresentation() throws VerifiableCredentialException {
+        return new JwtVerifiablePresentation(jwt).getPresentation();
+    }
+}
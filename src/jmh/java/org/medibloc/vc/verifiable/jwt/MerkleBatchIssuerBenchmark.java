@@ -0,0 +1,88 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.BenchmarkFixtures;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.Curve;
+import org.medibloc.vc.model.Credential;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures issuing and verifying a batch of credentials with a single Merkle root signature,
+ * compared to signing and verifying each credential as a JWT. Scores are per credential.
+ */
+@State(Scope.Benchmark)
+public class MerkleBatchIssuerBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"P_256", "SECP256K1"})
+    public Curve curve;
+
+    private List<Credential> credentials;
+    private JwtSigner signer;
+    private MerkleBatchIssuer issuer;
+    private PublicKey publicKey;
+    private List<String> batch;
+    private List<String> jwts;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = BenchmarkFixtures.keyPair(curve);
+        credentials = Collections.nCopies(BATCH_SIZE, BenchmarkFixtures.credential());
+        signer = new JwtSigner(BenchmarkFixtures.jwsAlgo(curve), BenchmarkFixtures.ISSUER + "#key1", keyPair.getPrivate());
+        issuer = new MerkleBatchIssuer(signer);
+        publicKey = keyPair.getPublic();
+
+        batch = new ArrayList<String>(BATCH_SIZE);
+        for (MerkleJwtVerifiableCredential vc : issuer.issue(credentials, BenchmarkFixtures.NONCE)) {
+            batch.add(vc.serialize());
+        }
+        jwts = new ArrayList<String>(BATCH_SIZE);
+        for (Credential credential : credentials) {
+            jwts.add(new JwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE).serialize());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<MerkleJwtVerifiableCredential> issueBatch() throws VerifiableCredentialException {
+        return issuer.issue(credentials, BenchmarkFixtures.NONCE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void issueEach() throws VerifiableCredentialException {
+        for (Credential credential : credentials) {
+            new JwtVerifiableCredential(credential, signer, BenchmarkFixtures.NONCE);
+        }
+    }
+
+    /**
+     * Verifies a batch whose root has been verified already, as when credentials of a batch arrive one by one.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void verifyBatch() throws VerifiableCredentialException {
+        for (String vc : batch) {
+            new MerkleJwtVerifiableCredential(vc).verify(publicKey, BenchmarkFixtures.NONCE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void verifyEach() throws VerifiableCredentialException {
+        for (String jwt : jwts) {
+            new JwtVerifiableCredential(jwt).verify(publicKey, BenchmarkFixtures.NONCE);
+        }
+    }
+}
@@ -8,4 +8,8 @@ public class VerifiableCredentialException extends Exception {
     public VerifiableCredentialException(String message) {
         super(message);
     }
+
+    public VerifiableCredentialException(String message, Exception e) {
+        super(message, e);
+    }
 }
@@ -0,0 +1,176 @@
+package org.medibloc.vc.cache;
+
+import org.medibloc.vc.lang.Assert;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe in-memory cache with LRU and TTL eviction.
+ *
+ * Entries are spread over independently-locked segments, each of which is an access-ordered LRU map.
+ * So, the eviction order is LRU within a segment, which is close enough to the global LRU for caching.
+ * Expired entries are evicted lazily when they are looked up.
+ */
+public class BoundedCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxSize the max number of entries
+     * @param ttl     how long an entry lives after it is put. Zero or negative means no expiry.
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, long ttl, TimeUnit unit) {
+        Assert.notNull(unit, "unit must not be null");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maxSize) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        // distribute the remainder, so that the sum of capacities is exactly the maxSize
+        for (int i = 0; i < segmentCount; i++) {
+            int capacity = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment<K, V>(capacity);
+        }
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+    }
+
+    /**
+     * Creates a cache without TTL.
+     */
+    public BoundedCache(int maxSize) {
+        this(maxSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        Assert.notNull(key, "key must not be null");
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                segment.remove(key);
+                evictionCount.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            hitCount.incrementAndGet();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Puts an entry which expires after the given TTL, or the TTL of this cache, whichever comes first.
+     * Zero or negative TTL means the TTL of this cache.
+     */
+    public void put(K key, V value, long ttl, TimeUnit unit) {
+        Assert.notNull(key, "key must not be null");
+        Assert.notNull(value, "value must not be null");
+        Assert.notNull(unit, "unit must not be null");
+        long entryTtlNanos = ttl > 0 ? unit.toNanos(ttl) : 0;
+        if (ttlNanos > 0 && (entryTtlNanos == 0 || ttlNanos < entryTtlNanos)) {
+            entryTtlNanos = ttlNanos;
+        }
+        long expiresAt = entryTtlNanos > 0 ? System.nanoTime() + entryTtlNanos : 0;
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<V>(value, expiresAt));
+            if (segment.evicted) {
+                segment.evicted = false;
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    public V remove(K key) {
+        Assert.notNull(key, "key must not be null");
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.remove(key);
+            return entry != null ? entry.value : null;
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries, including expired ones which are not evicted yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.get(), missCount.get(), evictionCount.get(), size());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);  // spread higher bits, as HashMap does
+        return segments[h & (segments.length - 1)];
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;  // in System.nanoTime(). 0 means no expiry.
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private final int capacity;
+        private boolean evicted;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);  // access-order for LRU
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, BoundedCache.Entry<V>> eldest) {
+            evicted = size() > capacity;
+            return evicted;
+        }
+    }
+}
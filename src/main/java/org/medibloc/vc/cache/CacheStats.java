@@ -0,0 +1,20 @@
+package org.medibloc.vc.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A snapshot of the statistics of a {@link BoundedCache}.
+ */
+@AllArgsConstructor
+@Getter
+@EqualsAndHashCode
+@ToString
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+}
@@ -0,0 +1,13 @@
+package org.medibloc.vc.cache;
+
+import java.io.IOException;
+
+/**
+ * A set of digests with expiry, which can be backed by a remote store shared by multiple nodes.
+ * Implementations must be thread-safe.
+ */
+public interface DigestStore {
+    boolean contains(String digest) throws IOException;
+
+    void add(String digest, long ttlMillis) throws IOException;
+}
@@ -0,0 +1,363 @@
+package org.medibloc.vc.cache;
+
+import org.medibloc.vc.lang.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe set of strings, each of which is remembered until its own expiration time.
+ *
+ * Values are spread over independently-locked stripes. Each stripe keeps a hashed timing wheel:
+ * a value is appended to the bucket of the tick when it expires, and a bucket is swept only when the wheel passes it.
+ * So, adding a value costs O(1), and nothing is done per value to track its expiry.
+ * A value which expires later than one revolution of the wheel is carried over to the next revolution when swept.
+ *
+ * Unlike {@link BoundedCache}, values are never evicted before they expire, since forgetting a value early
+ * defeats the purpose of this set (e.g. replay detection). Instead, {@link #add(String, long)} fails if the set is full.
+ *
+ * Optionally, added values are appended to a journal file, so that they can be restored after restarts.
+ * The journal is buffered: call {@link #flush()} periodically to bound the loss on crashes.
+ * Expired and removed values are dropped from the journal when it is opened again.
+ */
+public class ExpiringSet implements Closeable {
+    private static final int MAX_STRIPES = 64;
+    // the expiration time of a journal record which removes the value
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private final Stripe[] stripes;
+    private final long tickMillis;
+    private DataOutputStream journal;  // nullable. Set only once before the set is published.
+
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Creates a set without a journal.
+     *
+     * @param maxSize       the max number of values which are not expired yet
+     * @param tickDuration  the resolution of expiry. Values are removed at most one tick after they expire.
+     * @param ticksPerWheel the number of buckets in a wheel of each stripe
+     */
+    public ExpiringSet(int maxSize, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        Assert.notNull(unit, "unit must not be null");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("ticksPerWheel must be positive");
+        }
+
+        int wheelSize = 1;
+        while (wheelSize < ticksPerWheel) {
+            wheelSize *= 2;
+        }
+        this.tickMillis = Math.max(1, unit.toMillis(tickDuration));
+
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPES && stripeCount * 2 <= maxSize) {
+            stripeCount *= 2;
+        }
+        long nowTick = System.currentTimeMillis() / tickMillis;
+        this.stripes = new Stripe[stripeCount];
+        // distribute the remainder, so that the sum of capacities is exactly the maxSize
+        for (int i = 0; i < stripeCount; i++) {
+            int capacity = maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0);
+            this.stripes[i] = new Stripe(capacity, wheelSize, nowTick);
+        }
+    }
+
+    /**
+     * Creates a set without a journal, which expires values every second.
+     */
+    public ExpiringSet(int maxSize) {
+        this(maxSize, 1, TimeUnit.SECONDS, 512);
+    }
+
+    /**
+     * Creates a set with a journal. Values which are not expired yet are restored from the journal, if it exists.
+     *
+     * @param journalFile the file to which added values are appended
+     */
+    public static ExpiringSet open(File journalFile, int maxSize, long tickDuration, TimeUnit unit, int ticksPerWheel) throws IOException {
+        Assert.notNull(journalFile, "journalFile must not be null");
+        ExpiringSet set = new ExpiringSet(maxSize, tickDuration, unit, ticksPerWheel);
+        set.journal = set.openJournal(journalFile, System.currentTimeMillis());
+        return set;
+    }
+
+    /**
+     * Adds the value which is remembered until the expiration time.
+     *
+     * @param expiresAt the expiration time in milliseconds since the epoch
+     * @return false if the value already exists and is not expired yet. Otherwise, true.
+     *         A value which has already expired is not remembered at all.
+     * @throws IllegalStateException if the set is full of values which are not expired yet
+     */
+    public boolean add(String value, long expiresAt) {
+        Assert.notNull(value, "value must not be null");
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return !contains(value);  // nothing to remember
+        }
+
+        Stripe stripe = stripeFor(value);
+        synchronized (stripe) {
+            expiredCount.addAndGet(stripe.advance(now, tickMillis));
+
+            Long existing = stripe.values.get(value);
+            if (existing != null && existing > now) {
+                return false;
+            }
+            if (existing == null && stripe.values.size() >= stripe.capacity) {
+                rejectedCount.incrementAndGet();
+                throw new IllegalStateException("The set is full");
+            }
+            stripe.add(value, expiresAt, tickMillis);
+        }
+
+        if (journal != null) {
+            append(value, expiresAt);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the value, e.g. to roll back an {@link #add(String, long)} when a related operation fails.
+     *
+     * @return true if the value existed and was not expired yet
+     */
+    public boolean remove(String value) {
+        Assert.notNull(value, "value must not be null");
+        boolean removed;
+        Stripe stripe = stripeFor(value);
+        synchronized (stripe) {
+            // The value in the wheel is skipped when its bucket is swept.
+            Long expiresAt = stripe.values.remove(value);
+            removed = expiresAt != null && expiresAt > System.currentTimeMillis();
+        }
+
+        if (removed && journal != null) {
+            append(value, REMOVED);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns true if the value exists and is not expired yet.
+     */
+    public boolean contains(String value) {
+        Assert.notNull(value, "value must not be null");
+        Stripe stripe = stripeFor(value);
+        synchronized (stripe) {
+            Long expiresAt = stripe.values.get(value);
+            return expiresAt != null && expiresAt > System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the number of values, including expired ones which are not swept yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.values.size();
+            }
+        }
+        return size;
+    }
+
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * Returns how many values have been rejected because the set was full.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Flushes the journal, if any.
+     */
+    public void flush() throws IOException {
+        if (journal != null) {
+            synchronized (journal) {
+                journal.flush();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            synchronized (journal) {
+                journal.close();
+            }
+        }
+    }
+
+    private Stripe stripeFor(String value) {
+        int h = value.hashCode();
+        h ^= (h >>> 16);  // spread higher bits, as HashMap does
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private void append(String value, long expiresAt) {
+        synchronized (journal) {
+            try {
+                journal.writeLong(expiresAt);
+                journal.writeUTF(value);
+            } catch (IOException e) {
+                // The value is already remembered in memory, but it would be forgotten after restarts.
+                throw new IllegalStateException("Failed to append to the journal", e);
+            }
+        }
+    }
+
+    /**
+     * Restores values which are not expired (nor removed) yet from the journal, and rewrites the journal only with them.
+     */
+    private DataOutputStream openJournal(File file, long now) throws IOException {
+        Map<String, Long> restored = new LinkedHashMap<String, Long>();
+        if (file.exists()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                while (true) {
+                    long expiresAt = in.readLong();
+                    String value = in.readUTF();
+                    if (expiresAt == REMOVED) {
+                        restored.remove(value);
+                    } else if (expiresAt > now) {
+                        Long existing = restored.get(value);
+                        if (existing == null || existing < expiresAt) {
+                            restored.put(value, expiresAt);
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                // the end of the journal, or a record truncated by a crash
+            } finally {
+                in.close();
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            for (Map.Entry<String, Long> entry : restored.entrySet()) {
+                String value = entry.getKey();
+                long expiresAt = entry.getValue();
+                Stripe stripe = stripeFor(value);
+                if (stripe.values.size() >= stripe.capacity) {
+                    throw new IOException("The journal has more values than the maxSize: " + file);
+                }
+                stripe.add(value, expiresAt, tickMillis);
+                out.writeLong(expiresAt);
+                out.writeUTF(value);
+            }
+            out.close();
+        } catch (IOException e) {
+            out.close();
+            tmp.delete();
+            throw e;
+        }
+
+        if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+            throw new IOException("Failed to replace the journal: " + file);
+        }
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    /**
+     * A part of the set with its own timing wheel. All accesses must be synchronized on the stripe.
+     */
+    private static class Stripe {
+        private final int capacity;
+        private final Map<String, Long> values = new HashMap<String, Long>();
+        private final List<String>[] wheel;
+        private long tick;  // the last tick swept
+
+        @SuppressWarnings("unchecked")
+        private Stripe(int capacity, int wheelSize, long tick) {
+            this.capacity = capacity;
+            this.wheel = new List[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                this.wheel[i] = new ArrayList<String>();
+            }
+            this.tick = tick;
+        }
+
+        private void add(String value, long expiresAt, long tickMillis) {
+            values.put(value, expiresAt);
+            // A value is swept at the first tick which starts after it expires.
+            long expiryTick = Math.max(expiresAt / tickMillis + 1, tick + 1);
+            wheel[(int) (expiryTick & (wheel.length - 1))].add(value);
+        }
+
+        /**
+         * Sweeps buckets which the wheel has passed since the last call.
+         *
+         * @return the number of expired values removed
+         */
+        private int advance(long now, long tickMillis) {
+            long nowTick = now / tickMillis;
+            if (nowTick <= tick) {
+                return 0;
+            }
+            // No need to sweep a bucket more than once, even if the wheel has made several revolutions.
+            long from = Math.max(tick + 1, nowTick - wheel.length + 1);
+            tick = nowTick;
+
+            int expired = 0;
+            for (long t = from; t <= nowTick; t++) {
+                List<String> bucket = wheel[(int) (t & (wheel.length - 1))];
+                if (bucket.isEmpty()) {
+                    continue;
+                }
+                List<String> carried = null;
+                for (String value : bucket) {
+                    Long expiresAt = values.get(value);
+                    if (expiresAt == null) {
+                        continue;  // already removed via another bucket
+                    }
+                    if (expiresAt <= now) {
+                        values.remove(value);
+                        expired++;
+                    } else if ((expiresAt / tickMillis + 1) % wheel.length == t % wheel.length) {
+                        // to be expired in a later revolution. Otherwise, it lives in another bucket after re-added.
+                        if (carried == null) {
+                            carried = new ArrayList<String>();
+                        }
+                        carried.add(value);
+                    }
+                }
+                bucket.clear();
+                if (carried != null) {
+                    bucket.addAll(carried);
+                }
+            }
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.medibloc.vc.cache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link DigestStore} in the local memory, which can stand in for a remote store in tests.
+ */
+public class InMemoryDigestStore implements DigestStore {
+    private final BoundedCache<String, Boolean> cache;
+
+    public InMemoryDigestStore(int maxSize) {
+        this.cache = new BoundedCache<String, Boolean>(maxSize);
+    }
+
+    @Override
+    public boolean contains(String digest) {
+        return cache.get(digest) != null;
+    }
+
+    @Override
+    public void add(String digest, long ttlMillis) {
+        cache.put(digest, Boolean.TRUE, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,124 @@
+package org.medibloc.vc.concurrent;
+
+import org.medibloc.vc.lang.Assert;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks asynchronously on an executor, with a bound on the number of in-flight tasks.
+ *
+ * If the bound is reached, a new task is rejected immediately, instead of blocking the caller.
+ * So, a burst of CPU-heavy tasks (such as ECDSA) cannot pile up without limit, and callers running
+ * on event-loop threads are never parked. A rejected task fails with {@link RejectedExecutionException}.
+ */
+public class BoundedAsyncExecutor {
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Semaphore permits;
+
+    public BoundedAsyncExecutor(Executor executor, int maxInFlight) {
+        Assert.notNull(executor, "executor must not be null");
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Submits a task. The callback (nullable) is invoked when the task completes, fails or is rejected.
+     */
+    public <T> Future<T> submit(Callable<T> task, Callback<T> callback) {
+        Assert.notNull(task, "task must not be null");
+
+        CallbackTask<T> future = new CallbackTask<T>(task, callback);
+        if (!permits.tryAcquire()) {
+            future.reject(new RejectedExecutionException("Too many in-flight tasks: " + maxInFlight));
+            return future;
+        }
+        future.holdsPermit.set(true);
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            future.reject(e);
+        }
+        return future;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Holds a permit from the submission until the task stops occupying an executor thread.
+     *
+     * A task cancelled while running keeps its permit until {@link #run()} returns, since the callable may still be running.
+     * A task cancelled before it starts releases its permit immediately, even if the executor never runs it (e.g. on shutdown).
+     */
+    private class CallbackTask<T> extends FutureTask<T> {
+        private final Callback<T> callback;
+        private final AtomicBoolean holdsPermit = new AtomicBoolean();
+        private volatile boolean started;
+
+        private CallbackTask(Callable<T> task, Callback<T> callback) {
+            super(task);
+            this.callback = callback;
+        }
+
+        private void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        public void run() {
+            started = true;
+            try {
+                super.run();
+            } finally {
+                releasePermit();
+            }
+        }
+
+        private void releasePermit() {
+            if (holdsPermit.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        protected void done() {
+            // If cancelled while running, the permit is released by run() after the callable returns.
+            if (!isCancelled() || !started) {
+                releasePermit();
+            }
+            if (callback == null) {
+                return;
+            }
+
+            T result;
+            try {
+                result = get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                callback.onFailure(cause instanceof Exception ? (Exception) cause : e);
+                return;
+            } catch (Exception e) {  // cancelled or interrupted
+                callback.onFailure(e);
+                return;
+            }
+            callback.onSuccess(result);
+        }
+    }
+}
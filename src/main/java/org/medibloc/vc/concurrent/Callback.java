@@ -0,0 +1,11 @@
+package org.medibloc.vc.concurrent;
+
+/**
+ * Receives the result of an asynchronous operation.
+ * It is invoked by the thread which completed the operation, so it must not block.
+ */
+public interface Callback<T> {
+    void onSuccess(T result);
+
+    void onFailure(Exception e);
+}
@@ -0,0 +1,99 @@
+package org.medibloc.vc.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.medibloc.vc.lang.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A central registry of Jackson codecs shared by all models (Credential, Presentation, ...) and JWT payload codecs.
+ *
+ * Building an {@link ObjectMapper} is expensive, because it rebuilds its serializer/deserializer caches
+ * and introspects annotations. So, this registry holds a single mapper and immutable, thread-safe
+ * {@link ObjectReader}/{@link ObjectWriter} instances created from it, one per type.
+ *
+ * A tuned mapper can be supplied by {@link #setObjectMapper(ObjectMapper)}.
+ * The mapper is copied, so that further changes of the supplied mapper don't affect this registry.
+ *
+ * A separate mapper for CBOR is also shared, for CWT (CBOR Web Token) payloads.
+ */
+public final class JsonCodecs {
+    private static volatile Registry registry = new Registry(new ObjectMapper());
+    private static final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * Returns the shared mapper. It must not be reconfigured. Use {@link #setObjectMapper(ObjectMapper)} instead.
+     */
+    public static ObjectMapper getObjectMapper() {
+        return registry.mapper;
+    }
+
+    /**
+     * Replaces the shared mapper with a copy of the given one.
+     * All readers/writers created from the previous mapper are discarded at once.
+     */
+    public static void setObjectMapper(ObjectMapper mapper) {
+        Assert.notNull(mapper, "mapper must not be null");
+        registry = new Registry(mapper.copy());
+    }
+
+    /**
+     * Returns the shared CBOR mapper. It must not be reconfigured.
+     */
+    public static ObjectMapper getCborMapper() {
+        return cborMapper;
+    }
+
+    public static ObjectReader reader(Class<?> type) {
+        return registry.reader(type);
+    }
+
+    public static ObjectWriter writer(Class<?> type) {
+        return registry.writer(type);
+    }
+
+    /**
+     * An immutable snapshot of a mapper and codecs derived from it.
+     * Readers/writers are created on the first use, and never changed after that.
+     */
+    private static class Registry {
+        private final ObjectMapper mapper;
+        private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<Class<?>, ObjectReader>();
+        private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+
+        private Registry(ObjectMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        private ObjectReader reader(Class<?> type) {
+            ObjectReader reader = readers.get(type);
+            if (reader == null) {
+                reader = mapper.readerFor(type);
+                ObjectReader prev = readers.putIfAbsent(type, reader);
+                if (prev != null) {
+                    reader = prev;
+                }
+            }
+            return reader;
+        }
+
+        private ObjectWriter writer(Class<?> type) {
+            ObjectWriter writer = writers.get(type);
+            if (writer == null) {
+                writer = mapper.writerFor(type);
+                ObjectWriter prev = writers.putIfAbsent(type, writer);
+                if (prev != null) {
+                    writer = prev;
+                }
+            }
+            return writer;
+        }
+    }
+}
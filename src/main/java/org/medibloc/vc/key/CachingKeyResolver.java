@@ -0,0 +1,50 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.lang.Assert;
+
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link KeyResolver} which caches keys resolved by another resolver, in a {@link BoundedCache}.
+ *
+ * A cache hit returns the same key instance as before, so that verifiers prebuilt for the key can be reused as well.
+ */
+public class CachingKeyResolver implements KeyResolver {
+    private final KeyResolver delegate;
+    private final BoundedCache<String, PublicKey> cache;
+
+    public CachingKeyResolver(KeyResolver delegate, int maxSize, long ttl, TimeUnit unit) {
+        Assert.notNull(delegate, "delegate must not be null");
+        this.delegate = delegate;
+        this.cache = new BoundedCache<String, PublicKey>(maxSize, ttl, unit);
+    }
+
+    @Override
+    public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+        Assert.notNull(keyId, "keyId must not be null");
+        PublicKey key = cache.get(keyId);
+        if (key == null) {
+            key = delegate.resolve(keyId);
+            if (key == null) {
+                throw new VerifiableCredentialException("Key not found: " + keyId);
+            }
+            cache.put(keyId, key);
+        }
+        return key;
+    }
+
+    /**
+     * Removes the cached key, so that it is resolved again by the delegate. Useful if the key has been rotated.
+     */
+    public void invalidate(String keyId) {
+        cache.remove(keyId);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+}
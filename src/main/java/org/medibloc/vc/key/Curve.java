@@ -1,5 +1,7 @@
 package org.medibloc.vc.key;
 
+import java.security.spec.ECParameterSpec;
+
 public enum Curve {
     P_256("P-256"),
     SECP256K1("secp256k1"),
@@ -12,9 +14,14 @@ public enum Curve {
     ;
 
     private final String name;
+    // memoized, since they are immutable and used on every key decoding
+    private final com.nimbusds.jose.jwk.Curve jwkCurve;
+    private final ECParameterSpec ecParameterSpec;  // null if not an EC curve
 
     Curve(String name) {
         this.name = name;
+        this.jwkCurve = com.nimbusds.jose.jwk.Curve.parse(name);
+        this.ecParameterSpec = this.jwkCurve.toECParameterSpec();
     }
 
     @Override
@@ -23,6 +30,13 @@ public enum Curve {
     }
 
     com.nimbusds.jose.jwk.Curve toJwkCurve() {
-        return com.nimbusds.jose.jwk.Curve.parse(this.name);
+        return this.jwkCurve;
+    }
+
+    /**
+     * Returns null if this is not a curve for ECDSA, such as Ed25519.
+     */
+    ECParameterSpec toECParameterSpec() {
+        return this.ecParameterSpec;
     }
 }
@@ -0,0 +1,171 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.lang.Assert;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.util.Arrays;
+
+/**
+ * Resolves did:key DIDs (https://w3c-ccg.github.io/did-method-key/) and their key IDs, without any I/O.
+ *
+ * A did:key has the public key itself, encoded in multibase (base58btc) with a multicodec prefix.
+ * secp256k1 and P-256 keys (compressed) and Ed25519 keys are supported, and decoded by {@link KeyDecoder}.
+ * A key ID is the DID followed by '#' and the same multibase value, but the DID alone is resolved as well.
+ * Decoded keys are cached in a {@link BoundedCache}, so that the same key instance is returned for the same DID.
+ */
+public class DidKeyResolver implements KeyResolver {
+    static final String PREFIX = "did:key:";
+    private static final char MULTIBASE_BASE58BTC = 'z';
+    private static final int DEFAULT_MAX_SIZE = 1024;
+
+    // unsigned varints of multicodec codes: https://github.com/multiformats/multicodec/blob/master/table.csv
+    private static final byte[] CODEC_SECP256K1_PUB = {(byte) 0xe7, 0x01};
+    private static final byte[] CODEC_P256_PUB = {(byte) 0x80, 0x24};
+    private static final byte[] CODEC_ED25519_PUB = {(byte) 0xed, 0x01};
+
+    private static final int COMPRESSED_EC_KEY_LENGTH = 33;
+
+    private final BoundedCache<String, PublicKey> cache;
+
+    public DidKeyResolver(int maxSize) {
+        this.cache = new BoundedCache<String, PublicKey>(maxSize);
+    }
+
+    public DidKeyResolver() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @throws VerifiableCredentialException if the key ID is not a valid did:key, or the key type is not supported
+     */
+    @Override
+    public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+        Assert.notNull(keyId, "keyId must not be null");
+        if (!keyId.startsWith(PREFIX)) {
+            throw new VerifiableCredentialException("Not a did:key: " + keyId);
+        }
+
+        int hash = keyId.indexOf('#');
+        String did = hash >= 0 ? keyId.substring(0, hash) : keyId;
+        String identifier = did.substring(PREFIX.length());
+        if (hash >= 0 && !identifier.equals(keyId.substring(hash + 1))) {
+            throw new VerifiableCredentialException("The fragment of the did:key must be its identifier: " + keyId);
+        }
+
+        PublicKey key = cache.get(did);
+        if (key == null) {
+            key = decode(identifier);
+            cache.put(did, key);
+        }
+        return key;
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Encodes the public key into a did:key, e.g. to be used as the ID of an issuer.
+     */
+    public static String toDid(PublicKey publicKey) throws VerifiableCredentialException {
+        Assert.notNull(publicKey, "publicKey must not be null");
+        byte[] codec;
+        byte[] raw;
+        if (publicKey instanceof Ed25519PublicKey) {
+            codec = CODEC_ED25519_PUB;
+            raw = publicKey.getEncoded();
+        } else if (publicKey instanceof ECPublicKey) {
+            ECPublicKey ecKey = (ECPublicKey) publicKey;
+            Curve curve = curveOf(ecKey.getParams());
+            if (curve == Curve.SECP256K1) {
+                codec = CODEC_SECP256K1_PUB;
+            } else if (curve == Curve.P_256) {
+                codec = CODEC_P256_PUB;
+            } else {
+                throw new VerifiableCredentialException("Unsupported curve for did:key");
+            }
+            raw = compress(ecKey);
+        } else {
+            throw new VerifiableCredentialException("Unsupported public key for did:key: " + publicKey.getAlgorithm());
+        }
+
+        byte[] bytes = new byte[codec.length + raw.length];
+        System.arraycopy(codec, 0, bytes, 0, codec.length);
+        System.arraycopy(raw, 0, bytes, codec.length, raw.length);
+        return PREFIX + MULTIBASE_BASE58BTC + Base58.encode(bytes);
+    }
+
+    /**
+     * Returns the key ID of the public key in its did:key: the DID followed by '#' and its identifier.
+     */
+    public static String toKeyId(PublicKey publicKey) throws VerifiableCredentialException {
+        String did = toDid(publicKey);
+        return did + "#" + did.substring(PREFIX.length());
+    }
+
+    private static PublicKey decode(String identifier) throws VerifiableCredentialException {
+        if (identifier.length() < 2 || identifier.charAt(0) != MULTIBASE_BASE58BTC) {
+            throw new VerifiableCredentialException("did:key must be encoded in base58btc: " + identifier);
+        }
+        byte[] bytes;
+        try {
+            bytes = Base58.decode(identifier.substring(1));
+        } catch (IllegalArgumentException e) {
+            throw new VerifiableCredentialException("Invalid did:key: " + identifier, e);
+        }
+
+        try {
+            if (hasCodec(bytes, CODEC_ED25519_PUB)) {
+                return KeyDecoder.ed25519PublicKey(Arrays.copyOfRange(bytes, 2, bytes.length));
+            }
+            if (hasCodec(bytes, CODEC_SECP256K1_PUB)) {
+                return KeyDecoder.ecPublicKey(compressedKey(bytes), Curve.SECP256K1);
+            }
+            if (hasCodec(bytes, CODEC_P256_PUB)) {
+                return KeyDecoder.ecPublicKey(compressedKey(bytes), Curve.P_256);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new VerifiableCredentialException("Invalid did:key: " + identifier, e);
+        }
+        throw new VerifiableCredentialException("Unsupported key type of did:key: " + identifier);
+    }
+
+    private static boolean hasCodec(byte[] bytes, byte[] codec) {
+        return bytes.length > codec.length && bytes[0] == codec[0] && bytes[1] == codec[1];
+    }
+
+    private static byte[] compressedKey(byte[] bytes) throws VerifiableCredentialException {
+        if (bytes.length != 2 + COMPRESSED_EC_KEY_LENGTH || (bytes[2] != 0x02 && bytes[2] != 0x03)) {
+            throw new VerifiableCredentialException("did:key must have a compressed EC key");
+        }
+        return Arrays.copyOfRange(bytes, 2, bytes.length);
+    }
+
+    private static byte[] compress(ECPublicKey ecKey) {
+        BigInteger x = ecKey.getW().getAffineX();
+        BigInteger y = ecKey.getW().getAffineY();
+        byte[] compressed = new byte[COMPRESSED_EC_KEY_LENGTH];
+        compressed[0] = (byte) (y.testBit(0) ? 0x03 : 0x02);
+        byte[] xBytes = x.toByteArray();  // may have a leading zero for the sign, or be shorter than 32 bytes
+        int length = Math.min(xBytes.length, COMPRESSED_EC_KEY_LENGTH - 1);
+        System.arraycopy(xBytes, xBytes.length - length, compressed, COMPRESSED_EC_KEY_LENGTH - length, length);
+        return compressed;
+    }
+
+    private static Curve curveOf(ECParameterSpec params) {
+        for (Curve curve : Curve.values()) {
+            ECParameterSpec spec = curve.toECParameterSpec();
+            if (spec != null && spec.getCurve().equals(params.getCurve()) && spec.getGenerator().equals(params.getGenerator())) {
+                return curve;
+            }
+        }
+        return null;
+    }
+}
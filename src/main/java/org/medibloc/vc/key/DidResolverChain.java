@@ -0,0 +1,60 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+
+import java.security.PublicKey;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link KeyResolver} which dispatches key IDs (DID URLs) to the resolver registered for their DID method.
+ *
+ * did:key is registered by default with a {@link DidKeyResolver}, so keys of self-certifying DIDs are resolved without I/O.
+ * Resolvers of other methods can be registered, e.g. an {@link IssuerKeyRegistry} for did:panacea.
+ *
+ * Anyone can create a did:key, so a resolved key proves nothing by itself: verifiers use it only if the key ID
+ * belongs to the issuer or holder of the token (see {@link KeyBinding}).
+ */
+public class DidResolverChain implements KeyResolver {
+    private static final String DID_SCHEME = "did:";
+
+    private final ConcurrentMap<String, KeyResolver> resolvers = new ConcurrentHashMap<String, KeyResolver>();
+
+    public DidResolverChain() {
+        register("key", new DidKeyResolver());
+    }
+
+    /**
+     * Registers the resolver of the DID method (e.g. 'panacea' for did:panacea), or replaces the previous one.
+     */
+    public void register(String method, KeyResolver resolver) {
+        Assert.notNull(method, "method must not be null");
+        Assert.notNull(resolver, "resolver must not be null");
+        resolvers.put(method, resolver);
+    }
+
+    public void unregister(String method) {
+        Assert.notNull(method, "method must not be null");
+        resolvers.remove(method);
+    }
+
+    /**
+     * @throws VerifiableCredentialException if the key ID is not a DID URL, or its method is not registered
+     */
+    @Override
+    public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+        Assert.notNull(keyId, "keyId must not be null");
+        int end = keyId.indexOf(':', DID_SCHEME.length());
+        if (!keyId.startsWith(DID_SCHEME) || end < 0) {
+            throw new VerifiableCredentialException("Not a DID: " + keyId);
+        }
+
+        String method = keyId.substring(DID_SCHEME.length(), end);
+        KeyResolver resolver = resolvers.get(method);
+        if (resolver == null) {
+            throw new VerifiableCredentialException("Unsupported DID method: " + method);
+        }
+        return resolver.resolve(keyId);
+    }
+}
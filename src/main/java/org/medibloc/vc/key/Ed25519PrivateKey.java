@@ -0,0 +1,44 @@
+package org.medibloc.vc.key;
+
+import lombok.EqualsAndHashCode;
+
+import java.security.PrivateKey;
+
+/**
+ * An Ed25519 private key in the raw form of a 32-byte seed, defined at https://tools.ietf.org/html/rfc8032.
+ * It keeps its public key as well, since signing needs both. Create it by {@link KeyDecoder}.
+ */
+@EqualsAndHashCode
+public final class Ed25519PrivateKey implements PrivateKey {
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] seed;
+    private final Ed25519PublicKey publicKey;
+
+    Ed25519PrivateKey(byte[] seed, Ed25519PublicKey publicKey) {
+        this.seed = seed.clone();
+        this.publicKey = publicKey;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return Ed25519PublicKey.ALGORITHM;
+    }
+
+    @Override
+    public String getFormat() {
+        return Ed25519PublicKey.FORMAT;
+    }
+
+    /**
+     * Returns a copy of the raw 32-byte seed.
+     */
+    @Override
+    public byte[] getEncoded() {
+        return seed.clone();
+    }
+
+    public Ed25519PublicKey getPublicKey() {
+        return publicKey;
+    }
+}
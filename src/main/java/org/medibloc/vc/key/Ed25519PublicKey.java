@@ -0,0 +1,42 @@
+package org.medibloc.vc.key;
+
+import lombok.EqualsAndHashCode;
+
+import java.security.PublicKey;
+
+/**
+ * An Ed25519 public key in the raw form of 32 bytes, defined at https://tools.ietf.org/html/rfc8032.
+ * Java 6 doesn't have any EdDSA key type, so this is a minimal {@link PublicKey}. Create it by {@link KeyDecoder}.
+ */
+@EqualsAndHashCode
+public final class Ed25519PublicKey implements PublicKey {
+    private static final long serialVersionUID = 1L;
+
+    static final String ALGORITHM = "Ed25519";
+    static final String FORMAT = "RAW";
+    static final int KEY_LENGTH = 32;
+
+    private final byte[] raw;
+
+    Ed25519PublicKey(byte[] raw) {
+        this.raw = raw.clone();
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    /**
+     * Returns a copy of the raw 32 bytes.
+     */
+    @Override
+    public byte[] getEncoded() {
+        return raw.clone();
+    }
+}
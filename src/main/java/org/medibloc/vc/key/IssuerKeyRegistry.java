@@ -0,0 +1,372 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.lang.Assert;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link KeyResolver} over the JWK Sets of issuers, indexed by key ID and by issuer DID.
+ *
+ * The issuer of a key ID is the DID before '#' (e.g. did:panacea:xxx#key1). The JWK Set of an issuer is loaded
+ * by the {@link JwksFetcher} on the first lookup of its keys, and kept for the TTL. Before the TTL elapses,
+ * it is refreshed in the background, so that lookups don't wait for fetching in the steady state.
+ * Keys in a JWK Set may have a relative key ID (e.g. 'key1' or '#key1'), which is prefixed by the issuer DID.
+ * Keys of other DIDs are ignored, since an issuer can't publish keys for others.
+ *
+ * All keys are kept in an immutable snapshot which is replaced atomically on each load, so lookups never take a lock.
+ * An unknown key ID (or issuer) is cached negatively for a while, and loads of the same issuer are coalesced into one fetch.
+ * A lookup of an unknown key ID reloads its issuer only if the JWK Set is older than the negative TTL,
+ * so a burst of unknown key IDs after a rotation causes at most one fetch per issuer.
+ */
+public class IssuerKeyRegistry implements KeyResolver, Closeable {
+    private static final int MAX_NEGATIVE_ENTRIES = 10000;
+    // The JWK Set is refreshed when this fraction of the TTL has elapsed.
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    private final JwksFetcher fetcher;
+    private final ScheduledExecutorService scheduler;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>(Snapshot.EMPTY);
+    private final BoundedCache<String, Boolean> unknownKeyIds;
+    private final ConcurrentMap<String, FutureTask<IssuerKeys>> loading = new ConcurrentHashMap<String, FutureTask<IssuerKeys>>();
+    private final ConcurrentMap<String, ScheduledFuture<?>> refreshes = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+    private volatile boolean closed;
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
+
+    /**
+     * @param scheduler   runs background refreshes. It is not shut down by {@link #close()}.
+     * @param ttl         how long a JWK Set is used
+     * @param negativeTtl how long an unknown key ID is remembered, and the min interval of reloads for unknown key IDs
+     */
+    public IssuerKeyRegistry(JwksFetcher fetcher, ScheduledExecutorService scheduler, long ttl, long negativeTtl, TimeUnit unit) {
+        Assert.notNull(fetcher, "fetcher must not be null");
+        Assert.notNull(scheduler, "scheduler must not be null");
+        Assert.notNull(unit, "unit must not be null");
+        if (ttl <= 0 || negativeTtl <= 0) {
+            throw new IllegalArgumentException("ttl and negativeTtl must be positive");
+        }
+        this.fetcher = fetcher;
+        this.scheduler = scheduler;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.negativeTtlMillis = unit.toMillis(negativeTtl);
+        this.unknownKeyIds = new BoundedCache<String, Boolean>(MAX_NEGATIVE_ENTRIES, negativeTtl, unit);
+    }
+
+    /**
+     * Returns the key, or null if the issuer doesn't have the key.
+     *
+     * @throws VerifiableCredentialException if the JWK Set of the issuer cannot be loaded
+     */
+    @Override
+    public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+        Assert.notNull(keyId, "keyId must not be null");
+
+        long now = System.currentTimeMillis();
+        String issuer = issuerOf(keyId);
+        IssuerKeys issuerKeys = snapshot.get().issuers.get(issuer);
+        if (issuerKeys != null && issuerKeys.expiresAt > now) {
+            PublicKey key = issuerKeys.keys.get(keyId);
+            if (key != null) {
+                return key;
+            }
+        }
+        if (unknownKeyIds.get(keyId) != null || (issuerKeys == null && unknownKeyIds.get(issuer) != null)) {
+            negativeHitCount.incrementAndGet();
+            return null;
+        }
+
+        if (issuerKeys == null || issuerKeys.expiresAt <= now || now - issuerKeys.loadedAt >= negativeTtlMillis) {
+            issuerKeys = load(issuer);
+            if (issuerKeys == null) {
+                unknownKeyIds.put(issuer, Boolean.TRUE);
+                return null;
+            }
+        }
+        PublicKey key = issuerKeys.keys.get(keyId);
+        if (key == null) {
+            unknownKeyIds.put(keyId, Boolean.TRUE);
+        }
+        return key;
+    }
+
+    /**
+     * Returns all keys of the issuer which have been loaded, or an empty list. This doesn't load the JWK Set.
+     */
+    public List<PublicKey> getKeys(String issuer) {
+        Assert.notNull(issuer, "issuer must not be null");
+        IssuerKeys issuerKeys = snapshot.get().issuers.get(issuer);
+        if (issuerKeys == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<PublicKey>(issuerKeys.keys.values()));
+    }
+
+    /**
+     * Loads the JWK Set of the issuer now, e.g. to warm up the registry or right after a key rotation.
+     *
+     * @return false if the issuer is unknown to the fetcher
+     */
+    public boolean refresh(String issuer) throws VerifiableCredentialException {
+        Assert.notNull(issuer, "issuer must not be null");
+        return load(issuer) != null;
+    }
+
+    /**
+     * Stops background refreshes. Keys which have been loaded are still used until they expire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (ScheduledFuture<?> refresh : refreshes.values()) {
+            refresh.cancel(false);
+        }
+        refreshes.clear();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.get();
+    }
+
+    /**
+     * Returns the number of lookups which waited for a load by another thread, instead of fetching by themselves.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHitCount.get();
+    }
+
+    /**
+     * Loads the JWK Set of the issuer, or waits for the load which is already in progress.
+     *
+     * @return null if the issuer is unknown
+     */
+    private IssuerKeys load(final String issuer) throws VerifiableCredentialException {
+        FutureTask<IssuerKeys> task = new FutureTask<IssuerKeys>(new Callable<IssuerKeys>() {
+            @Override
+            public IssuerKeys call() throws Exception {
+                return fetchAndSwap(issuer);
+            }
+        });
+        FutureTask<IssuerKeys> inProgress = loading.putIfAbsent(issuer, task);
+        if (inProgress == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(issuer, task);
+            }
+            inProgress = task;
+        } else {
+            coalescedCount.incrementAndGet();
+        }
+
+        try {
+            return inProgress.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VerifiableCredentialException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof VerifiableCredentialException) {
+                throw (VerifiableCredentialException) cause;
+            }
+            throw new VerifiableCredentialException(cause instanceof Exception ? (Exception) cause : e);
+        }
+    }
+
+    private IssuerKeys fetchAndSwap(String issuer) throws VerifiableCredentialException {
+        IssuerKeys issuerKeys;
+        try {
+            String jwks = fetcher.fetch(issuer);
+            if (jwks == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            issuerKeys = new IssuerKeys(parse(issuer, jwks), now, now + ttlMillis);
+        } catch (IOException e) {
+            loadFailureCount.incrementAndGet();
+            throw new VerifiableCredentialException("Failed to fetch the JWK Set of " + issuer, e);
+        } catch (VerifiableCredentialException e) {
+            loadFailureCount.incrementAndGet();
+            throw e;
+        }
+        loadCount.incrementAndGet();
+
+        Snapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, current.with(issuer, issuerKeys)));
+        scheduleRefresh(issuer, (long) (ttlMillis * REFRESH_AHEAD_RATIO));
+        return issuerKeys;
+    }
+
+    private void scheduleRefresh(final String issuer, long delayMillis) {
+        if (closed) {
+            return;
+        }
+        ScheduledFuture<?> refresh = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load(issuer);
+                } catch (VerifiableCredentialException e) {
+                    // Keep the current keys until they expire, and retry a few times before that.
+                    scheduleRefresh(issuer, Math.max(1, (long) (ttlMillis * (1 - REFRESH_AHEAD_RATIO) / 4)));
+                }
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> previous = refreshes.put(issuer, refresh);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        if (closed) {
+            refresh.cancel(false);
+        }
+    }
+
+    private static Map<String, PublicKey> parse(String issuer, String jwks) throws VerifiableCredentialException {
+        JWKSet jwkSet;
+        try {
+            jwkSet = JWKSet.parse(jwks);
+        } catch (ParseException e) {
+            throw new VerifiableCredentialException("Invalid JWK Set of " + issuer, e);
+        }
+
+        Map<String, PublicKey> keys = new HashMap<String, PublicKey>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyID() == null || KeyUse.ENCRYPTION.equals(jwk.getKeyUse())) {
+                continue;
+            }
+            String keyId = absoluteKeyId(issuer, jwk.getKeyID());
+            if (keyId == null) {
+                continue;
+            }
+            try {
+                PublicKey key = toPublicKey(jwk);
+                if (key != null) {
+                    keys.put(keyId, key);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new VerifiableCredentialException("Invalid key " + keyId, e);
+            }
+        }
+        return Collections.unmodifiableMap(keys);
+    }
+
+    /**
+     * Returns null if the key type or the curve is not supported for signatures.
+     */
+    private static PublicKey toPublicKey(JWK jwk) throws GeneralSecurityException {
+        if (jwk instanceof ECKey) {
+            ECKey ecKey = (ECKey) jwk;
+            Curve curve = curveOf(ecKey.getCurve());
+            if (curve == null || curve.toECParameterSpec() == null) {
+                return null;
+            }
+            return KeyDecoder.ecPublicKey(ecKey.getX().decodeToBigInteger(), ecKey.getY().decodeToBigInteger(), curve);
+        }
+        if (jwk instanceof OctetKeyPair && Curve.Ed25519.toJwkCurve().equals(((OctetKeyPair) jwk).getCurve())) {
+            return KeyDecoder.ed25519PublicKey(((OctetKeyPair) jwk).getDecodedX());
+        }
+        return null;
+    }
+
+    private static Curve curveOf(com.nimbusds.jose.jwk.Curve jwkCurve) {
+        for (Curve curve : Curve.values()) {
+            if (curve.toJwkCurve().equals(jwkCurve)) {
+                return curve;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Prefixes a relative key ID with the issuer DID. Returns null if the key ID belongs to another DID.
+     */
+    private static String absoluteKeyId(String issuer, String keyId) {
+        if (keyId.startsWith("#")) {
+            return issuer + keyId;
+        }
+        if (keyId.indexOf('#') < 0 && !keyId.startsWith("did:")) {
+            return issuer + "#" + keyId;
+        }
+        return issuerOf(keyId).equals(issuer) ? keyId : null;
+    }
+
+    private static String issuerOf(String keyId) {
+        int hash = keyId.indexOf('#');
+        return hash >= 0 ? keyId.substring(0, hash) : keyId;
+    }
+
+    /**
+     * The keys of an issuer loaded at once. Immutable.
+     */
+    private static class IssuerKeys {
+        private final Map<String, PublicKey> keys;
+        private final long loadedAt;
+        private final long expiresAt;
+
+        private IssuerKeys(Map<String, PublicKey> keys, long loadedAt, long expiresAt) {
+            this.keys = keys;
+            this.loadedAt = loadedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The keys of all issuers. Immutable: a load creates a new snapshot.
+     */
+    private static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Collections.<String, IssuerKeys>emptyMap());
+
+        private final Map<String, IssuerKeys> issuers;
+
+        private Snapshot(Map<String, IssuerKeys> issuers) {
+            this.issuers = issuers;
+        }
+
+        private Snapshot with(String issuer, IssuerKeys issuerKeys) {
+            Map<String, IssuerKeys> issuers = new HashMap<String, IssuerKeys>(this.issuers);
+            issuers.put(issuer, issuerKeys);
+            return new Snapshot(Collections.unmodifiableMap(issuers));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.medibloc.vc.key;
+
+import java.io.IOException;
+
+/**
+ * Fetches the JWK Set (https://tools.ietf.org/html/rfc7517#section-5) of an issuer, for {@link IssuerKeyRegistry}.
+ */
+public interface JwksFetcher {
+    /**
+     * @param issuer the DID of the issuer
+     * @return the JWK Set in JSON, or null if the issuer is unknown
+     * @throws IOException if the JWK Set cannot be fetched for now
+     */
+    String fetch(String issuer) throws IOException;
+}
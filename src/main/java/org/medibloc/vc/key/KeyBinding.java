@@ -0,0 +1,69 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+
+import java.security.PublicKey;
+
+/**
+ * Resolves the key which signed a token by its key ID, only if the key ID belongs to the DID which claims to have signed it:
+ * the issuer of a credential, or the holder of a presentation ('iss' in both JWTs and CWTs).
+ *
+ * The key ID is chosen by whoever signed the token, and a resolver returns the key of any key ID it knows
+ * (e.g. a did:key always resolves to the key in it). Without this binding, anyone could sign a token
+ * in the name of any issuer with their own key. The DID of a key ID is the part before '#'.
+ */
+public final class KeyBinding {
+    private KeyBinding() {
+    }
+
+    /**
+     * Returns true if the DID of the key ID is the DID.
+     */
+    public static boolean isBound(String keyId, String did) {
+        if (keyId == null || did == null) {
+            return false;
+        }
+        int end = keyId.indexOf('#');
+        if (end < 0) {
+            end = keyId.length();
+        }
+        return end == did.length() && keyId.startsWith(did);
+    }
+
+    /**
+     * Checks that the key ID belongs to the DID, and resolves the key.
+     *
+     * @param did   the DID which claims to have signed the token
+     * @param token the type of the token (e.g. "JWT"), for error messages
+     * @throws VerifiableCredentialException if the key ID is null or doesn't belong to the DID, or if the key is not found
+     */
+    public static PublicKey resolve(KeyResolver keyResolver, String keyId, String did, String token) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+
+        long start = Instrumentation.start();
+        if (keyId == null) {
+            Instrumentation.failure(Stage.RESOLVE_KEY, start, Instrumentation.REASON_MISSING_KEY_ID);
+            throw new VerifiableCredentialException(token + " doesn't have a key ID");
+        }
+        if (!isBound(keyId, did)) {
+            Instrumentation.failure(Stage.RESOLVE_KEY, start, Instrumentation.REASON_KEY_MISMATCH);
+            throw new VerifiableCredentialException("The key ID " + keyId + " doesn't belong to the signer claimed by the " + token + ": " + did);
+        }
+        PublicKey publicKey;
+        try {
+            publicKey = keyResolver.resolve(keyId);
+        } catch (VerifiableCredentialException e) {
+            Instrumentation.failure(Stage.RESOLVE_KEY, start, Instrumentation.REASON_RESOLVER_ERROR);
+            throw e;
+        }
+        if (publicKey == null) {
+            Instrumentation.failure(Stage.RESOLVE_KEY, start, Instrumentation.REASON_KEY_NOT_FOUND);
+            throw new VerifiableCredentialException("Key not found: " + keyId);
+        }
+        Instrumentation.success(Stage.RESOLVE_KEY, start);
+        return publicKey;
+    }
+}
@@ -1,30 +1,238 @@
 package org.medibloc.vc.key;
 
-import org.bouncycastle.jce.ECPointUtil;
+import com.google.crypto.tink.subtle.Ed25519Sign;
+import org.bouncycastle.math.ec.ECCurve;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
 
 import java.math.BigInteger;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.*;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 
 public class KeyDecoder {
     private static final String KEY_FACTORY_ALGO = "EC";
+    private static final String PUBLIC_KEY_CACHE_NAME = "key-decoder.public-keys";
+
+    // KeyFactory is not guaranteed to be thread-safe, so it is pooled per thread.
+    private static final ThreadLocal<KeyFactory> keyFactories = new ThreadLocal<KeyFactory>();
+
+    // BouncyCastle curves for decoding compressed points, built once per curve
+    private static final Map<Curve, ECCurve> bcCurves = new EnumMap<Curve, ECCurve>(Curve.class);
+
+    static {
+        for (Curve curve : Curve.values()) {
+            if (curve.toECParameterSpec() != null) {
+                EllipticCurve ellipticCurve = curve.toECParameterSpec().getCurve();
+                bcCurves.put(curve, new ECCurve.Fp(
+                        ((ECFieldFp) ellipticCurve.getField()).getP(), ellipticCurve.getA(), ellipticCurve.getB()
+                ));
+            }
+        }
+    }
+
+    private static volatile BoundedCache<EncodedPublicKey, ECPublicKey> publicKeyCache;
 
     public static ECPrivateKey ecPrivateKey(BigInteger bigInteger, Curve curve) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        ECPrivateKeySpec spec = new ECPrivateKeySpec(bigInteger, curve.toJwkCurve().toECParameterSpec());
-        return (ECPrivateKey) KeyFactory.getInstance(KEY_FACTORY_ALGO).generatePrivate(spec);
+        long start = Instrumentation.start();
+        try {
+            ECPrivateKeySpec spec = new ECPrivateKeySpec(bigInteger, ecParameterSpec(curve));
+            ECPrivateKey privateKey = (ECPrivateKey) keyFactory().generatePrivate(spec);
+            Instrumentation.success(Stage.DECODE_KEY, start);
+            return privateKey;
+        } catch (InvalidKeySpecException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw e;
+        }
     }
 
     public static ECPublicKey ecPublicKey(byte[] encoded, Curve curve) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        ECPoint point = ECPointUtil.decodePoint(curve.toJwkCurve().toECParameterSpec().getCurve(), encoded);
-        return ecPublicKey(point.getAffineX(), point.getAffineY(), curve);
+        Assert.notNull(encoded, "encoded must not be null");
+        Assert.notNull(curve, "curve must not be null");
+
+        long start = Instrumentation.start();
+        try {
+            ECPublicKey publicKey = decodePublicKey(encoded, curve);
+            Instrumentation.success(Stage.DECODE_KEY, start);
+            Instrumentation.bytes(Stage.DECODE_KEY, encoded.length);
+            return publicKey;
+        } catch (InvalidKeySpecException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw e;
+        }
     }
 
     public static ECPublicKey ecPublicKey(BigInteger x, BigInteger y, Curve curve) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        ECPoint point = new ECPoint(x, y);
-        ECPublicKeySpec spec = new ECPublicKeySpec(point, curve.toJwkCurve().toECParameterSpec());
-        return (ECPublicKey) KeyFactory.getInstance(KEY_FACTORY_ALGO).generatePublic(spec);
+        long start = Instrumentation.start();
+        try {
+            ECPublicKey publicKey = ecPublicKey(new ECPoint(x, y), curve);
+            Instrumentation.success(Stage.DECODE_KEY, start);
+            return publicKey;
+        } catch (InvalidKeySpecException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw e;
+        } catch (NoSuchAlgorithmException e) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw e;
+        }
+    }
+
+    private static ECPublicKey decodePublicKey(byte[] encoded, Curve curve) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        BoundedCache<EncodedPublicKey, ECPublicKey> cache = publicKeyCache;
+        EncodedPublicKey cacheKey = null;
+        if (cache != null) {
+            cacheKey = new EncodedPublicKey(encoded, curve);
+            ECPublicKey publicKey = cache.get(cacheKey);
+            if (publicKey != null) {
+                return publicKey;
+            }
+        }
+
+        ECPublicKey publicKey = ecPublicKey(decodePoint(encoded, curve), curve);
+        if (cache != null) {
+            cache.put(cacheKey, publicKey);
+        }
+        return publicKey;
+    }
+
+    private static ECPublicKey ecPublicKey(ECPoint point, Curve curve) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        ECPublicKeySpec spec = new ECPublicKeySpec(point, ecParameterSpec(curve));
+        return (ECPublicKey) keyFactory().generatePublic(spec);
+    }
+
+    /**
+     * Decodes a raw 32-byte Ed25519 public key.
+     */
+    public static Ed25519PublicKey ed25519PublicKey(byte[] raw) throws InvalidKeySpecException {
+        Assert.notNull(raw, "raw must not be null");
+        long start = Instrumentation.start();
+        if (raw.length != Ed25519PublicKey.KEY_LENGTH) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new InvalidKeySpecException("Ed25519 public key must be " + Ed25519PublicKey.KEY_LENGTH + " bytes: " + raw.length);
+        }
+        Ed25519PublicKey publicKey = new Ed25519PublicKey(raw);
+        Instrumentation.success(Stage.DECODE_KEY, start);
+        return publicKey;
+    }
+
+    /**
+     * Decodes a raw 32-byte Ed25519 private key (seed), and derives its public key.
+     */
+    public static Ed25519PrivateKey ed25519PrivateKey(byte[] seed) throws InvalidKeySpecException {
+        Assert.notNull(seed, "seed must not be null");
+        long start = Instrumentation.start();
+        if (seed.length != Ed25519PublicKey.KEY_LENGTH) {
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new InvalidKeySpecException("Ed25519 private key must be " + Ed25519PublicKey.KEY_LENGTH + " bytes: " + seed.length);
+        }
+        try {
+            Ed25519Sign.KeyPair keyPair = Ed25519Sign.KeyPair.newKeyPairFromSeed(seed);
+            Ed25519PrivateKey privateKey = new Ed25519PrivateKey(seed, new Ed25519PublicKey(keyPair.getPublicKey()));
+            Instrumentation.success(Stage.DECODE_KEY, start);
+            return privateKey;
+        } catch (GeneralSecurityException e) {  // thrown if SHA-512 is not available
+            Instrumentation.failure(Stage.DECODE_KEY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new InvalidKeySpecException("invalid Ed25519 private key", e);
+        }
+    }
+
+    /**
+     * Enables a bounded cache of public keys decoded by {@link #ecPublicKey(byte[], Curve)}, indexed by the encoded bytes.
+     * This is useful if the same (compressed) keys are decoded repeatedly. Zero disables the cache.
+     */
+    public static void setPublicKeyCacheSize(int maxSize) {
+        BoundedCache<EncodedPublicKey, ECPublicKey> cache = maxSize > 0 ? new BoundedCache<EncodedPublicKey, ECPublicKey>(maxSize) : null;
+        publicKeyCache = cache;
+        if (cache != null) {
+            Instrumentation.registerCache(PUBLIC_KEY_CACHE_NAME, cache);
+        } else {
+            Instrumentation.unregisterCache(PUBLIC_KEY_CACHE_NAME);
+        }
+    }
+
+    /**
+     * Returns the statistics of the public key cache, or null if the cache is disabled.
+     */
+    public static CacheStats getPublicKeyCacheStats() {
+        BoundedCache<EncodedPublicKey, ECPublicKey> cache = publicKeyCache;
+        return cache != null ? cache.getStats() : null;
+    }
+
+    private static ECParameterSpec ecParameterSpec(Curve curve) throws InvalidKeySpecException {
+        Assert.notNull(curve, "curve must not be null");
+        ECParameterSpec spec = curve.toECParameterSpec();
+        if (spec == null) {
+            throw new InvalidKeySpecException("not an EC curve: " + curve);
+        }
+        return spec;
+    }
+
+    private static ECPoint decodePoint(byte[] encoded, Curve curve) throws InvalidKeySpecException {
+        ECCurve bcCurve = bcCurves.get(curve);
+        if (bcCurve == null) {
+            throw new InvalidKeySpecException("not an EC curve: " + curve);
+        }
+        try {
+            org.bouncycastle.math.ec.ECPoint point = bcCurve.decodePoint(encoded);
+            return new ECPoint(point.getX().toBigInteger(), point.getY().toBigInteger());
+        } catch (RuntimeException e) {  // BouncyCastle throws unchecked exceptions for invalid encodings
+            throw new InvalidKeySpecException("invalid encoded point", e);
+        }
+    }
+
+    private static KeyFactory keyFactory() throws NoSuchAlgorithmException {
+        KeyFactory keyFactory = keyFactories.get();
+        if (keyFactory == null) {
+            keyFactory = KeyFactory.getInstance(KEY_FACTORY_ALGO);
+            keyFactories.set(keyFactory);
+        }
+        return keyFactory;
+    }
+
+    /**
+     * A cache key which compares the content of the encoded bytes.
+     */
+    private static class EncodedPublicKey {
+        private final byte[] encoded;
+        private final Curve curve;
+        private final int hashCode;
+
+        private EncodedPublicKey(byte[] encoded, Curve curve) {
+            this.encoded = encoded.clone();  // the caller may reuse the array
+            this.curve = curve;
+            this.hashCode = 31 * Arrays.hashCode(encoded) + curve.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EncodedPublicKey)) {
+                return false;
+            }
+            EncodedPublicKey that = (EncodedPublicKey) o;
+            return curve == that.curve && Arrays.equals(encoded, that.encoded);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
     }
 }
@@ -0,0 +1,16 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.security.PublicKey;
+
+/**
+ * Resolves a public key by its key ID, such as the 'kid' of a JWS header.
+ * Implementations must be thread-safe.
+ */
+public interface KeyResolver {
+    /**
+     * @throws VerifiableCredentialException if the key cannot be resolved
+     */
+    PublicKey resolve(String keyId) throws VerifiableCredentialException;
+}
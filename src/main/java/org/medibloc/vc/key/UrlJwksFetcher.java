@@ -0,0 +1,81 @@
+package org.medibloc.vc.key;
+
+import org.medibloc.vc.lang.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fetches JWK Sets from the URL configured for each issuer, such as a local file (file:) or an HTTP endpoint.
+ * Issuers without a URL are unknown.
+ */
+public class UrlJwksFetcher implements JwksFetcher {
+    private static final int MAX_LENGTH = 1024 * 1024;
+    private static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    private final Map<String, URL> urls;
+    private final int timeoutMillis;
+
+    /**
+     * @param urls          the URL of the JWK Set of each issuer DID
+     * @param timeoutMillis the timeout to connect and to read
+     */
+    public UrlJwksFetcher(Map<String, URL> urls, int timeoutMillis) {
+        Assert.notNull(urls, "urls must not be null");
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeoutMillis must be positive");
+        }
+        this.urls = new HashMap<String, URL>(urls);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public UrlJwksFetcher(Map<String, URL> urls) {
+        this(urls, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a fetcher which reads the JWK Set of each issuer DID from a local file.
+     */
+    public static UrlJwksFetcher ofFiles(Map<String, File> files) throws IOException {
+        Assert.notNull(files, "files must not be null");
+        Map<String, URL> urls = new HashMap<String, URL>();
+        for (Map.Entry<String, File> entry : files.entrySet()) {
+            urls.put(entry.getKey(), entry.getValue().toURI().toURL());
+        }
+        return new UrlJwksFetcher(urls);
+    }
+
+    @Override
+    public String fetch(String issuer) throws IOException {
+        URL url = urls.get(issuer);
+        if (url == null) {
+            return null;
+        }
+
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setUseCaches(false);
+        InputStream in = connection.getInputStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                if (out.size() + n > MAX_LENGTH) {
+                    throw new IOException("The JWK Set is too large: " + url);
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.medibloc.vc.lang;
+
+/**
+ * A source of the current time, which can be replaced (e.g. by a fixed time in tests).
+ */
+public interface Clock {
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Returns the current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+}
@@ -0,0 +1,22 @@
+package org.medibloc.vc.metrics;
+
+/**
+ * An adapter to a metrics system, which receives measurements of each {@link Stage}.
+ * Set it by {@link Instrumentation#setRecorder(MetricsRecorder)}.
+ *
+ * Methods are called on the hot paths of all threads, so implementations must be thread-safe and cheap.
+ * They must not throw.
+ */
+public interface MetricsRecorder {
+    void recordSuccess(Stage stage, long elapsedNanos);
+
+    /**
+     * @param reason a short token describing why it failed, such as {@link Instrumentation#REASON_INVALID_SIGNATURE}
+     */
+    void recordFailure(Stage stage, long elapsedNanos, String reason);
+
+    /**
+     * Records the size of the input (or output) processed at the stage.
+     */
+    void recordBytes(Stage stage, long bytes);
+}
@@ -0,0 +1,35 @@
+package org.medibloc.vc.metrics;
+
+/**
+ * Stages of issuance and verification, which are measured separately.
+ */
+public enum Stage {
+    /**
+     * Parsing a serialized token (e.g. a compact JWS) into its parts.
+     */
+    PARSE,
+    /**
+     * Decoding claims in a token payload into models.
+     */
+    DECODE_CLAIMS,
+    /**
+     * Encoding models into a token payload.
+     */
+    ENCODE_CLAIMS,
+    /**
+     * Signing a token payload.
+     */
+    SIGN,
+    /**
+     * Resolving a public key by a key ID.
+     */
+    RESOLVE_KEY,
+    /**
+     * Verifying a signature and expected values (nonce, ...).
+     */
+    VERIFY,
+    /**
+     * Decoding a key from its encoded form.
+     */
+    DECODE_KEY,
+}
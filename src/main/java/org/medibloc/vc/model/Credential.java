@@ -45,11 +45,13 @@ public class Credential extends JsonSerializable {
     private final Date issuanceDate;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_FORMAT)
     private final Date expirationDate;
+    private final CredentialStatus credentialStatus;
 
     private static final String DATE_FORMAT = "yyyy-MM-dd'T'hh:mm:ss'Z'";
     public static final String JSON_PROP_CONTEXTS = "@context";
     public static final String JSON_PROP_TYPES = "type";
     public static final String JSON_PROP_CRED_SUB = "credentialSubject";
+    public static final String JSON_PROP_CRED_STATUS = "credentialStatus";
 
     /**
      * Overrides the parts of the Lombok default builder.
@@ -0,0 +1,68 @@
+package org.medibloc.vc.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+import org.medibloc.vc.VerifiableCredentialException;
+
+/**
+ * Represents a credentialStatus defined at https://www.w3.org/TR/vc-data-model/#status.
+ * Only the status list entry defined at https://w3c-ccg.github.io/vc-status-list-2021/ is supported for now.
+ */
+@Getter
+@EqualsAndHashCode
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonPropertyOrder(alphabetic = true)
+public class CredentialStatus {
+    @NonNull
+    private final String id;
+    @NonNull
+    private final String type;
+    private final String statusPurpose;
+    // a string, as defined by the spec
+    private final String statusListIndex;
+    private final String statusListCredential;
+
+    public static final String TYPE_STATUS_LIST_2021_ENTRY = "StatusList2021Entry";
+    public static final String PURPOSE_REVOCATION = "revocation";
+    public static final String PURPOSE_SUSPENSION = "suspension";
+
+    // only for JSON deserialization
+    private CredentialStatus() {
+        this(null, null, null, null, null);
+    }
+
+    public CredentialStatus(String id, String type, String statusPurpose, String statusListIndex, String statusListCredential) {
+        this.id = id;
+        this.type = type;
+        this.statusPurpose = statusPurpose;
+        this.statusListIndex = statusListIndex;
+        this.statusListCredential = statusListCredential;
+    }
+
+    /**
+     * Creates a status list entry whose ID is the URL of the status list credential with the index as a fragment.
+     */
+    public static CredentialStatus statusListEntry(String statusListCredential, String statusPurpose, int statusListIndex) {
+        String index = String.valueOf(statusListIndex);
+        return new CredentialStatus(statusListCredential + "#" + index, TYPE_STATUS_LIST_2021_ENTRY, statusPurpose, index, statusListCredential);
+    }
+
+    /**
+     * Returns the statusListIndex as an integer.
+     */
+    public int parseStatusListIndex() throws VerifiableCredentialException {
+        if (statusListIndex == null) {
+            throw new VerifiableCredentialException("statusListIndex doesn't exist");
+        }
+        try {
+            int index = Integer.parseInt(statusListIndex);
+            if (index < 0) {
+                throw new VerifiableCredentialException("statusListIndex must not be negative: " + statusListIndex);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new VerifiableCredentialException("Invalid statusListIndex: " + statusListIndex, e);
+        }
+    }
+}
@@ -1,15 +1,15 @@
 package org.medibloc.vc.model;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.EqualsAndHashCode;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.json.JsonCodecs;
 
 @EqualsAndHashCode
 class JsonSerializable {
     public String toJson() throws VerifiableCredentialException {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return JsonCodecs.writer(this.getClass()).writeValueAsString(this);
         } catch (JsonProcessingException e) {
             throw new VerifiableCredentialException(e);
         }
@@ -0,0 +1,203 @@
+package org.medibloc.vc.status;
+
+import com.nimbusds.jose.util.Base64URL;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A bitstring status list defined at https://w3c-ccg.github.io/vc-status-list-2021/.
+ * The bit at the index 0 is the most significant bit of the first byte.
+ *
+ * Bits are kept as they are in a {@link ByteBuffer}, which can be memory-mapped from a file.
+ * So, looking up a bit costs O(1) without any allocation, and a large list doesn't have to be on the heap.
+ *
+ * Lookups are thread-safe. Updates are serialized with each other and with encoding,
+ * but concurrent lookups may not observe them immediately.
+ */
+public class StatusList {
+    /**
+     * The minimum length recommended by the spec, for the group privacy.
+     */
+    public static final int MIN_LENGTH = 16 * 1024 * 8;
+
+    /**
+     * The maximum length which can be decoded from an 'encodedList' (16 MiB of bits).
+     * An 'encodedList' comes from others, so its inflated size is bounded, not to exhaust the heap (e.g. by a GZIP bomb).
+     */
+    public static final int MAX_LENGTH = 16 * 1024 * 1024 * 8;
+
+    public static final String TYPE_STATUS_LIST_2021 = "StatusList2021";
+    public static final String JSON_PROP_ENCODED_LIST = "encodedList";
+    public static final String JSON_PROP_STATUS_PURPOSE = "statusPurpose";
+
+    private final ByteBuffer bits;
+    private final int length;
+
+    /**
+     * Creates a list whose bits are all cleared.
+     *
+     * @param length the number of bits. It is rounded up to a multiple of 8.
+     */
+    public StatusList(int length) {
+        this(ByteBuffer.allocate(byteLength(length)));
+    }
+
+    private StatusList(ByteBuffer bits) {
+        if (bits.capacity() > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("The list is too large: " + bits.capacity() + " bytes");
+        }
+        this.bits = bits;
+        this.length = bits.capacity() * 8;
+    }
+
+    /**
+     * Decodes the 'encodedList', which is a Base64URL-encoded GZIP-compressed bitstring.
+     *
+     * @throws VerifiableCredentialException if it is malformed, or longer than {@link #MAX_LENGTH} when inflated
+     */
+    public static StatusList decode(String encodedList) throws VerifiableCredentialException {
+        Assert.notNull(encodedList, "encodedList must not be null");
+        try {
+            InputStream in = new GZIPInputStream(new ByteArrayInputStream(new Base64URL(encodedList).decode()));
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(MIN_LENGTH / 8);
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    if (out.size() + n > MAX_LENGTH / 8) {
+                        throw new VerifiableCredentialException("encodedList is longer than " + MAX_LENGTH + " bits");
+                    }
+                    out.write(buf, 0, n);
+                }
+                return new StatusList(ByteBuffer.wrap(out.toByteArray()));
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new VerifiableCredentialException("Invalid encodedList", e);
+        }
+    }
+
+    /**
+     * Decodes the 'encodedList' in the credentialSubject of the status list credential.
+     * The status list credential should be verified before calling this.
+     */
+    public static StatusList decode(Credential statusListCredential) throws VerifiableCredentialException {
+        Assert.notNull(statusListCredential, "statusListCredential must not be null");
+        Object encodedList = statusListCredential.getCredentialSubject().getClaims().get(JSON_PROP_ENCODED_LIST);
+        if (!(encodedList instanceof String)) {
+            throw new VerifiableCredentialException("The credential doesn't have an encodedList");
+        }
+        return decode((String) encodedList);
+    }
+
+    /**
+     * Maps the file which contains a raw (not compressed) bitstring written by {@link #writeTo(File)}.
+     * The returned list is read-only.
+     */
+    public static StatusList map(File file) throws IOException {
+        Assert.notNull(file, "file must not be null");
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // The mapping remains valid after the channel is closed.
+            return new StatusList(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes the raw bitstring to the file, which can be mapped by {@link #map(File)}.
+     */
+    public synchronized void writeTo(File file) throws IOException {
+        Assert.notNull(file, "file must not be null");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            ByteBuffer snapshot = snapshot();
+            while (snapshot.hasRemaining()) {
+                out.getChannel().write(snapshot);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Encodes this list to the 'encodedList': a Base64URL-encoded GZIP-compressed bitstring.
+     */
+    public synchronized String encode() {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try {
+            GZIPOutputStream out = new GZIPOutputStream(compressed);
+            ByteBuffer snapshot = snapshot();
+            byte[] buf = new byte[8192];
+            while (snapshot.hasRemaining()) {
+                int n = Math.min(buf.length, snapshot.remaining());
+                snapshot.get(buf, 0, n);
+                out.write(buf, 0, n);
+            }
+            out.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // never happens in memory
+        }
+        return Base64URL.encode(compressed.toByteArray()).toString();
+    }
+
+    /**
+     * Returns the number of bits.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns true if the bit at the index is set (e.g. the credential is revoked).
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        return (bits.get(index >>> 3) & (0x80 >>> (index & 7))) != 0;
+    }
+
+    /**
+     * @throws java.nio.ReadOnlyBufferException if the list is memory-mapped
+     */
+    public synchronized void set(int index, boolean value) {
+        checkIndex(index);
+        int i = index >>> 3;
+        int mask = 0x80 >>> (index & 7);
+        int b = bits.get(i);
+        bits.put(i, (byte) (value ? b | mask : b & ~mask));
+    }
+
+    private ByteBuffer snapshot() {
+        ByteBuffer snapshot = bits.duplicate();
+        snapshot.clear();
+        return snapshot;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        }
+    }
+
+    private static int byteLength(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        return (int) ((length + 7L) / 8);
+    }
+}
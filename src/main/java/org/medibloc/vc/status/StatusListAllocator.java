@@ -0,0 +1,80 @@
+package org.medibloc.vc.status;
+
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates each index of a status list only once, for issuers.
+ *
+ * Indexes are not allocated sequentially, so that credentials issued one after another don't get adjacent indexes.
+ * The n-th index is a fixed permutation of n: (n * odd multiplier + seed) mod 2^k,
+ * skipping values out of the list. So, allocation costs O(1) without tracking allocated indexes,
+ * and it can be resumed after restarts with the seed and the position.
+ */
+public class StatusListAllocator {
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;  // odd, so that the permutation is a bijection
+
+    private final int length;
+    private final long mask;
+    private final long seed;
+    private final AtomicLong position;
+
+    /**
+     * @param length   the number of bits of the status list
+     * @param seed     the seed of the permutation
+     * @param position the position to resume from, which is from {@link #getPosition()}
+     */
+    public StatusListAllocator(int length, long seed, long position) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("length must be positive");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("position must not be negative");
+        }
+        long size = 1;
+        while (size < length) {
+            size *= 2;
+        }
+        this.length = length;
+        this.mask = size - 1;
+        this.seed = seed;
+        this.position = new AtomicLong(position);
+    }
+
+    /**
+     * Creates an allocator with a random seed.
+     */
+    public StatusListAllocator(int length) {
+        this(length, new SecureRandom().nextLong(), 0);
+    }
+
+    /**
+     * @throws VerifiableCredentialException if all indexes have been allocated
+     */
+    public int allocate() throws VerifiableCredentialException {
+        while (true) {
+            long n = position.getAndIncrement();
+            if (n > mask) {
+                position.decrementAndGet();  // not to overflow even if called forever
+                throw new VerifiableCredentialException("All indexes of the status list have been allocated");
+            }
+            long index = (n * MULTIPLIER + seed) & mask;
+            if (index < length) {
+                return (int) index;
+            }
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the position to be persisted to resume the allocation.
+     */
+    public long getPosition() {
+        return position.get();
+    }
+}
@@ -0,0 +1,67 @@
+package org.medibloc.vc.status;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialStatus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Checks the status of credentials for verifiers, against status lists which have been fetched and registered in advance.
+ * A lookup is a hash lookup of the list and a bit lookup, without any I/O.
+ */
+public class StatusListChecker {
+    private final ConcurrentMap<String, StatusList> lists = new ConcurrentHashMap<String, StatusList>();
+
+    /**
+     * Registers the list, or replaces the previous one when the list is refreshed.
+     *
+     * @param statusListCredential the URL of the status list credential
+     */
+    public void register(String statusListCredential, StatusList list) {
+        Assert.notNull(statusListCredential, "statusListCredential must not be null");
+        Assert.notNull(list, "list must not be null");
+        lists.put(statusListCredential, list);
+    }
+
+    public void unregister(String statusListCredential) {
+        Assert.notNull(statusListCredential, "statusListCredential must not be null");
+        lists.remove(statusListCredential);
+    }
+
+    /**
+     * Returns true if the status of the entry is set (e.g. revoked).
+     */
+    public boolean isSet(CredentialStatus status) throws VerifiableCredentialException {
+        Assert.notNull(status, "status must not be null");
+        if (!CredentialStatus.TYPE_STATUS_LIST_2021_ENTRY.equals(status.getType())) {
+            throw new VerifiableCredentialException("Unsupported credentialStatus type: " + status.getType());
+        }
+        if (status.getStatusListCredential() == null) {
+            throw new VerifiableCredentialException("statusListCredential doesn't exist");
+        }
+
+        StatusList list = lists.get(status.getStatusListCredential());
+        if (list == null) {
+            throw new VerifiableCredentialException("Unknown status list: " + status.getStatusListCredential());
+        }
+        int index = status.parseStatusListIndex();
+        if (index >= list.getLength()) {
+            throw new VerifiableCredentialException("statusListIndex is out of the list: " + index);
+        }
+        return list.get(index);
+    }
+
+    /**
+     * Throws if the status of the credential is set. A credential without any status is always fine.
+     */
+    public void check(Credential credential) throws VerifiableCredentialException {
+        Assert.notNull(credential, "credential must not be null");
+        CredentialStatus status = credential.getCredentialStatus();
+        if (status != null && isSet(status)) {
+            throw new VerifiableCredentialException("The credential status is set for " + status.getStatusPurpose());
+        }
+    }
+}
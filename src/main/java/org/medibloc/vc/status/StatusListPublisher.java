@@ -0,0 +1,88 @@
+package org.medibloc.vc.status;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.CredentialStatus;
+import org.medibloc.vc.model.CredentialSubject;
+
+/**
+ * Manages a status list for issuers: allocates entries for new credentials, updates their status,
+ * and publishes the list as the credentialSubject of a status list credential.
+ *
+ * The encoded list is cached until the status is updated, since compressing a large list is not cheap.
+ */
+public class StatusListPublisher {
+    private final String statusListCredential;
+    private final String statusPurpose;
+    private final StatusList list;
+    private final StatusListAllocator allocator;
+
+    private String encodedList;  // null if not encoded since the last update. Guarded by this.
+
+    /**
+     * @param statusListCredential the URL where the status list credential is published
+     * @param statusPurpose        e.g. {@link CredentialStatus#PURPOSE_REVOCATION}
+     */
+    public StatusListPublisher(String statusListCredential, String statusPurpose, StatusList list, StatusListAllocator allocator) {
+        Assert.notNull(statusListCredential, "statusListCredential must not be null");
+        Assert.notNull(statusPurpose, "statusPurpose must not be null");
+        Assert.notNull(list, "list must not be null");
+        Assert.notNull(allocator, "allocator must not be null");
+        this.statusListCredential = statusListCredential;
+        this.statusPurpose = statusPurpose;
+        this.list = list;
+        this.allocator = allocator;
+    }
+
+    /**
+     * Creates a publisher of a new list with the minimum length and a random allocator.
+     */
+    public StatusListPublisher(String statusListCredential, String statusPurpose) {
+        this(statusListCredential, statusPurpose, new StatusList(StatusList.MIN_LENGTH), new StatusListAllocator(StatusList.MIN_LENGTH));
+    }
+
+    /**
+     * Allocates a new entry to be set to the credentialStatus of a new credential.
+     */
+    public CredentialStatus allocate() throws VerifiableCredentialException {
+        return CredentialStatus.statusListEntry(statusListCredential, statusPurpose, allocator.allocate());
+    }
+
+    /**
+     * Sets (e.g. revokes) or clears the status of the entry.
+     */
+    public synchronized void setStatus(CredentialStatus status, boolean value) throws VerifiableCredentialException {
+        Assert.notNull(status, "status must not be null");
+        if (!statusListCredential.equals(status.getStatusListCredential())) {
+            throw new VerifiableCredentialException("The entry is not in this status list: " + status.getStatusListCredential());
+        }
+        int index = status.parseStatusListIndex();
+        if (index >= list.getLength()) {
+            throw new VerifiableCredentialException("statusListIndex is out of the list: " + index);
+        }
+        list.set(index, value);
+        encodedList = null;
+    }
+
+    public synchronized String getEncodedList() {
+        if (encodedList == null) {
+            encodedList = list.encode();
+        }
+        return encodedList;
+    }
+
+    /**
+     * Returns the credentialSubject of the status list credential to be issued.
+     */
+    public CredentialSubject toCredentialSubject() {
+        CredentialSubject subject = new CredentialSubject(statusListCredential + "#list");
+        subject.addClaim("type", StatusList.TYPE_STATUS_LIST_2021);
+        subject.addClaim(StatusList.JSON_PROP_STATUS_PURPOSE, statusPurpose);
+        subject.addClaim(StatusList.JSON_PROP_ENCODED_LIST, getEncodedList());
+        return subject;
+    }
+
+    public StatusList getList() {
+        return list;
+    }
+}
@@ -0,0 +1,739 @@
+package org.medibloc.vc.store;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.verifiable.jwt.JwtCredentialView;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An embedded store of issued credentials (e.g. for audits and re-issuance), which doesn't need a separate database.
+ *
+ * Credentials are kept as compact JWTs in append-only segment files in a directory, and identified by IDs assigned by the store.
+ * Indexes on the credentialSubject ID, the issuer ID, the types and the expiration date are kept in direct buffers
+ * out of the Java heap (see {@link HashIndex} and {@link ExpirationIndex}), so that hundreds of millions of credentials
+ * don't put pressure on the GC. Set -XX:MaxDirectMemorySize large enough for them.
+ * Each record has the hashes of its indexed values, so indexes are rebuilt on {@link #open(File)} without decoding any JWT.
+ *
+ * Looking up a credential by its ID costs an array access and a positional read of its record.
+ * Looking up by an indexed value costs a few hash probes, and reads of candidates to confirm that they have the value,
+ * so that hash collisions never return wrong credentials.
+ *
+ * Deleting a credential appends a tombstone. Both are garbage in the segments until {@link #compact()} copies live records
+ * out of segments with much garbage and removes those segments. IDs are not changed by compaction.
+ *
+ * Records are written to the OS as soon as they are appended, so they survive crashes of the process.
+ * Call {@link #flush()} to make them durable against crashes of the OS as well. A record torn by a crash is discarded on open.
+ *
+ * This class is thread-safe. Reads run concurrently, and writes are serialized. Compaction blocks both.
+ */
+public class CredentialStore implements Closeable {
+    private static final int DEFAULT_MAX_SEGMENT_SIZE = 256 * 1024 * 1024;
+    private static final double DEFAULT_MIN_GARBAGE_RATIO = 0.5;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long MAX_ID = (1L << ExpirationIndex.ID_BITS) - 1;
+    private static final int LOCATIONS_CHUNK_SHIFT = 17;  // 1MiB
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final int maxSegmentSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by the lock.
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private Segment active;  // the last segment, to which records are appended
+    // ID -> location of its PUT record, which is (segment number << 32 | offset), or 0 if deleted
+    private final OffHeapLongArray locations = new OffHeapLongArray(LOCATIONS_CHUNK_SHIFT);
+    private long nextId;
+    private long size;
+    private long deletedSinceIndexed;
+    private HashIndex subjects = new HashIndex();
+    private HashIndex issuers = new HashIndex();
+    private HashIndex types = new HashIndex();
+    private ExpirationIndex expirations = new ExpirationIndex();
+    private boolean closed;
+
+    private CredentialStore(File directory, int maxSegmentSize) {
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * Opens the store in the directory, which is created if it doesn't exist.
+     *
+     * @param maxSegmentSize the size in bytes at which a new segment file is started
+     */
+    public static CredentialStore open(File directory, int maxSegmentSize) throws IOException {
+        Assert.notNull(directory, "directory must not be null");
+        if (maxSegmentSize <= 0) {
+            throw new IllegalArgumentException("maxSegmentSize must be positive");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create the directory: " + directory);
+        }
+        CredentialStore store = new CredentialStore(directory, maxSegmentSize);
+        try {
+            store.load();
+        } catch (IOException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Opens the store in the directory with segment files of 256MiB.
+     */
+    public static CredentialStore open(File directory) throws IOException {
+        return open(directory, DEFAULT_MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Appends the credential.
+     *
+     * @return the ID of the credential in this store
+     * @throws VerifiableCredentialException if the JWT payload is malformed
+     */
+    public long put(JwtVerifiableCredential vc) throws IOException, VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        JwtCredentialView view = vc.getCredentialView();
+        List<String> typeList = view.getTypes();
+        long[] typeHashes = new long[typeList != null ? typeList.size() : 0];
+        for (int i = 0; i < typeHashes.length; i++) {
+            typeHashes[i] = HashIndex.hash(typeList.get(i));
+        }
+        Date expirationDate = view.getExpirationDate();
+        long expiration = expirationDate != null ? expirationDate.getTime() : Record.NO_EXPIRATION;
+        long subjectHash = HashIndex.hash(view.getSubjectId());
+        long issuerHash = HashIndex.hash(view.getIssuerId());
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (nextId > MAX_ID) {
+                throw new IllegalStateException("The store is full");
+            }
+            long id = nextId;
+            Record record = Record.put(id, expiration, subjectHash, issuerHash, typeHashes, vc.serialize());
+            long location = append(record);
+            nextId++;
+            locations.set(id, location);
+            segmentOf(location).liveBytes += record.getLength();
+            size++;
+            index(id, record);
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return null if the credential doesn't exist or has been deleted
+     */
+    public JwtVerifiableCredential get(long id) throws IOException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            long location = locationOf(id);
+            return location != 0 ? new JwtVerifiableCredential(read(location).getJwt()) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the credential doesn't exist or has already been deleted
+     */
+    public boolean delete(long id) throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            long location = locationOf(id);
+            if (location == 0) {
+                return false;
+            }
+            remove(id, location);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns IDs of credentials whose credentialSubject ID is the value, the latest first.
+     *
+     * @param limit the max number of IDs to return
+     */
+    public List<Long> findBySubject(String subjectId, int limit) throws IOException, VerifiableCredentialException {
+        return find(subjects, subjectId, limit, SUBJECT_MATCHER);
+    }
+
+    /**
+     * Returns IDs of credentials whose issuer ID is the value, the latest first.
+     *
+     * @param limit the max number of IDs to return
+     */
+    public List<Long> findByIssuer(String issuerId, int limit) throws IOException, VerifiableCredentialException {
+        return find(issuers, issuerId, limit, ISSUER_MATCHER);
+    }
+
+    /**
+     * Returns IDs of credentials which have the type, the latest first.
+     *
+     * @param limit the max number of IDs to return
+     */
+    public List<Long> findByType(String type, int limit) throws IOException, VerifiableCredentialException {
+        return find(types, type, limit, TYPE_MATCHER);
+    }
+
+    /**
+     * Returns IDs of credentials which expire in [from, to), in the order of their expiration dates.
+     * Credentials without an expiration date are never returned.
+     *
+     * @param limit the max number of IDs to return
+     */
+    public List<Long> findByExpiration(Date from, Date to, final int limit) throws IOException {
+        Assert.notNull(from, "from must not be null");
+        Assert.notNull(to, "to must not be null");
+        checkLimit(limit);
+        final List<Long> ids = new ArrayList<Long>();
+        if (limit == 0) {
+            return ids;
+        }
+
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            expirations.scan(from.getTime(), to.getTime(), new ExpirationIndex.Visitor() {
+                @Override
+                public boolean visit(long id) {
+                    if (locations.get(id) != 0) {
+                        ids.add(id);
+                    }
+                    return ids.size() < limit;
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes all credentials which expire before the time.
+     *
+     * @return the number of credentials deleted
+     */
+    public long deleteExpired(Date before) throws IOException {
+        Assert.notNull(before, "before must not be null");
+        final long[] count = {0};
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            expirations.scan(Long.MIN_VALUE, before.getTime(), new ExpirationIndex.Visitor() {
+                @Override
+                public boolean visit(long id) throws IOException {
+                    long location = locations.get(id);
+                    if (location != 0) {
+                        remove(id, location);
+                        count[0]++;
+                    }
+                    return true;
+                }
+            });
+            expirations.removeBefore(before.getTime());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return count[0];
+    }
+
+    /**
+     * Compacts segments of which at least half are garbage.
+     *
+     * @see #compact(double)
+     */
+    public long compact() throws IOException {
+        return compact(DEFAULT_MIN_GARBAGE_RATIO);
+    }
+
+    /**
+     * Copies live records out of segments whose garbage is at least the ratio of their sizes,
+     * and removes those segments. Then, drops entries of deleted credentials from the indexes.
+     *
+     * A tombstone is dropped only if the deleted record is removed as well, so that the deleted credential isn't restored on open.
+     * The tombstone of the last ID is always kept, so that IDs are never assigned again.
+     *
+     * @param minGarbageRatio in (0, 1]
+     * @return the number of bytes reclaimed
+     */
+    public long compact(double minGarbageRatio) throws IOException {
+        if (!(minGarbageRatio > 0 && minGarbageRatio <= 1)) {
+            throw new IllegalArgumentException("minGarbageRatio must be in (0, 1]");
+        }
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            final Map<Integer, Segment> candidates = new TreeMap<Integer, Segment>();
+            for (Segment segment : segments.values()) {
+                if (segment.size > 0 && segment.size - segment.liveBytes >= segment.size * minGarbageRatio) {
+                    candidates.put(segment.number, segment);
+                }
+            }
+            if (candidates.containsKey(active.number)) {
+                roll();
+            }
+
+            final long[] copied = {0};
+            long reclaimed = 0;
+            for (Segment segment : candidates.values()) {
+                long end = scan(segment, new RecordHandler() {
+                    @Override
+                    public void handle(long location, Record record) throws IOException {
+                        if (record.getKind() == Record.KIND_PUT) {
+                            if (locations.get(record.getId()) != location) {
+                                return;  // deleted
+                            }
+                            long newLocation = append(record);
+                            locations.set(record.getId(), newLocation);
+                            segmentOf(newLocation).liveBytes += record.getLength();
+                        } else {
+                            int deletedSegment = segmentNumber(record.getDeletedLocation());
+                            boolean deletedRecordGone = !segments.containsKey(deletedSegment) || candidates.containsKey(deletedSegment);
+                            // The tombstone of the last ID is kept, not to assign the ID again after open.
+                            if (deletedRecordGone && record.getId() != nextId - 1) {
+                                return;
+                            }
+                            append(record);
+                        }
+                        copied[0] += record.getLength();
+                    }
+                });
+                if (end < segment.size) {
+                    throw new IOException("Corrupted segment: " + segment.file);
+                }
+                reclaimed += segment.size;
+            }
+
+            if (!candidates.isEmpty()) {
+                // copies must be durable before the originals are removed
+                active.channel.force(false);
+                for (Segment segment : candidates.values()) {
+                    segments.remove(segment.number);
+                    segment.close();
+                    if (!segment.file.delete()) {
+                        throw new IOException("Failed to delete the segment: " + segment.file);
+                    }
+                }
+            }
+            if (deletedSinceIndexed > 0) {
+                reindex();
+            }
+            return reclaimed - copied[0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of credentials which are not deleted.
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the total size of segment files in bytes, including garbage.
+     */
+    public long getDiskSize() {
+        lock.readLock().lock();
+        try {
+            long diskSize = 0;
+            for (Segment segment : segments.values()) {
+                diskSize += segment.size;
+            }
+            return diskSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces appended records to the disk.
+     */
+    public void flush() throws IOException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            active.channel.force(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (active != null) {
+                active.channel.force(false);
+            }
+            IOException failure = null;
+            for (Segment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            segments.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The store is closed");
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+    }
+
+    private List<Long> find(HashIndex index, String value, int limit, Matcher matcher) throws IOException, VerifiableCredentialException {
+        Assert.notNull(value, "value must not be null");
+        checkLimit(limit);
+        List<Long> ids = new ArrayList<Long>();
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            for (long ref = index.first(HashIndex.hash(value)); ref != 0 && ids.size() < limit; ref = index.next(ref)) {
+                long id = index.id(ref);
+                long location = locations.get(id);
+                if (location != 0 && matcher.matches(new JwtVerifiableCredential(read(location).getJwt()).getCredentialView(), value)) {
+                    ids.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    private void index(long id, Record record) {
+        if (record.getSubjectHash() != 0) {
+            subjects.add(record.getSubjectHash(), id);
+        }
+        if (record.getIssuerHash() != 0) {
+            issuers.add(record.getIssuerHash(), id);
+        }
+        long[] typeHashes = record.getTypeHashes();
+        for (int i = 0; i < typeHashes.length; i++) {
+            if (!contains(typeHashes, i, typeHashes[i])) {  // not to return the same ID twice
+                types.add(typeHashes[i], id);
+            }
+        }
+        if (record.getExpiration() != Record.NO_EXPIRATION) {
+            expirations.add(record.getExpiration(), id);
+        }
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reindex() {
+        subjects = subjects.retain(locations);
+        issuers = issuers.retain(locations);
+        types = types.retain(locations);
+        expirations = expirations.retain(locations);
+        deletedSinceIndexed = 0;
+    }
+
+    private void remove(long id, long location) throws IOException {
+        append(Record.delete(id, location));  // garbage from the start, which has to live only as long as the deleted record
+        segmentOf(location).liveBytes -= recordLength(location);
+        locations.set(id, 0);
+        size--;
+        deletedSinceIndexed++;
+    }
+
+    private long locationOf(long id) {
+        return id >= 0 && id < nextId ? locations.get(id) : 0;
+    }
+
+    /**
+     * Appends the record to the active segment, starting a new one if the record doesn't fit.
+     *
+     * @return the location of the record
+     */
+    private long append(Record record) throws IOException {
+        if (active.size > 0 && active.size + record.getLength() > maxSegmentSize) {
+            roll();
+        }
+        long offset = active.size;
+        active.write(ByteBuffer.wrap(record.getBytes()), offset);
+        active.size += record.getLength();
+        return location(active.number, offset);
+    }
+
+    private void roll() throws IOException {
+        active.channel.truncate(active.size);  // drops the rest of a failed write, if any
+        active = newSegment(active.number + 1);
+    }
+
+    private Segment newSegment(int number) throws IOException {
+        Segment segment = new Segment(number, new File(directory, String.format("%010d%s", number, SEGMENT_SUFFIX)));
+        segments.put(number, segment);
+        return segment;
+    }
+
+    private Record read(long location) throws IOException {
+        Segment segment = segmentOf(location);
+        long offset = offset(location);
+        byte[] bytes = new byte[Record.LENGTH_SIZE + segment.readInt(offset)];
+        segment.read(ByteBuffer.wrap(bytes), offset);
+        Record record = Record.decode(bytes);
+        if (record == null) {
+            throw new IOException("Corrupted record at " + offset + " of " + segment.file);
+        }
+        return record;
+    }
+
+    private int recordLength(long location) throws IOException {
+        return Record.LENGTH_SIZE + segmentOf(location).readInt(offset(location));
+    }
+
+    private Segment segmentOf(long location) {
+        Segment segment = segments.get(segmentNumber(location));
+        if (segment == null) {
+            throw new IllegalStateException("No segment for the location: " + location);
+        }
+        return segment;
+    }
+
+    private static long location(int segmentNumber, long offset) {
+        return (long) segmentNumber << 32 | offset;
+    }
+
+    private static int segmentNumber(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static long offset(long location) {
+        return location & 0xffffffffL;
+    }
+
+    /**
+     * Opens all segments in the directory, and rebuilds the locations and indexes from their records.
+     */
+    private void load() throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("Failed to list the directory: " + directory);
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(SEGMENT_SUFFIX)) {
+                try {
+                    int number = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(number, new Segment(number, file));
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+
+        // All segments are opened first, since a tombstone refers to a record in an earlier segment.
+        for (Segment segment : segments.values()) {
+            long end = scan(segment, new RecordHandler() {
+                @Override
+                public void handle(long location, Record record) throws IOException {
+                    replay(location, record);
+                }
+            });
+            if (end < segment.size) {
+                if (segment != segments.lastEntry().getValue()) {
+                    throw new IOException("Corrupted segment: " + segment.file);
+                }
+                segment.channel.truncate(end);  // a record torn by a crash
+                segment.size = end;
+            }
+        }
+        active = segments.isEmpty() ? newSegment(1) : segments.lastEntry().getValue();
+        if (deletedSinceIndexed > 0) {
+            reindex();
+        }
+    }
+
+    private void replay(long location, Record record) throws IOException {
+        long id = record.getId();
+        nextId = Math.max(nextId, id + 1);
+        long previous = locations.get(id);
+        if (record.getKind() == Record.KIND_PUT) {
+            if (previous != 0) {
+                // a copy by a compaction which was interrupted before removing the original
+                segmentOf(previous).liveBytes -= recordLength(previous);
+            } else {
+                index(id, record);
+                size++;
+            }
+            locations.set(id, location);
+            segmentOf(location).liveBytes += record.getLength();
+        } else if (previous != 0) {
+            segmentOf(previous).liveBytes -= recordLength(previous);
+            locations.set(id, 0);
+            size--;
+            deletedSinceIndexed++;
+        }
+    }
+
+    /**
+     * Reads records of the segment sequentially.
+     *
+     * @return the offset after the last valid record, which is less than the size if the rest is torn or corrupted
+     */
+    private static long scan(Segment segment, RecordHandler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file), SCAN_BUFFER_SIZE));
+        long offset = 0;
+        try {
+            while (offset + Record.LENGTH_SIZE <= segment.size) {
+                int length = in.readInt();
+                if (length < Record.MIN_LENGTH || offset + Record.LENGTH_SIZE + length > segment.size) {
+                    break;
+                }
+                byte[] bytes = new byte[Record.LENGTH_SIZE + length];
+                ByteBuffer.wrap(bytes).putInt(length);
+                in.readFully(bytes, Record.LENGTH_SIZE, length);
+                Record record = Record.decode(bytes);
+                if (record == null) {
+                    break;
+                }
+                handler.handle(location(segment.number, offset), record);
+                offset += bytes.length;
+            }
+        } finally {
+            in.close();
+        }
+        return offset;
+    }
+
+    private interface RecordHandler {
+        void handle(long location, Record record) throws IOException;
+    }
+
+    /**
+     * Confirms that a candidate found by a hash has the value.
+     */
+    private interface Matcher {
+        boolean matches(JwtCredentialView view, String value) throws VerifiableCredentialException;
+    }
+
+    private static final Matcher SUBJECT_MATCHER = new Matcher() {
+        @Override
+        public boolean matches(JwtCredentialView view, String value) throws VerifiableCredentialException {
+            return value.equals(view.getSubjectId());
+        }
+    };
+
+    private static final Matcher ISSUER_MATCHER = new Matcher() {
+        @Override
+        public boolean matches(JwtCredentialView view, String value) throws VerifiableCredentialException {
+            return value.equals(view.getIssuerId());
+        }
+    };
+
+    private static final Matcher TYPE_MATCHER = new Matcher() {
+        @Override
+        public boolean matches(JwtCredentialView view, String value) throws VerifiableCredentialException {
+            return view.hasType(value);
+        }
+    };
+
+    /**
+     * A segment file. Positional reads are thread-safe, and writes are serialized by the lock of the store.
+     */
+    private static class Segment {
+        private final int number;
+        private final File file;
+        private final RandomAccessFile raf;
+        private final FileChannel channel;
+        private long size;
+        private long liveBytes;
+
+        private Segment(int number, File file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.raf = new RandomAccessFile(file, "rw");
+            this.channel = raf.getChannel();
+            this.size = raf.length();
+        }
+
+        private void write(ByteBuffer src, long position) throws IOException {
+            long written = 0;
+            while (src.hasRemaining()) {
+                written += channel.write(src, position + written);
+            }
+        }
+
+        private void read(ByteBuffer dst, long position) throws IOException {
+            long read = 0;
+            while (dst.hasRemaining()) {
+                int n = channel.read(dst, position + read);
+                if (n < 0) {
+                    throw new EOFException("Unexpected end of the segment: " + file);
+                }
+                read += n;
+            }
+        }
+
+        private int readInt(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            read(buffer, position);
+            return buffer.getInt(0);
+        }
+
+        private void close() throws IOException {
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.medibloc.vc.store;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An index of IDs of credentials by their expiration times, for range scans.
+ *
+ * Entries are appended to the bucket of the day when they expire, in any order.
+ * Buckets are sorted, and entries of a bucket are sorted only when the bucket is scanned.
+ * Each entry is a long in an {@link OffHeapLongArray}, packed with the offset of its expiration time in the day
+ * (27 bits) and its ID ({@link #ID_BITS} bits), so that sorting entries sorts them by their expiration times.
+ *
+ * Entries of deleted credentials are not removed one by one, but dropped by {@link #removeBefore(long)}
+ * or {@link #retain(OffHeapLongArray)}. Not thread-safe: writes must be synchronized externally with reads.
+ */
+final class ExpirationIndex {
+    static final int ID_BITS = 36;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final long BUCKET_MILLIS = 24L * 60 * 60 * 1000;  // less than 2^27
+    private static final int BUCKET_CHUNK_SHIFT = 10;  // 8KiB
+
+    private final TreeMap<Long, Bucket> buckets = new TreeMap<Long, Bucket>();
+
+    interface Visitor {
+        /**
+         * @return false to stop the scan
+         */
+        boolean visit(long id) throws IOException;
+    }
+
+    /**
+     * @param expiration the expiration time in milliseconds since the epoch
+     */
+    void add(long expiration, long id) {
+        long bucket = bucketOf(expiration);
+        addEntry(bucket, (expiration - bucket * BUCKET_MILLIS) << ID_BITS | id);
+    }
+
+    /**
+     * Visits IDs which expire in [from, to), in the order of their expiration times.
+     */
+    void scan(long from, long to, Visitor visitor) throws IOException {
+        if (from >= to) {
+            return;
+        }
+        for (Map.Entry<Long, Bucket> entry : buckets.subMap(bucketOf(from), true, bucketOf(to), true).entrySet()) {
+            long start = entry.getKey() * BUCKET_MILLIS;
+            Bucket bucket = entry.getValue();
+            long[] matches = new long[bucket.size];
+            int count = 0;
+            for (int i = 0; i < bucket.size; i++) {
+                long entryValue = bucket.entries.get(i);
+                long expiration = start + (entryValue >>> ID_BITS);
+                if (expiration >= from && expiration < to) {
+                    matches[count++] = entryValue;
+                }
+            }
+            Arrays.sort(matches, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (!visitor.visit(matches[i] & ID_MASK)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes buckets of days which end before the time, whose credentials have all been deleted.
+     */
+    void removeBefore(long time) {
+        buckets.headMap(bucketOf(time), false).clear();
+    }
+
+    /**
+     * Returns a new index only with IDs whose values in the array are not 0.
+     */
+    ExpirationIndex retain(OffHeapLongArray locations) {
+        ExpirationIndex retained = new ExpirationIndex();
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            for (int i = 0; i < bucket.size; i++) {
+                long entryValue = bucket.entries.get(i);
+                if (locations.get(entryValue & ID_MASK) != 0) {
+                    retained.addEntry(entry.getKey(), entryValue);
+                }
+            }
+        }
+        return retained;
+    }
+
+    private void addEntry(long bucketNumber, long entryValue) {
+        Bucket bucket = buckets.get(bucketNumber);
+        if (bucket == null) {
+            bucket = new Bucket();
+            buckets.put(bucketNumber, bucket);
+        }
+        bucket.entries.set(bucket.size++, entryValue);
+    }
+
+    private static long bucketOf(long time) {
+        return time >= 0 ? time / BUCKET_MILLIS : (time + 1) / BUCKET_MILLIS - 1;  // floor, even before the epoch
+    }
+
+    private static class Bucket {
+        private final OffHeapLongArray entries = new OffHeapLongArray(BUCKET_CHUNK_SHIFT);
+        private int size;
+    }
+}
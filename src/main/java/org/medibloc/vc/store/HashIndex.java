@@ -0,0 +1,160 @@
+package org.medibloc.vc.store;
+
+/**
+ * An off-heap multimap from 64-bit hashes of indexed values to IDs of credentials.
+ *
+ * Distinct hashes are kept in an open-addressing table with linear probing, each of which points to
+ * its own linked list of postings (an ID and the next posting). So, a lookup costs a few probes
+ * regardless of how many IDs other values have, and postings of a value are visited the latest first.
+ *
+ * Postings of deleted credentials are not removed one by one, but dropped by {@link #retain(OffHeapLongArray)}.
+ * Not thread-safe: writes must be synchronized externally with reads.
+ */
+final class HashIndex {
+    private static final long MIN_CAPACITY = 1024;
+    private static final int MAX_SLOTS_CHUNK_SHIFT = 20;  // 8MiB
+    private static final int POSTINGS_CHUNK_SHIFT = 17;   // 1MiB
+
+    // (hash, the first posting + 1) pairs. A hash of 0 marks an empty slot.
+    private OffHeapLongArray slots;
+    private long capacity;
+    private long keyCount;
+    // (ID, the next posting + 1) pairs
+    private final OffHeapLongArray postings = new OffHeapLongArray(POSTINGS_CHUNK_SHIFT);
+    private long postingCount;
+
+    HashIndex() {
+        this.slots = newSlots(MIN_CAPACITY);
+        this.capacity = MIN_CAPACITY;
+    }
+
+    /**
+     * Returns a 64-bit hash of the value, which is never 0. Or, 0 if the value is null.
+     */
+    static long hash(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long h = 0xcbf29ce484222325L;  // FNV-1a
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // the finalizer of MurmurHash3, so that the low bits used for slots are well mixed
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53e87c5L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+
+    void add(long hash, long id) {
+        long slot = insert(hash);
+        long posting = postingCount++;
+        postings.set(posting * 2, id);
+        postings.set(posting * 2 + 1, slots.get(slot * 2 + 1));
+        slots.set(slot * 2 + 1, posting + 1);
+    }
+
+    /**
+     * Returns a reference to the latest posting of the hash, or 0 if there is none.
+     */
+    long first(long hash) {
+        long slot = probe(hash);
+        return slots.get(slot * 2) == hash ? slots.get(slot * 2 + 1) : 0;
+    }
+
+    /**
+     * Returns a reference to the posting added before the referenced one, or 0 if there is none.
+     */
+    long next(long ref) {
+        return postings.get((ref - 1) * 2 + 1);
+    }
+
+    long id(long ref) {
+        return postings.get((ref - 1) * 2);
+    }
+
+    /**
+     * Returns a new index only with IDs whose values in the array are not 0, in the same order.
+     */
+    HashIndex retain(OffHeapLongArray locations) {
+        HashIndex retained = new HashIndex();
+        for (long slot = 0; slot < capacity; slot++) {
+            long hash = slots.get(slot * 2);
+            if (hash == 0) {
+                continue;
+            }
+            // appended to the tail, since postings are visited the latest first
+            long tail = 0;
+            for (long ref = slots.get(slot * 2 + 1); ref != 0; ref = next(ref)) {
+                long id = id(ref);
+                if (locations.get(id) == 0) {
+                    continue;
+                }
+                long posting = retained.postingCount++;
+                retained.postings.set(posting * 2, id);
+                if (tail == 0) {
+                    long retainedSlot = retained.insert(hash);  // may resize the slots
+                    retained.slots.set(retainedSlot * 2 + 1, posting + 1);
+                } else {
+                    retained.postings.set((tail - 1) * 2 + 1, posting + 1);
+                }
+                tail = posting + 1;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Returns the slot of the hash, which is occupied by the hash if it was empty.
+     */
+    private long insert(long hash) {
+        long slot = probe(hash);
+        if (slots.get(slot * 2) == 0) {
+            if ((keyCount + 1) * 2 > capacity) {  // the load factor of 0.5, to keep probes short
+                resize(capacity * 2);
+                slot = probe(hash);
+            }
+            slots.set(slot * 2, hash);
+            keyCount++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the hash, or the empty slot where it would be inserted.
+     */
+    private long probe(long hash) {
+        long mask = capacity - 1;
+        long slot = hash & mask;
+        while (true) {
+            long h = slots.get(slot * 2);
+            if (h == 0 || h == hash) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void resize(long newCapacity) {
+        OffHeapLongArray oldSlots = slots;
+        long oldCapacity = capacity;
+        slots = newSlots(newCapacity);
+        capacity = newCapacity;
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            long hash = oldSlots.get(slot * 2);
+            if (hash != 0) {
+                long newSlot = probe(hash);
+                slots.set(newSlot * 2, hash);
+                slots.set(newSlot * 2 + 1, oldSlots.get(slot * 2 + 1));
+            }
+        }
+    }
+
+    private static OffHeapLongArray newSlots(long capacity) {
+        // not to allocate a chunk larger than the table itself
+        return new OffHeapLongArray(Math.min(MAX_SLOTS_CHUNK_SHIFT, Long.numberOfTrailingZeros(capacity * 2)));
+    }
+}
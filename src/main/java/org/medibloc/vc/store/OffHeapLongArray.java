@@ -0,0 +1,62 @@
+package org.medibloc.vc.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable array of longs in direct buffers, which are out of the Java heap.
+ * So, hundreds of millions of elements neither take the heap nor make GC pauses longer.
+ *
+ * Elements are kept in chunks of a fixed size, since a buffer can't be larger than 2GiB,
+ * and a chunk is allocated when an element in it is set for the first time. Elements which are not set are 0.
+ *
+ * Not thread-safe: writes must be synchronized externally with reads.
+ */
+final class OffHeapLongArray {
+    private static final int MAX_CHUNK_SHIFT = 27;  // 1GiB
+
+    private final int chunkShift;
+    private final long chunkMask;
+    private LongBuffer[] chunks = new LongBuffer[0];
+
+    /**
+     * @param chunkShift log2 of the number of elements in a chunk
+     */
+    OffHeapLongArray(int chunkShift) {
+        if (chunkShift < 0 || chunkShift > MAX_CHUNK_SHIFT) {
+            throw new IllegalArgumentException("chunkShift must be between 0 and " + MAX_CHUNK_SHIFT);
+        }
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+    }
+
+    long get(long index) {
+        long chunk = index >>> chunkShift;
+        if (chunk >= chunks.length) {
+            return 0;
+        }
+        return chunks[(int) chunk].get((int) (index & chunkMask));
+    }
+
+    void set(long index, long value) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("index must not be negative: " + index);
+        }
+        long chunk = index >>> chunkShift;
+        if (chunk >= chunks.length) {
+            grow((int) chunk + 1);
+        }
+        chunks[(int) chunk].put((int) (index & chunkMask), value);
+    }
+
+    private void grow(int chunkCount) {
+        LongBuffer[] grown = Arrays.copyOf(chunks, chunkCount);
+        for (int i = chunks.length; i < chunkCount; i++) {
+            // direct buffers are zero-filled
+            grown[i] = ByteBuffer.allocateDirect(8 << chunkShift).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        chunks = grown;
+    }
+}
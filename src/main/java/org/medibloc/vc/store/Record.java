@@ -0,0 +1,136 @@
+package org.medibloc.vc.store;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * A record in a segment file of {@link CredentialStore}, which is one of:
+ * <ul>
+ *     <li>PUT: a compact JWT with the hashes of its indexed values, so that indexes can be rebuilt without decoding it</li>
+ *     <li>DELETE: a tombstone with the location of the deleted PUT record</li>
+ * </ul>
+ *
+ * Layout (big-endian): length of the rest (4) | CRC32 of the rest after it (4) | kind (1) | ID (8) | body, where the body is
+ * expiration (8) | subject hash (8) | issuer hash (8) | number of types (2) | type hashes (8 each) | JWT in UTF-8, for PUT,
+ * or the location of the deleted record (8), for DELETE.
+ */
+@Getter(AccessLevel.PACKAGE)
+final class Record {
+    static final byte KIND_PUT = 1;
+    static final byte KIND_DELETE = 2;
+    static final long NO_EXPIRATION = Long.MIN_VALUE;
+
+    static final int LENGTH_SIZE = 4;
+    static final int MIN_LENGTH = 4 + 1 + 8;  // checksum, kind and ID
+    private static final int CHECKSUM_OFFSET = LENGTH_SIZE;
+    private static final int KIND_OFFSET = CHECKSUM_OFFSET + 4;
+    private static final int PUT_HEADER_SIZE = LENGTH_SIZE + MIN_LENGTH + 8 + 8 + 8 + 2;
+    private static final int DELETE_SIZE = LENGTH_SIZE + MIN_LENGTH + 8;
+    private static final int MAX_TYPES = 0xffff;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] bytes;  // including the length
+    private final byte kind;
+    private final long id;
+    private final long expiration;
+    private final long subjectHash;
+    private final long issuerHash;
+    private final long[] typeHashes;
+    private final long deletedLocation;
+    @Getter(AccessLevel.NONE)
+    private final int jwtOffset;
+
+    private Record(byte[] bytes, byte kind, long id, long expiration, long subjectHash, long issuerHash, long[] typeHashes, long deletedLocation, int jwtOffset) {
+        this.bytes = bytes;
+        this.kind = kind;
+        this.id = id;
+        this.expiration = expiration;
+        this.subjectHash = subjectHash;
+        this.issuerHash = issuerHash;
+        this.typeHashes = typeHashes;
+        this.deletedLocation = deletedLocation;
+        this.jwtOffset = jwtOffset;
+    }
+
+    /**
+     * @param expiration the expiration time in milliseconds since the epoch, or {@link #NO_EXPIRATION}
+     */
+    static Record put(long id, long expiration, long subjectHash, long issuerHash, long[] typeHashes, String jwt) {
+        if (typeHashes.length > MAX_TYPES) {
+            throw new IllegalArgumentException("Too many types: " + typeHashes.length);
+        }
+        byte[] jwtBytes = jwt.getBytes(UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(PUT_HEADER_SIZE + 8 * typeHashes.length + jwtBytes.length);
+        buffer.putInt(buffer.capacity() - LENGTH_SIZE).putInt(0).put(KIND_PUT).putLong(id);
+        buffer.putLong(expiration).putLong(subjectHash).putLong(issuerHash).putShort((short) typeHashes.length);
+        for (long typeHash : typeHashes) {
+            buffer.putLong(typeHash);
+        }
+        int jwtOffset = buffer.position();
+        buffer.put(jwtBytes);
+        seal(buffer);
+        return new Record(buffer.array(), KIND_PUT, id, expiration, subjectHash, issuerHash, typeHashes, 0, jwtOffset);
+    }
+
+    static Record delete(long id, long deletedLocation) {
+        ByteBuffer buffer = ByteBuffer.allocate(DELETE_SIZE);
+        buffer.putInt(DELETE_SIZE - LENGTH_SIZE).putInt(0).put(KIND_DELETE).putLong(id).putLong(deletedLocation);
+        seal(buffer);
+        return new Record(buffer.array(), KIND_DELETE, id, NO_EXPIRATION, 0, 0, new long[0], deletedLocation, DELETE_SIZE);
+    }
+
+    /**
+     * Decodes the record, including its length.
+     *
+     * @return null if the record is corrupted
+     */
+    static Record decode(byte[] bytes) {
+        if (bytes.length < LENGTH_SIZE + MIN_LENGTH || ByteBuffer.wrap(bytes).getInt(CHECKSUM_OFFSET) != checksum(bytes)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(KIND_OFFSET);
+        byte kind = buffer.get();
+        long id = buffer.getLong();
+        try {
+            if (kind == KIND_PUT) {
+                long expiration = buffer.getLong();
+                long subjectHash = buffer.getLong();
+                long issuerHash = buffer.getLong();
+                long[] typeHashes = new long[buffer.getShort() & MAX_TYPES];
+                for (int i = 0; i < typeHashes.length; i++) {
+                    typeHashes[i] = buffer.getLong();
+                }
+                return new Record(bytes, kind, id, expiration, subjectHash, issuerHash, typeHashes, 0, buffer.position());
+            } else if (kind == KIND_DELETE) {
+                return new Record(bytes, kind, id, NO_EXPIRATION, 0, 0, new long[0], buffer.getLong(), DELETE_SIZE);
+            }
+        } catch (BufferUnderflowException e) {
+            // fall through
+        }
+        return null;
+    }
+
+    int getLength() {
+        return bytes.length;
+    }
+
+    String getJwt() {
+        return new String(bytes, jwtOffset, bytes.length - jwtOffset, UTF_8);
+    }
+
+    private static void seal(ByteBuffer buffer) {
+        buffer.putInt(CHECKSUM_OFFSET, checksum(buffer.array()));
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, KIND_OFFSET, bytes.length - KIND_OFFSET);
+        return (int) crc.getValue();
+    }
+}
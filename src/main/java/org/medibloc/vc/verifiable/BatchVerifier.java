@@ -0,0 +1,226 @@
+package org.medibloc.vc.verifiable;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies a batch of {@link VerifiableCredential}s in parallel, using the given executor.
+ *
+ * Keys are resolved only once per distinct key ID in a batch, on the calling thread, before any signature is verified.
+ * Then, signatures are verified concurrently by the executor and the calling thread, and the results are returned in the input order.
+ * The calling thread never waits for a task which hasn't started, so {@code verify} can be called by a task of the same executor.
+ * A resolved key is used only for credentials whose issuer owns the key ID (see {@link KeyBinding}).
+ * In the fail-fast mode, the first failure stops the verification of the rest, which are reported as SKIPPED.
+ *
+ * The executor is not owned by this class, so it is not shut down by this class.
+ */
+public class BatchVerifier {
+    private final ExecutorService executor;
+    private final boolean failFast;
+
+    public BatchVerifier(ExecutorService executor, boolean failFast) {
+        Assert.notNull(executor, "executor must not be null");
+        this.executor = executor;
+        this.failFast = failFast;
+    }
+
+    public BatchVerifier(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    public VerificationResult[] verify(Collection<? extends VerifiableCredential> vcs, KeyResolver keyResolver) throws InterruptedException {
+        return verify(vcs, keyResolver, null);
+    }
+
+    /**
+     * @param nonce the nonce expected in all credentials, or null if not checked
+     */
+    public VerificationResult[] verify(Collection<? extends VerifiableCredential> vcs, KeyResolver keyResolver, String nonce) throws InterruptedException {
+        return verify(vcs, keyResolver, nonce, null);
+    }
+
+    /**
+     * @param precondition checked in the task of each credential before its signature, or null
+     */
+    VerificationResult[] verify(Collection<? extends VerifiableCredential> vcs, KeyResolver keyResolver, final String nonce, final Precondition precondition) throws InterruptedException {
+        Assert.notNull(vcs, "vcs must not be null");
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+
+        final List<VerifiableCredential> items = new ArrayList<VerifiableCredential>(vcs);
+        final VerificationResult[] results = new VerificationResult[items.size()];
+        Arrays.fill(results, VerificationResult.skipped());
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+
+        // Group items by key ID, so that each key is resolved only once.
+        Map<String, List<Integer>> indexesByKeyId = new LinkedHashMap<String, List<Integer>>();
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                String keyId = items.get(i).getKeyId();
+                if (keyId == null) {
+                    throw new VerifiableCredentialException("JWT doesn't have a key ID");
+                }
+                List<Integer> indexes = indexesByKeyId.get(keyId);
+                if (indexes == null) {
+                    indexes = new ArrayList<Integer>();
+                    indexesByKeyId.put(keyId, indexes);
+                }
+                indexes.add(i);
+            } catch (VerifiableCredentialException e) {
+                results[i] = VerificationResult.failed(e);
+                if (failFast) {
+                    return results;
+                }
+            }
+        }
+
+        // Keys are resolved on the calling thread, so that no task waits for another task of the executor.
+        Map<String, PublicKey> keys = new LinkedHashMap<String, PublicKey>();
+        int count = 0;
+        for (Map.Entry<String, List<Integer>> entry : indexesByKeyId.entrySet()) {
+            try {
+                keys.put(entry.getKey(), resolve(keyResolver, entry.getKey()));
+                count += entry.getValue().size();
+            } catch (Exception e) {
+                VerificationResult failure = VerificationResult.failed(toVerifiableCredentialException(e));
+                for (int index : entry.getValue()) {
+                    results[index] = failure;
+                }
+                if (failFast) {
+                    return results;
+                }
+            }
+        }
+
+        // Each task is run once, either by the executor or by the calling thread, whichever claims it first.
+        // The calling thread runs tasks which the executor hasn't started yet, instead of waiting for them,
+        // so that the batch completes even if all threads of the executor are busy (e.g. calling this method).
+        final CountDownLatch completed = new CountDownLatch(count);
+        List<Runnable> tasks = new ArrayList<Runnable>(count);
+        List<Future<?>> futures = new ArrayList<Future<?>>(count);
+        for (Map.Entry<String, PublicKey> entry : keys.entrySet()) {
+            // Each credential checks that the key ID belongs to its issuer, before using the resolved key.
+            final KeyResolver resolvedKey = new ResolvedKey(entry.getKey(), entry.getValue());
+            for (final int index : indexesByKeyId.get(entry.getKey())) {
+                final AtomicBoolean claimed = new AtomicBoolean(false);
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!claimed.compareAndSet(false, true)) {
+                            return;
+                        }
+                        try {
+                            if (stopped.get()) {
+                                return;
+                            }
+                            if (precondition != null) {
+                                precondition.check(index, items.get(index));
+                            }
+                            if (nonce != null) {
+                                items.get(index).verify(resolvedKey, nonce);
+                            } else {
+                                items.get(index).verify(resolvedKey);
+                            }
+                            results[index] = VerificationResult.verified();
+                        } catch (Exception e) {
+                            results[index] = VerificationResult.failed(toVerifiableCredentialException(e));
+                            if (failFast) {
+                                stopped.set(true);
+                            }
+                        } finally {
+                            completed.countDown();
+                        }
+                    }
+                };
+                tasks.add(task);
+                try {
+                    futures.add(executor.submit(task));
+                } catch (RejectedExecutionException e) {
+                    // run by the calling thread below
+                }
+            }
+        }
+
+        try {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            // Tasks are not cancelled on a failure, but they skip the verification by themselves.
+            // So, all tasks are completed before returning, and no result is written after that.
+            completed.await();
+        } catch (InterruptedException e) {
+            stopped.set(true);
+            cancelAll(futures);
+            throw e;
+        }
+
+        // Each result has been written by a task which has counted down the latch before await() returned (happens-before).
+        return results;
+    }
+
+    private static void cancelAll(Collection<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    private static PublicKey resolve(KeyResolver keyResolver, String keyId) throws VerifiableCredentialException {
+        PublicKey publicKey = keyResolver.resolve(keyId);
+        if (publicKey == null) {
+            throw new VerifiableCredentialException("Key not found: " + keyId);
+        }
+        return publicKey;
+    }
+
+    private static VerifiableCredentialException toVerifiableCredentialException(Throwable t) {
+        if (t instanceof VerifiableCredentialException) {
+            return (VerifiableCredentialException) t;
+        }
+        if (t instanceof Exception) {
+            return new VerifiableCredentialException((Exception) t);
+        }
+        return new VerifiableCredentialException(String.valueOf(t));
+    }
+
+    /**
+     * A check of a credential, other than its signature, which runs in parallel with the verification of others.
+     */
+    interface Precondition {
+        /**
+         * @param index the index of the credential in the batch
+         */
+        void check(int index, VerifiableCredential vc) throws VerifiableCredentialException;
+    }
+
+    /**
+     * Returns the key resolved in advance for its key ID.
+     */
+    private static class ResolvedKey implements KeyResolver {
+        private final String keyId;
+        private final PublicKey publicKey;
+
+        private ResolvedKey(String keyId, PublicKey publicKey) {
+            this.keyId = keyId;
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public PublicKey resolve(String keyId) {
+            return this.keyId.equals(keyId) ? publicKey : null;
+        }
+    }
+}
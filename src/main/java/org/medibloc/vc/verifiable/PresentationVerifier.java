@@ -0,0 +1,68 @@
+package org.medibloc.vc.verifiable;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.verifiable.jwt.CompactJwtVerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Verifies a {@link VerifiablePresentation} deeply, including all {@link VerifiableCredential}s embedded in it.
+ *
+ * The presentation (its signature by the holder, verifier and nonce) is verified first.
+ * Then, all credentials are verified in parallel by a {@link BatchVerifier} in the fail-fast mode:
+ * each task checks that the subject of the credential is the holder of the presentation, and verifies its signature.
+ * The verification stops at the first failure.
+ */
+public class PresentationVerifier {
+    private final BatchVerifier batchVerifier;
+
+    public PresentationVerifier(ExecutorService executor) {
+        this.batchVerifier = new BatchVerifier(executor, true);
+    }
+
+    /**
+     * @param keyResolver resolves keys of both the holder and the issuers of credentials
+     */
+    public void verify(VerifiablePresentation vp, KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException, InterruptedException {
+        Assert.notNull(vp, "vp must not be null");
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+
+        // The key ID must belong to the holder (see KeyBinding), so the presentation has been signed by the holder.
+        vp.verify(keyResolver, verifier, nonce);
+
+        final Presentation presentation = vp.getPresentation();
+        List<VerifiableCredential> vcs = presentation.getVerifiableCredentials();
+        VerificationResult[] results = batchVerifier.verify(vcs, keyResolver, null, new BatchVerifier.Precondition() {
+            @Override
+            public void check(int index, VerifiableCredential vc) throws VerifiableCredentialException {
+                String subject = getSubjectId(vc);
+                if (!presentation.getHolder().equals(subject)) {
+                    throw new VerifiableCredentialException("The subject of the credential #" + index + " is not the holder: " + subject + ", expected: " + presentation.getHolder());
+                }
+            }
+        });
+        for (int i = 0; i < results.length; i++) {
+            if (results[i].getStatus() == VerificationResult.Status.FAILED) {
+                throw new VerifiableCredentialException("The credential #" + i + " is not verified", results[i].getError());
+            }
+        }
+    }
+
+    /**
+     * Reads only the subject from the payload of a JWT, instead of decoding the whole credential.
+     */
+    private static String getSubjectId(VerifiableCredential vc) throws VerifiableCredentialException {
+        if (vc instanceof JwtVerifiableCredential) {
+            return ((JwtVerifiableCredential) vc).getCredentialView().getSubjectId();
+        }
+        if (vc instanceof CompactJwtVerifiableCredential) {
+            return ((CompactJwtVerifiableCredential) vc).getCredentialView().getSubjectId();
+        }
+        return vc.getCredential().getCredentialSubject().getId();
+    }
+}
@@ -0,0 +1,130 @@
+package org.medibloc.vc.verifiable;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.ExpiringSet;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.Presentation;
+
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies credentials and presentations, and rejects ones which have been verified before (replays).
+ *
+ * After a token is verified successfully, its ID (the 'jti' of a JWT) and the expected nonce are recorded
+ * in an {@link ExpiringSet}. A token is rejected if any of them has been recorded before, and then neither is recorded.
+ * IDs are scoped by the issuer (or the holder), since they are unique only within the issuer.
+ * Records are kept until the credential expires, or during the retention if the token doesn't expire.
+ *
+ * A token which has neither an ID nor an expected nonce cannot be distinguished from its replays, so it is rejected.
+ * If the set is full, tokens are rejected rather than accepted without the replay detection.
+ */
+public class ReplayGuard {
+    private final ExpiringSet seen;
+    private final long retentionMillis;
+
+    /**
+     * @param retention how long records are kept for tokens which don't have expiration dates
+     */
+    public ReplayGuard(ExpiringSet seen, long retention, TimeUnit unit) {
+        Assert.notNull(seen, "seen must not be null");
+        Assert.notNull(unit, "unit must not be null");
+        if (retention <= 0) {
+            throw new IllegalArgumentException("retention must be positive");
+        }
+        this.seen = seen;
+        this.retentionMillis = unit.toMillis(retention);
+    }
+
+    public void verify(VerifiableCredential vc, PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        if (nonce != null) {
+            vc.verify(publicKey, nonce);
+        } else {
+            vc.verify(publicKey);
+        }
+        check(vc, nonce);
+    }
+
+    public void verify(VerifiableCredential vc, KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        if (nonce != null) {
+            vc.verify(keyResolver, nonce);
+        } else {
+            vc.verify(keyResolver);
+        }
+        check(vc, nonce);
+    }
+
+    public void verify(VerifiablePresentation vp, PublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        vp.verify(publicKey, verifier, nonce);
+        check(vp, nonce);
+    }
+
+    public void verify(VerifiablePresentation vp, KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        vp.verify(keyResolver, verifier, nonce);
+        check(vp, nonce);
+    }
+
+    /**
+     * Records the credential which has been already verified, or throws if it has been recorded before.
+     */
+    public void check(VerifiableCredential vc, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        Credential credential = vc.getCredential();
+        String id = credential.getId() != null ? "vc " + credential.getIssuer().getId() + " " + credential.getId() : null;
+        record(id, nonce, expiresAt(credential.getExpirationDate()));
+    }
+
+    /**
+     * Records the presentation which has been already verified, or throws if it has been recorded before.
+     */
+    public void check(VerifiablePresentation vp, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        Presentation presentation = vp.getPresentation();
+        String id = presentation.getId() != null ? "vp " + presentation.getHolder() + " " + presentation.getId() : null;
+        record(id, nonce, expiresAt(null));
+    }
+
+    /**
+     * Records both the ID and the nonce, or neither: the ID is removed again if the nonce cannot be recorded,
+     * so that a rejected token doesn't make the ID unusable.
+     */
+    private void record(String id, String nonce, long expiresAt) throws VerifiableCredentialException {
+        if (id == null && nonce == null) {
+            throw new VerifiableCredentialException("Neither an ID nor a nonce exists to detect replays");
+        }
+        try {
+            if (id != null && !seen.add(id, expiresAt)) {
+                throw new VerifiableCredentialException("Replayed ID: " + id);
+            }
+            boolean recorded = false;
+            try {
+                if (nonce != null && !seen.add("nonce " + nonce, expiresAt)) {
+                    throw new VerifiableCredentialException("Replayed nonce: " + nonce);
+                }
+                recorded = true;
+            } finally {
+                if (!recorded && id != null) {
+                    seen.remove(id);
+                }
+            }
+        } catch (IllegalStateException e) {
+            throw new VerifiableCredentialException("Failed to record the token for replay detection", e);
+        }
+    }
+
+    private long expiresAt(Date expirationDate) {
+        long now = System.currentTimeMillis();
+        if (expirationDate != null && expirationDate.getTime() > now) {
+            return expirationDate.getTime();
+        }
+        // Records of expired credentials are also kept, since the expiration date is not verified by this library.
+        return now + retentionMillis;
+    }
+}
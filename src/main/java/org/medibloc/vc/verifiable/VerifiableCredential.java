@@ -7,17 +7,22 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
 import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.verifiable.cwt.CwtVerifiableCredential;
 import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.MerkleJwtVerifiableCredential;
 
 import java.io.IOException;
-import java.security.interfaces.ECPublicKey;
+import java.security.PublicKey;
 
 @JsonDeserialize(using = VerifiableCredential.JsonDeserializer.class)
 public interface VerifiableCredential {
     public Credential getCredential() throws VerifiableCredentialException;
-    public void verify(ECPublicKey publicKey) throws VerifiableCredentialException;
-    public void verify(ECPublicKey publicKey, String nonce) throws VerifiableCredentialException;
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException;
+    public void verify(PublicKey publicKey, String nonce) throws VerifiableCredentialException;
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException;
+    public void verify(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException;
     public String getKeyId() throws VerifiableCredentialException;
     public String serialize();
 
@@ -34,7 +39,16 @@ public interface VerifiableCredential {
         public VerifiableCredential deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException, JsonProcessingException {
             JsonNode node = jsonParser.getCodec().readTree(jsonParser);
             if (node.isTextual()) {
-                return new JwtVerifiableCredential(node.asText());
+                // A JWT has dots between its segments, which are not in the Base64URL alphabet of a CWT.
+                // A Merkle-batched credential has a JWS followed by segments separated by '~'.
+                String text = node.asText();
+                if (text.indexOf('~') >= 0) {
+                    return new MerkleJwtVerifiableCredential(text);
+                }
+                return text.indexOf('.') >= 0 ? new JwtVerifiableCredential(text) : new CwtVerifiableCredential(text);
+            }
+            if (node.isBinary()) {
+                return new CwtVerifiableCredential(node.binaryValue());
             }
             throw new IOException("unexpected value type: " + node.getNodeType());
         }
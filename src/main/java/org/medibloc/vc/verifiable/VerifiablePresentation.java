@@ -1,14 +1,17 @@
 package org.medibloc.vc.verifiable;
 
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
 import org.medibloc.vc.model.Presentation;
 
-import java.security.interfaces.ECPublicKey;
+import java.security.PublicKey;
 
 public interface VerifiablePresentation {
     public Presentation getPresentation() throws VerifiableCredentialException;
-    public void verify(ECPublicKey publicKey) throws VerifiableCredentialException;
-    public void verify(ECPublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException;
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException;
+    public void verify(PublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException;
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException;
+    public void verify(KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException;
     public String getKeyId() throws VerifiableCredentialException;
     public String serialize();
 }
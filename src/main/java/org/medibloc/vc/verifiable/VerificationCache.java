@@ -0,0 +1,244 @@
+package org.medibloc.vc.verifiable;
+
+import com.nimbusds.jose.util.Base64URL;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.cache.DigestStore;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.verifiable.cwt.CwtVerifiablePresentation;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiablePresentation;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches successful verifications, so that verifying the same token again skips the signature verification.
+ *
+ * An entry is indexed by the SHA-256 digest of the serialized token, the public key and all expected values (nonce, verifier).
+ * So, a cache hit means that exactly the same verification has succeeded before.
+ * Failures are never cached.
+ *
+ * With a {@link KeyResolver}, an entry is indexed by the key ID in the token instead of the public key,
+ * so that a hit skips the key resolution as well. This assumes that the key of a key ID doesn't change within the TTL.
+ * On a miss, the key must belong to the issuer or holder of the token (see {@link KeyBinding}),
+ * which is read from the 'iss' claim of JWTs and CWTs without decoding the whole payload.
+ *
+ * An entry expires at the expiration date of the credential or after the TTL, whichever comes first.
+ * Entries are kept in a {@link BoundedCache}, and optionally in a second-tier {@link DigestStore} shared by multiple nodes.
+ * Failures of the second tier are ignored: the token is just verified as usual.
+ */
+public class VerificationCache {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String DIGEST_ALGO = "SHA-256";
+    private static final String KEY_ID_PREFIX = "kid:";
+
+    // MessageDigest is not thread-safe.
+    private static final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>();
+
+    private final BoundedCache<String, Boolean> cache;
+    private final long ttlMillis;
+    private final DigestStore secondTier;  // nullable
+
+    private final AtomicLong secondTierHitCount = new AtomicLong();
+    private final AtomicLong secondTierErrorCount = new AtomicLong();
+
+    public VerificationCache(int maxSize, long ttl, TimeUnit unit, DigestStore secondTier) {
+        Assert.notNull(unit, "unit must not be null");
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.cache = new BoundedCache<String, Boolean>(maxSize, ttl, unit);
+        this.ttlMillis = unit.toMillis(ttl);
+        this.secondTier = secondTier;
+    }
+
+    public VerificationCache(int maxSize, long ttl, TimeUnit unit) {
+        this(maxSize, ttl, unit, null);
+    }
+
+    public void verify(VerifiableCredential vc, PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        Assert.notNull(publicKey, "publicKey must not be null");
+        verify(vc, publicKey.getEncoded(), publicKey, null, nonce);
+    }
+
+    public void verify(VerifiableCredential vc, KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        Assert.notNull(vc, "vc must not be null");
+        verify(vc, keyIdEntry(vc.getKeyId()), null, keyResolver, nonce);
+    }
+
+    /**
+     * Verifies with the public key if not null, or with the key resolved by the key resolver.
+     */
+    private void verify(VerifiableCredential vc, byte[] key, PublicKey publicKey, KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        String digest = digest(vc.serialize(), key, nonce, null);
+        if (cache.get(digest) != null) {
+            return;
+        }
+
+        boolean inSecondTier = isInSecondTier(digest);
+        if (!inSecondTier) {
+            if (publicKey == null) {
+                publicKey = KeyBinding.resolve(keyResolver, vc.getKeyId(), issuer(vc), "credential");
+            }
+            if (nonce != null) {
+                vc.verify(publicKey, nonce);
+            } else {
+                vc.verify(publicKey);
+            }
+        }
+        cache(digest, expirationDate(vc), !inSecondTier);
+    }
+
+    public void verify(VerifiablePresentation vp, PublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        Assert.notNull(publicKey, "publicKey must not be null");
+        verify(vp, publicKey.getEncoded(), publicKey, null, verifier, nonce);
+    }
+
+    public void verify(VerifiablePresentation vp, KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        Assert.notNull(vp, "vp must not be null");
+        verify(vp, keyIdEntry(vp.getKeyId()), null, keyResolver, verifier, nonce);
+    }
+
+    private void verify(VerifiablePresentation vp, byte[] key, PublicKey publicKey, KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException {
+        String digest = digest(vp.serialize(), key, nonce, verifier);
+        if (cache.get(digest) != null) {
+            return;
+        }
+
+        boolean inSecondTier = isInSecondTier(digest);
+        if (!inSecondTier) {
+            if (publicKey == null) {
+                publicKey = KeyBinding.resolve(keyResolver, vp.getKeyId(), holder(vp), "presentation");
+            }
+            vp.verify(publicKey, verifier, nonce);
+        }
+        cache(digest, null, !inSecondTier);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    public long getSecondTierHitCount() {
+        return secondTierHitCount.get();
+    }
+
+    public long getSecondTierErrorCount() {
+        return secondTierErrorCount.get();
+    }
+
+    private boolean isInSecondTier(String digest) {
+        if (secondTier == null) {
+            return false;
+        }
+        try {
+            if (secondTier.contains(digest)) {
+                secondTierHitCount.incrementAndGet();
+                return true;
+            }
+        } catch (IOException e) {
+            secondTierErrorCount.incrementAndGet();
+        }
+        return false;
+    }
+
+    private void cache(String digest, Date expirationDate, boolean toSecondTier) {
+        long ttl = ttlMillis;
+        if (expirationDate != null) {
+            ttl = Math.min(ttl, expirationDate.getTime() - System.currentTimeMillis());
+        }
+        if (ttl <= 0) {
+            return;  // already expired
+        }
+
+        cache.put(digest, Boolean.TRUE, ttl, TimeUnit.MILLISECONDS);
+        if (toSecondTier && secondTier != null) {
+            try {
+                secondTier.add(digest, ttl);
+            } catch (IOException e) {
+                secondTierErrorCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Reads the claims of a JWT without decoding the credentialSubject (see {@link org.medibloc.vc.verifiable.jwt.JwtCredentialView}).
+     */
+    private static String issuer(VerifiableCredential vc) throws VerifiableCredentialException {
+        if (vc instanceof JwtVerifiableCredential) {
+            return ((JwtVerifiableCredential) vc).getCredentialView().getIssuerId();
+        }
+        return vc.getCredential().getIssuer().getId();
+    }
+
+    private static Date expirationDate(VerifiableCredential vc) throws VerifiableCredentialException {
+        if (vc instanceof JwtVerifiableCredential) {
+            return ((JwtVerifiableCredential) vc).getCredentialView().getExpirationDate();
+        }
+        return vc.getCredential().getExpirationDate();
+    }
+
+    private static String holder(VerifiablePresentation vp) throws VerifiableCredentialException {
+        if (vp instanceof JwtVerifiablePresentation) {
+            return ((JwtVerifiablePresentation) vp).getHolder();
+        } else if (vp instanceof CwtVerifiablePresentation) {
+            return ((CwtVerifiablePresentation) vp).getHolder();
+        }
+        return vp.getPresentation().getHolder();
+    }
+
+    /**
+     * Returns the key part of an entry indexed by a key ID.
+     * It never collides with an encoded public key, which is a DER sequence starting with 0x30.
+     */
+    private static byte[] keyIdEntry(String keyId) throws VerifiableCredentialException {
+        if (keyId == null) {
+            throw new VerifiableCredentialException("The token doesn't have a key ID");
+        }
+        return (KEY_ID_PREFIX + keyId).getBytes(UTF8);
+    }
+
+    private static String digest(String token, byte[] key, String nonce, String verifier) throws VerifiableCredentialException {
+        MessageDigest md = digests.get();
+        if (md == null) {
+            try {
+                md = MessageDigest.getInstance(DIGEST_ALGO);
+            } catch (NoSuchAlgorithmException e) {
+                throw new VerifiableCredentialException(e);
+            }
+            digests.set(md);
+        }
+
+        md.reset();
+        update(md, token.getBytes(UTF8));
+        update(md, key);
+        update(md, nonce != null ? nonce.getBytes(UTF8) : null);
+        update(md, verifier != null ? verifier.getBytes(UTF8) : null);
+        return Base64URL.encode(md.digest()).toString();
+    }
+
+    /**
+     * Updates the digest with a length-prefixed value, so that concatenated values are not ambiguous.
+     */
+    private static void update(MessageDigest md, byte[] value) {
+        int length = value != null ? value.length : -1;
+        md.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        if (value != null) {
+            md.update(value);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.medibloc.vc.verifiable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.medibloc.vc.VerifiableCredentialException;
+
+/**
+ * The result of verifying a single verifiable, such as an item of a batch.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@EqualsAndHashCode
+@ToString
+public class VerificationResult {
+    public enum Status {
+        VERIFIED,
+        FAILED,
+        // not verified because the verification has been stopped by another failure
+        SKIPPED,
+    }
+
+    private static final VerificationResult VERIFIED = new VerificationResult(Status.VERIFIED, null);
+    private static final VerificationResult SKIPPED = new VerificationResult(Status.SKIPPED, null);
+
+    private final Status status;
+    private final VerifiableCredentialException error;  // only for FAILED
+
+    public static VerificationResult verified() {
+        return VERIFIED;
+    }
+
+    public static VerificationResult failed(VerifiableCredentialException error) {
+        return new VerificationResult(Status.FAILED, error);
+    }
+
+    public static VerificationResult skipped() {
+        return SKIPPED;
+    }
+
+    public boolean isVerified() {
+        return status == Status.VERIFIED;
+    }
+}
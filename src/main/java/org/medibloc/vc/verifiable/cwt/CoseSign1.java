@@ -0,0 +1,253 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import com.nimbusds.jose.JWSAlgorithm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * A COSE_Sign1 message (https://tools.ietf.org/html/rfc8152#section-4.2), the signed envelope of CWTs.
+ *
+ * Only the structure of the envelope is encoded/decoded here, with the Jackson CBOR generator/parser:
+ * the 'alg' in the protected header, the 'kid' in the unprotected header, the payload and the signature.
+ * Arrays and maps are written with definite lengths, as required for the Sig_structure (https://tools.ietf.org/html/rfc8152#section-14).
+ * The signature is the same as a JWS one (e.g. R || S for ECDSA), but over the Sig_structure.
+ */
+final class CoseSign1 {
+    static final int TAG = 18;
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // https://tools.ietf.org/html/rfc8152#section-3.1
+    // Integer labels are read as field names by the parser.
+    private static final int HEADER_ALG = 1;
+    private static final int HEADER_KID = 4;
+    private static final String HEADER_ALG_NAME = String.valueOf(HEADER_ALG);
+    private static final String HEADER_KID_NAME = String.valueOf(HEADER_KID);
+
+    private static final String CONTEXT_SIGNATURE1 = "Signature1";
+    private static final byte[] NO_EXTERNAL_AAD = new byte[0];
+
+    private final byte[] protectedHeader;
+    private final JWSAlgorithm algorithm;
+    private final String keyId;
+    private final byte[] payload;
+    private final byte[] signature;
+
+    private CoseSign1(byte[] protectedHeader, JWSAlgorithm algorithm, String keyId, byte[] payload, byte[] signature) {
+        this.protectedHeader = protectedHeader;
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.payload = payload;
+        this.signature = signature;
+    }
+
+    JWSAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the 'kid', or null.
+     */
+    String getKeyId() {
+        return keyId;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    byte[] getSignature() {
+        return signature;
+    }
+
+    /**
+     * Returns the bytes to be signed (https://tools.ietf.org/html/rfc8152#section-4.4).
+     */
+    byte[] getSigningInput() throws IOException {
+        return signingInput(protectedHeader, payload);
+    }
+
+    /**
+     * Encodes the protected header which has only the 'alg'.
+     */
+    static byte[] protectedHeader(JWSAlgorithm algorithm) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+        CBORGenerator gen = CBOR_FACTORY.createGenerator(out);
+        try {
+            gen.writeStartObject(1);
+            gen.writeFieldId(HEADER_ALG);
+            gen.writeNumber(coseAlgorithm(algorithm));
+            gen.writeEndObject();
+        } finally {
+            gen.close();
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] signingInput(byte[] protectedHeader, byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + protectedHeader.length + 32);
+        CBORGenerator gen = CBOR_FACTORY.createGenerator(out);
+        try {
+            gen.writeStartArray(4);
+            gen.writeString(CONTEXT_SIGNATURE1);
+            gen.writeBinary(protectedHeader);
+            gen.writeBinary(NO_EXTERNAL_AAD);
+            gen.writeBinary(payload);
+            gen.writeEndArray();
+        } finally {
+            gen.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a tagged COSE_Sign1 message.
+     */
+    static byte[] encode(byte[] protectedHeader, String keyId, byte[] payload, byte[] signature) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length + signature.length + 128);
+        CBORGenerator gen = CBOR_FACTORY.createGenerator(out);
+        try {
+            gen.writeTag(TAG);
+            gen.writeStartArray(4);
+            gen.writeBinary(protectedHeader);
+            if (keyId != null) {
+                gen.writeStartObject(1);
+                gen.writeFieldId(HEADER_KID);
+                gen.writeBinary(keyId.getBytes(UTF_8));
+            } else {
+                gen.writeStartObject(0);
+            }
+            gen.writeEndObject();
+            gen.writeBinary(payload);
+            gen.writeBinary(signature);
+            gen.writeEndArray();
+        } finally {
+            gen.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a COSE_Sign1 message, which may be tagged or not.
+     *
+     * @throws IOException if the message (including the protected header) is malformed or has trailing bytes
+     * @throws IllegalArgumentException if the algorithm is not supported
+     */
+    static CoseSign1 decode(byte[] message) throws IOException {
+        CBORParser parser = CBOR_FACTORY.createParser(message);
+        try {
+            expect(parser.nextToken(), JsonToken.START_ARRAY);
+            int tag = parser.getCurrentTag();
+            if (tag >= 0 && tag != TAG) {
+                throw new IOException("Not a COSE_Sign1 tag: " + tag);
+            }
+            byte[] protectedHeader = readBytes(parser);
+
+            // the unprotected header
+            String keyId = null;
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String label = parser.getCurrentName();
+                if (HEADER_KID_NAME.equals(label)) {
+                    keyId = new String(readBytes(parser), UTF_8);
+                } else {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+
+            byte[] payload = readBytes(parser);
+            byte[] signature = readBytes(parser);
+            expect(parser.nextToken(), JsonToken.END_ARRAY);
+            if (parser.nextToken() != null) {
+                throw new IOException("Trailing bytes after COSE_Sign1");
+            }
+            return new CoseSign1(protectedHeader, jwsAlgorithm(readAlgorithm(protectedHeader)), keyId, payload, signature);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Reads the 'alg' from the protected header, which is a serialized map.
+     */
+    private static int readAlgorithm(byte[] protectedHeader) throws IOException {
+        Integer alg = null;
+        CBORParser parser = CBOR_FACTORY.createParser(protectedHeader);
+        try {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String label = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (HEADER_ALG_NAME.equals(label)) {
+                    expect(value, JsonToken.VALUE_NUMBER_INT);
+                    alg = parser.getIntValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IOException("Trailing bytes after the protected header");
+            }
+        } finally {
+            parser.close();
+        }
+        if (alg == null) {
+            throw new IOException("The protected header doesn't have an 'alg'");
+        }
+        return alg;
+    }
+
+    private static byte[] readBytes(CBORParser parser) throws IOException {
+        expect(parser.nextToken(), JsonToken.VALUE_EMBEDDED_OBJECT);
+        return parser.getBinaryValue();
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("unexpected CBOR token: " + actual + ", expected: " + expected);
+        }
+    }
+
+    /**
+     * Maps a JWS algorithm to a COSE one (https://www.iana.org/assignments/cose/cose.xhtml#algorithms).
+     */
+    static int coseAlgorithm(JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            return -7;
+        } else if (JWSAlgorithm.ES384.equals(algorithm)) {
+            return -35;
+        } else if (JWSAlgorithm.ES512.equals(algorithm)) {
+            return -36;
+        } else if (JWSAlgorithm.ES256K.equals(algorithm)) {
+            return -47;
+        } else if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return -8;
+        }
+        throw new IllegalArgumentException("Unsupported algorithm for COSE: " + algorithm);
+    }
+
+    static JWSAlgorithm jwsAlgorithm(int coseAlgorithm) {
+        switch (coseAlgorithm) {
+            case -7:
+                return JWSAlgorithm.ES256;
+            case -35:
+                return JWSAlgorithm.ES384;
+            case -36:
+                return JWSAlgorithm.ES512;
+            case -47:
+                return JWSAlgorithm.ES256K;
+            case -8:
+                return JWSAlgorithm.EdDSA;
+            default:
+                throw new IllegalArgumentException("Unsupported COSE algorithm: " + coseAlgorithm);
+        }
+    }
+}
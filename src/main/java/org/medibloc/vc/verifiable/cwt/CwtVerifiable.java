@@ -0,0 +1,148 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+import org.medibloc.vc.verifiable.jwt.CborClaims;
+import org.medibloc.vc.verifiable.jwt.JwsVerifiers;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+
+import java.io.IOException;
+import java.security.PublicKey;
+
+/**
+ * A base class of CWT-based verifiables: CBOR Web Tokens (https://tools.ietf.org/html/rfc8392) signed with COSE_Sign1.
+ *
+ * The payload has the same claims as the JWT one, but encoded in CBOR, and it is not Base64URL-encoded.
+ * In JSON, a CWT is represented as a Base64URL string of the COSE_Sign1 message, and in CBOR (e.g. in a CWT presentation) as a byte string.
+ * The message is parsed only once, on the first access, and the parsed result is cached per instance (see JwtVerifiable).
+ */
+@EqualsAndHashCode
+class CwtVerifiable {
+    private final byte[] cose;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile CoseSign1 coseSign1;
+
+    CwtVerifiable(byte[] cose) {
+        Assert.notNull(cose, "cose must not be null");
+        this.cose = cose.clone();
+    }
+
+    CwtVerifiable(String serialized) {
+        Assert.notNull(serialized, "serialized must not be null");
+        this.cose = new Base64URL(serialized).decode();
+    }
+
+    /**
+     * Signs the payload which has been already encoded in CBOR by {@link CborClaims}.
+     */
+    CwtVerifiable(JwtSigner signer, byte[] payload) throws VerifiableCredentialException {
+        Assert.notNull(signer, "signer must not be null");
+        Assert.notNull(payload, "payload must not be null");
+        try {
+            byte[] protectedHeader = CoseSign1.protectedHeader(signer.getAlgorithm());
+            byte[] signature = signer.signDetached(CoseSign1.signingInput(protectedHeader, payload));
+            this.cose = CoseSign1.encode(protectedHeader, signer.getKeyId(), payload, signature);
+        } catch (IllegalArgumentException e) {  // an algorithm not supported by COSE
+            throw new VerifiableCredentialException(e);
+        } catch (IOException e) {
+            throw new VerifiableCredentialException(e);
+        }
+    }
+
+    void verifyCwt(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(publicKey, "publicKey must not be null");
+        CoseSign1 coseSign1 = getCoseSign1();
+
+        long start = Instrumentation.start();
+        if (nonce != null) {
+            String nonceInCwt = CborClaims.readNonce(coseSign1.getPayload());
+            if (!nonce.equals(nonceInCwt)) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_NONCE_MISMATCH);
+                throw new VerifiableCredentialException("CWT nonce doesn't match. Expected:" + nonce + ", Actual:" + nonceInCwt);
+            }
+        }
+
+        try {
+            if (!JwsVerifiers.verify(publicKey, coseSign1.getAlgorithm(), coseSign1.getSigningInput(), coseSign1.getSignature())) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_SIGNATURE);
+                throw new VerifiableCredentialException("CWT verification failed");
+            }
+        } catch (JOSEException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new VerifiableCredentialException(e);
+        } catch (IOException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.VERIFY, start);
+    }
+
+    /**
+     * Verifies the CWT with the public key resolved by the 'kid' in the COSE header.
+     * The 'kid' must belong to the 'iss' of the CWT (see {@link KeyBinding}).
+     */
+    void verifyCwt(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        String issuer = CborClaims.readIssuer(getPayload());
+        PublicKey publicKey = KeyBinding.resolve(keyResolver, getKeyId(), issuer, "CWT");
+        verifyCwt(publicKey, nonce);
+    }
+
+    CoseSign1 getCoseSign1() throws VerifiableCredentialException {
+        CoseSign1 coseSign1 = this.coseSign1;
+        if (coseSign1 == null) {
+            long start = Instrumentation.start();
+            try {
+                coseSign1 = CoseSign1.decode(cose);
+            } catch (IOException e) {
+                Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+                throw new VerifiableCredentialException("Invalid COSE_Sign1", e);
+            } catch (IllegalArgumentException e) {  // an algorithm not supported by COSE
+                Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+                throw new VerifiableCredentialException("Invalid COSE_Sign1", e);
+            }
+            Instrumentation.success(Stage.PARSE, start);
+            Instrumentation.bytes(Stage.PARSE, cose.length);
+            this.coseSign1 = coseSign1;
+        }
+        return coseSign1;
+    }
+
+    /**
+     * Returns the CBOR payload. The returned array must not be modified.
+     */
+    byte[] getPayload() throws VerifiableCredentialException {
+        return getCoseSign1().getPayload();
+    }
+
+    public String getKeyId() throws VerifiableCredentialException {
+        return getCoseSign1().getKeyId();
+    }
+
+    /**
+     * Returns a copy of the COSE_Sign1 message, which is the compact binary form of this CWT.
+     */
+    public byte[] toBytes() {
+        return cose.clone();
+    }
+
+    /**
+     * Returns the COSE_Sign1 message encoded in Base64URL, for JSON representations.
+     */
+    @JsonValue
+    public String serialize() {
+        return Base64URL.encode(cose).toString();
+    }
+}
@@ -0,0 +1,78 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import lombok.EqualsAndHashCode;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.CborClaims;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * A verifiable credential in the form of a CWT signed with COSE_Sign1, which is a compact alternative to JWT.
+ * The credential is encoded in the same claims as {@link org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential}, but in CBOR.
+ */
+@EqualsAndHashCode(callSuper = true)
+public class CwtVerifiableCredential extends CwtVerifiable implements VerifiableCredential {
+    // decoded lazily from the CWT claims, and cached (see JwtVerifiable)
+    @EqualsAndHashCode.Exclude
+    private volatile Credential credential;
+
+    public CwtVerifiableCredential(Credential credential, String jwsAlgo, String keyId, PrivateKey privateKey, String nonce) throws VerifiableCredentialException {
+        this(credential, new JwtSigner(jwsAlgo, keyId, privateKey), nonce);
+    }
+
+    /**
+     * Creates a verifiable credential using a reusable signer, which is cheaper than using a private key directly.
+     */
+    public CwtVerifiableCredential(Credential credential, JwtSigner signer, String nonce) throws VerifiableCredentialException {
+        super(signer, CborClaims.encode(credential, nonce));
+    }
+
+    /**
+     * @param cose a COSE_Sign1 message
+     */
+    public CwtVerifiableCredential(byte[] cose) {
+        super(cose);
+    }
+
+    /**
+     * @param serialized a COSE_Sign1 message encoded in Base64URL, returned by {@link #serialize()}
+     */
+    public CwtVerifiableCredential(String serialized) {
+        super(serialized);
+    }
+
+    @Override
+    public Credential getCredential() throws VerifiableCredentialException {
+        Credential credential = this.credential;
+        if (credential == null) {
+            credential = CborClaims.decodeCredential(super.getPayload());
+            this.credential = credential;
+        }
+        return credential;
+    }
+
+    @Override
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
+        super.verifyCwt(publicKey, null);
+    }
+
+    @Override
+    public void verify(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        super.verifyCwt(publicKey, nonce);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        super.verifyCwt(keyResolver, null);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        super.verifyCwt(keyResolver, nonce);
+    }
+}
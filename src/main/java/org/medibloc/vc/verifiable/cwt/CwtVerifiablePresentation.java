@@ -0,0 +1,95 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import lombok.EqualsAndHashCode;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.verifiable.VerifiablePresentation;
+import org.medibloc.vc.verifiable.jwt.CborClaims;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+/**
+ * A verifiable presentation in the form of a CWT signed with COSE_Sign1, which is a compact alternative to JWT.
+ * The presentation is encoded in the same claims as {@link org.medibloc.vc.verifiable.jwt.JwtVerifiablePresentation}, but in CBOR.
+ * Credentials in it may be either JWTs or CWTs.
+ */
+@EqualsAndHashCode(callSuper = true)
+public class CwtVerifiablePresentation extends CwtVerifiable implements VerifiablePresentation {
+    // decoded lazily from the CWT claims, and cached (see JwtVerifiable)
+    @EqualsAndHashCode.Exclude
+    private volatile Presentation presentation;
+
+    public CwtVerifiablePresentation(Presentation presentation, String jwsAlgo, String keyId, PrivateKey privateKey, String nonce) throws VerifiableCredentialException {
+        this(presentation, new JwtSigner(jwsAlgo, keyId, privateKey), nonce);
+    }
+
+    /**
+     * Creates a verifiable presentation using a reusable signer, which is cheaper than using a private key directly.
+     */
+    public CwtVerifiablePresentation(Presentation presentation, JwtSigner signer, String nonce) throws VerifiableCredentialException {
+        super(signer, CborClaims.encode(presentation, nonce));
+    }
+
+    /**
+     * @param cose a COSE_Sign1 message
+     */
+    public CwtVerifiablePresentation(byte[] cose) {
+        super(cose);
+    }
+
+    /**
+     * @param serialized a COSE_Sign1 message encoded in Base64URL, returned by {@link #serialize()}
+     */
+    public CwtVerifiablePresentation(String serialized) {
+        super(serialized);
+    }
+
+    @Override
+    public Presentation getPresentation() throws VerifiableCredentialException {
+        Presentation presentation = this.presentation;
+        if (presentation == null) {
+            presentation = CborClaims.decodePresentation(super.getPayload());
+            this.presentation = presentation;
+        }
+        return presentation;
+    }
+
+    /**
+     * Returns the holder, reading only the 'iss' claim without decoding the presentation.
+     */
+    public String getHolder() throws VerifiableCredentialException {
+        return CborClaims.readIssuer(super.getPayload());
+    }
+
+    @Override
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
+        super.verifyCwt(publicKey, null);
+    }
+
+    @Override
+    public void verify(PublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException {
+        super.verifyCwt(publicKey, nonce);
+        verifyVerifier(verifier);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        super.verifyCwt(keyResolver, null);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException {
+        super.verifyCwt(keyResolver, nonce);
+        verifyVerifier(verifier);
+    }
+
+    private void verifyVerifier(String verifier) throws VerifiableCredentialException {
+        String verifierInCwt = this.getPresentation().getVerifier();
+        if (verifier == null || !verifier.equals(verifierInCwt)) {
+            throw new VerifiableCredentialException("Unexpected verifier: " + verifierInCwt + ", expected: " + verifier);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.concurrent.BoundedAsyncExecutor;
+import org.medibloc.vc.concurrent.Callback;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.medibloc.vc.verifiable.VerifiablePresentation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+/**
+ * A non-blocking facade for issuing/presenting/verifying JWT-based verifiables.
+ *
+ * Each operation runs on the given executor and returns a {@link Future} immediately.
+ * The result (or the exception) is also passed to an optional {@link Callback}, so that callers don't have to block on the future.
+ * The number of in-flight operations is bounded (see {@link BoundedAsyncExecutor}).
+ */
+public class AsyncJwtService {
+    private final BoundedAsyncExecutor executor;
+
+    public AsyncJwtService(Executor executor, int maxInFlight) {
+        this.executor = new BoundedAsyncExecutor(executor, maxInFlight);
+    }
+
+    /**
+     * @param signer a signer prepared once for the key (see {@link JwtSigner}), so that the key is not parsed per operation
+     */
+    public Future<JwtVerifiableCredential> issue(final Credential credential, final JwtSigner signer, final String nonce,
+                                                 Callback<JwtVerifiableCredential> callback) {
+        return executor.submit(new Callable<JwtVerifiableCredential>() {
+            @Override
+            public JwtVerifiableCredential call() throws Exception {
+                return new JwtVerifiableCredential(credential, signer, nonce);
+            }
+        }, callback);
+    }
+
+    public Future<JwtVerifiablePresentation> present(final Presentation presentation, final JwtSigner signer, final String nonce,
+                                                     Callback<JwtVerifiablePresentation> callback) {
+        return executor.submit(new Callable<JwtVerifiablePresentation>() {
+            @Override
+            public JwtVerifiablePresentation call() throws Exception {
+                return new JwtVerifiablePresentation(presentation, signer, nonce);
+            }
+        }, callback);
+    }
+
+    /**
+     * @param nonce the expected nonce, or null if not checked
+     */
+    public Future<Void> verifyCredential(final VerifiableCredential vc, final KeyResolver keyResolver, final String nonce, Callback<Void> callback) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                if (nonce != null) {
+                    vc.verify(keyResolver, nonce);
+                } else {
+                    vc.verify(keyResolver);
+                }
+                return null;
+            }
+        }, callback);
+    }
+
+    public Future<Void> verifyPresentation(final VerifiablePresentation vp, final KeyResolver keyResolver, final String verifier, final String nonce, Callback<Void> callback) {
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                vp.verify(keyResolver, verifier, nonce);
+                return null;
+            }
+        }, callback);
+    }
+
+    public int getInFlight() {
+        return executor.getInFlight();
+    }
+}
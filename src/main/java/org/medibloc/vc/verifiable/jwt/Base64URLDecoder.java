@@ -0,0 +1,119 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes unpadded Base64URL segments of compact JWSs (https://tools.ietf.org/html/rfc7515#section-2)
+ * from buffers into byte arrays, without intermediate strings.
+ *
+ * Small segments can be decoded into a thread-local buffer which is reused by all decodings in the thread.
+ */
+final class Base64URLDecoder {
+    private static final byte[] DECODE_TABLE = new byte[128];
+    // Larger buffers are not kept, not to hold much memory per thread.
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> buffers = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[1024];
+        }
+    };
+
+    static {
+        for (int i = 0; i < DECODE_TABLE.length; i++) {
+            DECODE_TABLE[i] = -1;
+        }
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Base64URLDecoder() {
+    }
+
+    static boolean isBase64URL(byte b) {
+        return b >= 0 && DECODE_TABLE[b] >= 0;
+    }
+
+    /**
+     * Returns the number of bytes decoded from the number of characters.
+     *
+     * @throws IllegalArgumentException if no Base64URL string has the length
+     */
+    static int decodedLength(int length) {
+        if (length % 4 == 1) {
+            throw new IllegalArgumentException("Invalid Base64URL length: " + length);
+        }
+        return length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1);
+    }
+
+    /**
+     * Returns a thread-local buffer which has at least the length.
+     * The buffer must not be used after calling other methods which may use it (including this).
+     */
+    static byte[] buffer(int length) {
+        if (length > MAX_BUFFER_SIZE) {
+            return new byte[length];
+        }
+        byte[] buffer = buffers.get();
+        if (buffer.length < length) {
+            int size = buffer.length;
+            while (size < length) {
+                size *= 2;
+            }
+            buffer = new byte[size];
+            buffers.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Decodes the characters at [offset, offset + length) of the source into a new array.
+     */
+    static byte[] decode(ByteBuffer src, int offset, int length) {
+        byte[] dst = new byte[decodedLength(length)];
+        decode(src, offset, length, dst);
+        return dst;
+    }
+
+    /**
+     * Decodes the characters at [offset, offset + length) of the source into the destination, from its beginning.
+     * The position of the source is not changed.
+     *
+     * @return the number of bytes decoded
+     * @throws IllegalArgumentException if the characters are not Base64URL
+     */
+    static int decode(ByteBuffer src, int offset, int length, byte[] dst) {
+        int decodedLength = decodedLength(length);
+        int end = offset + length;
+        int i = offset;
+        int j = 0;
+        while (end - i >= 4) {
+            int bits = sextet(src, i) << 18 | sextet(src, i + 1) << 12 | sextet(src, i + 2) << 6 | sextet(src, i + 3);
+            dst[j++] = (byte) (bits >> 16);
+            dst[j++] = (byte) (bits >> 8);
+            dst[j++] = (byte) bits;
+            i += 4;
+        }
+        if (end - i == 2) {
+            int bits = sextet(src, i) << 18 | sextet(src, i + 1) << 12;
+            dst[j++] = (byte) (bits >> 16);
+        } else if (end - i == 3) {
+            int bits = sextet(src, i) << 18 | sextet(src, i + 1) << 12 | sextet(src, i + 2) << 6;
+            dst[j++] = (byte) (bits >> 16);
+            dst[j++] = (byte) (bits >> 8);
+        }
+        return decodedLength;
+    }
+
+    private static int sextet(ByteBuffer src, int index) {
+        byte b = src.get(index);
+        int value = b >= 0 ? DECODE_TABLE[b] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base64URL character at " + index);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,44 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.Presentation;
+
+/**
+ * Encodes/decodes the claims of credentials and presentations in CBOR, for CWTs (see {@code org.medibloc.vc.verifiable.cwt}).
+ * The claims are the same as those of {@link JwtVerifiableCredential} and {@link JwtVerifiablePresentation}, so they share the codec.
+ */
+public final class CborClaims {
+    private CborClaims() {
+    }
+
+    public static byte[] encode(Credential credential, String nonce) throws VerifiableCredentialException {
+        return JwtVerifiableCredential.encode(JwtPayloadCodec.cbor(), credential, nonce);
+    }
+
+    public static byte[] encode(Presentation presentation, String nonce) throws VerifiableCredentialException {
+        return JwtVerifiablePresentation.encode(JwtPayloadCodec.cbor(), presentation, nonce);
+    }
+
+    public static Credential decodeCredential(byte[] payload) throws VerifiableCredentialException {
+        return JwtVerifiableCredential.decode(JwtPayloadCodec.cbor(), payload);
+    }
+
+    public static Presentation decodePresentation(byte[] payload) throws VerifiableCredentialException {
+        return JwtVerifiablePresentation.decode(JwtPayloadCodec.cbor(), payload);
+    }
+
+    /**
+     * Reads only the 'iss' claim, skipping all other claims. Returns null if absent.
+     */
+    public static String readIssuer(byte[] payload) throws VerifiableCredentialException {
+        return JwtPayloadCodec.readStringClaim(JwtPayloadCodec.cbor(), payload, 0, payload.length, JwtPayloadCodec.JWT_CLAIM_NAME_ISS);
+    }
+
+    /**
+     * Reads only the 'nonce' claim, skipping all other claims. Returns null if absent.
+     */
+    public static String readNonce(byte[] payload) throws VerifiableCredentialException {
+        return JwtPayloadCodec.readNonce(JwtPayloadCodec.cbor(), payload, 0, payload.length);
+    }
+}
@@ -0,0 +1,276 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.EqualsAndHashCode;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.json.JsonCodecs;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A JWS in the compact serialization (https://tools.ietf.org/html/rfc7515#section-7.1), kept as raw bytes.
+ *
+ * Unlike a {@link com.nimbusds.jwt.SignedJWT}, it doesn't copy the token into a string, nor decode each segment
+ * into a new array. It provides offset/length views of the header, the payload and the signature,
+ * and they are decoded on demand, into thread-local buffers where possible.
+ *
+ * Only 'alg', 'kid', 'typ' and 'crit' are read from the header, when the token is parsed.
+ * The bytes must not be modified after parsing. This class is thread-safe.
+ */
+@EqualsAndHashCode(of = "token")
+public final class CompactJws {
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    // From 0 to the capacity. It is not made read-only, so that a heap buffer can be passed to JCA without copying.
+    private final ByteBuffer token;
+    private final int firstDot;
+    private final int secondDot;
+
+    private final String algorithm;
+    private final String keyId;
+    private final String type;
+    private final boolean critical;
+
+    private CompactJws(ByteBuffer token, int firstDot, int secondDot, String algorithm, String keyId, String type, boolean critical) {
+        this.token = token;
+        this.firstDot = firstDot;
+        this.secondDot = secondDot;
+        this.algorithm = algorithm;
+        this.keyId = keyId;
+        this.type = type;
+        this.critical = critical;
+    }
+
+    /**
+     * Parses the bytes from the position to the limit of the buffer, without changing its position.
+     * The buffer is not copied, but shared.
+     */
+    public static CompactJws parse(ByteBuffer buffer) throws VerifiableCredentialException {
+        Assert.notNull(buffer, "buffer must not be null");
+        ByteBuffer token = buffer.slice();
+
+        long start = Instrumentation.start();
+        int firstDot = -1;
+        int secondDot = -1;
+        for (int i = 0, length = token.capacity(); i < length; i++) {
+            byte b = token.get(i);
+            if (b == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    secondDot = -1;  // too many dots
+                    break;
+                }
+            } else if (!Base64URLDecoder.isBase64URL(b)) {
+                Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+                throw new VerifiableCredentialException("Invalid JWS character at " + i);
+            }
+        }
+        if (firstDot <= 0 || secondDot < 0) {
+            Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException("Invalid JWS: it must have three segments");
+        }
+
+        CompactJws jws;
+        try {
+            jws = parseHeader(token, firstDot, secondDot);
+        } catch (IllegalArgumentException e) {
+            Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException("Invalid JWS header", e);
+        } catch (IOException e) {
+            Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException("Invalid JWS header", e);
+        }
+        Instrumentation.success(Stage.PARSE, start);
+        Instrumentation.bytes(Stage.PARSE, token.capacity());
+        return jws;
+    }
+
+    /**
+     * Parses the bytes of the array, which is not copied, but shared.
+     */
+    public static CompactJws parse(byte[] bytes, int offset, int length) throws VerifiableCredentialException {
+        Assert.notNull(bytes, "bytes must not be null");
+        return parse(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    public static CompactJws parse(String jws) throws VerifiableCredentialException {
+        Assert.notNull(jws, "jws must not be null");
+        return parse(ByteBuffer.wrap(jws.getBytes(US_ASCII)));
+    }
+
+    private static CompactJws parseHeader(ByteBuffer token, int firstDot, int secondDot) throws IOException {
+        byte[] header = Base64URLDecoder.buffer(Base64URLDecoder.decodedLength(firstDot));
+        int headerLength = Base64URLDecoder.decode(token, 0, firstDot, header);
+
+        String algorithm = null;
+        String keyId = null;
+        String type = null;
+        boolean critical = false;
+        JsonParser parser = JsonCodecs.getObjectMapper().getFactory().createParser(header, 0, headerLength);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The JWS header is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("alg".equals(name) && value == JsonToken.VALUE_STRING) {
+                    algorithm = parser.getText();
+                } else if ("kid".equals(name) && value == JsonToken.VALUE_STRING) {
+                    keyId = parser.getText();
+                } else if ("typ".equals(name) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("crit".equals(name)) {
+                    critical = true;
+                }
+                parser.skipChildren();
+            }
+        } finally {
+            parser.close();
+        }
+        if (algorithm == null) {
+            throw new IOException("The JWS header doesn't have an 'alg'");
+        }
+        return new CompactJws(token, firstDot, secondDot, algorithm, keyId, type, critical);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the 'kid' in the header, or null.
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Returns the 'typ' in the header, or null.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns true if the header has critical parameters ('crit'), none of which is understood by this library.
+     */
+    public boolean hasCriticalParams() {
+        return critical;
+    }
+
+    /**
+     * Returns a read-only view of the whole token.
+     */
+    public ByteBuffer getBuffer() {
+        return token.asReadOnlyBuffer();
+    }
+
+    public int getLength() {
+        return token.capacity();
+    }
+
+    public int getHeaderOffset() {
+        return 0;
+    }
+
+    public int getHeaderLength() {
+        return firstDot;
+    }
+
+    public int getPayloadOffset() {
+        return firstDot + 1;
+    }
+
+    public int getPayloadLength() {
+        return secondDot - firstDot - 1;
+    }
+
+    public int getSignatureOffset() {
+        return secondDot + 1;
+    }
+
+    public int getSignatureLength() {
+        return token.capacity() - secondDot - 1;
+    }
+
+    /**
+     * Returns a read-only view of the JWS signing input: the encoded header and payload separated by a dot.
+     */
+    public ByteBuffer getSigningInput() {
+        return signingInput().asReadOnlyBuffer();
+    }
+
+    ByteBuffer signingInput() {
+        ByteBuffer signingInput = token.duplicate();
+        signingInput.limit(secondDot);
+        return signingInput;
+    }
+
+    /**
+     * Decodes the payload into a new array.
+     */
+    public byte[] decodePayload() throws VerifiableCredentialException {
+        try {
+            return Base64URLDecoder.decode(token, getPayloadOffset(), getPayloadLength());
+        } catch (IllegalArgumentException e) {
+            throw new VerifiableCredentialException("Invalid JWS payload", e);
+        }
+    }
+
+    /**
+     * Reads only the 'nonce' claim, decoding the payload into a thread-local buffer instead of a new array.
+     */
+    String readNonce() throws VerifiableCredentialException {
+        return readStringClaim(JwtPayloadCodec.JWT_CLAIM_NAME_NONCE);
+    }
+
+    /**
+     * Reads only the 'iss' claim, decoding the payload into a thread-local buffer instead of a new array.
+     */
+    String readIssuer() throws VerifiableCredentialException {
+        return readStringClaim(JwtPayloadCodec.JWT_CLAIM_NAME_ISS);
+    }
+
+    private String readStringClaim(String claimName) throws VerifiableCredentialException {
+        int length;
+        byte[] payload;
+        try {
+            payload = Base64URLDecoder.buffer(Base64URLDecoder.decodedLength(getPayloadLength()));
+            length = Base64URLDecoder.decode(token, getPayloadOffset(), getPayloadLength(), payload);
+        } catch (IllegalArgumentException e) {
+            throw new VerifiableCredentialException("Invalid JWS payload", e);
+        }
+        return JwtPayloadCodec.readStringClaim(JwtPayloadCodec.json(), payload, 0, length, claimName);
+    }
+
+    /**
+     * Decodes the signature into a new array. It is small (e.g. 64 bytes for ES256).
+     */
+    public byte[] decodeSignature() throws VerifiableCredentialException {
+        try {
+            return Base64URLDecoder.decode(token, getSignatureOffset(), getSignatureLength());
+        } catch (IllegalArgumentException e) {
+            throw new VerifiableCredentialException("Invalid JWS signature", e);
+        }
+    }
+
+    /**
+     * Returns the compact serialization as a string, which is a copy of the bytes.
+     */
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[token.capacity()];
+        token.duplicate().get(bytes);
+        return new String(bytes, US_ASCII);
+    }
+}
@@ -0,0 +1,157 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.nimbusds.jose.JOSEException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+
+/**
+ * A JWT verifiable credential over the raw bytes of the token, such as a buffer received from the network.
+ * It can be used wherever a {@link VerifiableCredential} is, and behaves the same as {@link JwtVerifiableCredential}.
+ *
+ * The token is not copied into a string (unless serialized), and verification decodes only the signature
+ * into a new (small) array: the nonce is read from the payload decoded into a thread-local buffer,
+ * and the signing input is passed to JCA in place. The payload is decoded into its own array only
+ * when the credential is accessed.
+ */
+@EqualsAndHashCode
+public class CompactJwtVerifiableCredential implements VerifiableCredential {
+    @Getter
+    private final CompactJws jws;
+
+    // decoded lazily, and cached (see JwtVerifiable)
+    @EqualsAndHashCode.Exclude
+    private volatile byte[] payload;
+    @EqualsAndHashCode.Exclude
+    private volatile Credential credential;
+    @EqualsAndHashCode.Exclude
+    private volatile JwtCredentialView credentialView;
+    @EqualsAndHashCode.Exclude
+    private volatile String jwt;
+
+    public CompactJwtVerifiableCredential(CompactJws jws) {
+        Assert.notNull(jws, "jws must not be null");
+        this.jws = jws;
+    }
+
+    /**
+     * Parses the bytes from the position to the limit of the buffer, which is shared without copying.
+     * The bytes must not be modified afterwards.
+     */
+    public CompactJwtVerifiableCredential(ByteBuffer buffer) throws VerifiableCredentialException {
+        this(CompactJws.parse(buffer));
+    }
+
+    @Override
+    public Credential getCredential() throws VerifiableCredentialException {
+        Credential credential = this.credential;
+        if (credential == null) {
+            credential = JwtVerifiableCredential.decode(getPayload());
+            this.credential = credential;
+        }
+        return credential;
+    }
+
+    /**
+     * See {@link JwtVerifiableCredential#getCredentialView()}.
+     */
+    public JwtCredentialView getCredentialView() throws VerifiableCredentialException {
+        JwtCredentialView credentialView = this.credentialView;
+        if (credentialView == null) {
+            credentialView = new JwtCredentialView(getPayload());
+            this.credentialView = credentialView;
+        }
+        return credentialView;
+    }
+
+    @Override
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
+        verify(publicKey, null);
+    }
+
+    @Override
+    public void verify(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(publicKey, "publicKey must not be null");
+
+        long start = Instrumentation.start();
+        if (MerkleRoots.TYPE.equals(jws.getType())) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException("A Merkle root JWS is not a JWT credential");
+        }
+        if (nonce != null) {
+            byte[] payload = this.payload;
+            String nonceInJwt = payload != null ? JwtPayloadCodec.readNonce(payload) : jws.readNonce();
+            if (!nonce.equals(nonceInJwt)) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_NONCE_MISMATCH);
+                throw new VerifiableCredentialException("JWT nonce doesn't match. Expected:" + nonce + ", Actual:" + nonceInJwt);
+            }
+        }
+
+        try {
+            if (!JwsVerifiers.verify(publicKey, jws)) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_SIGNATURE);
+                throw new VerifiableCredentialException("JWT verification failed");
+            }
+        } catch (JOSEException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.VERIFY, start);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        verify(keyResolver, null);
+    }
+
+    /**
+     * The 'kid' must belong to the issuer of the credential (see {@link KeyBinding}).
+     */
+    @Override
+    public void verify(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        byte[] payload = this.payload;
+        String issuer = payload != null ? JwtPayloadCodec.readIssuer(payload) : jws.readIssuer();
+        PublicKey publicKey = KeyBinding.resolve(keyResolver, jws.getKeyId(), issuer, "JWT");
+        verify(publicKey, nonce);
+    }
+
+    @Override
+    public String getKeyId() {
+        return jws.getKeyId();
+    }
+
+    /**
+     * Returns the compact serialization, which is copied into a string only once.
+     */
+    @JsonValue
+    @Override
+    public String serialize() {
+        String jwt = this.jwt;
+        if (jwt == null) {
+            jwt = jws.toString();
+            this.jwt = jwt;
+        }
+        return jwt;
+    }
+
+    private byte[] getPayload() throws VerifiableCredentialException {
+        byte[] payload = this.payload;
+        if (payload == null) {
+            payload = jws.decodePayload();
+            this.payload = payload;
+        }
+        return payload;
+    }
+}
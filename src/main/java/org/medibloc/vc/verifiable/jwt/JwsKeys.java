@@ -0,0 +1,53 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import org.medibloc.vc.key.Ed25519PrivateKey;
+import org.medibloc.vc.key.Ed25519PublicKey;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+/**
+ * Creates JWS signers and verifiers by the type of keys: ECDSA for EC keys, and EdDSA for Ed25519 keys.
+ * They are meant to be kept for long-lived keys, since EC ones are prepared for repeated use with the key.
+ */
+final class JwsKeys {
+    private JwsKeys() {
+    }
+
+    static JWSSigner signer(PrivateKey privateKey) throws JOSEException {
+        if (privateKey instanceof ECPrivateKey) {
+            return new PreparedECDSASigner((ECPrivateKey) privateKey);
+        }
+        if (privateKey instanceof Ed25519PrivateKey) {
+            Ed25519PrivateKey ed25519Key = (Ed25519PrivateKey) privateKey;
+            return new Ed25519Signer(
+                    new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(ed25519Key.getPublicKey().getEncoded()))
+                            .d(Base64URL.encode(ed25519Key.getEncoded()))
+                            .build()
+            );
+        }
+        throw new JOSEException("Unsupported private key: " + privateKey.getAlgorithm());
+    }
+
+    static JWSVerifier verifier(PublicKey publicKey) throws JOSEException {
+        if (publicKey instanceof ECPublicKey) {
+            return new PreparedECDSAVerifier((ECPublicKey) publicKey);
+        }
+        if (publicKey instanceof Ed25519PublicKey) {
+            return new Ed25519Verifier(
+                    new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(publicKey.getEncoded())).build()
+            );
+        }
+        throw new JOSEException("Unsupported public key: " + publicKey.getAlgorithm());
+    }
+}
@@ -0,0 +1,83 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.util.Base64URL;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.metrics.Instrumentation;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.text.ParseException;
+
+/**
+ * A process-wide cache of ready-to-use JWS verifiers, indexed by public keys.
+ * Verifiers are thread-safe, so they can be shared by all verifications with the same key.
+ * Only detached signatures can be verified from other packages, such as COSE_Sign1 ones of CWTs.
+ */
+public final class JwsVerifiers {
+    private static final int MAX_SIZE = 1024;
+
+    private static final BoundedCache<PublicKey, JWSVerifier> cache = new BoundedCache<PublicKey, JWSVerifier>(MAX_SIZE);
+
+    static {
+        Instrumentation.registerCache("jws-verifiers", cache);
+    }
+
+    private JwsVerifiers() {
+    }
+
+    static JWSVerifier get(PublicKey publicKey) throws JOSEException {
+        JWSVerifier verifier = cache.get(publicKey);
+        if (verifier == null) {
+            verifier = JwsKeys.verifier(publicKey);
+            cache.put(publicKey, verifier);
+        }
+        return verifier;
+    }
+
+    /**
+     * Verifies the JWS in raw bytes. For EC keys, the signing input is verified in place without copying.
+     * For other keys, the JWS is converted to a nimbus object.
+     */
+    static boolean verify(PublicKey publicKey, CompactJws jws) throws JOSEException {
+        JWSVerifier verifier = get(publicKey);
+        if (jws.hasCriticalParams()) {
+            return false;
+        }
+        if (verifier instanceof PreparedECDSAVerifier) {
+            byte[] signature;
+            try {
+                signature = jws.decodeSignature();
+            } catch (VerifiableCredentialException e) {
+                return false;
+            }
+            return ((PreparedECDSAVerifier) verifier).verify(JWSAlgorithm.parse(jws.getAlgorithm()), jws.signingInput(), signature);
+        }
+        try {
+            return JWSObject.parse(jws.toString()).verify(verifier);
+        } catch (ParseException e) {
+            throw new JOSEException("Invalid JWS: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Verifies a detached signature in the JWS format (e.g. R || S for ECDSA), such as a COSE one.
+     */
+    public static boolean verify(PublicKey publicKey, JWSAlgorithm algorithm, byte[] signingInput, byte[] signature) throws JOSEException {
+        JWSVerifier verifier = get(publicKey);
+        if (verifier instanceof PreparedECDSAVerifier) {
+            return ((PreparedECDSAVerifier) verifier).verify(algorithm, ByteBuffer.wrap(signingInput), signature);
+        }
+        return verifier.verify(new JWSHeader(algorithm), signingInput, Base64URL.encode(signature));
+    }
+
+    static CacheStats getStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,132 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues a large number of credentials with a single {@link JwtSigner}, signing them in parallel.
+ *
+ * Credentials are pulled from an iterator lazily, and at most 'window' credentials are being signed at the same time.
+ * So, memory usage doesn't depend on the number of credentials.
+ * Results are passed to a {@link Listener} in the input order, in the caller thread.
+ * The caller thread signs the next credential by itself if the executor hasn't started it yet, instead of waiting for it.
+ * So, {@code issue} can be called by a task of the same executor, and it completes even if the executor rejects tasks.
+ * If issuing stops early (e.g. the listener throws), credentials which are not signed yet are cancelled.
+ */
+public class JwtBulkIssuer {
+    private final JwtSigner signer;
+    private final ExecutorService executor;
+    private final int window;
+
+    private final AtomicLong issuedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    /**
+     * @param window the max number of credentials being signed concurrently. Usually, a few times the number of threads.
+     */
+    public JwtBulkIssuer(JwtSigner signer, ExecutorService executor, int window) {
+        Assert.notNull(signer, "signer must not be null");
+        Assert.notNull(executor, "executor must not be null");
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.signer = signer;
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Issues all credentials from the iterator, and passes results to the listener in the input order.
+     * A failure of a credential doesn't stop issuing the rest.
+     */
+    public void issue(Iterator<Credential> credentials, final String nonce, Listener listener) throws InterruptedException {
+        Assert.notNull(credentials, "credentials must not be null");
+        Assert.notNull(listener, "listener must not be null");
+
+        long start = System.nanoTime();
+        LinkedList<Credential> inputs = new LinkedList<Credential>();
+        LinkedList<FutureTask<JwtVerifiableCredential>> outputs = new LinkedList<FutureTask<JwtVerifiableCredential>>();
+        long index = 0;
+        try {
+            while (credentials.hasNext() || !outputs.isEmpty()) {
+                while (outputs.size() < window && credentials.hasNext()) {
+                    final Credential credential = credentials.next();
+                    FutureTask<JwtVerifiableCredential> output = new FutureTask<JwtVerifiableCredential>(new Callable<JwtVerifiableCredential>() {
+                        @Override
+                        public JwtVerifiableCredential call() throws VerifiableCredentialException {
+                            return new JwtVerifiableCredential(credential, signer, nonce);
+                        }
+                    });
+                    inputs.add(credential);
+                    outputs.add(output);
+                    try {
+                        executor.execute(output);
+                    } catch (RejectedExecutionException e) {
+                        // signed by the calling thread below
+                    }
+                }
+
+                // A FutureTask runs only once: if the executor hasn't started it yet, it is run by this thread here,
+                // instead of waiting for a thread of the executor, which may be this thread's own.
+                // Otherwise, run() returns immediately, and get() waits only for a task which is running.
+                FutureTask<JwtVerifiableCredential> output = outputs.getFirst();
+                output.run();
+                Credential credential = inputs.removeFirst();
+                try {
+                    JwtVerifiableCredential vc = output.get();
+                    outputs.removeFirst();
+                    issuedCount.incrementAndGet();
+                    listener.onIssued(index, vc);
+                } catch (ExecutionException e) {
+                    outputs.removeFirst();
+                    failedCount.incrementAndGet();
+                    Throwable cause = e.getCause();
+                    listener.onFailed(index, credential, cause instanceof VerifiableCredentialException
+                            ? (VerifiableCredentialException) cause
+                            : new VerifiableCredentialException(cause instanceof Exception ? (Exception) cause : e));
+                }
+                index++;
+            }
+        } finally {
+            // Empty unless issuing stopped early: interrupted, or the listener or the iterator threw
+            for (Future<JwtVerifiableCredential> output : outputs) {
+                output.cancel(false);
+            }
+            elapsedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public long getIssuedCount() {
+        return issuedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of credentials issued per second, over all {@link #issue(Iterator, String, Listener)} calls so far.
+     */
+    public double getThroughput() {
+        long nanos = elapsedNanos.get();
+        return nanos > 0 ? (issuedCount.get() + failedCount.get()) * 1e9 / nanos : 0;
+    }
+
+    public interface Listener {
+        void onIssued(long index, JwtVerifiableCredential vc);
+
+        void onFailed(long index, Credential credential, VerifiableCredentialException e);
+    }
+}
@@ -0,0 +1,298 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifies credential JWTs in a line-delimited file (one JWT per line), verifying them in parallel.
+ * A line may also be a JSON string of a JWT (NDJSON), and empty lines are skipped.
+ *
+ * The file is memory-mapped window by window, and lines are split in the mapped buffer without copying them.
+ * Each JWT is decoded into a string only by the worker which verifies it.
+ * At most 'window' JWTs are being verified at the same time, so memory usage doesn't depend on the file size.
+ *
+ * The caller thread verifies the next JWT by itself if the executor hasn't started it yet, instead of waiting for it.
+ * So, {@code verify} can be called by a task of the same executor. JWTs which are not verified yet are cancelled
+ * if verification stops early (e.g. the listener throws).
+ *
+ * Results are passed to a {@link Listener} in the file order, in the caller thread, with the offset of the next line.
+ * The offset can be saved as a checkpoint, and passed to {@link #verify(File, long, Listener)} to resume a stopped run.
+ */
+public class JwtBulkVerifier {
+    private static final int DEFAULT_MAP_SIZE = 64 * 1024 * 1024;
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
+    private final KeyResolver keyResolver;
+    private final ExecutorService executor;
+    private final int window;
+    private final int mapSize;
+
+    private final AtomicLong verifiedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    /**
+     * @param window the max number of JWTs being verified concurrently. Usually, a few times the number of threads.
+     */
+    public JwtBulkVerifier(KeyResolver keyResolver, ExecutorService executor, int window) {
+        this(keyResolver, executor, window, DEFAULT_MAP_SIZE);
+    }
+
+    /**
+     * @param mapSize the size of each mapped window of the file, which is also the max length of a line
+     */
+    public JwtBulkVerifier(KeyResolver keyResolver, ExecutorService executor, int window, int mapSize) {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        Assert.notNull(executor, "executor must not be null");
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        if (mapSize <= 0) {
+            throw new IllegalArgumentException("mapSize must be positive");
+        }
+        this.keyResolver = keyResolver;
+        this.executor = executor;
+        this.window = window;
+        this.mapSize = mapSize;
+    }
+
+    /**
+     * Verifies all JWTs in the file from the beginning.
+     */
+    public long verify(File file, Listener listener) throws IOException, InterruptedException {
+        return verify(file, 0, listener);
+    }
+
+    /**
+     * Verifies all JWTs in the file from the offset, and passes results to the listener in the file order.
+     * A failure of a JWT doesn't stop verifying the rest.
+     *
+     * @param fromOffset the offset of a line, such as a checkpoint passed to the listener previously
+     * @return the offset where verification stopped, which is the file size if all lines have been verified
+     * @throws IOException if the file cannot be read, or a line is longer than the mapSize
+     */
+    public long verify(File file, long fromOffset, Listener listener) throws IOException, InterruptedException {
+        Assert.notNull(file, "file must not be null");
+        Assert.notNull(listener, "listener must not be null");
+
+        long start = System.nanoTime();
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        LinkedList<Line> inputs = new LinkedList<Line>();
+        LinkedList<FutureTask<JwtVerifiableCredential>> outputs = new LinkedList<FutureTask<JwtVerifiableCredential>>();
+        long checkpoint = fromOffset;
+        try {
+            LineReader reader = new LineReader(raf.getChannel(), fromOffset, mapSize);
+            Line next = reader.next();
+            while (next != null || !outputs.isEmpty()) {
+                while (outputs.size() < window && next != null) {
+                    final Line line = next;
+                    FutureTask<JwtVerifiableCredential> output = new FutureTask<JwtVerifiableCredential>(new Callable<JwtVerifiableCredential>() {
+                        @Override
+                        public JwtVerifiableCredential call() throws VerifiableCredentialException {
+                            JwtVerifiableCredential vc = new JwtVerifiableCredential(line.decode());
+                            vc.verify(keyResolver);
+                            return vc;
+                        }
+                    });
+                    inputs.add(line);
+                    outputs.add(output);
+                    try {
+                        executor.execute(output);
+                    } catch (RejectedExecutionException e) {
+                        // verified by the calling thread below
+                    }
+                    next = reader.next();
+                }
+
+                // Verified by this thread if the executor hasn't started it yet, as in JwtBulkIssuer,
+                // so that get() waits only for a task which is running.
+                FutureTask<JwtVerifiableCredential> output = outputs.getFirst();
+                output.run();
+                Line line = inputs.removeFirst();
+                try {
+                    JwtVerifiableCredential vc = output.get();
+                    outputs.removeFirst();
+                    verifiedCount.incrementAndGet();
+                    listener.onVerified(line.offset, line.nextOffset, vc);
+                } catch (ExecutionException e) {
+                    outputs.removeFirst();
+                    failedCount.incrementAndGet();
+                    Throwable cause = e.getCause();
+                    listener.onFailed(line.offset, line.nextOffset, cause instanceof VerifiableCredentialException
+                            ? (VerifiableCredentialException) cause
+                            : new VerifiableCredentialException(cause instanceof Exception ? (Exception) cause : e));
+                }
+                checkpoint = line.nextOffset;
+            }
+            return reader.offset;  // after trailing empty lines, if any
+        } catch (IOException e) {
+            throw new IOException("Failed to read the file after the checkpoint " + checkpoint + ": " + e.getMessage(), e);
+        } finally {
+            // Empty unless verification stopped early: interrupted, failed to read, or the listener threw
+            for (Future<JwtVerifiableCredential> output : outputs) {
+                output.cancel(false);
+            }
+            raf.close();
+            elapsedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public long getVerifiedCount() {
+        return verifiedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of JWTs processed per second, over all verify calls so far.
+     */
+    public double getThroughput() {
+        long nanos = elapsedNanos.get();
+        return nanos > 0 ? (verifiedCount.get() + failedCount.get()) * 1e9 / nanos : 0;
+    }
+
+    public interface Listener {
+        /**
+         * @param offset     the offset of the line in the file
+         * @param nextOffset the offset of the next line, from which verification can be resumed
+         */
+        void onVerified(long offset, long nextOffset, JwtVerifiableCredential vc);
+
+        void onFailed(long offset, long nextOffset, VerifiableCredentialException e);
+    }
+
+    /**
+     * A non-empty line, which is a slice of a mapped window.
+     */
+    private static class Line {
+        private final long offset;
+        private final long nextOffset;
+        private final ByteBuffer bytes;
+
+        private Line(long offset, long nextOffset, ByteBuffer bytes) {
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+            this.bytes = bytes;
+        }
+
+        private String decode() {
+            // A JWT consists of Base64URL characters and dots.
+            byte[] buf = new byte[bytes.remaining()];
+            bytes.duplicate().get(buf);
+            return new String(buf, US_ASCII);
+        }
+    }
+
+    /**
+     * Splits lines in windows mapped from the channel. A window is mapped again from the start of a line
+     * which crosses the end of the window. Old windows are unmapped when lines sliced from them are collected.
+     */
+    private static class LineReader {
+        private final FileChannel channel;
+        private final long size;
+        private final int mapSize;
+        private MappedByteBuffer map;
+        private long mapStart;
+        private long offset;
+
+        private LineReader(FileChannel channel, long offset, int mapSize) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.mapSize = mapSize;
+            if (offset < 0 || offset > size) {
+                throw new IllegalArgumentException("offset must be in [0, " + size + "]: " + offset);
+            }
+            this.offset = offset;
+        }
+
+        /**
+         * Returns the next non-empty line, or null at the end of the file.
+         */
+        private Line next() throws IOException {
+            while (offset < size) {
+                if (map == null || offset >= mapStart + map.capacity()) {
+                    remap();
+                }
+                int from = (int) (offset - mapStart);
+                int end = indexOfNewline(map, from);
+                long nextOffset;
+                if (end >= 0) {
+                    nextOffset = mapStart + end + 1;
+                } else if (mapStart + map.capacity() < size) {
+                    if (from == 0) {
+                        throw new IOException("A line is longer than " + mapSize + " bytes at the offset " + offset);
+                    }
+                    remap();
+                    continue;
+                } else {
+                    end = map.capacity();  // the last line without a newline
+                    nextOffset = size;
+                }
+
+                long lineOffset = offset;
+                offset = nextOffset;
+                ByteBuffer token = trim(map, from, end);
+                if (token != null) {
+                    return new Line(lineOffset, nextOffset, token);
+                }
+            }
+            return null;
+        }
+
+        private void remap() throws IOException {
+            mapStart = offset;
+            map = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(mapSize, size - offset));
+        }
+
+        private static int indexOfNewline(ByteBuffer buffer, int from) {
+            for (int i = from, limit = buffer.capacity(); i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns a slice without surrounding whitespaces and JSON quotes, or null if the slice is empty.
+         */
+        private static ByteBuffer trim(ByteBuffer buffer, int from, int to) {
+            while (from < to && buffer.get(from) <= ' ') {
+                from++;
+            }
+            while (to > from && buffer.get(to - 1) <= ' ') {
+                to--;
+            }
+            if (to - from >= 2 && buffer.get(from) == '"' && buffer.get(to - 1) == '"') {
+                from++;
+                to--;
+            }
+            if (from == to) {
+                return null;
+            }
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(from);
+            slice.limit(to);
+            return slice.slice();
+        }
+    }
+}
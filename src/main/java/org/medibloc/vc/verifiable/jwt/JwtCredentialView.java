@@ -0,0 +1,235 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.medibloc.vc.verifiable.jwt.JwtPayloadCodec.*;
+
+/**
+ * A lazy view of the credential in a JWT payload, which decodes only the fields accessed,
+ * by scanning the payload bytes with the Jackson streaming API.
+ *
+ * Unlike {@link JwtVerifiableCredential#getCredential()}, it doesn't build the whole {@link Credential}:
+ * the registered claims, contexts and types are decoded together on the first access to any of them,
+ * skipping the credentialSubject and the issuer extras. Claims of the credentialSubject are looked up one by one,
+ * decoding only the value at the path. Decoded values are cached, so each of them is decoded at most once.
+ *
+ * Values are not validated as {@link Credential} does. This class is thread-safe.
+ */
+public class JwtCredentialView {
+    private static final Object NOT_FOUND = new Object();
+
+    private final byte[] payload;
+
+    // Decoding is idempotent, so racing threads may decode the same fields concurrently (see JwtVerifiable).
+    private volatile Claims claims;
+    private final ConcurrentMap<String, Object> subjectClaims = new ConcurrentHashMap<String, Object>();
+
+    JwtCredentialView(byte[] payload) {
+        Assert.notNull(payload, "payload must not be null");
+        this.payload = payload;
+    }
+
+    public String getIssuerId() throws VerifiableCredentialException {
+        return getClaims().issuerId;
+    }
+
+    public String getSubjectId() throws VerifiableCredentialException {
+        return getClaims().subjectId;
+    }
+
+    /**
+     * Returns the credential ID as it is, without parsing it as a URL.
+     */
+    public String getId() throws VerifiableCredentialException {
+        return getClaims().id;
+    }
+
+    public Date getIssuanceDate() throws VerifiableCredentialException {
+        Date date = getClaims().issuanceDate;
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
+    public Date getExpirationDate() throws VerifiableCredentialException {
+        Date date = getClaims().expirationDate;
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
+    public String getNonce() throws VerifiableCredentialException {
+        return getClaims().nonce;
+    }
+
+    public List<String> getContexts() throws VerifiableCredentialException {
+        return getClaims().contexts;
+    }
+
+    public List<String> getTypes() throws VerifiableCredentialException {
+        return getClaims().types;
+    }
+
+    public boolean hasType(String type) throws VerifiableCredentialException {
+        List<String> types = getTypes();
+        return types != null && types.contains(type);
+    }
+
+    /**
+     * Looks up a claim of the credentialSubject by a dot-separated path, such as "degree.name".
+     * A segment which is a non-negative integer indexes an array, such as "degrees.0.name".
+     *
+     * @return a String, Number, Boolean, List or Map. Or, null if the claim doesn't exist or its value is null.
+     *         Lists and maps must not be modified, since they are cached.
+     */
+    public Object getSubjectClaim(String path) throws VerifiableCredentialException {
+        Assert.notNull(path, "path must not be null");
+        Object value = subjectClaims.get(path);
+        if (value == null) {
+            value = readSubjectClaim(path.split("\\.", -1));
+            subjectClaims.putIfAbsent(path, value != null ? value : NOT_FOUND);
+        }
+        return value != NOT_FOUND ? value : null;
+    }
+
+    private Claims getClaims() throws VerifiableCredentialException {
+        Claims claims = this.claims;
+        if (claims == null) {
+            final Claims decoded = new Claims();
+            JwtPayloadCodec.read(payload, new JwtPayloadCodec.Reader() {
+                @Override
+                public boolean read(String name, JsonParser parser) throws IOException {
+                    if (JWT_CLAIM_NAME_ISS.equals(name)) {
+                        decoded.issuerId = readString(parser);
+                    } else if (JWT_CLAIM_NAME_SUB.equals(name)) {
+                        decoded.subjectId = readString(parser);
+                    } else if (JWT_CLAIM_NAME_NBF.equals(name)) {
+                        decoded.issuanceDate = readNumericDate(parser);
+                    } else if (JWT_CLAIM_NAME_EXP.equals(name)) {
+                        decoded.expirationDate = readNumericDate(parser);
+                    } else if (JWT_CLAIM_NAME_JTI.equals(name)) {
+                        decoded.id = readString(parser);
+                    } else if (JWT_CLAIM_NAME_NONCE.equals(name)) {
+                        decoded.nonce = readString(parser);
+                    } else if (JwtVerifiableCredential.JWT_CLAIM_NAME_VC.equals(name)) {
+                        // the credentialSubject and others are skipped
+                        readObject(parser, new JwtPayloadCodec.Reader() {
+                            @Override
+                            public boolean read(String name, JsonParser parser) throws IOException {
+                                if (Credential.JSON_PROP_CONTEXTS.equals(name)) {
+                                    decoded.contexts = Collections.unmodifiableList(readStringOrArray(parser));
+                                } else if (Credential.JSON_PROP_TYPES.equals(name)) {
+                                    decoded.types = Collections.unmodifiableList(readStringOrArray(parser));
+                                } else {
+                                    return false;
+                                }
+                                return true;
+                            }
+                        });
+                    } else {
+                        return false;
+                    }
+                    return true;
+                }
+            });
+            claims = decoded;
+            this.claims = claims;
+        }
+        return claims;
+    }
+
+    /**
+     * Returns the value at the path in the credentialSubject, or {@link #NOT_FOUND}.
+     */
+    private Object readSubjectClaim(final String[] path) throws VerifiableCredentialException {
+        final Object[] value = {NOT_FOUND};
+        JwtPayloadCodec.read(payload, new JwtPayloadCodec.Reader() {
+            @Override
+            public boolean read(String name, JsonParser parser) throws IOException {
+                if (!JwtVerifiableCredential.JWT_CLAIM_NAME_VC.equals(name) || parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                readObject(parser, new JwtPayloadCodec.Reader() {
+                    @Override
+                    public boolean read(String name, JsonParser parser) throws IOException {
+                        if (!Credential.JSON_PROP_CRED_SUB.equals(name)) {
+                            return false;
+                        }
+                        value[0] = readPath(parser, path, 0);
+                        return true;
+                    }
+                });
+                return true;
+            }
+        });
+        return value[0];
+    }
+
+    /**
+     * Reads the value at the path from the current token, skipping all other values.
+     * The current value is always consumed entirely.
+     */
+    private static Object readPath(JsonParser parser, String[] path, int depth) throws IOException {
+        if (depth == path.length) {
+            return parser.readValueAs(Object.class);
+        }
+
+        Object value = NOT_FOUND;
+        JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (value == NOT_FOUND && path[depth].equals(name)) {
+                    value = readPath(parser, path, depth + 1);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = parseIndex(path[depth]);
+            for (int i = 0; parser.nextToken() != JsonToken.END_ARRAY; i++) {
+                if (i == index) {
+                    value = readPath(parser, path, depth + 1);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return value;
+    }
+
+    private static int parseIndex(String segment) {
+        if (segment.isEmpty() || segment.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(segment);
+    }
+
+    /**
+     * Claims decoded together, since they are small and usually accessed together.
+     */
+    private static class Claims {
+        private String issuerId;
+        private String subjectId;
+        private Date issuanceDate;
+        private Date expirationDate;
+        private String id;
+        private String nonce;
+        private List<String> contexts;
+        private List<String> types;
+    }
+}
@@ -0,0 +1,489 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+import org.medibloc.vc.model.CredentialStatus;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.medibloc.vc.verifiable.cwt.CwtVerifiableCredential;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for writing/reading JWT payloads with the Jackson streaming API.
+ * Models are written to payload bytes, and read back from them, without any intermediate claim set or tree.
+ *
+ * The same claims can be written in CBOR for CWT payloads, by passing the {@link #cbor()} factory.
+ *
+ * JSON payloads are written byte-for-byte as nimbus-jose-jwt wrote them before this codec existed:
+ * objects in the iteration order of hash maps (see {@link HashOrderedFields}), and strings escaped as json-smart did.
+ * So, the same credential is encoded to the same payload as by previous versions of this library.
+ *
+ * The codec has its own mappers, which are not affected by {@link org.medibloc.vc.json.JsonCodecs#setObjectMapper},
+ * because signed payloads must not depend on how an application configures JSON for its own models.
+ */
+final class JwtPayloadCodec {
+    // https://tools.ietf.org/html/rfc7519#section-4.1
+    static final String JWT_CLAIM_NAME_ISS = "iss";
+    static final String JWT_CLAIM_NAME_SUB = "sub";
+    static final String JWT_CLAIM_NAME_AUD = "aud";
+    static final String JWT_CLAIM_NAME_EXP = "exp";
+    static final String JWT_CLAIM_NAME_NBF = "nbf";
+    static final String JWT_CLAIM_NAME_JTI = "jti";
+    // For preventing a holder (or a verifier) from impersonating the issuer (or the holder).
+    // https://www.w3.org/TR/2019/REC-vc-data-model-20191119/#example-28-jwt-payload-of-a-jwt-based-verifiable-credential-using-jws-as-a-proof-non-normative
+    static final String JWT_CLAIM_NAME_NONCE = "nonce";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+    private static final CharacterEscapes JSON_SMART_ESCAPES = new JsonSmartEscapes();
+
+    // Only for reading maps and models in claims, and for writing values of unknown types
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
+
+    // The defaults of HashMap (the load factor is 3/4)
+    private static final int HASH_MAP_CAPACITY = 16;
+    private static final int HASH_MAP_MAX_TREEIFY_CAPACITY = 64;
+    private static final int HASH_MAP_TREEIFY_THRESHOLD = 8;
+
+    private JwtPayloadCodec() {
+    }
+
+    static JsonFactory json() {
+        return JSON_MAPPER.getFactory();
+    }
+
+    static JsonFactory cbor() {
+        return CBOR_MAPPER.getFactory();
+    }
+
+    /**
+     * Writes a JSON object using a generator, and returns the written bytes.
+     */
+    static byte[] write(Writer writer) throws VerifiableCredentialException {
+        return write(json(), writer);
+    }
+
+    /**
+     * Writes an object in the format of the factory (JSON or CBOR), and returns the written bytes.
+     */
+    static byte[] write(JsonFactory factory, Writer writer) throws VerifiableCredentialException {
+        long start = Instrumentation.start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try {
+            JsonGenerator gen = factory.createGenerator(out);
+            if (JsonFactory.FORMAT_NAME_JSON.equals(factory.getFormatName())) {
+                gen.setCharacterEscapes(JSON_SMART_ESCAPES);
+            }
+            try {
+                gen.writeStartObject();
+                writer.write(gen);
+                gen.writeEndObject();
+            } finally {
+                gen.close();
+            }
+        } catch (IOException e) {
+            Instrumentation.failure(Stage.ENCODE_CLAIMS, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.ENCODE_CLAIMS, start);
+        Instrumentation.bytes(Stage.ENCODE_CLAIMS, out.size());
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a JSON object from the bytes, by passing each field to the reader.
+     */
+    static void read(byte[] payload, Reader reader) throws VerifiableCredentialException {
+        read(json(), payload, 0, payload.length, reader);
+    }
+
+    /**
+     * Reads an object in the format of the factory (JSON or CBOR) from [offset, offset + length) of the bytes,
+     * by passing each field to the reader.
+     */
+    static void read(JsonFactory factory, byte[] payload, int offset, int length, Reader reader) throws VerifiableCredentialException {
+        long start = Instrumentation.start();
+        try {
+            JsonParser parser = factory.createParser(payload, offset, length);
+            try {
+                parser.nextToken();
+                readObject(parser, reader);
+            } finally {
+                parser.close();
+            }
+        } catch (IOException e) {
+            Instrumentation.failure(Stage.DECODE_CLAIMS, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.DECODE_CLAIMS, start);
+        Instrumentation.bytes(Stage.DECODE_CLAIMS, length);
+    }
+
+    /**
+     * Reads a JSON object at the current token, by passing each field to the reader.
+     * The reader must consume the value of the field, or the value is skipped.
+     */
+    static void readObject(JsonParser parser, Reader reader) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (!reader.read(name, parser)) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads only the 'nonce' claim from the payload, skipping all other claims.
+     */
+    static String readNonce(byte[] payload) throws VerifiableCredentialException {
+        return readStringClaim(json(), payload, 0, payload.length, JWT_CLAIM_NAME_NONCE);
+    }
+
+    static String readNonce(JsonFactory factory, byte[] payload, int offset, int length) throws VerifiableCredentialException {
+        return readStringClaim(factory, payload, offset, length, JWT_CLAIM_NAME_NONCE);
+    }
+
+    /**
+     * Reads only the 'iss' claim from the payload, skipping all other claims.
+     */
+    static String readIssuer(byte[] payload) throws VerifiableCredentialException {
+        return readStringClaim(json(), payload, 0, payload.length, JWT_CLAIM_NAME_ISS);
+    }
+
+    /**
+     * Reads only a string claim, skipping all other claims. Returns null if the claim is absent or not a string.
+     */
+    static String readStringClaim(JsonFactory factory, byte[] payload, int offset, int length, final String claimName) throws VerifiableCredentialException {
+        final String[] value = new String[1];
+        read(factory, payload, offset, length, new Reader() {
+            @Override
+            public boolean read(String name, JsonParser parser) throws IOException {
+                if (claimName.equals(name) && parser.getCurrentToken() == JsonToken.VALUE_STRING) {
+                    value[0] = parser.getText();
+                    return true;
+                }
+                return false;
+            }
+        });
+        return value[0];
+    }
+
+    /**
+     * Reads a string or an array of strings, as Jackson does with ACCEPT_SINGLE_VALUE_AS_ARRAY.
+     */
+    static List<String> readStringOrArray(JsonParser parser) throws IOException {
+        List<String> values = new ArrayList<String>();
+        if (parser.getCurrentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(readString(parser));
+            }
+        } else {
+            values.add(readString(parser));
+        }
+        return values;
+    }
+
+    static String readString(JsonParser parser) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.VALUE_STRING);
+        return parser.getText();
+    }
+
+    static Map<String, Object> readMap(JsonParser parser) throws IOException {
+        expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+        Map<String, Object> map = parser.readValueAs(MAP_TYPE);
+        return map != null ? map : new HashMap<String, Object>();
+    }
+
+    static Date readNumericDate(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+            return new Date((long) (parser.getDoubleValue() * 1000));
+        }
+        expect(parser.getCurrentToken(), JsonToken.VALUE_NUMBER_INT);
+        return new Date(parser.getLongValue() * 1000);
+    }
+
+    /**
+     * Writes a value as json-smart did: maps in the iteration order of hash maps, and collections and arrays as arrays.
+     * Credential statuses and verifiable credentials are written field by field, as previous versions converted them.
+     * Only values of other types (e.g. custom objects in credentialSubject claims) are converted with the codec's own mapper.
+     */
+    static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof byte[]) {
+            gen.writeObject(value);
+        } else if (value instanceof HashOrderedFields) {
+            gen.writeStartObject();
+            ((HashOrderedFields) value).write(gen);
+            gen.writeEndObject();
+        } else if (value instanceof Map) {
+            writeMap(gen, (Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            gen.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(gen, element);
+            }
+            gen.writeEndArray();
+        } else if (value instanceof Object[]) {
+            gen.writeStartArray();
+            for (Object element : (Object[]) value) {
+                writeValue(gen, element);
+            }
+            gen.writeEndArray();
+        } else if (value instanceof CredentialStatus) {
+            writeCredentialStatus(gen, (CredentialStatus) value);
+        } else if (value instanceof CwtVerifiableCredential && gen.canWriteBinaryNatively()) {
+            // a CBOR byte string, rather than the Base64URL string for JSON
+            gen.writeBinary(((CwtVerifiableCredential) value).toBytes());
+        } else if (value instanceof VerifiableCredential) {
+            gen.writeString(((VerifiableCredential) value).serialize());
+        } else {
+            Object converted = JSON_MAPPER.convertValue(value, Object.class);
+            if (converted == null || converted instanceof Map || converted instanceof Collection) {
+                writeValue(gen, converted);
+            } else {
+                gen.writeObject(converted);
+            }
+        }
+    }
+
+    /**
+     * Writes the entries of a map in the order in which a {@link HashMap} would iterate them,
+     * if they were put into it in the iteration order of the map. Only the keys and values are held in arrays,
+     * because a HashMap given as a claim may have another capacity than the one which previous versions copied it into.
+     */
+    private static void writeMap(JsonGenerator gen, Map<?, ?> map) throws IOException {
+        int size = map.size();
+        String[] names = new String[size];
+        Object[] values = new Object[size];
+        Iterator<? extends Map.Entry<?, ?>> entries = map.entrySet().iterator();
+        for (int i = 0; i < size; i++) {
+            Map.Entry<?, ?> entry = entries.next();
+            names[i] = String.valueOf(entry.getKey());
+            values[i] = entry.getValue();
+        }
+
+        gen.writeStartObject();
+        for (int i : hashOrder(names, size)) {
+            gen.writeFieldName(names[i]);
+            writeValue(gen, values[i]);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes a credential status as previous versions did: the non-empty properties in alphabetical order,
+     * as Jackson converted them to a map, and then in the iteration order of a hash map.
+     */
+    private static void writeCredentialStatus(JsonGenerator gen, CredentialStatus status) throws IOException {
+        gen.writeStartObject();
+        new HashOrderedFields()
+                .putNonEmpty("id", status.getId())
+                .putNonEmpty("statusListCredential", status.getStatusListCredential())
+                .putNonEmpty("statusListIndex", status.getStatusListIndex())
+                .putNonEmpty("statusPurpose", status.getStatusPurpose())
+                .putNonEmpty("type", status.getType())
+                .write(gen);
+        gen.writeEndObject();
+    }
+
+    /**
+     * Returns the indices of the names in the iteration order of a {@link HashMap} with the default capacity,
+     * into which the names have been put in the order of the indices.
+     *
+     * A HashMap iterates its buckets in order, and the entries in a bucket in insertion order (a resize keeps it).
+     * The capacity is doubled when the size exceeds 3/4 of it, or when a bucket gets more than 8 entries in a small table.
+     * Buckets which would be converted to trees (more than 8 colliding keys in a table of 64 buckets or more) are
+     * still iterated in insertion order, because no claims which previous versions wrote are expected to collide that much.
+     */
+    static int[] hashOrder(String[] names, int size) {
+        int[] hashes = new int[size];
+        for (int i = 0; i < size; i++) {
+            int h = names[i].hashCode();
+            hashes[i] = h ^ (h >>> 16);
+        }
+
+        int capacity = HASH_MAP_CAPACITY;
+        int[] bucketSizes = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            if (bucketSizes[hashes[i] & (capacity - 1)]++ >= HASH_MAP_TREEIFY_THRESHOLD && capacity < HASH_MAP_MAX_TREEIFY_CAPACITY) {
+                capacity <<= 1;
+                bucketSizes = bucketSizes(hashes, i + 1, capacity);
+            }
+            if (i + 1 > capacity / 4 * 3) {
+                capacity <<= 1;
+                bucketSizes = bucketSizes(hashes, i + 1, capacity);
+            }
+        }
+
+        // A stable counting sort by bucket
+        bucketSizes = bucketSizes(hashes, size, capacity);
+        int[] offsets = new int[capacity];
+        for (int b = 1; b < capacity; b++) {
+            offsets[b] = offsets[b - 1] + bucketSizes[b - 1];
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[offsets[hashes[i] & (capacity - 1)]++] = i;
+        }
+        return order;
+    }
+
+    private static int[] bucketSizes(int[] hashes, int size, int capacity) {
+        int[] bucketSizes = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            bucketSizes[hashes[i] & (capacity - 1)]++;
+        }
+        return bucketSizes;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("unexpected JSON token: " + actual + ", expected: " + expected);
+        }
+    }
+
+    /**
+     * Fields of a JSON object, which are written in the iteration order of a {@link HashMap} with the default capacity
+     * (see {@link #hashOrder}). The fields are kept in arrays in insertion order, and no map is built.
+     *
+     * nimbus-jose-jwt kept claims, and objects in claims, in hash maps, and wrote them in that order.
+     * Fields must be put in the order in which previous versions put them, because colliding keys keep it.
+     */
+    static final class HashOrderedFields {
+        private String[] names = new String[8];
+        private Object[] values = new Object[8];
+        private int size;
+
+        /**
+         * Puts a field unless the value is null. The value can be another {@link HashOrderedFields}.
+         */
+        HashOrderedFields put(String name, Object value) {
+            if (value != null) {
+                add(name, value);
+            }
+            return this;
+        }
+
+        /**
+         * Puts a string unless it is null or empty, as with JsonInclude.Include.NON_EMPTY.
+         */
+        HashOrderedFields putNonEmpty(String name, String value) {
+            if (value != null && !value.isEmpty()) {
+                add(name, value);
+            }
+            return this;
+        }
+
+        /**
+         * Puts a list as a string if it has only one element, as Jackson does with WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED.
+         * A null or empty list is omitted, as with JsonInclude.Include.NON_EMPTY.
+         */
+        HashOrderedFields putStringOrArray(String name, List<?> values) {
+            if (values != null && !values.isEmpty()) {
+                add(name, values.size() == 1 ? values.get(0) : values);
+            }
+            return this;
+        }
+
+        /**
+         * Puts a date as a NumericDate: seconds since the epoch (https://tools.ietf.org/html/rfc7519#section-2).
+         */
+        HashOrderedFields putNumericDate(String name, Date date) {
+            if (date != null) {
+                add(name, date.getTime() / 1000);
+            }
+            return this;
+        }
+
+        /**
+         * Writes the fields into the current object of the generator.
+         */
+        void write(JsonGenerator gen) throws IOException {
+            for (int i : hashOrder(names, size)) {
+                gen.writeFieldName(names[i]);
+                writeValue(gen, values[i]);
+            }
+        }
+
+        private void add(String name, Object value) {
+            // A put with the same name replaces the value, but keeps the position, as in a HashMap
+            for (int i = 0; i < size; i++) {
+                if (names[i].equals(name)) {
+                    values[i] = value;
+                    return;
+                }
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = name;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /**
+     * Escapes strings as json-smart (used by nimbus-jose-jwt) did: '/' is escaped with a backslash,
+     * and DEL, C1 controls and U+2000..U+20FF are escaped as Unicode escapes, in addition to the standard JSON escapes.
+     */
+    private static class JsonSmartEscapes extends CharacterEscapes {
+        private static final SerializableString ESCAPED_SLASH = new SerializedString("\\/");
+
+        private final int[] asciiEscapes;
+
+        private JsonSmartEscapes() {
+            asciiEscapes = standardAsciiEscapesForJSON();
+            asciiEscapes['/'] = ESCAPE_CUSTOM;
+            asciiEscapes[0x7F] = ESCAPE_STANDARD;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return asciiEscapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            if (ch == '/') {
+                return ESCAPED_SLASH;
+            }
+            if ((ch >= 0x80 && ch <= 0x9F) || (ch >= 0x2000 && ch <= 0x20FF)) {
+                return new SerializedString(String.format("\\u%04X", ch));
+            }
+            return null;
+        }
+    }
+
+    interface Writer {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
+    interface Reader {
+        /**
+         * Returns true if the value of the field has been consumed.
+         */
+        boolean read(String name, JsonParser parser) throws IOException;
+    }
+}
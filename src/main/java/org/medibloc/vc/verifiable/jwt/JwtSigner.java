@@ -0,0 +1,114 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+
+import java.security.PrivateKey;
+import java.text.ParseException;
+
+/**
+ * Signs JWT payloads with a private key, for a fixed (algorithm, key ID).
+ * EC keys (ES256, ES256K, ...) and Ed25519 keys (EdDSA) are supported.
+ * Other envelopes, such as COSE_Sign1 messages of CWTs, can be signed with the same key by {@link #signDetached(byte[])}.
+ *
+ * This is a prepared issuer key: the JWS header is encoded only once, and the signer is reused for all signatures.
+ * For EC keys, JCA signatures initialized with the key are also kept and reused (see {@link PreparedECDSASigner}).
+ * So, reusing an instance is much cheaper than creating verifiables with a private key every time.
+ * This class is thread-safe.
+ */
+public class JwtSigner {
+    private final JWSHeader jwsHeader;
+    private final JWSSigner jwsSigner;
+
+    public JwtSigner(String algo, String keyId, PrivateKey privateKey) throws VerifiableCredentialException {
+        Assert.notNull(algo, "keyType must not be null");
+        Assert.notNull(keyId, "keyId must not be null");
+        Assert.notNull(privateKey, "privateKey must not be null");
+
+        try {
+            JWSHeader jwsHeader = new JWSHeader.Builder(JWSAlgorithm.parse(algo)).keyID(keyId).build();
+            // A parsed header keeps its Base64URL encoding, so that it isn't encoded again for each signature.
+            this.jwsHeader = JWSHeader.parse(jwsHeader.toBase64URL());
+            this.jwsSigner = JwsKeys.signer(privateKey);
+        } catch (ParseException e) {
+            throw new VerifiableCredentialException(e);
+        } catch (JOSEException e) {
+            throw new VerifiableCredentialException(e);
+        }
+        if (!jwsSigner.supportedJWSAlgorithms().contains(jwsHeader.getAlgorithm())) {
+            throw new VerifiableCredentialException("The algorithm " + algo + " is not supported by the " + privateKey.getAlgorithm() + " key");
+        }
+    }
+
+    private JwtSigner(JWSHeader jwsHeader, JWSSigner jwsSigner) {
+        this.jwsHeader = jwsHeader;
+        this.jwsSigner = jwsSigner;
+    }
+
+    /**
+     * Returns a signer of the same key, which sets the 'typ' in the JWS header (e.g. not to be confused with other JWTs).
+     */
+    JwtSigner withType(String type) throws VerifiableCredentialException {
+        Assert.notNull(type, "type must not be null");
+        try {
+            JWSHeader jwsHeader = new JWSHeader.Builder(this.jwsHeader).type(new JOSEObjectType(type)).build();
+            return new JwtSigner(JWSHeader.parse(jwsHeader.toBase64URL()), jwsSigner);
+        } catch (ParseException e) {
+            throw new VerifiableCredentialException(e);
+        }
+    }
+
+    public String getKeyId() {
+        return jwsHeader.getKeyID();
+    }
+
+    public JWSAlgorithm getAlgorithm() {
+        return jwsHeader.getAlgorithm();
+    }
+
+    /**
+     * Signs the payload, and returns the compact serialization of the JWS.
+     */
+    String sign(byte[] payload) throws VerifiableCredentialException {
+        long start = Instrumentation.start();
+        JWSObject jws = new JWSObject(jwsHeader, new Payload(payload));
+        try {
+            jws.sign(jwsSigner);
+        } catch (JOSEException e) {
+            Instrumentation.failure(Stage.SIGN, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.SIGN, start);
+        Instrumentation.bytes(Stage.SIGN, payload.length);
+        return jws.serialize();
+    }
+
+    /**
+     * Signs the bytes as they are, and returns the signature in the JWS format (e.g. R || S for ECDSA).
+     * This is for other envelopes signed with the same key, such as COSE_Sign1 messages of CWTs,
+     * whose signing input is structured differently from that of a JWS.
+     */
+    public byte[] signDetached(byte[] signingInput) throws VerifiableCredentialException {
+        Assert.notNull(signingInput, "signingInput must not be null");
+        long start = Instrumentation.start();
+        byte[] signature;
+        try {
+            signature = jwsSigner.sign(jwsHeader, signingInput).decode();
+        } catch (JOSEException e) {
+            Instrumentation.failure(Stage.SIGN, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new VerifiableCredentialException(e);
+        }
+        Instrumentation.success(Stage.SIGN, start);
+        Instrumentation.bytes(Stage.SIGN, signingInput.length);
+        return signature;
+    }
+}
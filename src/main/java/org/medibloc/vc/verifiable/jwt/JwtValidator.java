@@ -0,0 +1,306 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.lang.Clock;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+import org.medibloc.vc.model.Credential;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.medibloc.vc.verifiable.jwt.JwtPayloadCodec.*;
+
+/**
+ * Validates JWT credentials and presentations by checks ordered from the cheapest to the most expensive,
+ * so that tokens which are malformed, expired, addressed to others or not allowed by the policy
+ * are rejected without resolving keys and verifying signatures (e.g. under a flood of stale tokens).
+ *
+ * Checks run in the order of {@link Check}, and a check which isn't configured is skipped:
+ * <ol>
+ *     <li>{@link Check#STRUCTURE}: the JWS is well-formed, and its payload has 'iss' and the 'vc' (or 'vp') claim with types</li>
+ *     <li>{@link Check#TEMPORAL}: 'nbf' is not later than now, and 'exp' is later than now, allowing the clock skew</li>
+ *     <li>{@link Check#AUDIENCE}: 'aud' has the audience, if configured</li>
+ *     <li>{@link Check#NONCE}: 'nonce' is the expected one, if given</li>
+ *     <li>{@link Check#TYPE_POLICY}: the token has all required types and contexts, if configured</li>
+ *     <li>{@link Check#KEY_BINDING}: the 'kid' belongs to the 'iss' (see {@link KeyBinding}), if the key is resolved by the 'kid'</li>
+ *     <li>{@link Check#SIGNATURE}: the signature is verified with the given key, or the key resolved by the 'kid'</li>
+ * </ol>
+ * Claims for checks before the signature are decoded in a single streaming pass over the payload, without building models.
+ * Rejections are reported to {@link Instrumentation} with their reasons.
+ *
+ * A failure is thrown as a {@link ValidationException} with the check. This class is immutable and thread-safe.
+ */
+public class JwtValidator {
+    private static final long DEFAULT_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    public enum Check {
+        STRUCTURE,
+        TEMPORAL,
+        AUDIENCE,
+        NONCE,
+        TYPE_POLICY,
+        KEY_BINDING,
+        SIGNATURE,
+    }
+
+    private final Clock clock;
+    private final long clockSkewMillis;
+    private final String audience;
+    private final List<String> requiredTypes;
+    private final List<String> requiredContexts;
+
+    private JwtValidator(Builder builder) {
+        this.clock = builder.clock;
+        this.clockSkewMillis = builder.clockSkewMillis;
+        this.audience = builder.audience;
+        this.requiredTypes = builder.requiredTypes;
+        this.requiredContexts = builder.requiredContexts;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param nonce the expected nonce, or null not to check it
+     */
+    public void validate(JwtVerifiableCredential vc, PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        Assert.notNull(publicKey, "publicKey must not be null");
+        validateClaims(vc, JwtVerifiableCredential.JWT_CLAIM_NAME_VC, nonce);
+        try {
+            vc.verifyJwt(publicKey);
+        } catch (VerifiableCredentialException e) {
+            throw new ValidationException(Check.SIGNATURE, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param nonce the expected nonce, or null not to check it
+     */
+    public void validate(JwtVerifiableCredential vc, KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vc, "vc must not be null");
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        Claims claims = validateClaims(vc, JwtVerifiableCredential.JWT_CLAIM_NAME_VC, nonce);
+        validateKeyBinding(vc, claims);
+        try {
+            vc.verifyJwt(keyResolver, null);
+        } catch (VerifiableCredentialException e) {
+            throw new ValidationException(Check.SIGNATURE, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates only the presentation, not the credentials in it.
+     *
+     * @param nonce the expected nonce, or null not to check it
+     */
+    public void validate(JwtVerifiablePresentation vp, PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        Assert.notNull(publicKey, "publicKey must not be null");
+        validateClaims(vp, JwtVerifiablePresentation.JWT_CLAIM_NAME_VP, nonce);
+        try {
+            vp.verifyJwt(publicKey);
+        } catch (VerifiableCredentialException e) {
+            throw new ValidationException(Check.SIGNATURE, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates only the presentation, not the credentials in it.
+     *
+     * @param nonce the expected nonce, or null not to check it
+     */
+    public void validate(JwtVerifiablePresentation vp, KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(vp, "vp must not be null");
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        Claims claims = validateClaims(vp, JwtVerifiablePresentation.JWT_CLAIM_NAME_VP, nonce);
+        validateKeyBinding(vp, claims);
+        try {
+            vp.verifyJwt(keyResolver, null);
+        } catch (VerifiableCredentialException e) {
+            throw new ValidationException(Check.SIGNATURE, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs all checks before the signature.
+     *
+     * @param container the name of the claim which has the types and contexts
+     */
+    private Claims validateClaims(JwtVerifiable token, String container, String nonce) throws ValidationException {
+        long start = Instrumentation.start();
+        Claims claims;
+        try {
+            token.getSignedJwt();
+            claims = Claims.read(token.getPayload(), container);
+        } catch (VerifiableCredentialException e) {
+            throw reject(Check.STRUCTURE, start, Instrumentation.REASON_INVALID_FORMAT, "Malformed JWT", e);
+        }
+        if (claims.issuer == null) {
+            throw reject(Check.STRUCTURE, start, Instrumentation.REASON_INVALID_FORMAT, "JWT doesn't have an issuer", null);
+        }
+        if (claims.types == null) {
+            throw reject(Check.STRUCTURE, start, Instrumentation.REASON_INVALID_FORMAT, "JWT doesn't have types in the '" + container + "' claim", null);
+        }
+
+        long now = clock.currentTimeMillis();
+        if (claims.notBefore != null && claims.notBefore.getTime() > now + clockSkewMillis) {
+            throw reject(Check.TEMPORAL, start, Instrumentation.REASON_NOT_YET_VALID, "JWT is not valid yet. nbf:" + claims.notBefore, null);
+        }
+        if (claims.expiration != null && claims.expiration.getTime() <= now - clockSkewMillis) {
+            throw reject(Check.TEMPORAL, start, Instrumentation.REASON_EXPIRED, "JWT has expired. exp:" + claims.expiration, null);
+        }
+
+        if (audience != null && (claims.audiences == null || !claims.audiences.contains(audience))) {
+            throw reject(Check.AUDIENCE, start, Instrumentation.REASON_AUDIENCE_MISMATCH, "Unexpected audience: " + claims.audiences + ", expected: " + audience, null);
+        }
+
+        if (nonce != null && !nonce.equals(claims.nonce)) {
+            throw reject(Check.NONCE, start, Instrumentation.REASON_NONCE_MISMATCH, "JWT nonce doesn't match. Expected:" + nonce + ", Actual:" + claims.nonce, null);
+        }
+
+        for (String type : requiredTypes) {
+            if (!claims.types.contains(type)) {
+                throw reject(Check.TYPE_POLICY, start, Instrumentation.REASON_POLICY_VIOLATION, "JWT doesn't have the required type: " + type, null);
+            }
+        }
+        for (String context : requiredContexts) {
+            if (claims.contexts == null || !claims.contexts.contains(context)) {
+                throw reject(Check.TYPE_POLICY, start, Instrumentation.REASON_POLICY_VIOLATION, "JWT doesn't have the required context: " + context, null);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Rejects a 'kid' of another DID than the 'iss' before resolving it, because the resolver would return its key anyway.
+     */
+    private static void validateKeyBinding(JwtVerifiable token, Claims claims) throws VerifiableCredentialException {
+        long start = Instrumentation.start();
+        String keyId = token.getKeyId();
+        if (!KeyBinding.isBound(keyId, claims.issuer)) {
+            throw reject(Check.KEY_BINDING, start, Instrumentation.REASON_KEY_MISMATCH, "The key ID " + keyId + " doesn't belong to the issuer: " + claims.issuer, null);
+        }
+    }
+
+    private static ValidationException reject(Check check, long start, String reason, String message, Exception cause) {
+        Instrumentation.failure(Stage.VERIFY, start, reason);
+        return cause != null ? new ValidationException(check, message, cause) : new ValidationException(check, message);
+    }
+
+    /**
+     * Claims needed by checks before the signature.
+     */
+    private static class Claims {
+        private String issuer;
+        private List<String> audiences;
+        private Date notBefore;
+        private Date expiration;
+        private String nonce;
+        private List<String> types;
+        private List<String> contexts;
+
+        private static Claims read(byte[] payload, final String container) throws VerifiableCredentialException {
+            final Claims claims = new Claims();
+            JwtPayloadCodec.read(payload, new JwtPayloadCodec.Reader() {
+                @Override
+                public boolean read(String name, JsonParser parser) throws IOException {
+                    if (JWT_CLAIM_NAME_ISS.equals(name)) {
+                        claims.issuer = readString(parser);
+                    } else if (JWT_CLAIM_NAME_AUD.equals(name)) {
+                        claims.audiences = readStringOrArray(parser);
+                    } else if (JWT_CLAIM_NAME_NBF.equals(name)) {
+                        claims.notBefore = readNumericDate(parser);
+                    } else if (JWT_CLAIM_NAME_EXP.equals(name)) {
+                        claims.expiration = readNumericDate(parser);
+                    } else if (JWT_CLAIM_NAME_NONCE.equals(name)) {
+                        claims.nonce = readString(parser);
+                    } else if (container.equals(name)) {
+                        // the same property names in presentations
+                        readObject(parser, new JwtPayloadCodec.Reader() {
+                            @Override
+                            public boolean read(String name, JsonParser parser) throws IOException {
+                                if (Credential.JSON_PROP_TYPES.equals(name)) {
+                                    claims.types = readStringOrArray(parser);
+                                } else if (Credential.JSON_PROP_CONTEXTS.equals(name)) {
+                                    claims.contexts = readStringOrArray(parser);
+                                } else {
+                                    return false;
+                                }
+                                return true;
+                            }
+                        });
+                    } else {
+                        return false;
+                    }
+                    return true;
+                }
+            });
+            return claims;
+        }
+    }
+
+    public static class Builder {
+        private Clock clock = Clock.SYSTEM;
+        private long clockSkewMillis = DEFAULT_CLOCK_SKEW_MILLIS;
+        private String audience;
+        private List<String> requiredTypes = Collections.emptyList();
+        private List<String> requiredContexts = Collections.emptyList();
+
+        private Builder() {
+        }
+
+        public Builder clock(Clock clock) {
+            Assert.notNull(clock, "clock must not be null");
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Sets how much 'nbf' and 'exp' are tolerated for the difference of clocks. The default is 1 minute.
+         */
+        public Builder clockSkew(long clockSkew, TimeUnit unit) {
+            Assert.notNull(unit, "unit must not be null");
+            if (clockSkew < 0) {
+                throw new IllegalArgumentException("clockSkew must not be negative");
+            }
+            this.clockSkewMillis = unit.toMillis(clockSkew);
+            return this;
+        }
+
+        /**
+         * Sets the audience (e.g. the DID of the verifier) which 'aud' must have. Null not to check it.
+         */
+        public Builder audience(String audience) {
+            this.audience = audience;
+            return this;
+        }
+
+        public Builder requiredTypes(List<String> requiredTypes) {
+            Assert.notNull(requiredTypes, "requiredTypes must not be null");
+            this.requiredTypes = Collections.unmodifiableList(new ArrayList<String>(requiredTypes));
+            return this;
+        }
+
+        public Builder requiredContexts(List<String> requiredContexts) {
+            Assert.notNull(requiredContexts, "requiredContexts must not be null");
+            this.requiredContexts = Collections.unmodifiableList(new ArrayList<String>(requiredContexts));
+            return this;
+        }
+
+        public JwtValidator build() {
+            return new JwtValidator(this);
+        }
+    }
+}
@@ -2,95 +2,149 @@ package org.medibloc.vc.verifiable.jwt;
 
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.ECDSASigner;
-import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
 import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
 
-import java.security.interfaces.ECPrivateKey;
-import java.security.interfaces.ECPublicKey;
+import java.security.PublicKey;
 import java.text.ParseException;
 
-@AllArgsConstructor
+/**
+ * A base class of JWT-based verifiables.
+ * The JWT is parsed only once, on the first access, and the parsed result is cached per instance.
+ * The cache is not a part of the identity of this object, so it is excluded from equals/hashCode.
+ */
 @Getter
 @EqualsAndHashCode
 class JwtVerifiable {
-    // For preventing a holder (or a verifier) from impersonating the issuer (or the holder).
-    // https://www.w3.org/TR/2019/REC-vc-data-model-20191119/#example-28-jwt-payload-of-a-jwt-based-verifiable-credential-using-jws-as-a-proof-non-normative
-    private static final String JWT_CLAIM_NAME_NONCE = "nonce";
-
     @JsonValue
     @NonNull
     private final String jwt;
 
-    JwtVerifiable(String algo, String keyId, ECPrivateKey privateKey, JWTClaimsSet.Builder jwtClaimsSetBuilder, String nonce) throws VerifiableCredentialException {
-        Assert.notNull(algo, "keyType must not be null");
-        Assert.notNull(keyId, "keyId must not be null");
-        Assert.notNull(privateKey, "privateKey must not be null");
-        Assert.notNull(jwtClaimsSetBuilder, "jwtClaimsSetBuilder must not be null");
-        Assert.notNull(nonce, "nonce must not be null");
+    // Parsing is idempotent, so racing threads may parse the same JWT concurrently,
+    // but all of them observe a fully-constructed object through the volatile field.
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile SignedJWT signedJwt;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile JWTClaimsSet jwtClaimsSet;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private volatile byte[] payload;
 
-        jwtClaimsSetBuilder.claim(JWT_CLAIM_NAME_NONCE, nonce);
+    JwtVerifiable(@NonNull String jwt) {
+        this.jwt = jwt;
+    }
 
-        JWSHeader jwsHeader = new JWSHeader.Builder(JWSAlgorithm.parse(algo)).keyID(keyId).build();
-        SignedJWT jwt = new SignedJWT(jwsHeader, jwtClaimsSetBuilder.build());
-        try {
-            jwt.sign(new ECDSASigner(privateKey));
-            this.jwt = jwt.serialize();
-        } catch (JOSEException e) {
-            throw new VerifiableCredentialException(e);
-        }
+    /**
+     * Signs the payload which has been already encoded by {@link JwtPayloadCodec}.
+     */
+    JwtVerifiable(JwtSigner signer, byte[] payload) throws VerifiableCredentialException {
+        Assert.notNull(signer, "signer must not be null");
+        Assert.notNull(payload, "payload must not be null");
+        this.jwt = signer.sign(payload);
     }
 
-    void verifyJwt(ECPublicKey publicKey) throws VerifiableCredentialException {
+    void verifyJwt(PublicKey publicKey) throws VerifiableCredentialException {
         verifyJwt(publicKey, null);
     }
 
-    void verifyJwt(ECPublicKey publicKey, String nonce) throws VerifiableCredentialException {
-        try {
-            SignedJWT jwt = SignedJWT.parse(this.jwt);
+    void verifyJwt(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(publicKey, "publicKey must not be null");
+        SignedJWT jwt = getSignedJwt();
 
-            if (nonce != null) {
-                String nonceInJwt = (String) jwt.getJWTClaimsSet().getClaims().get(JWT_CLAIM_NAME_NONCE);
-                if (!nonce.equals(nonceInJwt)) {
-                    throw new VerifiableCredentialException("JWT nonce doesn't match. Expected:" + nonce + ", Actual:" + nonceInJwt);
-                }
+        long start = Instrumentation.start();
+        if (jwt.getHeader().getType() != null && MerkleRoots.TYPE.equals(jwt.getHeader().getType().getType())) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw new VerifiableCredentialException("A Merkle root JWS is not a JWT credential");
+        }
+        if (nonce != null) {
+            String nonceInJwt = JwtPayloadCodec.readNonce(getPayload());
+            if (!nonce.equals(nonceInJwt)) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_NONCE_MISMATCH);
+                throw new VerifiableCredentialException("JWT nonce doesn't match. Expected:" + nonce + ", Actual:" + nonceInJwt);
             }
+        }
 
-            if (!jwt.verify(new ECDSAVerifier(publicKey))) {
+        try {
+            if (!jwt.verify(JwsVerifiers.get(publicKey))) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_SIGNATURE);
                 throw new VerifiableCredentialException("JWT verification failed");
             }
-        } catch (ParseException e) {
-            throw new VerifiableCredentialException(e);
         } catch (JOSEException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_CRYPTO_ERROR);
             throw new VerifiableCredentialException(e);
         }
+        Instrumentation.success(Stage.VERIFY, start);
+    }
+
+    /**
+     * Verifies the JWT with the public key resolved by the 'kid' in the JWS header.
+     * The 'kid' must belong to the 'iss' of the JWT: the issuer of a credential, or the holder of a presentation (see {@link KeyBinding}).
+     */
+    void verifyJwt(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        PublicKey publicKey = KeyBinding.resolve(keyResolver, getKeyId(), JwtPayloadCodec.readIssuer(getPayload()), "JWT");
+        verifyJwt(publicKey, nonce);
+    }
+
+    SignedJWT getSignedJwt() throws VerifiableCredentialException {
+        SignedJWT signedJwt = this.signedJwt;
+        if (signedJwt == null) {
+            long start = Instrumentation.start();
+            try {
+                signedJwt = SignedJWT.parse(this.jwt);
+            } catch (ParseException e) {
+                Instrumentation.failure(Stage.PARSE, start, Instrumentation.REASON_INVALID_FORMAT);
+                throw new VerifiableCredentialException(e);
+            }
+            Instrumentation.success(Stage.PARSE, start);
+            Instrumentation.bytes(Stage.PARSE, this.jwt.length());
+            this.signedJwt = signedJwt;
+        }
+        return signedJwt;
+    }
+
+    /**
+     * Returns the Base64URL-decoded payload. The returned array must not be modified.
+     */
+    byte[] getPayload() throws VerifiableCredentialException {
+        byte[] payload = this.payload;
+        if (payload == null) {
+            payload = getSignedJwt().getPayload().toBytes();
+            this.payload = payload;
+        }
+        return payload;
     }
 
+    /**
+     * Returns all claims parsed by nimbus. Prefer {@link JwtPayloadCodec} for decoding models.
+     */
     JWTClaimsSet getJwtClaimsSet() throws VerifiableCredentialException {
-        try {
-            SignedJWT signedJWT = SignedJWT.parse(this.jwt);
-            return signedJWT.getJWTClaimsSet();
-        } catch (ParseException e) {
-            throw new VerifiableCredentialException(e);
+        JWTClaimsSet jwtClaimsSet = this.jwtClaimsSet;
+        if (jwtClaimsSet == null) {
+            try {
+                jwtClaimsSet = getSignedJwt().getJWTClaimsSet();
+            } catch (ParseException e) {
+                throw new VerifiableCredentialException(e);
+            }
+            this.jwtClaimsSet = jwtClaimsSet;
         }
+        return jwtClaimsSet;
     }
 
     public String getKeyId() throws VerifiableCredentialException {
-        try {
-            SignedJWT signedJWT = SignedJWT.parse(this.jwt);
-            return signedJWT.getHeader().getKeyID();
-        } catch (ParseException e) {
-            throw new VerifiableCredentialException(e);
-        }
+        return getSignedJwt().getHeader().getKeyID();
     }
 
     public String serialize() {
@@ -4,29 +4,37 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nimbusds.jwt.JWTClaimsSet;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.json.JsonCodecs;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
 import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialStatus;
 import org.medibloc.vc.model.CredentialSubject;
 import org.medibloc.vc.model.Issuer;
 import org.medibloc.vc.verifiable.VerifiableCredential;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.interfaces.ECPrivateKey;
-import java.security.interfaces.ECPublicKey;
-import java.text.ParseException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static com.fasterxml.jackson.annotation.JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY;
 import static com.fasterxml.jackson.annotation.JsonFormat.Feature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED;
+import static org.medibloc.vc.verifiable.jwt.JwtPayloadCodec.*;
 
 /**
  * A verifiable credential in the form of external proof using JWT.
@@ -35,8 +43,21 @@ import static com.fasterxml.jackson.annotation.JsonFormat.Feature.WRITE_SINGLE_E
 @Getter
 @EqualsAndHashCode(callSuper = true)
 public class JwtVerifiableCredential extends JwtVerifiable implements VerifiableCredential {
-    public JwtVerifiableCredential(Credential credential, String jwsAlgo, String keyId, ECPrivateKey privateKey, String nonce) throws VerifiableCredentialException {
-        super(jwsAlgo, keyId, privateKey, encode(credential), nonce);
+    // decoded lazily from the JWT claims, and cached (see JwtVerifiable)
+    @EqualsAndHashCode.Exclude
+    private volatile Credential credential;
+    @EqualsAndHashCode.Exclude
+    private volatile JwtCredentialView credentialView;
+
+    public JwtVerifiableCredential(Credential credential, String jwsAlgo, String keyId, PrivateKey privateKey, String nonce) throws VerifiableCredentialException {
+        this(credential, new JwtSigner(jwsAlgo, keyId, privateKey), nonce);
+    }
+
+    /**
+     * Creates a verifiable credential using a reusable signer, which is cheaper than using a private key directly.
+     */
+    public JwtVerifiableCredential(Credential credential, JwtSigner signer, String nonce) throws VerifiableCredentialException {
+        super(signer, encode(credential, nonce));
     }
 
     public JwtVerifiableCredential(String jwt) {
@@ -45,78 +66,191 @@ public class JwtVerifiableCredential extends JwtVerifiable implements Verifiable
 
     @Override
     public Credential getCredential() throws VerifiableCredentialException {
-        return decode(super.getJwtClaimsSet());
+        Credential credential = this.credential;
+        if (credential == null) {
+            credential = decode(super.getPayload());
+            this.credential = credential;
+        }
+        return credential;
+    }
+
+    /**
+     * Returns a lazy view of the credential, which is cheaper than {@link #getCredential()}
+     * if only a few fields are needed (e.g. for policy checks).
+     */
+    public JwtCredentialView getCredentialView() throws VerifiableCredentialException {
+        JwtCredentialView credentialView = this.credentialView;
+        if (credentialView == null) {
+            credentialView = new JwtCredentialView(super.getPayload());
+            this.credentialView = credentialView;
+        }
+        return credentialView;
     }
 
     @Override
-    public void verify(ECPublicKey publicKey) throws VerifiableCredentialException {
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
         super.verifyJwt(publicKey);
     }
 
     @Override
-    public void verify(ECPublicKey publicKey, String nonce) throws VerifiableCredentialException {
+    public void verify(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
         super.verifyJwt(publicKey, nonce);
     }
 
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        super.verifyJwt(keyResolver, null);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        super.verifyJwt(keyResolver, nonce);
+    }
+
     // https://www.w3.org/TR/vc-data-model/#json-web-token-extensions
-    private static final String JWT_CLAIM_NAME_VC = "vc";
+    static final String JWT_CLAIM_NAME_VC = "vc";
     private static final String JWT_CLAIM_NAME_ISSUER = "issuer";  // for extra infos of the issuer
 
     /**
      * Encode a credential to a JWT payload, as described at https://www.w3.org/TR/vc-data-model/#jwt-encoding
      */
-    private static JWTClaimsSet.Builder encode(Credential credential) {
-        // Set JWT registered claims (iss, exp, ...)
-        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder()
-                .issuer(credential.getIssuer().getId())
-                .notBeforeTime(credential.getIssuanceDate());
-        if (credential.getCredentialSubject().getId() != null) {
-            builder.subject(credential.getCredentialSubject().getId());
-        }
-        if (credential.getExpirationDate() != null) {
-            builder.expirationTime(credential.getExpirationDate());
-        }
-        if (credential.getId() != null) {
-            builder.jwtID(credential.getId().toString());
-        }
+    private static byte[] encode(Credential credential, String nonce) throws VerifiableCredentialException {
+        return encode(json(), credential, nonce);
+    }
 
-        // Set JWT private claims
-        builder.claim(JWT_CLAIM_NAME_VC, VcClaim.from(credential).toMap());
-        builder.claim(JWT_CLAIM_NAME_ISSUER, credential.getIssuer().getExtras());
+    /**
+     * Encodes in the format of the factory: JSON for JWTs, or CBOR for CWTs.
+     */
+    static byte[] encode(JsonFactory factory, final Credential credential, final String nonce) throws VerifiableCredentialException {
+        Assert.notNull(credential, "credential must not be null");
+        Assert.notNull(nonce, "nonce must not be null");
+
+        return JwtPayloadCodec.write(factory, new JwtPayloadCodec.Writer() {
+            @Override
+            public void write(JsonGenerator gen) throws IOException {
+                // Set JWT registered claims (iss, exp, ...), in the order in which previous versions put them
+                HashOrderedFields claims = new HashOrderedFields()
+                        .put(JWT_CLAIM_NAME_ISS, credential.getIssuer().getId())
+                        .putNumericDate(JWT_CLAIM_NAME_NBF, credential.getIssuanceDate())
+                        .put(JWT_CLAIM_NAME_SUB, credential.getCredentialSubject().getId())
+                        .putNumericDate(JWT_CLAIM_NAME_EXP, credential.getExpirationDate());
+                if (credential.getId() != null) {
+                    claims.put(JWT_CLAIM_NAME_JTI, credential.getId().toString());
+                }
 
-        return builder;
+                // Set JWT private claims
+                Map<String, Object> credentialSubjectClaims = credential.getCredentialSubject().getClaims();
+                HashOrderedFields vc = new HashOrderedFields()
+                        .putStringOrArray(Credential.JSON_PROP_CONTEXTS, credential.getContexts())
+                        .put(Credential.JSON_PROP_CRED_STATUS, credential.getCredentialStatus())
+                        .put(Credential.JSON_PROP_CRED_SUB, credentialSubjectClaims != null && !credentialSubjectClaims.isEmpty() ? credentialSubjectClaims : null)
+                        .putStringOrArray(Credential.JSON_PROP_TYPES, credential.getTypes());
+                claims.put(JWT_CLAIM_NAME_VC, vc)
+                        .put(JWT_CLAIM_NAME_ISSUER, credential.getIssuer().getExtras())
+                        .put(JWT_CLAIM_NAME_NONCE, nonce)
+                        .write(gen);
+            }
+        });
     }
 
     /**
      * Decodes a JWT payload to a {@link Credential}, as described at https://www.w3.org/TR/vc-data-model/#jwt-decoding.
      */
-    private static Credential decode(JWTClaimsSet claims) throws VerifiableCredentialException {
+    static Credential decode(byte[] payload) throws VerifiableCredentialException {
+        return decode(json(), payload);
+    }
+
+    /**
+     * Decodes in the format of the factory: JSON for JWTs, or CBOR for CWTs.
+     */
+    static Credential decode(JsonFactory factory, byte[] payload) throws VerifiableCredentialException {
+        final Decoded decoded = new Decoded();
+        JwtPayloadCodec.read(factory, payload, 0, payload.length, new JwtPayloadCodec.Reader() {
+            @Override
+            public boolean read(String name, JsonParser parser) throws IOException {
+                if (JWT_CLAIM_NAME_ISS.equals(name)) {
+                    decoded.issuerId = readString(parser);
+                } else if (JWT_CLAIM_NAME_SUB.equals(name)) {
+                    decoded.subjectId = readString(parser);
+                } else if (JWT_CLAIM_NAME_NBF.equals(name)) {
+                    decoded.issuanceDate = readNumericDate(parser);
+                } else if (JWT_CLAIM_NAME_EXP.equals(name)) {
+                    decoded.expirationDate = readNumericDate(parser);
+                } else if (JWT_CLAIM_NAME_JTI.equals(name)) {
+                    decoded.id = readString(parser);
+                } else if (JWT_CLAIM_NAME_ISSUER.equals(name)) {
+                    decoded.issuerExtras = readMap(parser);
+                } else if (JWT_CLAIM_NAME_VC.equals(name)) {
+                    readObject(parser, new JwtPayloadCodec.Reader() {
+                        @Override
+                        public boolean read(String name, JsonParser parser) throws IOException {
+                            if (Credential.JSON_PROP_CONTEXTS.equals(name)) {
+                                decoded.contexts = readStringOrArray(parser);
+                            } else if (Credential.JSON_PROP_TYPES.equals(name)) {
+                                decoded.types = readStringOrArray(parser);
+                            } else if (Credential.JSON_PROP_CRED_SUB.equals(name)) {
+                                decoded.credentialSubjectClaims = readMap(parser);
+                            } else if (Credential.JSON_PROP_CRED_STATUS.equals(name)) {
+                                decoded.credentialStatus = parser.readValueAs(CredentialStatus.class);
+                            } else {
+                                return false;
+                            }
+                            return true;
+                        }
+                    });
+                } else {
+                    return false;
+                }
+                return true;
+            }
+        });
+
         try {
-            VcClaim vcClaim = VcClaim.fromMap(claims.getJSONObjectClaim(JWT_CLAIM_NAME_VC));
-            Map<String, Object> issuerExtras = claims.getJSONObjectClaim(JWT_CLAIM_NAME_ISSUER);
-
-            Credential.CredentialBuilder builder =  Credential.builder()
-                    .contexts(vcClaim.getContexts())
-                    .types(vcClaim.getTypes())
-                    .credentialSubject(new CredentialSubject(claims.getSubject(), vcClaim.getCredentialSubjectClaims()))
-                    .issuer(new Issuer(claims.getIssuer(), issuerExtras))
-                    .issuanceDate(claims.getNotBeforeTime());
-
-            if (claims.getExpirationTime() != null) {
-                builder = builder.expirationDate(claims.getExpirationTime());
+            Credential.CredentialBuilder builder = Credential.builder()
+                    .contexts(decoded.contexts)
+                    .types(decoded.types)
+                    .credentialSubject(new CredentialSubject(decoded.subjectId, decoded.credentialSubjectClaims))
+                    .issuer(new Issuer(decoded.issuerId, decoded.issuerExtras))
+                    .issuanceDate(decoded.issuanceDate);
+
+            if (decoded.expirationDate != null) {
+                builder = builder.expirationDate(decoded.expirationDate);
+            }
+            if (decoded.id != null) {
+                builder = builder.id(new URL(decoded.id));
             }
-            if (claims.getJWTID() != null) {
-                builder = builder.id(new URL(claims.getJWTID()));
+            if (decoded.credentialStatus != null) {
+                builder = builder.credentialStatus(decoded.credentialStatus);
             }
 
             return builder.build();
         } catch (MalformedURLException e) {
             throw new VerifiableCredentialException(e);
-        } catch (ParseException e) {
-            throw new VerifiableCredentialException(e);
         }
     }
 
+    /**
+     * Fields decoded from a JWT payload, before building a {@link Credential}.
+     */
+    private static class Decoded {
+        private String issuerId;
+        private String subjectId;
+        private Date issuanceDate;
+        private Date expirationDate;
+        private String id;
+        private Map<String, Object> issuerExtras;
+        private CredentialStatus credentialStatus;
+        private List<String> contexts;
+        private List<String> types;
+        private Map<String, Object> credentialSubjectClaims = new HashMap<String, Object>();
+    }
+
+    /**
+     * The 'vc' claim as a Jackson-annotated class.
+     *
+     * @deprecated JWT payloads are encoded/decoded by the streaming codec in this class. This is kept only for compatibility.
+     */
+    @Deprecated
     @AllArgsConstructor
     @Getter
     @EqualsAndHashCode
@@ -142,12 +276,14 @@ public class JwtVerifiableCredential extends JwtVerifiable implements Verifiable
             return new VcClaim(credential.getContexts(), credential.getTypes(), credential.getCredentialSubject().getClaims());
         }
 
+        private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
         static VcClaim fromMap(Map<String, Object> map) {
-            return new ObjectMapper().convertValue(map, VcClaim.class);
+            return JsonCodecs.getObjectMapper().convertValue(map, VcClaim.class);
         }
 
         public Map<String, Object> toMap() {
-            return new ObjectMapper().convertValue(this, new TypeReference<Map<String, Object>>() {});
+            return JsonCodecs.getObjectMapper().convertValue(this, MAP_TYPE);
         }
     }
 }
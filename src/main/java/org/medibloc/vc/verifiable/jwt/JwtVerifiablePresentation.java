@@ -4,28 +4,36 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nimbusds.jwt.JWTClaimsSet;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.json.JsonCodecs;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
 import org.medibloc.vc.model.Presentation;
 import org.medibloc.vc.verifiable.VerifiableCredential;
 import org.medibloc.vc.verifiable.VerifiablePresentation;
+import org.medibloc.vc.verifiable.cwt.CwtVerifiableCredential;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.interfaces.ECPrivateKey;
-import java.security.interfaces.ECPublicKey;
-import java.text.ParseException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static com.fasterxml.jackson.annotation.JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY;
 import static com.fasterxml.jackson.annotation.JsonFormat.Feature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED;
+import static org.medibloc.vc.verifiable.jwt.JwtPayloadCodec.*;
 
 /**
  * A verifiable presentation in the form of external proof using JWT.
@@ -34,8 +42,19 @@ import static com.fasterxml.jackson.annotation.JsonFormat.Feature.WRITE_SINGLE_E
 @Getter
 @EqualsAndHashCode(callSuper = true)
 public class JwtVerifiablePresentation extends JwtVerifiable implements VerifiablePresentation {
-    public JwtVerifiablePresentation(Presentation presentation, String jwsAlgo, String keyId, ECPrivateKey privateKey, String nonce) throws VerifiableCredentialException {
-        super(jwsAlgo, keyId, privateKey, encode(presentation), nonce);
+    // decoded lazily from the JWT claims, and cached (see JwtVerifiable)
+    @EqualsAndHashCode.Exclude
+    private volatile Presentation presentation;
+
+    public JwtVerifiablePresentation(Presentation presentation, String jwsAlgo, String keyId, PrivateKey privateKey, String nonce) throws VerifiableCredentialException {
+        this(presentation, new JwtSigner(jwsAlgo, keyId, privateKey), nonce);
+    }
+
+    /**
+     * Creates a verifiable presentation using a reusable signer, which is cheaper than using a private key directly.
+     */
+    public JwtVerifiablePresentation(Presentation presentation, JwtSigner signer, String nonce) throws VerifiableCredentialException {
+        super(signer, encode(presentation, nonce));
     }
 
     public JwtVerifiablePresentation(String jwt) {
@@ -44,69 +63,198 @@ public class JwtVerifiablePresentation extends JwtVerifiable implements Verifiab
 
     @Override
     public Presentation getPresentation() throws VerifiableCredentialException {
-        return decode(super.getJwtClaimsSet());
+        Presentation presentation = this.presentation;
+        if (presentation == null) {
+            presentation = decode(super.getPayload());
+            this.presentation = presentation;
+        }
+        return presentation;
+    }
+
+    /**
+     * Returns the holder, reading only the 'iss' claim without decoding the presentation.
+     */
+    public String getHolder() throws VerifiableCredentialException {
+        return readIssuer(super.getPayload());
     }
 
     @Override
-    public void verify(ECPublicKey publicKey) throws VerifiableCredentialException {
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
         super.verifyJwt(publicKey);
     }
 
     @Override
-    public void verify(ECPublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException {
+    public void verify(PublicKey publicKey, String verifier, String nonce) throws VerifiableCredentialException {
         super.verifyJwt(publicKey, nonce);
+        verifyVerifier(verifier);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        super.verifyJwt(keyResolver, null);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver, String verifier, String nonce) throws VerifiableCredentialException {
+        super.verifyJwt(keyResolver, nonce);
+        verifyVerifier(verifier);
+    }
 
-        if (verifier == null || !verifier.equals(this.getPresentation().getVerifier())) {
-            throw new VerifiableCredentialException("Unexpected verifier: " + this.getPresentation().getVerifier() + ", expected: " + verifier);
+    private void verifyVerifier(String verifier) throws VerifiableCredentialException {
+        String verifierInJwt = this.getPresentation().getVerifier();
+        if (verifier == null || !verifier.equals(verifierInJwt)) {
+            throw new VerifiableCredentialException("Unexpected verifier: " + verifierInJwt + ", expected: " + verifier);
         }
     }
 
     // https://www.w3.org/TR/vc-data-model/#json-web-token-extensions
-    private static final String JWT_CLAIM_NAME_VP = "vp";
+    static final String JWT_CLAIM_NAME_VP = "vp";
 
     /**
      * Encode a presentation to a JWT payload.
      */
-    private static JWTClaimsSet.Builder encode(Presentation presentation) {
-        // Set JWT registered claims (iss, exp, ...)
-        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder().issuer(presentation.getHolder());
-        if (presentation.getId() != null) {
-            builder.jwtID(presentation.getId().toString());
-        }
-        // Set an 'aud' claim: https://www.w3.org/TR/vc-imp-guide/#using-the-jwt-aud-claim
-        builder.audience(presentation.getVerifier());
+    private static byte[] encode(Presentation presentation, String nonce) throws VerifiableCredentialException {
+        return encode(json(), presentation, nonce);
+    }
 
-        // Set JWT private claims
-        builder.claim(JWT_CLAIM_NAME_VP, VpClaim.from(presentation).toMap());
+    /**
+     * Encodes in the format of the factory: JSON for JWTs, or CBOR for CWTs.
+     */
+    static byte[] encode(JsonFactory factory, final Presentation presentation, final String nonce) throws VerifiableCredentialException {
+        Assert.notNull(presentation, "presentation must not be null");
+        Assert.notNull(nonce, "nonce must not be null");
+
+        return JwtPayloadCodec.write(factory, new JwtPayloadCodec.Writer() {
+            @Override
+            public void write(JsonGenerator gen) throws IOException {
+                // Set JWT registered claims (iss, exp, ...), in the order in which previous versions put them
+                HashOrderedFields claims = new HashOrderedFields()
+                        .put(JWT_CLAIM_NAME_ISS, presentation.getHolder());
+                if (presentation.getId() != null) {
+                    claims.put(JWT_CLAIM_NAME_JTI, presentation.getId().toString());
+                }
+                // Set an 'aud' claim: https://www.w3.org/TR/vc-imp-guide/#using-the-jwt-aud-claim
+                claims.put(JWT_CLAIM_NAME_AUD, presentation.getVerifier());
 
-        return builder;
+                // Set JWT private claims
+                HashOrderedFields vp = new HashOrderedFields()
+                        .putStringOrArray(Presentation.JSON_PROP_CONTEXTS, presentation.getContexts())
+                        .putStringOrArray(Presentation.JSON_PROP_TYPES, presentation.getTypes())
+                        .putStringOrArray(Presentation.JSON_PROP_VERIFIABLE_CREDS, presentation.getVerifiableCredentials());
+                claims.put(JWT_CLAIM_NAME_VP, vp)
+                        .put(JWT_CLAIM_NAME_NONCE, nonce)
+                        .write(gen);
+            }
+        });
     }
 
     /**
      * Decodes a JWT payload to a {@link Presentation}.
      */
-    private static Presentation decode(JWTClaimsSet claims) throws VerifiableCredentialException {
+    private static Presentation decode(byte[] payload) throws VerifiableCredentialException {
+        return decode(json(), payload);
+    }
+
+    /**
+     * Decodes in the format of the factory: JSON for JWTs, or CBOR for CWTs.
+     */
+    static Presentation decode(JsonFactory factory, byte[] payload) throws VerifiableCredentialException {
+        final Decoded decoded = new Decoded();
+        JwtPayloadCodec.read(factory, payload, 0, payload.length, new JwtPayloadCodec.Reader() {
+            @Override
+            public boolean read(String name, JsonParser parser) throws IOException {
+                if (JWT_CLAIM_NAME_ISS.equals(name)) {
+                    decoded.holder = readString(parser);
+                } else if (JWT_CLAIM_NAME_AUD.equals(name)) {
+                    decoded.audience = readStringOrArray(parser);
+                } else if (JWT_CLAIM_NAME_JTI.equals(name)) {
+                    decoded.id = readString(parser);
+                } else if (JWT_CLAIM_NAME_VP.equals(name)) {
+                    readObject(parser, new JwtPayloadCodec.Reader() {
+                        @Override
+                        public boolean read(String name, JsonParser parser) throws IOException {
+                            if (Presentation.JSON_PROP_CONTEXTS.equals(name)) {
+                                decoded.contexts = readStringOrArray(parser);
+                            } else if (Presentation.JSON_PROP_TYPES.equals(name)) {
+                                decoded.types = readStringOrArray(parser);
+                            } else if (Presentation.JSON_PROP_VERIFIABLE_CREDS.equals(name)) {
+                                readVerifiableCredentials(parser, decoded.verifiableCredentials);
+                            } else {
+                                return false;
+                            }
+                            return true;
+                        }
+                    });
+                } else {
+                    return false;
+                }
+                return true;
+            }
+        });
+
+        if (decoded.audience == null || decoded.audience.size() != 1) {
+            throw new VerifiableCredentialException("The length of the 'aud' in the JWT is not 1");
+        }
+
         try {
-            if (claims.getAudience().size() != 1) {
-                throw new VerifiableCredentialException("The length of the 'aud' in the JWT is not 1");
+            Presentation.PresentationBuilder builder = Presentation.builder()
+                    .contexts(decoded.contexts)
+                    .types(decoded.types)
+                    .verifiableCredentials(decoded.verifiableCredentials)
+                    .holder(decoded.holder)
+                    .verifier(decoded.audience.get(0));
+
+            if (decoded.id != null) {
+                builder = builder.id(new URL(decoded.id));
             }
 
-            VpClaim vpClaim = VpClaim.fromMap(claims.getJSONObjectClaim(JWT_CLAIM_NAME_VP));
-            return Presentation.builder()
-                    .contexts(vpClaim.getContexts())
-                    .types(vpClaim.getTypes())
-                    .verifiableCredentials(vpClaim.getVerifiableCredentials())
-                    .holder(claims.getIssuer())
-                    .verifier(claims.getAudience().get(0))
-                    .id(new URL(claims.getJWTID()))
-                    .build();
+            return builder.build();
         } catch (MalformedURLException e) {
             throw new VerifiableCredentialException(e);
-        } catch (ParseException e) {
-            throw new VerifiableCredentialException(e);
         }
     }
 
+    /**
+     * Reads a verifiable credential or an array of them, using {@link VerifiableCredential.JsonDeserializer}.
+     */
+    private static void readVerifiableCredentials(JsonParser parser, List<VerifiableCredential> vcs) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                vcs.add(readVerifiableCredential(parser));
+            }
+        } else {
+            vcs.add(readVerifiableCredential(parser));
+        }
+    }
+
+    /**
+     * Reads a CBOR byte string as a CWT credential directly, and others (strings) by {@link VerifiableCredential.JsonDeserializer}.
+     */
+    private static VerifiableCredential readVerifiableCredential(JsonParser parser) throws IOException {
+        if (parser.getCurrentToken() == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return new CwtVerifiableCredential(parser.getBinaryValue());
+        }
+        return parser.readValueAs(VerifiableCredential.class);
+    }
+
+    /**
+     * Fields decoded from a JWT payload, before building a {@link Presentation}.
+     */
+    private static class Decoded {
+        private String holder;
+        private List<String> audience;
+        private String id;
+        private List<String> contexts;
+        private List<String> types;
+        private final List<VerifiableCredential> verifiableCredentials = new ArrayList<VerifiableCredential>();
+    }
+
+    /**
+     * The 'vp' claim as a Jackson-annotated class.
+     *
+     * @deprecated JWT payloads are encoded/decoded by the streaming codec in this class. This is kept only for compatibility.
+     */
+    @Deprecated
     @AllArgsConstructor
     @Getter
     @EqualsAndHashCode
@@ -133,12 +281,14 @@ public class JwtVerifiablePresentation extends JwtVerifiable implements Verifiab
             return new VpClaim(presentation.getContexts(), presentation.getTypes(), presentation.getVerifiableCredentials());
         }
 
+        private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
         static VpClaim fromMap(Map<String, Object> map) {
-            return new ObjectMapper().convertValue(map, VpClaim.class);
+            return JsonCodecs.getObjectMapper().convertValue(map, VpClaim.class);
         }
 
         public Map<String, Object> toMap() {
-            return new ObjectMapper().convertValue(this, new TypeReference<Map<String, Object>>() {});
+            return JsonCodecs.getObjectMapper().convertValue(this, MAP_TYPE);
         }
     }
 }
@@ -0,0 +1,73 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.model.Credential;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Issues a batch of credentials with a single signature, as {@link MerkleJwtVerifiableCredential}s.
+ *
+ * The JWT payloads of the credentials are the leaves of a Merkle tree, and only the root of the tree is signed.
+ * Each credential carries its payload, the proof of its inclusion in the tree, and the signed root shared by the batch.
+ * So, issuing N credentials costs one signature and about 2N hashes, instead of N signatures.
+ * The root is signed with its own 'typ', so that it is never accepted as a credential JWT (see {@link MerkleRoots}).
+ * This class is thread-safe.
+ */
+public class MerkleBatchIssuer {
+    private final JwtSigner signer;
+    private final SecureRandom random = new SecureRandom();
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong issuedCount = new AtomicLong();
+
+    public MerkleBatchIssuer(JwtSigner signer) throws VerifiableCredentialException {
+        Assert.notNull(signer, "signer must not be null");
+        this.signer = signer.withType(MerkleRoots.TYPE);
+    }
+
+    /**
+     * Issues all credentials as a batch, in the input order.
+     */
+    public List<MerkleJwtVerifiableCredential> issue(List<Credential> credentials, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(credentials, "credentials must not be null");
+        if (credentials.isEmpty()) {
+            throw new IllegalArgumentException("credentials must not be empty");
+        }
+
+        int size = credentials.size();
+        byte[][] payloads = new byte[size][];
+        byte[][] salts = new byte[size][];
+        byte[][] leaves = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            payloads[i] = JwtVerifiableCredential.encode(JwtPayloadCodec.json(), credentials.get(i), nonce);
+            salts[i] = new byte[MerkleJwtVerifiableCredential.SALT_LENGTH];
+            random.nextBytes(salts[i]);
+            leaves[i] = MerkleTree.leafHash(salts[i], payloads[i]);
+        }
+
+        MerkleTree tree = new MerkleTree(leaves);
+        String encodedRootJws = signer.sign(MerkleRoots.encode(tree.getRoot(), size));
+        CompactJws rootJws = CompactJws.parse(encodedRootJws);
+
+        List<MerkleJwtVerifiableCredential> vcs = new ArrayList<MerkleJwtVerifiableCredential>(size);
+        for (int i = 0; i < size; i++) {
+            vcs.add(new MerkleJwtVerifiableCredential(rootJws, encodedRootJws, payloads[i], salts[i], i, tree.proof(i)));
+        }
+        batchCount.incrementAndGet();
+        issuedCount.addAndGet(size);
+        return vcs;
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getIssuedCount() {
+        return issuedCount.get();
+    }
+}
@@ -0,0 +1,204 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyBinding;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Assert;
+import org.medibloc.vc.metrics.Instrumentation;
+import org.medibloc.vc.metrics.Stage;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+
+import java.security.PublicKey;
+
+/**
+ * A credential issued in a batch by {@link MerkleBatchIssuer}, which isn't signed by itself,
+ * but proven to be included in a Merkle tree whose root is signed once for the whole batch.
+ *
+ * It is serialized as five segments separated by '~':
+ * the root JWS, the JWT payload, the salt of the leaf, the index of the leaf, and the proof (concatenated sibling hashes).
+ * All segments except the index are in Base64URL.
+ *
+ * Verification checks the inclusion proof (a few SHA-256 hashes), and the signature of the root JWS.
+ * Root signatures which have been verified are cached process-wide (see {@link MerkleRoots}),
+ * so verifying the other credentials of the same batch doesn't verify any signature.
+ */
+@EqualsAndHashCode(of = "serialized")
+public class MerkleJwtVerifiableCredential implements VerifiableCredential {
+    static final char SEPARATOR = '~';
+    static final int SALT_LENGTH = 16;
+
+    private final String serialized;
+
+    // parsed lazily, and cached (see JwtVerifiable)
+    private volatile Parsed parsed;
+    private volatile Credential credential;
+
+    public MerkleJwtVerifiableCredential(@NonNull String serialized) {
+        this.serialized = serialized;
+    }
+
+    MerkleJwtVerifiableCredential(CompactJws rootJws, String encodedRootJws, byte[] payload, byte[] salt, int index, byte[][] proof) {
+        byte[] concatenated = new byte[proof.length * MerkleTree.HASH_LENGTH];
+        for (int i = 0; i < proof.length; i++) {
+            System.arraycopy(proof[i], 0, concatenated, i * MerkleTree.HASH_LENGTH, MerkleTree.HASH_LENGTH);
+        }
+        this.serialized = encodedRootJws + SEPARATOR + Base64URL.encode(payload) + SEPARATOR + Base64URL.encode(salt)
+                + SEPARATOR + index + SEPARATOR + Base64URL.encode(concatenated);
+        this.parsed = new Parsed(rootJws, payload, salt, index, proof);
+    }
+
+    @Override
+    public Credential getCredential() throws VerifiableCredentialException {
+        Credential credential = this.credential;
+        if (credential == null) {
+            credential = JwtVerifiableCredential.decode(getParsed().payload);
+            this.credential = credential;
+        }
+        return credential;
+    }
+
+    @Override
+    public void verify(PublicKey publicKey) throws VerifiableCredentialException {
+        verify(publicKey, null);
+    }
+
+    @Override
+    public void verify(PublicKey publicKey, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(publicKey, "publicKey must not be null");
+        Parsed parsed = getParsed();
+
+        long start = Instrumentation.start();
+        if (nonce != null) {
+            String nonceInJwt = JwtPayloadCodec.readNonce(parsed.payload);
+            if (!nonce.equals(nonceInJwt)) {
+                Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_NONCE_MISMATCH);
+                throw new VerifiableCredentialException("JWT nonce doesn't match. Expected:" + nonce + ", Actual:" + nonceInJwt);
+            }
+        }
+
+        MerkleRoots.Root root;
+        try {
+            root = MerkleRoots.verify(publicKey, parsed.rootJws);
+        } catch (JOSEException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_CRYPTO_ERROR);
+            throw new VerifiableCredentialException(e);
+        } catch (VerifiableCredentialException e) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_FORMAT);
+            throw e;
+        }
+        if (root == null) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_SIGNATURE);
+            throw new VerifiableCredentialException("Merkle root verification failed");
+        }
+        if (!root.includes(MerkleTree.leafHash(parsed.salt, parsed.payload), parsed.index, parsed.proof)) {
+            Instrumentation.failure(Stage.VERIFY, start, Instrumentation.REASON_INVALID_SIGNATURE);
+            throw new VerifiableCredentialException("Merkle inclusion proof verification failed");
+        }
+        Instrumentation.success(Stage.VERIFY, start);
+    }
+
+    @Override
+    public void verify(KeyResolver keyResolver) throws VerifiableCredentialException {
+        verify(keyResolver, null);
+    }
+
+    /**
+     * The 'kid' of the root JWS must belong to the issuer of the credential (see {@link KeyBinding}).
+     */
+    @Override
+    public void verify(KeyResolver keyResolver, String nonce) throws VerifiableCredentialException {
+        Assert.notNull(keyResolver, "keyResolver must not be null");
+        String issuer = JwtPayloadCodec.readIssuer(getParsed().payload);
+        PublicKey publicKey = KeyBinding.resolve(keyResolver, getKeyId(), issuer, "JWT");
+        verify(publicKey, nonce);
+    }
+
+    /**
+     * Returns the 'kid' of the root JWS, or null.
+     */
+    @Override
+    public String getKeyId() throws VerifiableCredentialException {
+        return getParsed().rootJws.getKeyId();
+    }
+
+    /**
+     * Returns the index of this credential in its batch.
+     */
+    public int getIndex() throws VerifiableCredentialException {
+        return getParsed().index;
+    }
+
+    /**
+     * Returns the root JWS which is shared by all credentials of the batch.
+     */
+    public CompactJws getRootJws() throws VerifiableCredentialException {
+        return getParsed().rootJws;
+    }
+
+    @JsonValue
+    @Override
+    public String serialize() {
+        return serialized;
+    }
+
+    private Parsed getParsed() throws VerifiableCredentialException {
+        Parsed parsed = this.parsed;
+        if (parsed == null) {
+            // the root JWS is instrumented by CompactJws
+            parsed = parse(serialized);
+            this.parsed = parsed;
+        }
+        return parsed;
+    }
+
+    private static Parsed parse(String serialized) throws VerifiableCredentialException {
+        String[] segments = serialized.split(String.valueOf(SEPARATOR), -1);
+        if (segments.length != 5) {
+            throw new VerifiableCredentialException("Invalid Merkle-batched credential: it must have five segments");
+        }
+
+        CompactJws rootJws = CompactJws.parse(segments[0]);
+        byte[] payload = new Base64URL(segments[1]).decode();
+        byte[] salt = new Base64URL(segments[2]).decode();
+        if (salt.length != SALT_LENGTH) {
+            throw new VerifiableCredentialException("Invalid salt length: " + salt.length);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(segments[3]);
+        } catch (NumberFormatException e) {
+            throw new VerifiableCredentialException("Invalid index: " + segments[3]);
+        }
+        byte[] concatenated = new Base64URL(segments[4]).decode();
+        if (concatenated.length % MerkleTree.HASH_LENGTH != 0) {
+            throw new VerifiableCredentialException("Invalid proof length: " + concatenated.length);
+        }
+        byte[][] proof = new byte[concatenated.length / MerkleTree.HASH_LENGTH][MerkleTree.HASH_LENGTH];
+        for (int i = 0; i < proof.length; i++) {
+            System.arraycopy(concatenated, i * MerkleTree.HASH_LENGTH, proof[i], 0, MerkleTree.HASH_LENGTH);
+        }
+        return new Parsed(rootJws, payload, salt, index, proof);
+    }
+
+    private static class Parsed {
+        private final CompactJws rootJws;
+        private final byte[] payload;
+        private final byte[] salt;
+        private final int index;
+        private final byte[][] proof;
+
+        private Parsed(CompactJws rootJws, byte[] payload, byte[] salt, int index, byte[][] proof) {
+            this.rootJws = rootJws;
+            this.payload = payload;
+            this.salt = salt;
+            this.index = index;
+            this.proof = proof;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.EqualsAndHashCode;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.BoundedCache;
+import org.medibloc.vc.cache.CacheStats;
+import org.medibloc.vc.metrics.Instrumentation;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+
+/**
+ * Signed roots of Merkle-batched credentials, and a process-wide cache of roots whose signatures have been verified.
+ *
+ * A root is signed as a JWS of the type {@link #TYPE}, whose payload has the Merkle root and the number of credentials in the batch.
+ * All credentials of a batch share the same root JWS, so its signature is verified only once per public key,
+ * and the following credentials of the batch only need their inclusion proofs to be checked.
+ * Failures are never cached.
+ */
+final class MerkleRoots {
+    /**
+     * The 'typ' of root JWSs. Root JWSs are signed with the same keys as credential JWTs,
+     * so the type distinguishes them from each other in both ways.
+     */
+    static final String TYPE = "merkle-root+jwt";
+
+    static final String CLAIM_NAME_ROOT = "merkleRoot";
+    static final String CLAIM_NAME_SIZE = "batchSize";
+
+    private static final int MAX_SIZE = 1024;
+
+    private static final BoundedCache<Key, Root> cache = new BoundedCache<Key, Root>(MAX_SIZE);
+
+    static {
+        Instrumentation.registerCache("merkle-roots", cache);
+    }
+
+    private MerkleRoots() {
+    }
+
+    static byte[] encode(final byte[] root, final int size) throws VerifiableCredentialException {
+        return JwtPayloadCodec.write(new JwtPayloadCodec.Writer() {
+            @Override
+            public void write(JsonGenerator gen) throws IOException {
+                gen.writeStringField(CLAIM_NAME_ROOT, Base64URL.encode(root).toString());
+                gen.writeNumberField(CLAIM_NAME_SIZE, size);
+            }
+        });
+    }
+
+    /**
+     * Verifies the signature of the root JWS with the public key, or looks up the result of a previous verification.
+     *
+     * @return the root in the JWS, or null if the signature is invalid
+     * @throws VerifiableCredentialException if the JWS is not a Merkle root
+     */
+    static Root verify(PublicKey publicKey, CompactJws rootJws) throws VerifiableCredentialException, JOSEException {
+        if (!TYPE.equals(rootJws.getType())) {
+            throw new VerifiableCredentialException("The JWS is not a Merkle root of credentials. typ:" + rootJws.getType());
+        }
+        Key key = new Key(rootJws, publicKey);
+        Root root = cache.get(key);
+        if (root != null) {
+            return root;
+        }
+        if (!JwsVerifiers.verify(publicKey, rootJws)) {
+            return null;
+        }
+        root = decode(rootJws.decodePayload());
+        cache.put(key, root);
+        return root;
+    }
+
+    private static Root decode(byte[] payload) throws VerifiableCredentialException {
+        final Root root = new Root();
+        JwtPayloadCodec.read(payload, new JwtPayloadCodec.Reader() {
+            @Override
+            public boolean read(String name, JsonParser parser) throws IOException {
+                if (CLAIM_NAME_ROOT.equals(name)) {
+                    root.hash = new Base64URL(JwtPayloadCodec.readString(parser)).decode();
+                } else if (CLAIM_NAME_SIZE.equals(name) && parser.getCurrentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    root.size = parser.getIntValue();
+                } else {
+                    return false;
+                }
+                return true;
+            }
+        });
+        if (root.hash == null || root.hash.length != MerkleTree.HASH_LENGTH || root.size <= 0) {
+            throw new VerifiableCredentialException("The JWS is not a Merkle root of credentials");
+        }
+        return root;
+    }
+
+    static CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * A Merkle root whose signature has been verified.
+     */
+    static class Root {
+        private byte[] hash;
+        private int size;
+
+        /**
+         * Returns true if the leaf at the index is included in the tree by the proof.
+         */
+        boolean includes(byte[] leaf, int index, byte[][] proof) {
+            byte[] computed = MerkleTree.rootOf(leaf, index, size, proof);
+            return computed != null && MessageDigest.isEqual(computed, hash);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final CompactJws rootJws;
+        private final PublicKey publicKey;
+
+        private Key(CompactJws rootJws, PublicKey publicKey) {
+            this.rootJws = rootJws;
+            this.publicKey = publicKey;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary SHA-256 Merkle tree over the payloads of a batch of credentials.
+ *
+ * Leaves and inner nodes are hashed with different prefixes (0x00 and 0x01), as in RFC 6962,
+ * so that an inner node can't be presented as a leaf. If a level has an odd number of nodes,
+ * the last one is carried up to the next level as it is.
+ * Each leaf is salted, so that the sibling hashes in a proof don't reveal guessable payloads of other credentials.
+ */
+final class MerkleTree {
+    static final int HASH_LENGTH = 32;
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    // MessageDigest is not thread-safe.
+    private static final ThreadLocal<MessageDigest> digests = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);  // every JRE must support SHA-256
+            }
+        }
+    };
+
+    // levels.get(0) has the leaves, and the last level has only the root.
+    private final List<byte[][]> levels = new ArrayList<byte[][]>();
+
+    MerkleTree(byte[][] leaves) {
+        if (leaves.length == 0) {
+            throw new IllegalArgumentException("A Merkle tree must have at least one leaf");
+        }
+        byte[][] level = leaves;
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                parent[i] = 2 * i + 1 < level.length ? nodeHash(level[2 * i], level[2 * i + 1]) : level[2 * i];
+            }
+            level = parent;
+            levels.add(level);
+        }
+    }
+
+    int size() {
+        return levels.get(0).length;
+    }
+
+    byte[] getRoot() {
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    /**
+     * Returns the sibling hashes from the leaf to the root, which prove that the leaf is included in the tree.
+     */
+    byte[][] proof(int index) {
+        List<byte[]> proof = new ArrayList<byte[]>(levels.size());
+        for (int i = 0; i < levels.size() - 1; i++) {
+            byte[][] level = levels.get(i);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                proof.add(level[sibling]);
+            }
+            index /= 2;
+        }
+        return proof.toArray(new byte[proof.size()][]);
+    }
+
+    /**
+     * Computes the root from a leaf and its proof, by walking up the tree in the same way as it was built.
+     *
+     * @return the root, or null if the proof doesn't match the index and the size of the tree
+     */
+    static byte[] rootOf(byte[] leaf, int index, int size, byte[][] proof) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        byte[] hash = leaf;
+        int used = 0;
+        for (int n = size; n > 1; n = (n + 1) / 2) {
+            if (index % 2 == 1) {
+                if (used == proof.length) {
+                    return null;
+                }
+                hash = nodeHash(proof[used++], hash);
+            } else if (index + 1 < n) {
+                if (used == proof.length) {
+                    return null;
+                }
+                hash = nodeHash(hash, proof[used++]);
+            }
+            index /= 2;
+        }
+        return used == proof.length ? hash : null;
+    }
+
+    static byte[] leafHash(byte[] salt, byte[] payload) {
+        MessageDigest md = digests.get();
+        md.reset();
+        md.update(LEAF_PREFIX);
+        md.update(salt);
+        md.update(payload);
+        return md.digest();
+    }
+
+    static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest md = digests.get();
+        md.reset();
+        md.update(NODE_PREFIX);
+        md.update(left);
+        md.update(right);
+        return md.digest();
+    }
+}
@@ -0,0 +1,60 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.crypto.impl.ECDSAProvider;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.InvalidKeyException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPrivateKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An ECDSA signer for a long-lived private key, which keeps JCA signatures already initialized with the key.
+ *
+ * The {@link com.nimbusds.jose.crypto.ECDSASigner} looks up a JCA signature from providers
+ * and initializes it with the key (including a new {@link java.security.SecureRandom}) for every signature.
+ * This signer does that only once per concurrent caller: a signature is reset to its initialized state
+ * after signing, so it is returned to the pool and reused.
+ * The pool grows up to the max number of concurrent callers.
+ */
+final class PreparedECDSASigner extends ECDSAProvider implements JWSSigner {
+    private final ECPrivateKey privateKey;
+    private final Queue<Signature> pool = new ConcurrentLinkedQueue<Signature>();
+
+    PreparedECDSASigner(ECPrivateKey privateKey) throws JOSEException {
+        super(ECDSA.resolveAlgorithm(privateKey));
+        this.privateKey = privateKey;
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        JWSAlgorithm alg = header.getAlgorithm();
+        if (!supportedJWSAlgorithms().contains(alg)) {
+            throw new JOSEException("Unsupported JWS algorithm " + alg + ", must be " + supportedJWSAlgorithms());
+        }
+
+        try {
+            Signature signature = pool.poll();
+            if (signature == null) {
+                signature = ECDSA.getSignerAndVerifier(alg, getJCAContext().getProvider());
+                signature.initSign(privateKey, getJCAContext().getSecureRandom());
+            }
+            signature.update(signingInput);
+            byte[] derSignature = signature.sign();
+            // A signature which has thrown is not returned, since its state is unknown.
+            pool.offer(signature);
+            return Base64URL.encode(ECDSA.transcodeSignatureToConcat(derSignature, ECDSA.getSignatureByteArrayLength(alg)));
+        } catch (InvalidKeyException e) {
+            throw new JOSEException(e.getMessage(), e);
+        } catch (SignatureException e) {
+            throw new JOSEException(e.getMessage(), e);
+        }
+    }
+}
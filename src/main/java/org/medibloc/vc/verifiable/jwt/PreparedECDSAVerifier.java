@@ -0,0 +1,99 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.crypto.impl.ECDSAProvider;
+import com.nimbusds.jose.crypto.utils.ECChecks;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * An ECDSA verifier for a cached public key, which keeps JCA signatures already initialized with the key.
+ * See {@link PreparedECDSASigner} for how they are reused.
+ *
+ * Like the {@link com.nimbusds.jose.crypto.ECDSAVerifier}, the key must be on its curve,
+ * and JWSs with critical header parameters are rejected since none of them is understood.
+ */
+final class PreparedECDSAVerifier extends ECDSAProvider implements JWSVerifier {
+    private final ECPublicKey publicKey;
+    private final Queue<Signature> pool = new ConcurrentLinkedQueue<Signature>();
+
+    PreparedECDSAVerifier(ECPublicKey publicKey) throws JOSEException {
+        super(ECDSA.resolveAlgorithm(publicKey));
+        if (!ECChecks.isPointOnCurve(publicKey, publicKey.getParams())) {
+            throw new JOSEException("Curve / public key parameters mismatch");
+        }
+        this.publicKey = publicKey;
+    }
+
+    @Override
+    public boolean verify(JWSHeader header, byte[] signedContent, Base64URL signature) throws JOSEException {
+        if (header.getCriticalParams() != null && !header.getCriticalParams().isEmpty()) {
+            return false;
+        }
+        return verify(header.getAlgorithm(), ByteBuffer.wrap(signedContent), signature.decode());
+    }
+
+    /**
+     * Verifies the signing input in a buffer, which is passed to JCA without copying if it is backed by an array.
+     * The caller must have checked that the JWS has no critical header parameters.
+     */
+    boolean verify(JWSAlgorithm alg, ByteBuffer signingInput, byte[] jwsSignature) throws JOSEException {
+        if (!supportedJWSAlgorithms().contains(alg)) {
+            throw new JOSEException("Unsupported JWS algorithm " + alg + ", must be " + supportedJWSAlgorithms());
+        }
+        if (jwsSignature.length != ECDSA.getSignatureByteArrayLength(alg) || isZeroHalf(jwsSignature)) {
+            return false;
+        }
+        byte[] derSignature;
+        try {
+            derSignature = ECDSA.transcodeSignatureToDER(jwsSignature);
+        } catch (JOSEException e) {
+            return false;
+        }
+
+        try {
+            Signature verifier = pool.poll();
+            if (verifier == null) {
+                verifier = ECDSA.getSignerAndVerifier(alg, getJCAContext().getProvider());
+                verifier.initVerify(publicKey);
+            }
+            verifier.update(signingInput);
+            boolean valid = verifier.verify(derSignature);
+            // A signature which has thrown is not returned, since its state is unknown.
+            pool.offer(verifier);
+            return valid;
+        } catch (InvalidKeyException e) {
+            throw new JOSEException("Invalid EC public key: " + e.getMessage(), e);
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true if R or S is zero, which some JCA providers accept wrongly (CVE-2022-21449).
+     */
+    private static boolean isZeroHalf(byte[] jwsSignature) {
+        int half = jwsSignature.length / 2;
+        return isZero(jwsSignature, 0, half) || isZero(jwsSignature, half, jwsSignature.length);
+    }
+
+    private static boolean isZero(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
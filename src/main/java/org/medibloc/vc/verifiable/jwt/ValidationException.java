@@ -0,0 +1,22 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import lombok.Getter;
+import org.medibloc.vc.VerifiableCredentialException;
+
+/**
+ * Thrown by {@link JwtValidator} with the check which rejected the token.
+ */
+@Getter
+public class ValidationException extends VerifiableCredentialException {
+    private final JwtValidator.Check check;
+
+    public ValidationException(JwtValidator.Check check, String message) {
+        super(message);
+        this.check = check;
+    }
+
+    public ValidationException(JwtValidator.Check check, String message, Exception e) {
+        super(message, e);
+        this.check = check;
+    }
+}
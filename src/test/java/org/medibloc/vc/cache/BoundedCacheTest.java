@@ -0,0 +1,54 @@
+package org.medibloc.vc.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+    @Test
+    public void getAndPut() {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(10);
+        assertNull(cache.get("k1"));
+
+        cache.put("k1", "v1");
+        assertEquals("v1", cache.get("k1"));
+        assertEquals(new CacheStats(1, 1, 0, 1), cache.getStats());
+
+        assertEquals("v1", cache.remove("k1"));
+        assertNull(cache.get("k1"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(1);
+        cache.put(1, "v1");
+        cache.put(2, "v2");
+
+        assertNull(cache.get(1));
+        assertEquals("v2", cache.get(2));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void bounded() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        BoundedCache<String, String> cache = new BoundedCache<String, String>(10, 10, TimeUnit.MILLISECONDS);
+        cache.put("k1", "v1");
+        Thread.sleep(50);
+
+        assertNull(cache.get("k1"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+}
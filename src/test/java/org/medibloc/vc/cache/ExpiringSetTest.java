@@ -0,0 +1,117 @@
+package org.medibloc.vc.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ExpiringSetTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void addAndContains() {
+        ExpiringSet set = new ExpiringSet(10);
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        assertTrue(set.add("v1", expiresAt));
+        assertFalse(set.add("v1", expiresAt));
+        assertTrue(set.contains("v1"));
+        assertFalse(set.contains("v2"));
+    }
+
+    @Test
+    public void notRememberExpired() {
+        ExpiringSet set = new ExpiringSet(10);
+        assertTrue(set.add("v1", System.currentTimeMillis() - 1));
+        assertFalse(set.contains("v1"));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    public void expire() throws InterruptedException {
+        ExpiringSet set = new ExpiringSet(10, 10, TimeUnit.MILLISECONDS, 4);
+        assertTrue(set.add("v1", System.currentTimeMillis() + 20));
+        // expires later than one revolution of the wheel
+        assertTrue(set.add("v2", System.currentTimeMillis() + 200));
+        Thread.sleep(100);
+
+        assertFalse(set.contains("v1"));
+        assertTrue(set.add("v1", System.currentTimeMillis() + 1000));
+        assertTrue(set.contains("v2"));
+        assertFalse(set.add("v2", System.currentTimeMillis() + 1000));
+        assertEquals(1, set.getExpiredCount());
+    }
+
+    @Test
+    public void rejectIfFull() throws InterruptedException {
+        ExpiringSet set = new ExpiringSet(1, 10, TimeUnit.MILLISECONDS, 16);
+        assertTrue(set.add("v1", System.currentTimeMillis() + 20));
+        try {
+            set.add("v2", System.currentTimeMillis() + 20);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(1, set.getRejectedCount());
+        }
+
+        Thread.sleep(50);
+        assertTrue(set.add("v2", System.currentTimeMillis() + 20));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void remove() {
+        ExpiringSet set = new ExpiringSet(1);
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        assertTrue(set.add("v1", expiresAt));
+        assertTrue(set.remove("v1"));
+        assertFalse(set.remove("v1"));
+        assertFalse(set.contains("v1"));
+        assertEquals(0, set.size());
+        assertTrue(set.add("v1", expiresAt));  // not full
+    }
+
+    @Test
+    public void restoreFromJournal() throws IOException {
+        File file = new File(tmp.getRoot(), "journal");
+        long now = System.currentTimeMillis();
+
+        ExpiringSet set = ExpiringSet.open(file, 10, 1, TimeUnit.SECONDS, 16);
+        assertTrue(set.add("v1", now + 60000));
+        assertTrue(set.add("v2", now + 1));
+        set.close();
+
+        set = ExpiringSet.open(file, 10, 1, TimeUnit.SECONDS, 16);
+        assertTrue(set.contains("v1"));
+        assertFalse(set.add("v1", now + 60000));
+        assertFalse(set.contains("v2"));
+        assertEquals(1, set.size());
+        set.close();
+    }
+
+    @Test
+    public void notRestoreRemoved() throws IOException {
+        File file = new File(tmp.getRoot(), "journal");
+        long now = System.currentTimeMillis();
+
+        ExpiringSet set = ExpiringSet.open(file, 10, 1, TimeUnit.SECONDS, 16);
+        assertTrue(set.add("v1", now + 60000));
+        assertTrue(set.add("v2", now + 60000));
+        assertTrue(set.remove("v1"));
+        assertTrue(set.remove("v2"));
+        assertTrue(set.add("v2", now + 60000));
+        set.close();
+
+        set = ExpiringSet.open(file, 10, 1, TimeUnit.SECONDS, 16);
+        assertFalse(set.contains("v1"));
+        assertTrue(set.contains("v2"));
+        assertEquals(1, set.size());
+        set.close();
+    }
+}
@@ -0,0 +1,177 @@
+package org.medibloc.vc.concurrent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class BoundedAsyncExecutorTest {
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void submit() throws Exception {
+        BoundedAsyncExecutor executor = new BoundedAsyncExecutor(executorService, 1);
+        final AtomicReference<String> result = new AtomicReference<String>();
+        final CountDownLatch called = new CountDownLatch(1);
+
+        Future<String> future = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return "done";
+            }
+        }, new Callback<String>() {
+            @Override
+            public void onSuccess(String r) {
+                result.set(r);
+                called.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                called.countDown();
+            }
+        });
+
+        assertEquals("done", future.get());
+        assertTrue(called.await(1, TimeUnit.SECONDS));
+        assertEquals("done", result.get());
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    public void rejectIfTooManyInFlight() throws Exception {
+        BoundedAsyncExecutor executor = new BoundedAsyncExecutor(executorService, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                release.await();
+                return null;
+            }
+        }, new Callback<Void>() {
+            @Override
+            public void onSuccess(Void r) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+        assertEquals(1, executor.getInFlight());
+
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        Future<Void> rejected = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        }, new Callback<Void>() {
+            @Override
+            public void onSuccess(Void r) {
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failure.set(e);
+            }
+        });
+
+        assertTrue(rejected.isDone());
+        assertTrue(failure.get() instanceof RejectedExecutionException);
+        try {
+            rejected.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        release.countDown();
+        assertTrue(completed.await(1, TimeUnit.SECONDS));  // callbacks are invoked after releasing the slot
+        assertEquals(0, executor.getInFlight());
+    }
+
+    @Test
+    public void releaseIfCancelledBeforeStart() throws Exception {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            BoundedAsyncExecutor executor = new BoundedAsyncExecutor(singleThread, 2);
+            final CountDownLatch release = new CountDownLatch(1);
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws InterruptedException {
+                    release.await();
+                    return null;
+                }
+            }, null);
+            Future<Void> queued = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    return null;
+                }
+            }, null);
+            assertEquals(2, executor.getInFlight());
+
+            assertTrue(queued.cancel(false));
+            assertEquals(1, executor.getInFlight());  // without waiting for the executor to dequeue it
+
+            release.countDown();
+            awaitInFlight(executor, 0);
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keepPermitIfCancelledWhileRunning() throws Exception {
+        BoundedAsyncExecutor executor = new BoundedAsyncExecutor(executorService, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<Void> running = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws InterruptedException {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        }, null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        assertTrue(running.cancel(false));
+        assertEquals(1, executor.getInFlight());  // the callable is still running
+
+        release.countDown();
+        awaitInFlight(executor, 0);
+    }
+
+    private static void awaitInFlight(BoundedAsyncExecutor executor, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (executor.getInFlight() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, executor.getInFlight());
+    }
+}
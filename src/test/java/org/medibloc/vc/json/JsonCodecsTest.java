@@ -0,0 +1,41 @@
+package org.medibloc.vc.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.After;
+import org.junit.Test;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.Issuer;
+
+import static org.junit.Assert.*;
+
+public class JsonCodecsTest {
+    @After
+    public void tearDown() {
+        JsonCodecs.setObjectMapper(new ObjectMapper());
+    }
+
+    @Test
+    public void sharedCodecs() {
+        assertSame(JsonCodecs.reader(Credential.class), JsonCodecs.reader(Credential.class));
+        assertSame(JsonCodecs.writer(Credential.class), JsonCodecs.writer(Credential.class));
+        assertNotSame(JsonCodecs.writer(Credential.class), JsonCodecs.writer(Issuer.class));
+    }
+
+    @Test
+    public void customObjectMapper() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        JsonCodecs.setObjectMapper(mapper);
+        assertTrue(JsonCodecs.writer(Issuer.class).writeValueAsString(new Issuer("id1")).contains("\"id\" : \"id1\""));
+
+        // the registry holds a copy, so changes of the supplied mapper must not be propagated
+        mapper.disable(SerializationFeature.INDENT_OUTPUT);
+        assertNotSame(mapper, JsonCodecs.getObjectMapper());
+        assertTrue(JsonCodecs.getObjectMapper().isEnabled(SerializationFeature.INDENT_OUTPUT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullObjectMapper() {
+        JsonCodecs.setObjectMapper(null);
+    }
+}
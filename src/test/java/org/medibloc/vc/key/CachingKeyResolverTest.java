@@ -0,0 +1,55 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CachingKeyResolverTest {
+    @Test
+    public void resolveOnce() throws JOSEException, VerifiableCredentialException {
+        final ECKey ecJWK = new ECKeyGenerator(com.nimbusds.jose.jwk.Curve.SECP256K1).generate();
+        final AtomicInteger resolved = new AtomicInteger();
+
+        CachingKeyResolver resolver = new CachingKeyResolver(new KeyResolver() {
+            @Override
+            public ECPublicKey resolve(String keyId) throws VerifiableCredentialException {
+                resolved.incrementAndGet();
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (JOSEException e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        }, 10, 1, TimeUnit.MINUTES);
+
+        PublicKey key = resolver.resolve("key1");
+        assertSame(key, resolver.resolve("key1"));
+        assertEquals(1, resolved.get());
+        assertEquals(1, resolver.getStats().getHitCount());
+        assertEquals(1, resolver.getStats().getMissCount());
+
+        resolver.invalidate("key1");
+        resolver.resolve("key1");
+        assertEquals(2, resolved.get());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void keyNotFound() throws VerifiableCredentialException {
+        new CachingKeyResolver(new KeyResolver() {
+            @Override
+            public ECPublicKey resolve(String keyId) {
+                return null;
+            }
+        }, 10, 1, TimeUnit.MINUTES).resolve("key1");
+    }
+}
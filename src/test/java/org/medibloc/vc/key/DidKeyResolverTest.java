@@ -0,0 +1,86 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DidKeyResolverTest {
+    @Test
+    public void base58() {
+        assertEquals("2NEpo7TZRRrLZSi2U", Base58.encode("Hello World!".getBytes()));
+        assertArrayEquals("Hello World!".getBytes(), Base58.decode("2NEpo7TZRRrLZSi2U"));
+        assertEquals("112", Base58.encode(new byte[]{0, 0, 1}));
+        assertArrayEquals(new byte[]{0, 0, 1}, Base58.decode("112"));
+        assertEquals("", Base58.encode(new byte[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBase58() {
+        Base58.decode("0OIl");
+    }
+
+    @Test
+    public void resolveEcKeys() throws Exception {
+        for (com.nimbusds.jose.jwk.Curve curve : Arrays.asList(com.nimbusds.jose.jwk.Curve.SECP256K1, com.nimbusds.jose.jwk.Curve.P_256)) {
+            for (int i = 0; i < 10; i++) {  // x of various lengths
+                ECKey ecKey = new ECKeyGenerator(curve).generate();
+                String did = DidKeyResolver.toDid(ecKey.toECPublicKey());
+                assertTrue(did, did.startsWith(curve == com.nimbusds.jose.jwk.Curve.P_256 ? "did:key:zDn" : "did:key:zQ3s"));
+
+                DidKeyResolver resolver = new DidKeyResolver();
+                PublicKey key = resolver.resolve(DidKeyResolver.toKeyId(ecKey.toECPublicKey()));
+                assertEquals(ecKey.toECPublicKey().getW(), ((ECPublicKey) key).getW());
+                assertSame(key, resolver.resolve(did));
+            }
+        }
+    }
+
+    @Test
+    public void resolveEd25519Key() throws Exception {
+        OctetKeyPair okp = new OctetKeyPairGenerator(com.nimbusds.jose.jwk.Curve.Ed25519).generate();
+        Ed25519PublicKey publicKey = KeyDecoder.ed25519PublicKey(okp.getDecodedX());
+        String keyId = DidKeyResolver.toKeyId(publicKey);
+        assertTrue(keyId.startsWith("did:key:z6Mk"));
+
+        DidKeyResolver resolver = new DidKeyResolver(10);
+        assertArrayEquals(okp.getDecodedX(), resolver.resolve(keyId).getEncoded());
+        resolver.resolve(keyId);
+        assertEquals(1, resolver.getStats().getHitCount());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void wrongFragment() throws Exception {
+        PublicKey key = new ECKeyGenerator(com.nimbusds.jose.jwk.Curve.P_256).generate().toECPublicKey();
+        new DidKeyResolver().resolve(DidKeyResolver.toDid(key) + "#key1");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void notBase58btc() throws VerifiableCredentialException {
+        new DidKeyResolver().resolve("did:key:mABCD");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void unsupportedCodec() throws VerifiableCredentialException {
+        // an X25519 key (0xec)
+        new DidKeyResolver().resolve("did:key:z6LSbysY2xFMRpGMhb7tFTLMpeuPRaqaWM1yECx2AtzE3KCc");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void invalidPoint() throws VerifiableCredentialException {
+        byte[] bytes = new byte[35];
+        bytes[0] = (byte) 0x80;
+        bytes[1] = 0x24;
+        bytes[2] = 0x02;
+        Arrays.fill(bytes, 3, 35, (byte) 0xff);  // x out of the field
+        new DidKeyResolver().resolve("did:key:z" + Base58.encode(bytes));
+    }
+}
@@ -0,0 +1,72 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.model.Issuer;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.security.PublicKey;
+
+import static org.junit.Assert.*;
+
+public class DidResolverChainTest {
+    @Test
+    public void verifyWithDidKey() throws Exception {
+        ECKey ecKey = new ECKeyGenerator(Curve.SECP256K1).generate();
+        Credential credential = CredentialTest.buildCredential();
+        Credential issuedByDidKey = Credential.builder()
+                .contexts(credential.getContexts())
+                .types(credential.getTypes())
+                .id(credential.getId())
+                .issuer(new Issuer(DidKeyResolver.toDid(ecKey.toECPublicKey())))
+                .issuanceDate(credential.getIssuanceDate())
+                .credentialSubject(credential.getCredentialSubject())
+                .build();
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                issuedByDidKey, "ES256K", DidKeyResolver.toKeyId(ecKey.toECPublicKey()), ecKey.toECPrivateKey(), "this-is-random"
+        );
+        vc.verify(new DidResolverChain(), "this-is-random");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithDidKeyOfAnotherIssuer() throws Exception {
+        // anyone can create a did:key, so it must not verify a credential issued by another DID
+        ECKey ecKey = new ECKeyGenerator(Curve.SECP256K1).generate();
+        Credential credential = CredentialTest.buildCredential();
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "ES256K", DidKeyResolver.toKeyId(ecKey.toECPublicKey()), ecKey.toECPrivateKey(), "this-is-random"
+        );
+        vc.verify(new DidResolverChain(), "this-is-random");
+    }
+
+    @Test
+    public void otherMethod() throws Exception {
+        final PublicKey key = new ECKeyGenerator(Curve.P_256).generate().toECPublicKey();
+        DidResolverChain chain = new DidResolverChain();
+        chain.register("panacea", new KeyResolver() {
+            @Override
+            public PublicKey resolve(String keyId) {
+                return "did:panacea:abc#key1".equals(keyId) ? key : null;
+            }
+        });
+
+        assertSame(key, chain.resolve("did:panacea:abc#key1"));
+        assertNull(chain.resolve("did:panacea:abc#key2"));
+        assertArrayEquals(key.getEncoded(), chain.resolve(DidKeyResolver.toDid(key)).getEncoded());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void unsupportedMethod() throws VerifiableCredentialException {
+        new DidResolverChain().resolve("did:web:example.com#key1");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void notDid() throws VerifiableCredentialException {
+        new DidResolverChain().resolve("key1");
+    }
+}
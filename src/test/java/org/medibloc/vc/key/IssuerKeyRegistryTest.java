@@ -0,0 +1,202 @@
+package org.medibloc.vc.key;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IssuerKeyRegistryTest {
+    private static final String ISSUER = "did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void loadFromFile() throws Exception {
+        ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID(ISSUER + "#key1").generate();
+        OctetKeyPair okp = new OctetKeyPairGenerator(Curve.Ed25519).keyID("key2").generate();
+        ECKey otherKey = new ECKeyGenerator(Curve.P_256).keyID("did:panacea:other#key1").generate();
+        File file = folder.newFile("jwks.json");
+        write(file, jwks(ecKey, okp, otherKey));
+
+        IssuerKeyRegistry registry = new IssuerKeyRegistry(
+                UrlJwksFetcher.ofFiles(Collections.singletonMap(ISSUER, file)), scheduler, 1, 1, TimeUnit.MINUTES
+        );
+        try {
+            assertEquals(ecKey.toECPublicKey(), registry.resolve(ISSUER + "#key1"));
+            assertArrayEquals(okp.getDecodedX(), registry.resolve(ISSUER + "#key2").getEncoded());
+            assertNull(registry.resolve(ISSUER + "#key3"));
+            assertNull(registry.resolve("did:panacea:other#key1"));
+            assertEquals(2, registry.getKeys(ISSUER).size());
+            assertEquals(1, registry.getLoadCount());
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test
+    public void negativeCache() throws Exception {
+        CountingFetcher fetcher = new CountingFetcher(jwks(new ECKeyGenerator(Curve.P_256).keyID("key1").generate()), 0);
+        IssuerKeyRegistry registry = new IssuerKeyRegistry(fetcher, scheduler, 1, 1, TimeUnit.MINUTES);
+        try {
+            assertNotNull(registry.resolve(ISSUER + "#key1"));
+            // the JWK Set has been just loaded, so unknown key IDs don't cause reloads
+            for (int i = 0; i < 10; i++) {
+                assertNull(registry.resolve(ISSUER + "#unknown" + i));
+                assertNull(registry.resolve(ISSUER + "#unknown" + i));
+            }
+            assertEquals(1, fetcher.count.get());
+            assertEquals(10, registry.getNegativeHitCount());
+
+            // an unknown issuer is fetched only once
+            assertNull(registry.resolve("did:panacea:unknown#key1"));
+            assertNull(registry.resolve("did:panacea:unknown#key2"));
+            assertEquals(2, fetcher.count.get());
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test
+    public void coalesceLoads() throws Exception {
+        CountingFetcher fetcher = new CountingFetcher(jwks(new ECKeyGenerator(Curve.P_256).keyID("key1").generate()), 200);
+        final IssuerKeyRegistry registry = new IssuerKeyRegistry(fetcher, scheduler, 1, 1, TimeUnit.MINUTES);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws VerifiableCredentialException {
+                        return registry.resolve(ISSUER + "#key1") != null;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+            assertEquals(1, fetcher.count.get());
+            assertEquals(1, registry.getLoadCount());
+        } finally {
+            executor.shutdownNow();
+            registry.close();
+        }
+    }
+
+    @Test
+    public void refreshAhead() throws Exception {
+        ECKey oldKey = new ECKeyGenerator(Curve.P_256).keyID("key1").generate();
+        ECKey newKey = new ECKeyGenerator(Curve.P_256).keyID("key2").generate();
+        CountingFetcher fetcher = new CountingFetcher(jwks(oldKey), 0);
+        IssuerKeyRegistry registry = new IssuerKeyRegistry(fetcher, scheduler, 1000, 1000, TimeUnit.MILLISECONDS);
+        try {
+            assertEquals(oldKey.toECPublicKey(), registry.resolve(ISSUER + "#key1"));
+
+            // rotated
+            fetcher.jwks = jwks(newKey);
+            Thread.sleep(900);  // refreshed at 800ms, before the expiry
+            assertTrue(fetcher.count.get() >= 2);
+            int count = fetcher.count.get();
+            assertEquals(newKey.toECPublicKey(), registry.resolve(ISSUER + "#key2"));
+            assertNull(registry.resolve(ISSUER + "#key1"));
+            assertEquals(count, fetcher.count.get());
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void fetchFailure() throws VerifiableCredentialException {
+        IssuerKeyRegistry registry = new IssuerKeyRegistry(new JwksFetcher() {
+            @Override
+            public String fetch(String issuer) throws IOException {
+                throw new IOException("unavailable");
+            }
+        }, scheduler, 1, 1, TimeUnit.MINUTES);
+        try {
+            registry.resolve(ISSUER + "#key1");
+        } finally {
+            assertEquals(1, registry.getLoadFailureCount());
+            registry.close();
+        }
+    }
+
+    private static String jwks(JWK... keys) {
+        List<JWK> publicKeys = new ArrayList<JWK>();
+        for (JWK key : Arrays.asList(keys)) {
+            publicKeys.add(key.toPublicJWK());
+        }
+        return new JWKSet(publicKeys).toString();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static class CountingFetcher implements JwksFetcher {
+        private final AtomicInteger count = new AtomicInteger();
+        private final long delayMillis;
+        private volatile String jwks;
+
+        private CountingFetcher(String jwks, long delayMillis) {
+            this.jwks = jwks;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public String fetch(String issuer) throws IOException {
+            count.incrementAndGet();
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    throw new IOException(e.toString());
+                }
+            }
+            return ISSUER.equals(issuer) ? jwks : null;
+        }
+    }
+}
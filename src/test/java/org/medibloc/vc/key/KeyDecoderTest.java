@@ -1,5 +1,7 @@
 package org.medibloc.vc.key;
 
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.After;
 import org.junit.Test;
 import org.medibloc.vc.VerifiableCredentialException;
 import org.medibloc.vc.model.Credential;
@@ -9,13 +11,14 @@ import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class KeyDecoderTest {
     @Test
@@ -28,14 +31,59 @@ public class KeyDecoderTest {
         ECPrivateKey privateKey = KeyDecoder.ecPrivateKey(priv, curve);
         ECPublicKey publicKey = KeyDecoder.ecPublicKey(x, y, curve);
 
-        assertKeyPair(privateKey, publicKey);
+        assertKeyPair(privateKey, publicKey, "ES256K");
     }
 
-    private void assertKeyPair(ECPrivateKey privateKey, ECPublicKey publicKey) throws ParseException, VerifiableCredentialException, MalformedURLException {
+    @Test
+    public void decodeCompressedECPublicKey() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        ECPublicKey publicKey = KeyDecoder.ecPublicKey(Hex.decode(COMPRESSED_PUB_KEY), Curve.SECP256K1);
+        assertEquals(new BigInteger("105928009891776317316312274395113443438472610508122053906576288971722796908538"), publicKey.getW().getAffineX());
+        assertEquals(new BigInteger("13550149016935881183784944281356849764043559558946577069999526461962583096704"), publicKey.getW().getAffineY());
+    }
+
+    @Test
+    public void cachePublicKeys() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        assertNull(KeyDecoder.getPublicKeyCacheStats());
+        KeyDecoder.setPublicKeyCacheSize(10);
+
+        ECPublicKey publicKey = KeyDecoder.ecPublicKey(Hex.decode(COMPRESSED_PUB_KEY), Curve.SECP256K1);
+        assertSame(publicKey, KeyDecoder.ecPublicKey(Hex.decode(COMPRESSED_PUB_KEY), Curve.SECP256K1));
+        assertEquals(1, KeyDecoder.getPublicKeyCacheStats().getHitCount());
+    }
+
+    @Test(expected = InvalidKeySpecException.class)
+    public void decodeWithNonECCurve() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        KeyDecoder.ecPublicKey(Hex.decode(COMPRESSED_PUB_KEY), Curve.Ed25519);
+    }
+
+    @Test
+    public void decodeEd25519KeyPair() throws InvalidKeySpecException, ParseException, VerifiableCredentialException, MalformedURLException {
+        // https://tools.ietf.org/html/rfc8032#section-7.1 (TEST 1)
+        Ed25519PrivateKey privateKey = KeyDecoder.ed25519PrivateKey(Hex.decode("9d61b19deffd5a60ba844af492ec2cc44449c5697b326919703bac031cae7f60"));
+        Ed25519PublicKey publicKey = KeyDecoder.ed25519PublicKey(Hex.decode("d75a980182b10ab7d54bfed3c964073a0ee172f3daa62325af021a68f707511a"));
+
+        assertEquals(publicKey, privateKey.getPublicKey());
+        assertEquals("Ed25519", publicKey.getAlgorithm());
+        assertKeyPair(privateKey, publicKey, "EdDSA");
+    }
+
+    @Test(expected = InvalidKeySpecException.class)
+    public void decodeInvalidEd25519PublicKey() throws InvalidKeySpecException {
+        KeyDecoder.ed25519PublicKey(Hex.decode(COMPRESSED_PUB_KEY));
+    }
+
+    @After
+    public void tearDown() {
+        KeyDecoder.setPublicKeyCacheSize(0);
+    }
+
+    private static final String COMPRESSED_PUB_KEY = "02ea31210234e048a8edd1fa49c44ee23b0fb0ca8a95fff55a020fba229fb13ffa";
+
+    private void assertKeyPair(PrivateKey privateKey, PublicKey publicKey, String algo) throws ParseException, VerifiableCredentialException, MalformedURLException {
         Credential credential = CredentialTest.buildCredential();
         String nonce = "this-is-random";
         JwtVerifiableCredential vc = new JwtVerifiableCredential(
-                credential, "ES256K", credential.getIssuer().getId() + "#key1", privateKey, nonce
+                credential, algo, credential.getIssuer().getId() + "#key1", privateKey, nonce
         );
         assertNotNull(vc);
         assertEquals(credential, vc.getCredential());
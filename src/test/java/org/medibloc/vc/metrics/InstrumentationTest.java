@@ -0,0 +1,104 @@
+package org.medibloc.vc.metrics;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.net.MalformedURLException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InstrumentationTest {
+    private static final String NONCE = "this-is-random";
+
+    private final List<String> records = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() {
+        Instrumentation.setRecorder(new MetricsRecorder() {
+            @Override
+            public void recordSuccess(Stage stage, long elapsedNanos) {
+                records.add(stage + ":success");
+            }
+
+            @Override
+            public void recordFailure(Stage stage, long elapsedNanos, String reason) {
+                records.add(stage + ":" + reason);
+            }
+
+            @Override
+            public void recordBytes(Stage stage, long bytes) {
+                assertTrue(bytes > 0);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        Instrumentation.setRecorder(null);
+    }
+
+    @Test
+    public void recordStages() throws VerifiableCredentialException, JOSEException, MalformedURLException, ParseException {
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(CredentialTest.buildCredential(), "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+        assertEquals(2, records.size());
+        assertTrue(records.contains("ENCODE_CLAIMS:success"));
+        assertTrue(records.contains("SIGN:success"));
+
+        records.clear();
+        new JwtVerifiableCredential(vc.serialize()).verify(ecJWK.toECPublicKey(), NONCE);
+        assertTrue(records.contains("PARSE:success"));
+        assertTrue(records.contains("DECODE_CLAIMS:success"));  // reading the nonce
+        assertTrue(records.contains("VERIFY:success"));
+
+        records.clear();
+        try {
+            vc.verify(ecJWK.toECPublicKey(), "wrong-nonce");
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertTrue(records.contains("VERIFY:" + Instrumentation.REASON_NONCE_MISMATCH));
+        }
+    }
+
+    @Test
+    public void recordParseFailure() {
+        try {
+            new JwtVerifiableCredential("invalid").getKeyId();
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertEquals(Collections.singletonList("PARSE:" + Instrumentation.REASON_INVALID_FORMAT), records);
+        }
+    }
+
+    @Test
+    public void disabled() throws VerifiableCredentialException {
+        Instrumentation.setRecorder(null);
+        assertEquals(0, Instrumentation.start());
+        try {
+            new JwtVerifiableCredential("invalid").getKeyId();
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertTrue(records.isEmpty());
+        }
+    }
+
+    @Test
+    public void cacheStats() throws VerifiableCredentialException, JOSEException, MalformedURLException, ParseException {
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        new JwtVerifiableCredential(CredentialTest.buildCredential(), "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE)
+                .verify(ecJWK.toECPublicKey());
+        assertNotNull(Instrumentation.getCacheStats().get("jws-verifiers"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.medibloc.vc.status;
+
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class StatusListAllocatorTest {
+    @Test
+    public void allocateAll() throws VerifiableCredentialException {
+        StatusListAllocator allocator = new StatusListAllocator(1000);
+        Set<Integer> indexes = new HashSet<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            int index = allocator.allocate();
+            assertTrue(index >= 0 && index < 1000);
+            assertTrue(indexes.add(index));
+        }
+
+        try {
+            allocator.allocate();
+            fail();
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void resume() throws VerifiableCredentialException {
+        StatusListAllocator allocator = new StatusListAllocator(1000);
+        allocator.allocate();
+        StatusListAllocator resumed = new StatusListAllocator(1000, allocator.getSeed(), allocator.getPosition());
+        assertEquals(allocator.allocate(), resumed.allocate());
+    }
+}
@@ -0,0 +1,94 @@
+package org.medibloc.vc.status;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialStatus;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.net.MalformedURLException;
+import java.text.ParseException;
+
+import static org.junit.Assert.*;
+
+public class StatusListCheckerTest {
+    private static final String STATUS_LIST_URL = "https://example.com/credentials/status/3";
+    private static final String NONCE = "this-is-random";
+
+    private ECKey ecJWK;
+    private StatusListPublisher publisher;
+    private StatusListChecker checker;
+
+    @Before
+    public void setUp() throws JOSEException {
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        publisher = new StatusListPublisher(STATUS_LIST_URL, CredentialStatus.PURPOSE_REVOCATION);
+        checker = new StatusListChecker();
+    }
+
+    @Test
+    public void checkRevoked() throws VerifiableCredentialException, MalformedURLException, ParseException, JOSEException {
+        CredentialStatus status = publisher.allocate();
+        Credential credential = buildCredential(status);
+
+        // The credentialStatus is encoded in the JWT.
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(credential, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+        Credential decoded = new JwtVerifiableCredential(vc.serialize()).getCredential();
+        assertEquals(status, decoded.getCredentialStatus());
+
+        checker.register(STATUS_LIST_URL, StatusList.decode(publisher.getEncodedList()));
+        checker.check(decoded);
+
+        publisher.setStatus(status, true);
+        Credential statusListCredential = Credential.builder()
+                .contexts(credential.getContexts())
+                .types(credential.getTypes())
+                .issuer(credential.getIssuer())
+                .credentialSubject(publisher.toCredentialSubject())
+                .issuanceDate(credential.getIssuanceDate())
+                .build();
+        checker.register(STATUS_LIST_URL, StatusList.decode(statusListCredential));
+        assertTrue(checker.isSet(status));
+        try {
+            checker.check(decoded);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertEquals("The credential status is set for revocation", e.getMessage());
+        }
+    }
+
+    @Test
+    public void checkWithoutStatus() throws VerifiableCredentialException, MalformedURLException, ParseException {
+        checker.check(CredentialTest.buildCredential());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void unknownList() throws VerifiableCredentialException {
+        checker.isSet(publisher.allocate());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void invalidIndex() throws VerifiableCredentialException {
+        checker.register(STATUS_LIST_URL, new StatusList(StatusList.MIN_LENGTH));
+        checker.isSet(new CredentialStatus(STATUS_LIST_URL + "#x", CredentialStatus.TYPE_STATUS_LIST_2021_ENTRY, CredentialStatus.PURPOSE_REVOCATION, "x", STATUS_LIST_URL));
+    }
+
+    private static Credential buildCredential(CredentialStatus status) throws MalformedURLException, ParseException, VerifiableCredentialException {
+        Credential base = CredentialTest.buildCredential();
+        return Credential.builder()
+                .contexts(base.getContexts())
+                .types(base.getTypes())
+                .id(base.getId())
+                .issuer(base.getIssuer())
+                .credentialSubject(base.getCredentialSubject())
+                .issuanceDate(base.getIssuanceDate())
+                .credentialStatus(status)
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package org.medibloc.vc.status;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.Assert.*;
+
+public class StatusListTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void getAndSet() {
+        StatusList list = new StatusList(10);
+        assertEquals(16, list.getLength());
+        assertFalse(list.get(0));
+
+        list.set(0, true);
+        list.set(9, true);
+        assertTrue(list.get(0));
+        assertFalse(list.get(1));
+        assertTrue(list.get(9));
+
+        list.set(0, false);
+        assertFalse(list.get(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBounds() {
+        new StatusList(8).get(8);
+    }
+
+    @Test
+    public void encodeAndDecode() throws VerifiableCredentialException {
+        StatusList list = new StatusList(StatusList.MIN_LENGTH);
+        list.set(94567, true);
+
+        String encodedList = list.encode();
+        // all zeros except a bit, which are compressed very well
+        assertTrue(encodedList.length() < 1000);
+
+        StatusList decoded = StatusList.decode(encodedList);
+        assertEquals(StatusList.MIN_LENGTH, decoded.getLength());
+        assertTrue(decoded.get(94567));
+        assertFalse(decoded.get(94566));
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void decodeInvalid() throws VerifiableCredentialException {
+        StatusList.decode("not-gzip");
+    }
+
+    @Test
+    public void decodeTooLong() throws VerifiableCredentialException {
+        assertEquals(StatusList.MAX_LENGTH, StatusList.decode(new StatusList(StatusList.MAX_LENGTH).encode()).getLength());
+
+        // a few KB which inflate to more than the maximum
+        String encodedList = new StatusList(StatusList.MAX_LENGTH + 8).encode();
+        try {
+            StatusList.decode(encodedList);
+            fail("must be rejected");
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void map() throws IOException {
+        StatusList list = new StatusList(StatusList.MIN_LENGTH);
+        list.set(1, true);
+        File file = new File(tmp.getRoot(), "list");
+        list.writeTo(file);
+
+        StatusList mapped = StatusList.map(file);
+        assertEquals(StatusList.MIN_LENGTH, mapped.getLength());
+        assertTrue(mapped.get(1));
+        assertFalse(mapped.get(0));
+        try {
+            mapped.set(0, true);
+            fail();
+        } catch (ReadOnlyBufferException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.medibloc.vc.store;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialSubject;
+import org.medibloc.vc.model.Issuer;
+import org.medibloc.vc.verifiable.jwt.JwtSigner;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CredentialStoreTest {
+    private static final String ISSUER = "did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm";
+    private static final String NONCE = "this-is-random";
+    private static final int SEGMENT_SIZE = 4096;  // small, to have many segments
+    private static final long EXPIRATION_BASE = 1700000000000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ECKey ecKey;
+    private JwtSigner signer;
+    private File directory;
+    private CredentialStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        ecKey = new ECKeyGenerator(Curve.P_256).generate();
+        signer = new JwtSigner("ES256", ISSUER + "#key1", ecKey.toECPrivateKey());
+        directory = folder.newFolder("store");
+        store = CredentialStore.open(directory, SEGMENT_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    public void putAndGet() throws Exception {
+        JwtVerifiableCredential vc = credential(0);
+        long id = store.put(vc);
+        assertEquals(0, id);
+        assertEquals(1, store.size());
+
+        JwtVerifiableCredential stored = store.get(id);
+        assertEquals(vc.serialize(), stored.serialize());
+        stored.verify(ecKey.toECPublicKey(), NONCE);
+
+        assertNull(store.get(1));
+        assertNull(store.get(-1));
+    }
+
+    @Test
+    public void findByIndexes() throws Exception {
+        List<Long> ids = putAll(100);
+
+        assertEquals(Arrays.asList(ids.get(93), ids.get(83), ids.get(73)), store.findBySubject(subject(3), 3));
+        assertEquals(10, store.findBySubject(subject(3), 100).size());
+        assertTrue(store.findBySubject("did:panacea:unknown", 100).isEmpty());
+        assertEquals(100, store.findByIssuer(ISSUER, 1000).size());
+        assertEquals(50, store.findByType("OddCredential", 1000).size());
+        assertEquals(100, store.findByType("VerifiableCredential", 1000).size());
+
+        for (long id : store.findBySubject(subject(3), 100)) {
+            assertEquals(subject(3), store.get(id).getCredentialView().getSubjectId());
+        }
+    }
+
+    @Test
+    public void findByExpiration() throws Exception {
+        List<Long> ids = putAll(100);
+
+        // credentials without an expiration date (i % 5 == 0) are not returned
+        List<Long> expected = new ArrayList<Long>();
+        for (int i = 10; i < 20; i++) {
+            if (i % 5 != 0) {
+                expected.add(ids.get(i));
+            }
+        }
+        assertEquals(expected, store.findByExpiration(expiration(10), expiration(20), 100));
+        assertEquals(expected.subList(0, 3), store.findByExpiration(expiration(10), expiration(20), 3));
+        assertTrue(store.findByExpiration(expiration(20), expiration(10), 100).isEmpty());
+    }
+
+    @Test
+    public void deleteAndCompact() throws Exception {
+        List<Long> ids = putAll(100);
+
+        assertTrue(store.delete(ids.get(3)));
+        assertFalse(store.delete(ids.get(3)));
+        assertNull(store.get(ids.get(3)));
+        assertEquals(9, store.findBySubject(subject(3), 100).size());
+
+        // 1..49 except multiples of 5 which don't expire, and 3 which has been deleted
+        assertEquals(39, store.deleteExpired(expiration(50)));
+        assertEquals(100 - 40, store.size());
+        assertTrue(store.findByExpiration(expiration(0), expiration(50), 100).isEmpty());
+
+        long diskSize = store.getDiskSize();
+        long reclaimed = store.compact();
+        assertTrue(reclaimed > 0);
+        assertEquals(diskSize - reclaimed, store.getDiskSize());
+
+        // IDs are not changed by compaction
+        for (int i = 0; i < 100; i++) {
+            boolean deleted = i == 3 || (i < 50 && i % 5 != 0);
+            JwtVerifiableCredential vc = store.get(ids.get(i));
+            assertEquals(deleted, vc == null);
+            if (!deleted) {
+                assertEquals(subject(i), vc.getCredentialView().getSubjectId());
+            }
+        }
+        assertEquals(100 - 40, store.findByType("VerifiableCredential", 1000).size());
+    }
+
+    @Test
+    public void reopen() throws Exception {
+        List<Long> ids = putAll(100);
+        store.delete(ids.get(99));
+        store.delete(ids.get(98));
+        store.compact(0.1);
+        store.close();
+
+        store = CredentialStore.open(directory, SEGMENT_SIZE);
+        assertEquals(98, store.size());
+        assertNull(store.get(ids.get(99)));
+        assertEquals(subject(97), store.get(ids.get(97)).getCredentialView().getSubjectId());
+        assertEquals(10, store.findBySubject(subject(7), 100).size());
+        assertEquals(Collections.singletonList(ids.get(97)), store.findByExpiration(expiration(97), expiration(98), 100));
+
+        // IDs of deleted credentials are never assigned again
+        assertEquals(100, store.put(credential(100)));
+    }
+
+    @Test
+    public void discardTornRecord() throws Exception {
+        putAll(10);
+        store.close();
+
+        File[] segments = directory.listFiles();
+        Arrays.sort(segments);
+        FileOutputStream out = new FileOutputStream(segments[segments.length - 1], true);
+        try {
+            out.write(new byte[]{0, 0, 1, 0, 42, 42});  // a record torn by a crash
+        } finally {
+            out.close();
+        }
+
+        store = CredentialStore.open(directory, SEGMENT_SIZE);
+        assertEquals(10, store.size());
+        assertEquals(10, store.put(credential(10)));
+        assertEquals(subject(10), store.get(10).getCredentialView().getSubjectId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closed() throws Exception {
+        store.close();
+        store.get(0);
+    }
+
+    private List<Long> putAll(int count) throws Exception {
+        List<Long> ids = new ArrayList<Long>();
+        for (int i = 0; i < count; i++) {
+            ids.add(store.put(credential(i)));
+        }
+        return ids;
+    }
+
+    /**
+     * A credential of the subject (i % 10), which expires at the i-th second, unless i is a multiple of 5.
+     */
+    private JwtVerifiableCredential credential(int i) throws Exception {
+        Credential credential = Credential.builder()
+                .contexts(Collections.singletonList("https://www.w3.org/2018/credentials/v1"))
+                .types(Arrays.asList("VerifiableCredential", i % 2 == 1 ? "OddCredential" : "EvenCredential"))
+                .issuer(new Issuer(ISSUER))
+                .credentialSubject(new CredentialSubject(subject(i % 10)))
+                .issuanceDate(new Date(EXPIRATION_BASE - 1000000))
+                .expirationDate(i % 5 != 0 ? expiration(i) : null)
+                .build();
+        return new JwtVerifiableCredential(credential, signer, NONCE);
+    }
+
+    private static String subject(int i) {
+        return "did:panacea:subject" + (i % 10);
+    }
+
+    private static Date expiration(int i) {
+        return new Date(EXPIRATION_BASE + i * 1000L);
+    }
+}
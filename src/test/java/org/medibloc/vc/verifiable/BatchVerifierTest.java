@@ -0,0 +1,143 @@
+package org.medibloc.vc.verifiable;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.net.MalformedURLException;
+import java.security.interfaces.ECPublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BatchVerifierTest {
+    private static final String NONCE = "this-is-random";
+
+    private ExecutorService executor;
+    private ECKey ecJWK;
+    private String keyId;
+    private AtomicInteger resolveCount;
+    private KeyResolver keyResolver;
+
+    @Before
+    public void setUp() throws JOSEException {
+        executor = Executors.newFixedThreadPool(4);
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        keyId = "did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm#key1";
+        resolveCount = new AtomicInteger();
+        keyResolver = new KeyResolver() {
+            @Override
+            public ECPublicKey resolve(String kid) throws VerifiableCredentialException {
+                resolveCount.incrementAndGet();
+                if (!keyId.equals(kid)) {
+                    throw new VerifiableCredentialException("Key not found: " + kid);
+                }
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (JOSEException e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void verifyAll() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        for (int i = 0; i < 10; i++) {
+            vcs.add(issue(ecJWK, keyId));
+        }
+
+        VerificationResult[] results = new BatchVerifier(executor).verify(vcs, keyResolver, NONCE);
+
+        assertEquals(vcs.size(), results.length);
+        for (VerificationResult result : results) {
+            assertTrue(result.isVerified());
+        }
+        assertEquals(1, resolveCount.get());
+    }
+
+    @Test
+    public void resultsInInputOrder() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        vcs.add(issue(ecJWK, keyId));
+        vcs.add(issue(new ECKeyGenerator(Curve.SECP256K1).generate(), keyId));  // invalid signature
+        vcs.add(issue(ecJWK, keyId + "-unknown"));  // unknown key
+        vcs.add(issue(ecJWK, keyId));
+
+        VerificationResult[] results = new BatchVerifier(executor).verify(vcs, keyResolver, NONCE);
+
+        assertEquals(VerificationResult.Status.VERIFIED, results[0].getStatus());
+        assertEquals(VerificationResult.Status.FAILED, results[1].getStatus());
+        assertEquals(VerificationResult.Status.FAILED, results[2].getStatus());
+        assertNotNull(results[2].getError());
+        assertEquals(VerificationResult.Status.VERIFIED, results[3].getStatus());
+    }
+
+    @Test
+    public void failFast() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        vcs.add(issue(ecJWK, keyId + "-unknown"));
+        for (int i = 0; i < 10; i++) {
+            vcs.add(issue(ecJWK, keyId));
+        }
+
+        VerificationResult[] results = new BatchVerifier(executor, true).verify(vcs, keyResolver, NONCE);
+
+        assertEquals(VerificationResult.Status.FAILED, results[0].getStatus());
+        for (int i = 1; i < results.length; i++) {
+            assertNotEquals(VerificationResult.Status.FAILED, results[i].getStatus());
+        }
+    }
+
+    @Test
+    public void calledByTaskOfSameExecutor() throws Exception {
+        final List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        for (int i = 0; i < 10; i++) {
+            vcs.add(issue(ecJWK, keyId));
+        }
+
+        // the only thread of the executor runs the batch, so it must not wait for tasks queued behind itself
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            VerificationResult[] results = single.submit(new Callable<VerificationResult[]>() {
+                @Override
+                public VerificationResult[] call() throws Exception {
+                    return new BatchVerifier(single).verify(vcs, keyResolver, NONCE);
+                }
+            }).get(30, TimeUnit.SECONDS);
+
+            for (VerificationResult result : results) {
+                assertTrue(result.isVerified());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private static VerifiableCredential issue(ECKey ecJWK, String keyId) throws MalformedURLException, ParseException, VerifiableCredentialException, JOSEException {
+        Credential credential = CredentialTest.buildCredential();
+        return new JwtVerifiableCredential(credential, "ES256K", keyId, ecJWK.toECPrivateKey(), NONCE);
+    }
+}
@@ -0,0 +1,124 @@
+package org.medibloc.vc.verifiable;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiablePresentation;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.interfaces.ECPublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PresentationVerifierTest {
+    private static final String NONCE = "this-is-random";
+    private static final String VERIFIER = "did:panacea:gk8azVgUmamVbJ7Prd74ry1UnZqL3ny7aR7Cg46Jct87";
+
+    private ExecutorService executor;
+    private final Map<String, ECKey> keys = new HashMap<String, ECKey>();
+    private final KeyResolver keyResolver = new KeyResolver() {
+        @Override
+        public ECPublicKey resolve(String keyId) throws VerifiableCredentialException {
+            try {
+                return keys.get(keyId).toECPublicKey();
+            } catch (JOSEException e) {
+                throw new VerifiableCredentialException(e);
+            }
+        }
+    };
+
+    private Credential credential;
+    private String issuerKeyId;
+    private String holderKeyId;
+
+    @Before
+    public void setUp() throws JOSEException, MalformedURLException, ParseException, VerifiableCredentialException {
+        executor = Executors.newFixedThreadPool(4);
+
+        credential = CredentialTest.buildCredential();
+        issuerKeyId = credential.getIssuer().getId() + "#key1";
+        holderKeyId = credential.getCredentialSubject().getId() + "#key1";
+        keys.put(issuerKeyId, new ECKeyGenerator(Curve.SECP256K1).generate());
+        keys.put(holderKeyId, new ECKeyGenerator(Curve.SECP256K1).generate());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void verify() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        for (int i = 0; i < 20; i++) {
+            vcs.add(new JwtVerifiableCredential(credential, "ES256K", issuerKeyId, keys.get(issuerKeyId).toECPrivateKey(), NONCE));
+        }
+
+        new PresentationVerifier(executor).verify(present(credential.getCredentialSubject().getId(), vcs), keyResolver, VERIFIER, NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void credentialVerificationFailure() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        vcs.add(new JwtVerifiableCredential(credential, "ES256K", issuerKeyId, keys.get(issuerKeyId).toECPrivateKey(), NONCE));
+        // signed by the holder, not by the issuer
+        vcs.add(new JwtVerifiableCredential(credential, "ES256K", issuerKeyId, keys.get(holderKeyId).toECPrivateKey(), NONCE));
+
+        new PresentationVerifier(executor).verify(present(credential.getCredentialSubject().getId(), vcs), keyResolver, VERIFIER, NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void subjectMismatch() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        vcs.add(new JwtVerifiableCredential(credential, "ES256K", issuerKeyId, keys.get(issuerKeyId).toECPrivateKey(), NONCE));
+
+        // presented by someone else with their own key
+        String otherKeyId = "did:panacea:someone-else#key1";
+        keys.put(otherKeyId, new ECKeyGenerator(Curve.SECP256K1).generate());
+        new PresentationVerifier(executor).verify(present("did:panacea:someone-else", otherKeyId, vcs), keyResolver, VERIFIER, NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void notSignedByHolder() throws Exception {
+        List<VerifiableCredential> vcs = new ArrayList<VerifiableCredential>();
+        vcs.add(new JwtVerifiableCredential(credential, "ES256K", issuerKeyId, keys.get(issuerKeyId).toECPrivateKey(), NONCE));
+
+        // presented in the name of the subject, but signed by someone else with their own key
+        String otherKeyId = "did:panacea:someone-else#key1";
+        keys.put(otherKeyId, new ECKeyGenerator(Curve.SECP256K1).generate());
+        new PresentationVerifier(executor).verify(present(credential.getCredentialSubject().getId(), otherKeyId, vcs), keyResolver, VERIFIER, NONCE);
+    }
+
+    private VerifiablePresentation present(String holder, List<VerifiableCredential> vcs) throws MalformedURLException, VerifiableCredentialException, JOSEException {
+        return present(holder, holderKeyId, vcs);
+    }
+
+    private VerifiablePresentation present(String holder, String keyId, List<VerifiableCredential> vcs) throws MalformedURLException, VerifiableCredentialException, JOSEException {
+        Presentation presentation = Presentation.builder()
+                .contexts(Arrays.asList("https://www.w3.org/2018/credentials/v1"))
+                .types(Arrays.asList("VerifiablePresentation"))
+                .id(new URL("http://example.edu/presentations/1234"))
+                .verifiableCredentials(vcs)
+                .holder(holder)
+                .verifier(VERIFIER)
+                .build();
+        return new JwtVerifiablePresentation(presentation, "ES256K", keyId, keys.get(keyId).toECPrivateKey(), NONCE);
+    }
+}
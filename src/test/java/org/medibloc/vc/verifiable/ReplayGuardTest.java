@@ -0,0 +1,111 @@
+package org.medibloc.vc.verifiable;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.ExpiringSet;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.model.PresentationTest;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiablePresentation;
+
+import java.net.MalformedURLException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ReplayGuardTest {
+    private static final String NONCE = "this-is-random";
+
+    private ECKey ecJWK;
+    private ReplayGuard guard;
+
+    @Before
+    public void setUp() throws JOSEException {
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        guard = new ReplayGuard(new ExpiringSet(100), 1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void rejectReplayedCredential() throws VerifiableCredentialException, JOSEException, MalformedURLException, ParseException {
+        Credential credential = CredentialTest.buildCredential();
+        VerifiableCredential vc = new JwtVerifiableCredential(credential, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+        guard.verify(vc, ecJWK.toECPublicKey(), null);
+
+        // Another token with the same ID is also a replay.
+        VerifiableCredential another = new JwtVerifiableCredential(credential, "ES256K", "key1", ecJWK.toECPrivateKey(), "another-nonce");
+        try {
+            guard.verify(another, ecJWK.toECPublicKey(), null);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertEquals("Replayed ID: vc " + credential.getIssuer().getId() + " " + credential.getId(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectReplayedNonce() throws VerifiableCredentialException, JOSEException, MalformedURLException {
+        Presentation presentation = PresentationTest.buildPresentation();
+        Presentation withoutId = Presentation.builder()
+                .contexts(presentation.getContexts())
+                .types(presentation.getTypes())
+                .verifiableCredentials(presentation.getVerifiableCredentials())
+                .holder(presentation.getHolder())
+                .verifier(presentation.getVerifier())
+                .build();
+        VerifiablePresentation vp = new JwtVerifiablePresentation(withoutId, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+
+        guard.verify(vp, ecJWK.toECPublicKey(), presentation.getVerifier(), NONCE);
+        try {
+            guard.verify(vp, ecJWK.toECPublicKey(), presentation.getVerifier(), NONCE);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertEquals("Replayed nonce: " + NONCE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void notRecordIdIfNonceReplayed() throws VerifiableCredentialException, JOSEException, MalformedURLException, ParseException {
+        Credential credential = CredentialTest.buildCredential();
+        Credential withoutId = Credential.builder()
+                .contexts(credential.getContexts())
+                .types(credential.getTypes())
+                .issuer(credential.getIssuer())
+                .credentialSubject(credential.getCredentialSubject())
+                .issuanceDate(credential.getIssuanceDate())
+                .build();
+        guard.verify(new JwtVerifiableCredential(withoutId, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE), ecJWK.toECPublicKey(), NONCE);
+
+        VerifiableCredential vc = new JwtVerifiableCredential(credential, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+        try {
+            guard.verify(vc, ecJWK.toECPublicKey(), NONCE);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            assertEquals("Replayed nonce: " + NONCE, e.getMessage());
+        }
+
+        // The ID of the rejected token is not recorded.
+        VerifiableCredential another = new JwtVerifiableCredential(credential, "ES256K", "key1", ecJWK.toECPrivateKey(), "another-nonce");
+        guard.verify(another, ecJWK.toECPublicKey(), "another-nonce");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void notRecordIfVerificationFailed() throws VerifiableCredentialException, JOSEException, MalformedURLException, ParseException {
+        VerifiableCredential vc = new JwtVerifiableCredential(CredentialTest.buildCredential(), "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+        try {
+            guard.verify(vc, new ECKeyGenerator(Curve.SECP256K1).generate().toECPublicKey(), NONCE);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+        guard.verify(vc, ecJWK.toECPublicKey(), NONCE);  // the failure above is not recorded
+        guard.verify(vc, ecJWK.toECPublicKey(), NONCE);  // replayed
+    }
+}
@@ -0,0 +1,151 @@
+package org.medibloc.vc.verifiable;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.cache.InMemoryDigestStore;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.net.MalformedURLException;
+import java.security.PublicKey;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class VerificationCacheTest {
+    private static final String NONCE = "this-is-random";
+
+    private ECKey ecJWK;
+    private VerifiableCredential vc;
+
+    @Before
+    public void setUp() throws JOSEException, MalformedURLException, ParseException, VerifiableCredentialException {
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        Credential credential = CredentialTest.buildCredential();
+        vc = new JwtVerifiableCredential(credential, "ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey(), NONCE);
+    }
+
+    @Test
+    public void cacheSuccess() throws VerifiableCredentialException, JOSEException {
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+
+        cache.verify(vc, ecJWK.toECPublicKey(), NONCE);
+        cache.verify(vc, ecJWK.toECPublicKey(), NONCE);
+
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getSize());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void notHitWithAnotherNonce() throws VerifiableCredentialException, JOSEException {
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+
+        cache.verify(vc, ecJWK.toECPublicKey(), NONCE);
+        cache.verify(vc, ecJWK.toECPublicKey(), "wrong-nonce");
+    }
+
+    @Test
+    public void notCacheFailure() throws JOSEException {
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+        ECKey anotherJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.verify(vc, anotherJWK.toECPublicKey(), NONCE);
+            } catch (VerifiableCredentialException e) {
+                // expected
+            }
+        }
+        assertEquals(0, cache.getStats().getHitCount());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    public void notCacheExpired() throws Exception {
+        Credential base = CredentialTest.buildCredential();
+        Credential expired = Credential.builder()
+                .contexts(base.getContexts())
+                .types(base.getTypes())
+                .issuer(base.getIssuer())
+                .credentialSubject(base.getCredentialSubject())
+                .issuanceDate(base.getIssuanceDate())
+                .expirationDate(new Date(System.currentTimeMillis() - 1000))
+                .build();
+        VerifiableCredential expiredVc = new JwtVerifiableCredential(expired, "ES256K", "key1", ecJWK.toECPrivateKey(), NONCE);
+
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+        cache.verify(expiredVc, ecJWK.toECPublicKey(), NONCE);
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    public void secondTier() throws VerifiableCredentialException, JOSEException {
+        InMemoryDigestStore store = new InMemoryDigestStore(100);
+        VerificationCache cache1 = new VerificationCache(100, 1, TimeUnit.MINUTES, store);
+        VerificationCache cache2 = new VerificationCache(100, 1, TimeUnit.MINUTES, store);
+
+        cache1.verify(vc, ecJWK.toECPublicKey(), NONCE);
+        cache2.verify(vc, ecJWK.toECPublicKey(), NONCE);
+
+        assertEquals(0, cache1.getSecondTierHitCount());
+        assertEquals(1, cache2.getSecondTierHitCount());
+    }
+
+    @Test
+    public void skipKeyResolutionOnHit() throws VerifiableCredentialException {
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+        final AtomicInteger resolved = new AtomicInteger();
+        KeyResolver keyResolver = new KeyResolver() {
+            @Override
+            public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+                resolved.incrementAndGet();
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (JOSEException e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        };
+
+        cache.verify(vc, keyResolver, NONCE);
+        cache.verify(vc, keyResolver, NONCE);
+
+        assertEquals(1, resolved.get());
+        assertEquals(1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    public void notCacheUnboundKey() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        VerifiableCredential unbound = new JwtVerifiableCredential(credential, "ES256K", "did:panacea:another#key1", ecJWK.toECPrivateKey(), NONCE);
+        final PublicKey publicKey = ecJWK.toECPublicKey();
+        KeyResolver keyResolver = new KeyResolver() {
+            @Override
+            public PublicKey resolve(String keyId) {
+                return publicKey;
+            }
+        };
+
+        VerificationCache cache = new VerificationCache(100, 1, TimeUnit.MINUTES);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.verify(unbound, keyResolver, NONCE);
+                fail("must be rejected");
+            } catch (VerifiableCredentialException e) {
+                // expected
+            }
+        }
+        assertEquals(0, cache.getStats().getSize());
+    }
+}
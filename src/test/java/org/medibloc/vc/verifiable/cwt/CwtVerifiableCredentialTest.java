@@ -0,0 +1,154 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyDecoder;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CwtVerifiableCredentialTest {
+    private static final String NONCE = "this-is-random";
+
+    @Test
+    public void createAndVerify() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        final String keyId = credential.getIssuer().getId() + "#key1";
+
+        CwtVerifiableCredential vc = new CwtVerifiableCredential(credential, "ES256K", keyId, ecJWK.toECPrivateKey(), NONCE);
+        vc.verify(ecJWK.toECPublicKey(), NONCE);
+        vc.verify(ecJWK.toECPublicKey());
+        vc.verify(new KeyResolver() {
+            @Override
+            public PublicKey resolve(String kid) throws VerifiableCredentialException {
+                assertEquals(keyId, kid);
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (Exception e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        }, NONCE);
+
+        assertEquals(keyId, vc.getKeyId());
+        assertEquals(credential, vc.getCredential());
+
+        // decoded from bytes and from the serialized form
+        CwtVerifiableCredential decoded = new CwtVerifiableCredential(vc.toBytes());
+        decoded.verify(ecJWK.toECPublicKey(), NONCE);
+        assertEquals(credential, decoded.getCredential());
+        assertEquals(vc, new CwtVerifiableCredential(vc.serialize()));
+    }
+
+    @Test
+    public void smallerThanJwt() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+
+        CwtVerifiableCredential cwt = new CwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+        JwtVerifiableCredential jwt = new JwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+        assertTrue(cwt.toBytes().length < jwt.serialize().length());
+    }
+
+    @Test
+    public void verifyWithEd25519() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        OctetKeyPair okp = new OctetKeyPairGenerator(Curve.Ed25519).generate();
+        CwtVerifiableCredential vc = new CwtVerifiableCredential(
+                credential, "EdDSA", credential.getIssuer().getId() + "#key1", KeyDecoder.ed25519PrivateKey(okp.getDecodedD()), NONCE
+        );
+        new CwtVerifiableCredential(vc.toBytes()).verify(KeyDecoder.ed25519PublicKey(okp.getDecodedX()), NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithWrongKey() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK1 = new ECKeyGenerator(Curve.SECP256K1).generate();
+        ECKey ecJWK2 = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        CwtVerifiableCredential vc = new CwtVerifiableCredential(credential, "ES256K", "key1", ecJWK1.toECPrivateKey(), NONCE);
+        vc.verify(ecJWK2.toECPublicKey(), NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithWrongNonce() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+
+        CwtVerifiableCredential vc = new CwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+        vc.verify(ecJWK.toECPublicKey(), "wrong");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyTampered() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+
+        byte[] cose = new CwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE).toBytes();
+        cose[cose.length - 70] ^= 1;  // in the payload, right before the 64-byte signature
+        new CwtVerifiableCredential(cose).verify(ecJWK.toECPublicKey());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void malformed() throws VerifiableCredentialException {
+        new CwtVerifiableCredential(new byte[]{(byte) 0xd2, (byte) 0x84, 0x40}).getCredential();
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void trailingBytesAfterMessage() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+
+        byte[] cose = new CwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE).toBytes();
+        byte[] trailing = Arrays.copyOf(cose, cose.length + 1);
+        new CwtVerifiableCredential(trailing).getCredential();
+    }
+
+    @Test
+    public void trailingBytesAfterProtectedHeader() throws Exception {
+        byte[] protectedHeader = CoseSign1.protectedHeader(JWSAlgorithm.ES256);
+        byte[] trailing = Arrays.copyOf(protectedHeader, protectedHeader.length + 1);  // an extra 0x00
+        byte[] cose = CoseSign1.encode(trailing, "key1", new byte[]{(byte) 0xa0}, new byte[64]);
+        try {
+            CoseSign1.decode(cose);
+            fail("must be rejected");
+        } catch (IOException e) {
+            assertEquals("Trailing bytes after the protected header", e.getMessage());
+        }
+
+        // well-formed otherwise
+        CoseSign1 decoded = CoseSign1.decode(CoseSign1.encode(protectedHeader, "key1", new byte[]{(byte) 0xa0}, new byte[64]));
+        assertEquals(JWSAlgorithm.ES256, decoded.getAlgorithm());
+        assertEquals("key1", decoded.getKeyId());
+    }
+
+    @Test
+    public void jsonDeserialization() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        CwtVerifiableCredential cwt = new CwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+        JwtVerifiableCredential jwt = new JwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+
+        ObjectMapper mapper = new ObjectMapper();
+        VerifiableCredential decoded = mapper.readValue(mapper.writeValueAsString(cwt), VerifiableCredential.class);
+        assertTrue(decoded instanceof CwtVerifiableCredential);
+        assertEquals(cwt, decoded);
+        assertTrue(mapper.readValue(mapper.writeValueAsString(jwt), VerifiableCredential.class) instanceof JwtVerifiableCredential);
+    }
+}
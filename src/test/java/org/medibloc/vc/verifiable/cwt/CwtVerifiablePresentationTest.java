@@ -0,0 +1,90 @@
+package org.medibloc.vc.verifiable.cwt;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.model.PresentationTest;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+import org.medibloc.vc.verifiable.jwt.JwtVerifiableCredential;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CwtVerifiablePresentationTest {
+    private static final String NONCE = "this-is-random";
+
+    @Test
+    public void createAndVerify() throws Exception {
+        Presentation presentation = PresentationTest.buildPresentation();
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        CwtVerifiablePresentation vp = new CwtVerifiablePresentation(
+                presentation, "ES256K", presentation.getHolder() + "#key1", ecJWK.toECPrivateKey(), NONCE
+        );
+        vp.verify(ecJWK.toECPublicKey(), presentation.getVerifier(), NONCE);
+        assertEquals(presentation, vp.getPresentation());
+
+        CwtVerifiablePresentation decoded = new CwtVerifiablePresentation(vp.serialize());
+        decoded.verify(ecJWK.toECPublicKey(), presentation.getVerifier(), NONCE);
+        assertEquals(presentation, decoded.getPresentation());
+    }
+
+    @Test
+    public void containingCwtCredential() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey issuerKey = new ECKeyGenerator(Curve.P_256).generate();
+        CwtVerifiableCredential vc = new CwtVerifiableCredential(credential, "ES256", "key1", issuerKey.toECPrivateKey(), NONCE);
+
+        Presentation source = PresentationTest.buildPresentation();
+        Presentation presentation = Presentation.builder()
+                .contexts(source.getContexts())
+                .types(source.getTypes())
+                .verifiableCredentials(Arrays.<VerifiableCredential>asList(source.getVerifiableCredentials().get(0), vc))
+                .holder(source.getHolder())
+                .verifier(source.getVerifier())
+                .build();
+        ECKey holderKey = new ECKeyGenerator(Curve.P_256).generate();
+        CwtVerifiablePresentation vp = new CwtVerifiablePresentation(presentation, "ES256", "key1", holderKey.toECPrivateKey(), NONCE);
+
+        // embedded as a CBOR byte string of the COSE_Sign1 message, not as a Base64URL text
+        byte[] payload = new CwtVerifiablePresentation(vp.toBytes()).getPayload();
+        assertTrue(contains(payload, vc.toBytes()));
+        assertFalse(contains(payload, vc.serialize().getBytes("UTF-8")));
+
+        Presentation decoded = new CwtVerifiablePresentation(vp.toBytes()).getPresentation();
+        assertTrue(decoded.getVerifiableCredentials().get(0) instanceof JwtVerifiableCredential);
+        assertEquals(vc, decoded.getVerifiableCredentials().get(1));
+        assertTrue(decoded.getVerifiableCredentials().get(1) instanceof CwtVerifiableCredential);
+        decoded.getVerifiableCredentials().get(1).verify(issuerKey.toECPublicKey(), NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifierVerificationFailure() throws Exception {
+        Presentation presentation = PresentationTest.buildPresentation();
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        CwtVerifiablePresentation vp = new CwtVerifiablePresentation(
+                presentation, "ES256K", presentation.getHolder() + "#key1", ecJWK.toECPrivateKey(), NONCE
+        );
+        vp.verify(ecJWK.toECPublicKey(), "wrong-verifier", NONCE);
+    }
+
+    private static boolean contains(byte[] array, byte[] target) {
+        outer:
+        for (int i = 0; i + target.length <= array.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
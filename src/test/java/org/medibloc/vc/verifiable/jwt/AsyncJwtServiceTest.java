@@ -0,0 +1,66 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+
+import java.security.interfaces.ECPublicKey;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class AsyncJwtServiceTest {
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void issueAndVerify() throws Exception {
+        AsyncJwtService service = new AsyncJwtService(executorService, 10);
+        Credential credential = CredentialTest.buildCredential();
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        String nonce = "this-is-random";
+
+        JwtSigner signer = new JwtSigner("ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey());
+
+        JwtVerifiableCredential vc = service.issue(credential, signer, nonce, null).get();
+        assertEquals(credential, vc.getCredential());
+
+        KeyResolver keyResolver = new KeyResolver() {
+            @Override
+            public ECPublicKey resolve(String keyId) throws VerifiableCredentialException {
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (JOSEException e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        };
+        service.verifyCredential(vc, keyResolver, nonce, null).get();
+
+        try {
+            service.verifyCredential(vc, keyResolver, "wrong-nonce", null).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof VerifiableCredentialException);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CompactJwsTest {
+    @Test
+    public void parse() throws Exception {
+        JWSObject expected = new JWSObject(
+                new JWSHeader.Builder(JWSAlgorithm.ES256K).keyID("did:panacea:abc#key1").build(),
+                new Payload("{\"nonce\":\"this-is-random\"}")
+        );
+        expected.sign(new ECDSASigner(new ECKeyGenerator(Curve.SECP256K1).generate()));
+        String serialized = expected.serialize();
+
+        // with surrounding bytes, in a direct buffer
+        byte[] bytes = ("xx" + serialized + "yy").getBytes("US-ASCII");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        buffer.position(2).limit(bytes.length - 2);
+        CompactJws jws = CompactJws.parse(buffer);
+        assertEquals(2, buffer.position());
+
+        assertEquals("ES256K", jws.getAlgorithm());
+        assertEquals("did:panacea:abc#key1", jws.getKeyId());
+        assertFalse(jws.hasCriticalParams());
+        assertEquals(serialized.length(), jws.getLength());
+        assertEquals(serialized, jws.toString());
+        String[] parts = serialized.split("\\.");
+        assertEquals(parts[0].length(), jws.getHeaderLength());
+        assertEquals(parts[1].length(), jws.getPayloadLength());
+        assertEquals(parts[2].length(), jws.getSignatureLength());
+        assertEquals(serialized.charAt(jws.getPayloadOffset() - 1), '.');
+        assertEquals(serialized.charAt(jws.getSignatureOffset() - 1), '.');
+        assertEquals(parts[0] + "." + parts[1], ascii(jws.getSigningInput()));
+
+        assertArrayEquals(expected.getPayload().toBytes(), jws.decodePayload());
+        assertArrayEquals(expected.getSignature().decode(), jws.decodeSignature());
+        assertEquals("this-is-random", jws.readNonce());
+        assertEquals(CompactJws.parse(serialized), jws);
+        assertEquals(CompactJws.parse(serialized).hashCode(), jws.hashCode());
+    }
+
+    @Test
+    public void decodeBase64URL() {
+        for (int length = 0; length < 40; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) (i * 37 - 128);
+            }
+            String encoded = Base64URL.encode(bytes).toString();
+            byte[] decoded = Base64URLDecoder.decode(ByteBuffer.wrap(ascii(encoded)), 0, encoded.length());
+            assertTrue(Arrays.equals(bytes, decoded));
+        }
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void parseTwoSegments() throws VerifiableCredentialException {
+        CompactJws.parse(Base64URL.encode("{\"alg\":\"ES256\"}") + ".e30");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void parseFourSegments() throws VerifiableCredentialException {
+        CompactJws.parse(Base64URL.encode("{\"alg\":\"ES256\"}") + ".e30.AA.AA");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void parseInvalidCharacter() throws VerifiableCredentialException {
+        CompactJws.parse(Base64URL.encode("{\"alg\":\"ES256\"}") + ".e3+.AA");
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void parseWithoutAlgorithm() throws VerifiableCredentialException {
+        CompactJws.parse(Base64URL.encode("{\"kid\":\"key1\"}") + ".e30.AA");
+    }
+
+    @Test
+    public void parseCriticalParams() throws VerifiableCredentialException {
+        assertTrue(CompactJws.parse(Base64URL.encode("{\"alg\":\"ES256\",\"crit\":[\"exp\"],\"exp\":1}") + ".e30.AA").hasCriticalParams());
+    }
+
+    private static String ascii(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes();
+    }
+}
@@ -0,0 +1,103 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyDecoder;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+
+import static org.junit.Assert.*;
+
+public class CompactJwtVerifiableCredentialTest {
+    private static final String NONCE = "this-is-random";
+
+    @Test
+    public void verify() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        final String keyId = credential.getIssuer().getId() + "#key1";
+        JwtVerifiableCredential expected = new JwtVerifiableCredential(credential, "ES256K", keyId, ecJWK.toECPrivateKey(), NONCE);
+
+        CompactJwtVerifiableCredential vc = new CompactJwtVerifiableCredential(directBuffer(expected.serialize()));
+        vc.verify(ecJWK.toECPublicKey(), NONCE);
+        vc.verify(ecJWK.toECPublicKey());
+        vc.verify(new KeyResolver() {
+            @Override
+            public PublicKey resolve(String kid) throws VerifiableCredentialException {
+                assertEquals(keyId, kid);
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (Exception e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        }, NONCE);
+
+        assertEquals(keyId, vc.getKeyId());
+        assertEquals(credential, vc.getCredential());
+        assertEquals(credential.getIssuer().getId(), vc.getCredentialView().getIssuerId());
+        assertEquals(expected.serialize(), vc.serialize());
+        assertEquals(new ObjectMapper().writeValueAsString(expected), new ObjectMapper().writeValueAsString(vc));
+    }
+
+    @Test
+    public void verifyWithEd25519() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        OctetKeyPair okp = new OctetKeyPairGenerator(Curve.Ed25519).generate();
+        JwtVerifiableCredential expected = new JwtVerifiableCredential(
+                credential, "EdDSA", credential.getIssuer().getId() + "#key1", KeyDecoder.ed25519PrivateKey(okp.getDecodedD()), NONCE
+        );
+
+        VerifiableCredential vc = new CompactJwtVerifiableCredential(ByteBuffer.wrap(expected.serialize().getBytes("US-ASCII")));
+        vc.verify(KeyDecoder.ed25519PublicKey(okp.getDecodedX()), NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithWrongNonce() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        JwtVerifiableCredential expected = new JwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE);
+
+        new CompactJwtVerifiableCredential(directBuffer(expected.serialize())).verify(ecJWK.toECPublicKey(), "wrong");
+    }
+
+    @Test
+    public void verifyWithWrongKeyOrSignature() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        String jwt = new JwtVerifiableCredential(credential, "ES256", "key1", ecJWK.toECPrivateKey(), NONCE).serialize();
+
+        try {
+            new CompactJwtVerifiableCredential(directBuffer(jwt)).verify(new ECKeyGenerator(Curve.P_256).generate().toECPublicKey());
+            fail();
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+
+        String tampered = jwt.substring(0, jwt.length() - 4) + (jwt.endsWith("AAAA") ? "BBBB" : "AAAA");
+        try {
+            new CompactJwtVerifiableCredential(directBuffer(tampered)).verify(ecJWK.toECPublicKey());
+            fail();
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+    }
+
+    private static ByteBuffer directBuffer(String s) throws Exception {
+        byte[] bytes = s.getBytes("US-ASCII");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,96 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class JwsKeysTest {
+    @Test
+    public void preparedSignerAndVerifierAreCompatible() throws Exception {
+        Curve[] curves = {Curve.P_256, Curve.SECP256K1, Curve.P_384, Curve.P_521};
+        JWSAlgorithm[] algos = {JWSAlgorithm.ES256, JWSAlgorithm.ES256K, JWSAlgorithm.ES384, JWSAlgorithm.ES512};
+        for (int i = 0; i < curves.length; i++) {
+            ECKey ecJWK = new ECKeyGenerator(curves[i]).generate();
+            JWSSigner signer = JwsKeys.signer(ecJWK.toECPrivateKey());
+            JWSVerifier verifier = JwsKeys.verifier(ecJWK.toECPublicKey());
+
+            // signatures are reused, so sign and verify several times with each
+            for (int j = 0; j < 3; j++) {
+                JWSObject prepared = sign(algos[i], signer, "payload" + j);
+                assertTrue(prepared.verify(new ECDSAVerifier(ecJWK)));
+                assertTrue(prepared.verify(verifier));
+
+                JWSObject standard = sign(algos[i], new ECDSASigner(ecJWK), "payload" + j);
+                assertTrue(standard.verify(verifier));
+            }
+        }
+    }
+
+    @Test
+    public void signConcurrently() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        final JWSSigner signer = JwsKeys.signer(ecJWK.toECPrivateKey());
+        final JWSVerifier verifier = JwsKeys.verifier(ecJWK.toECPublicKey());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 100; i++) {
+                final String payload = "payload" + i;
+                futures.add(executorService.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return sign(JWSAlgorithm.ES256K, signer, payload).verify(verifier);
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void verifyInvalidSignatures() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        JWSVerifier verifier = JwsKeys.verifier(ecJWK.toECPublicKey());
+        JWSObject jws = sign(JWSAlgorithm.ES256, JwsKeys.signer(ecJWK.toECPrivateKey()), "payload");
+        String[] parts = jws.serialize().split("\\.");
+
+        // another payload
+        assertFalse(JWSObject.parse(parts[0] + "." + Base64URL.encode("another") + "." + parts[2]).verify(verifier));
+        // all zeros
+        assertFalse(JWSObject.parse(parts[0] + "." + parts[1] + "." + Base64URL.encode(new byte[64])).verify(verifier));
+        // wrong length
+        assertFalse(JWSObject.parse(parts[0] + "." + parts[1] + "." + Base64URL.encode(new byte[63])).verify(verifier));
+        // the verifier still works after the failures above
+        assertTrue(JWSObject.parse(jws.serialize()).verify(verifier));
+    }
+
+    private static JWSObject sign(JWSAlgorithm algo, JWSSigner signer, String payload) throws Exception {
+        JWSObject jws = new JWSObject(new JWSHeader(algo), new Payload(payload));
+        jws.sign(signer);
+        return JWSObject.parse(jws.serialize());
+    }
+}
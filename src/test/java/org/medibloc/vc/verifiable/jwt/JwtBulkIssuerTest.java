@@ -0,0 +1,160 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialSubject;
+import org.medibloc.vc.model.CredentialTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class JwtBulkIssuerTest {
+    private static final String NONCE = "this-is-random";
+
+    private ExecutorService executorService;
+    private ECKey ecJWK;
+    private JwtSigner signer;
+    private List<Credential> credentials;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(4);
+
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        Credential base = CredentialTest.buildCredential();
+        signer = new JwtSigner("ES256K", base.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey());
+        credentials = new ArrayList<Credential>();
+        for (int i = 0; i < 50; i++) {
+            credentials.add(Credential.builder()
+                    .contexts(base.getContexts())
+                    .types(base.getTypes())
+                    .issuer(base.getIssuer())
+                    .issuanceDate(base.getIssuanceDate())
+                    .credentialSubject(new CredentialSubject("did:panacea:subject" + i))
+                    .build());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void issueInOrder() throws Exception {
+        final List<JwtVerifiableCredential> issued = new ArrayList<JwtVerifiableCredential>();
+        JwtBulkIssuer issuer = new JwtBulkIssuer(signer, executorService, 8);
+        issuer.issue(credentials.iterator(), NONCE, new JwtBulkIssuer.Listener() {
+            @Override
+            public void onIssued(long index, JwtVerifiableCredential vc) {
+                assertEquals(issued.size(), index);
+                issued.add(vc);
+            }
+
+            @Override
+            public void onFailed(long index, Credential credential, VerifiableCredentialException e) {
+                fail(e.getMessage());
+            }
+        });
+
+        assertEquals(credentials.size(), issued.size());
+        for (int i = 0; i < credentials.size(); i++) {
+            assertEquals(credentials.get(i), issued.get(i).getCredential());
+            issued.get(i).verify(ecJWK.toECPublicKey(), NONCE);
+        }
+        assertEquals(credentials.size(), issuer.getIssuedCount());
+        assertEquals(0, issuer.getFailedCount());
+        assertTrue(issuer.getThroughput() > 0);
+    }
+
+    @Test(timeout = 10000)
+    public void issueInTaskOfSameExecutor() throws Exception {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            // the only thread of the executor calls issue(), so no queued credential is signed unless the caller signs it
+            Future<Long> issued = single.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    JwtBulkIssuer issuer = new JwtBulkIssuer(signer, single, 4);
+                    issuer.issue(credentials.iterator(), NONCE, new JwtBulkIssuer.Listener() {
+                        @Override
+                        public void onIssued(long index, JwtVerifiableCredential vc) {
+                        }
+
+                        @Override
+                        public void onFailed(long index, Credential credential, VerifiableCredentialException e) {
+                            fail(e.getMessage());
+                        }
+                    });
+                    return issuer.getIssuedCount();
+                }
+            });
+            assertEquals(credentials.size(), (long) issued.get());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void cancelWhenListenerThrows() throws Exception {
+        ThreadPoolExecutor single = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        single.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            try {
+                new JwtBulkIssuer(signer, single, 8).issue(credentials.iterator(), NONCE, new JwtBulkIssuer.Listener() {
+                    @Override
+                    public void onIssued(long index, JwtVerifiableCredential vc) {
+                        throw new IllegalStateException("listener failure");
+                    }
+
+                    @Override
+                    public void onFailed(long index, Credential credential, VerifiableCredentialException e) {
+                    }
+                });
+                fail("the listener failure must be thrown");
+            } catch (IllegalStateException e) {
+                assertEquals("listener failure", e.getMessage());
+            }
+
+            // all credentials in the window are still queued behind the blocked task:
+            // the first one has been signed by the caller, and the others must have been cancelled
+            assertEquals(8, single.getQueue().size());
+            int cancelled = 0;
+            for (Runnable queued : single.getQueue()) {
+                if (((Future<?>) queued).isCancelled()) {
+                    cancelled++;
+                }
+            }
+            assertEquals(7, cancelled);
+        } finally {
+            blocked.countDown();
+            single.shutdown();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class JwtBulkVerifierTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private ExecutorService executorService;
+    private ECKey ecJWK;
+    private KeyResolver keyResolver;
+
+    @Before
+    public void setUp() throws Exception {
+        executorService = Executors.newFixedThreadPool(4);
+        ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        keyResolver = new KeyResolver() {
+            @Override
+            public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (Exception e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void verifyInOrder() throws Exception {
+        List<String> jwts = issue(20);
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < jwts.size(); i++) {
+            // mix plain lines, JSON strings, CRLFs and empty lines
+            content.append(i % 2 == 0 ? jwts.get(i) : "\"" + jwts.get(i) + "\"").append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i == 10) {
+                content.append("not-a-jwt\n\n");
+            }
+        }
+        File file = write(content.toString());
+
+        // a small window to map the file several times
+        JwtBulkVerifier verifier = new JwtBulkVerifier(keyResolver, executorService, 8, jwts.get(0).length() * 3);
+        Results results = new Results();
+        assertEquals(file.length(), verifier.verify(file, results));
+
+        assertEquals(jwts, results.verified);
+        assertEquals(1, results.failedOffsets.size());
+        assertEquals(jwts.size(), verifier.getVerifiedCount());
+        assertEquals(1, verifier.getFailedCount());
+        assertEquals(file.length(), results.checkpoint);
+    }
+
+    @Test
+    public void resumeFromCheckpoint() throws Exception {
+        List<String> jwts = issue(10);
+        StringBuilder content = new StringBuilder();
+        for (String jwt : jwts) {
+            content.append(jwt).append('\n');
+        }
+        File file = write(content.toString());
+
+        long checkpoint = 0;
+        for (int i = 0; i < 4; i++) {
+            checkpoint += jwts.get(i).length() + 1;
+        }
+        Results results = new Results();
+        new JwtBulkVerifier(keyResolver, executorService, 4).verify(file, checkpoint, results);
+
+        assertEquals(jwts.subList(4, jwts.size()), results.verified);
+        assertTrue(results.failedOffsets.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void lineLongerThanMapSize() throws Exception {
+        List<String> jwts = issue(2);
+        File file = write(jwts.get(0) + "\n" + jwts.get(1) + "\n");
+        new JwtBulkVerifier(keyResolver, executorService, 4, jwts.get(0).length() / 2).verify(file, new Results());
+    }
+
+    @Test(timeout = 10000)
+    public void verifyInTaskOfSameExecutor() throws Exception {
+        List<String> jwts = issue(10);
+        StringBuilder content = new StringBuilder();
+        for (String jwt : jwts) {
+            content.append(jwt).append('\n');
+        }
+        final File file = write(content.toString());
+
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            // the only thread of the executor calls verify(), so no queued JWT is verified unless the caller verifies it
+            Future<Results> verified = single.submit(new Callable<Results>() {
+                @Override
+                public Results call() throws Exception {
+                    Results results = new Results();
+                    new JwtBulkVerifier(keyResolver, single, 4).verify(file, results);
+                    return results;
+                }
+            });
+            assertEquals(jwts, verified.get().verified);
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    private List<String> issue(int count) throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        JwtSigner signer = new JwtSigner("ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey());
+        List<String> jwts = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            jwts.add(new JwtVerifiableCredential(credential, signer, "nonce" + i).serialize());
+        }
+        return jwts;
+    }
+
+    private File write(String content) throws IOException {
+        File file = tmp.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static class Results implements JwtBulkVerifier.Listener {
+        private final List<String> verified = new ArrayList<String>();
+        private final List<Long> failedOffsets = new ArrayList<Long>();
+        private long checkpoint;
+
+        @Override
+        public void onVerified(long offset, long nextOffset, JwtVerifiableCredential vc) {
+            assertTrue(nextOffset > checkpoint);
+            verified.add(vc.serialize());
+            checkpoint = nextOffset;
+        }
+
+        @Override
+        public void onFailed(long offset, long nextOffset, VerifiableCredentialException e) {
+            assertTrue(nextOffset > checkpoint);
+            failedOffsets.add(offset);
+            checkpoint = nextOffset;
+        }
+    }
+}
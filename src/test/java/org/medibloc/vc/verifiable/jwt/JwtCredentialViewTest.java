@@ -0,0 +1,80 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JwtCredentialViewTest {
+    @Test
+    public void decodeLazily() throws Exception {
+        Credential credential = CredentialTest.buildCredential();
+        credential.getCredentialSubject().addClaim("courses", Arrays.asList(
+                new HashMap<String, Object>() {{
+                    put("name", "Physics");
+                    put("credits", 3);
+                }},
+                new HashMap<String, Object>() {{
+                    put("name", "Math");
+                    put("credits", 4);
+                }}
+        ));
+        JwtCredentialView view = sign(credential).getCredentialView();
+
+        assertEquals(credential.getIssuer().getId(), view.getIssuerId());
+        assertEquals(credential.getCredentialSubject().getId(), view.getSubjectId());
+        assertEquals(credential.getId().toString(), view.getId());
+        assertEquals(credential.getIssuanceDate(), view.getIssuanceDate());
+        assertNull(view.getExpirationDate());
+        assertEquals("this-is-random", view.getNonce());
+        assertEquals(credential.getContexts(), view.getContexts());
+        assertEquals(credential.getTypes(), view.getTypes());
+        assertTrue(view.hasType("UniversityDegreeCredential"));
+        assertFalse(view.hasType("Something"));
+
+        assertEquals("Bachelor of Science and Arts", view.getSubjectClaim("degree.name"));
+        assertEquals("A+", view.getSubjectClaim("degree.scores.math"));
+        assertTrue(view.getSubjectClaim("degree.scores") instanceof Map);
+        assertEquals("Math", view.getSubjectClaim("courses.1.name"));
+        assertEquals(3, view.getSubjectClaim("courses.0.credits"));
+        // cached
+        assertSame(view.getSubjectClaim("degree.scores"), view.getSubjectClaim("degree.scores"));
+
+        assertNull(view.getSubjectClaim("degree.unknown"));
+        assertNull(view.getSubjectClaim("courses.2.name"));
+        assertNull(view.getSubjectClaim("courses.name"));
+        assertNull(view.getSubjectClaim("degree.name.first"));
+    }
+
+    @Test
+    public void sameAsCredential() throws Exception {
+        JwtVerifiableCredential vc = sign(CredentialTest.buildCredential());
+        Credential credential = vc.getCredential();
+        JwtCredentialView view = vc.getCredentialView();
+
+        assertSame(view, vc.getCredentialView());
+        assertEquals(credential.getIssuer().getId(), view.getIssuerId());
+        assertEquals(credential.getCredentialSubject().getClaims().get("degree"), view.getSubjectClaim("degree"));
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void invalidJwt() throws VerifiableCredentialException {
+        new JwtVerifiableCredential("invalid").getCredentialView();
+    }
+
+    private static JwtVerifiableCredential sign(Credential credential) throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        return new JwtVerifiableCredential(
+                credential, "ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey(), "this-is-random"
+        );
+    }
+}
@@ -0,0 +1,188 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.lang.Clock;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialSubject;
+import org.medibloc.vc.model.Issuer;
+import org.medibloc.vc.model.Presentation;
+import org.medibloc.vc.model.PresentationTest;
+
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class JwtValidatorTest {
+    private static final String ISSUER = "did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm";
+    private static final String NONCE = "this-is-random";
+    private static final long NOW = 1700000000000L;
+    private static final Clock CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return NOW;
+        }
+    };
+
+    /**
+     * Fails if a key is resolved, to assert that a token is rejected before the signature is verified.
+     */
+    private static final KeyResolver UNREACHABLE = new KeyResolver() {
+        @Override
+        public PublicKey resolve(String keyId) {
+            throw new AssertionError("the key must not be resolved");
+        }
+    };
+
+    private ECKey ecKey;
+    private KeyResolver keyResolver;
+    private JwtValidator validator;
+
+    @Before
+    public void setUp() throws Exception {
+        ecKey = new ECKeyGenerator(Curve.P_256).generate();
+        keyResolver = new KeyResolver() {
+            @Override
+            public PublicKey resolve(String keyId) throws VerifiableCredentialException {
+                try {
+                    return ecKey.toECPublicKey();
+                } catch (Exception e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        };
+        validator = JwtValidator.builder()
+                .clock(CLOCK)
+                .clockSkew(1, TimeUnit.MINUTES)
+                .requiredTypes(Collections.singletonList("UniversityDegreeCredential"))
+                .requiredContexts(Collections.singletonList("https://www.w3.org/2018/credentials/v1"))
+                .build();
+    }
+
+    @Test
+    public void validate() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), new Date(NOW + 1000000), "UniversityDegreeCredential");
+        validator.validate(vc, keyResolver, NONCE);
+        validator.validate(vc, ecKey.toECPublicKey(), null);
+    }
+
+    @Test
+    public void expired() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), new Date(NOW - 120000), "UniversityDegreeCredential");
+        assertRejected(JwtValidator.Check.TEMPORAL, validator, vc, NONCE);
+
+        // within the clock skew
+        vc = credential(new Date(NOW - 1000000), new Date(NOW - 30000), "UniversityDegreeCredential");
+        validator.validate(vc, keyResolver, NONCE);
+    }
+
+    @Test
+    public void notYetValid() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW + 120000), null, "UniversityDegreeCredential");
+        assertRejected(JwtValidator.Check.TEMPORAL, validator, vc, NONCE);
+
+        vc = credential(new Date(NOW + 30000), null, "UniversityDegreeCredential");
+        validator.validate(vc, keyResolver, NONCE);
+    }
+
+    @Test
+    public void nonceMismatch() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), null, "UniversityDegreeCredential");
+        assertRejected(JwtValidator.Check.NONCE, validator, vc, "another-nonce");
+    }
+
+    @Test
+    public void typePolicy() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), null, "AnotherCredential");
+        assertRejected(JwtValidator.Check.TYPE_POLICY, validator, vc, NONCE);
+
+        JwtValidator contextPolicy = JwtValidator.builder()
+                .clock(CLOCK)
+                .requiredContexts(Collections.singletonList("https://www.w3.org/2018/credentials/examples/v1"))
+                .build();
+        assertRejected(JwtValidator.Check.TYPE_POLICY, contextPolicy, vc, NONCE);
+    }
+
+    @Test
+    public void audience() throws Exception {
+        Presentation presentation = PresentationTest.buildPresentation();
+        JwtVerifiablePresentation vp = new JwtVerifiablePresentation(presentation, "ES256", presentation.getHolder() + "#key1", ecKey.toECPrivateKey(), NONCE);
+
+        JwtValidator.builder().clock(CLOCK).audience(presentation.getVerifier()).build().validate(vp, keyResolver, NONCE);
+
+        try {
+            JwtValidator.builder().clock(CLOCK).audience("did:panacea:another").build().validate(vp, UNREACHABLE, NONCE);
+            fail("must be rejected");
+        } catch (ValidationException e) {
+            assertEquals(JwtValidator.Check.AUDIENCE, e.getCheck());
+        }
+
+        // credentials don't have 'aud'
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), null, "UniversityDegreeCredential");
+        assertRejected(JwtValidator.Check.AUDIENCE, JwtValidator.builder().clock(CLOCK).audience(presentation.getVerifier()).build(), vc, NONCE);
+    }
+
+    @Test
+    public void malformed() {
+        assertRejected(JwtValidator.Check.STRUCTURE, validator, new JwtVerifiableCredential("not.a.jwt"), NONCE);
+    }
+
+    @Test
+    public void signature() throws Exception {
+        JwtVerifiableCredential vc = credential(new Date(NOW - 1000000), null, "UniversityDegreeCredential");
+        ECKey anotherKey = new ECKeyGenerator(Curve.P_256).generate();
+        try {
+            validator.validate(vc, anotherKey.toECPublicKey(), NONCE);
+            fail("must be rejected");
+        } catch (ValidationException e) {
+            assertEquals(JwtValidator.Check.SIGNATURE, e.getCheck());
+        }
+    }
+
+    @Test
+    public void keyBinding() throws Exception {
+        // a valid signature, but by a key of another DID which the resolver knows
+        Credential credential = Credential.builder()
+                .contexts(Collections.singletonList("https://www.w3.org/2018/credentials/v1"))
+                .types(Arrays.asList("VerifiableCredential", "UniversityDegreeCredential"))
+                .issuer(new Issuer(ISSUER))
+                .credentialSubject(new CredentialSubject("did:panacea:subject"))
+                .issuanceDate(new Date(NOW - 1000000))
+                .build();
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(credential, "ES256", "did:panacea:another#key1", ecKey.toECPrivateKey(), NONCE);
+        validator.validate(vc, ecKey.toECPublicKey(), NONCE);
+        assertRejected(JwtValidator.Check.KEY_BINDING, validator, vc, NONCE);
+    }
+
+    private static void assertRejected(JwtValidator.Check check, JwtValidator validator, JwtVerifiableCredential vc, String nonce) {
+        try {
+            validator.validate(vc, UNREACHABLE, nonce);
+            fail("must be rejected by " + check);
+        } catch (ValidationException e) {
+            assertEquals(check, e.getCheck());
+        } catch (VerifiableCredentialException e) {
+            fail("must be a ValidationException: " + e);
+        }
+    }
+
+    private JwtVerifiableCredential credential(Date issuanceDate, Date expirationDate, String type) throws Exception {
+        Credential credential = Credential.builder()
+                .contexts(Collections.singletonList("https://www.w3.org/2018/credentials/v1"))
+                .types(Arrays.asList("VerifiableCredential", type))
+                .issuer(new Issuer(ISSUER))
+                .credentialSubject(new CredentialSubject("did:panacea:subject"))
+                .issuanceDate(issuanceDate)
+                .expirationDate(expirationDate)
+                .build();
+        return new JwtVerifiableCredential(credential, "ES256", ISSUER + "#key1", ecKey.toECPrivateKey(), NONCE);
+    }
+}
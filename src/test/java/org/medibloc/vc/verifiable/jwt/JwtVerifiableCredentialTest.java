@@ -1,23 +1,39 @@
 package org.medibloc.vc.verifiable.jwt;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.jwk.Curve;
 import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
 import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
 import org.junit.Test;
 import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.json.JsonCodecs;
+import org.medibloc.vc.key.Ed25519PrivateKey;
+import org.medibloc.vc.key.KeyDecoder;
+import org.medibloc.vc.key.KeyResolver;
 import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialStatus;
 import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.model.PresentationTest;
+import org.medibloc.vc.verifiable.VerifiableCredential;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
 
 public class JwtVerifiableCredentialTest {
+    private static final String PREVIOUS_PAYLOAD = "{\"sub\":\"did:panacea:7aR7Cg46JamVbJgk8azVgUm7Prd74ry1Uct87nZqL3ny\",\"nbf\":1601857850,\"iss\":\"did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm\",\"vc\":{\"credentialSubject\":{\"degree\":{\"name\":\"Bachelor of Science and Arts\",\"type\":\"BachelorDegree\"}},\"type\":[\"VerifiableCredential\",\"UniversityDegreeCredential\"],\"@context\":[\"https:\\/\\/www.w3.org\\/2018\\/credentials\\/v1\",\"https:\\/\\/www.w3.org\\/2018\\/credentials\\/examples\\/v1\"]},\"nonce\":\"this-is-random\",\"jti\":\"http:\\/\\/example.edu\\/credentials\\/3732\",\"issuer\":{\"name\":\"Example University\"}}";
+
     @Test
     public void createAndVerify() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException, InvalidKeySpecException, NoSuchAlgorithmException {
         Credential credential = CredentialTest.buildCredential();
@@ -34,6 +50,175 @@ public class JwtVerifiableCredentialTest {
         assertEquals(vc.getJwt(), vc.serialize());
     }
 
+    @Test
+    public void verifyWithKeyResolver() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException {
+        Credential credential = CredentialTest.buildCredential();
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        final String keyId = credential.getIssuer().getId() + "#key1";
+
+        String nonce = "this-is-random";
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "ES256K", keyId, ecJWK.toECPrivateKey(), nonce
+        );
+
+        vc.verify(new KeyResolver() {
+            @Override
+            public ECPublicKey resolve(String kid) throws VerifiableCredentialException {
+                assertEquals(keyId, kid);
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (JOSEException e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        }, nonce);
+    }
+
+    @Test
+    public void verifyWithKeyOfAnotherDid() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException {
+        Credential credential = CredentialTest.buildCredential();
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        // signed in the name of the issuer, with a key of someone else which the resolver knows
+        String nonce = "this-is-random";
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "ES256K", "did:panacea:someone-else#key1", ecJWK.toECPrivateKey(), nonce
+        );
+
+        try {
+            vc.verify(new KeyResolver() {
+                @Override
+                public ECPublicKey resolve(String kid) {
+                    throw new AssertionError("the key must not be resolved");
+                }
+            }, nonce);
+            fail("must be rejected");
+        } catch (VerifiableCredentialException e) {
+            // expected: the key ID doesn't belong to the issuer
+        }
+    }
+
+    @Test
+    public void parseOnce() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey(), "this-is-random"
+        );
+        JwtVerifiableCredential other = new JwtVerifiableCredential(vc.serialize());
+
+        assertSame(vc.getSignedJwt(), vc.getSignedJwt());
+        assertSame(vc.getJwtClaimsSet(), vc.getJwtClaimsSet());
+        assertSame(vc.getCredential(), vc.getCredential());
+
+        // the cache must not affect the identity
+        assertEquals(other, vc);
+        assertEquals(other.hashCode(), vc.hashCode());
+    }
+
+    @Test
+    public void encodePayload() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException, IOException {
+        Credential credential = CredentialTest.buildCredential();
+        ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "ES256K", credential.getIssuer().getId() + "#key1", ecJWK.toECPrivateKey(), "this-is-random"
+        );
+
+        // The order of claims is not significant.
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(
+                mapper.readTree("{\"iss\":\"did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm\",\"sub\":\"did:panacea:7aR7Cg46JamVbJgk8azVgUm7Prd74ry1Uct87nZqL3ny\",\"nbf\":1601857850,\"jti\":\"http://example.edu/credentials/3732\",\"nonce\":\"this-is-random\",\"vc\":{\"@context\":[\"https://www.w3.org/2018/credentials/v1\",\"https://www.w3.org/2018/credentials/examples/v1\"],\"credentialSubject\":{\"degree\":{\"scores\":{\"physics\":\"D-\",\"math\":\"A+\"},\"name\":\"Bachelor of Science and Arts\",\"type\":\"BachelorDegree\"}},\"type\":[\"VerifiableCredential\",\"UniversityDegreeCredential\"]},\"issuer\":{\"name\":\"Example University\"}}"),
+                mapper.readTree(vc.getPayload())
+        );
+    }
+
+    @Test
+    public void decodeIssuedByPreviousVersion() throws MalformedURLException, VerifiableCredentialException {
+        // issued by the version which encoded payloads through nimbus JWTClaimsSet
+        VerifiableCredential vc = PresentationTest.buildPresentation().getVerifiableCredentials().get(0);
+
+        Credential credential = vc.getCredential();
+        assertEquals("did:panacea:7Prd74ry1Uct87nZqL3ny7aR7Cg46JamVbJgk8azVgUm", credential.getIssuer().getId());
+        assertEquals("Example University", credential.getIssuer().getExtras().get("name"));
+        assertEquals("did:panacea:7aR7Cg46JamVbJgk8azVgUm7Prd74ry1Uct87nZqL3ny", credential.getCredentialSubject().getId());
+        assertTrue(credential.getCredentialSubject().getClaims().containsKey("degree"));
+        assertEquals(1601857850000L, credential.getIssuanceDate().getTime());
+        assertEquals("http://example.edu/credentials/3732", credential.getId().toString());
+        assertEquals(2, credential.getContexts().size());
+        assertEquals(2, credential.getTypes().size());
+        assertNull(credential.getExpirationDate());
+    }
+
+    @Test
+    public void encodeAsPreviousVersion() throws IOException, VerifiableCredentialException {
+        // issued by the version which encoded payloads through nimbus JWTClaimsSet, which didn't have a nonce yet
+        JwtVerifiableCredential previous = (JwtVerifiableCredential) PresentationTest.buildPresentation().getVerifiableCredentials().get(0);
+        String nonce = "this-is-random";
+
+        String payload = new String(JwtVerifiableCredential.encode(JwtPayloadCodec.json(), previous.getCredential(), nonce), "UTF-8");
+        assertEquals(PREVIOUS_PAYLOAD, payload);
+        // byte-for-byte the same as the previous version, except the nonce
+        assertEquals(new String(previous.getPayload(), "UTF-8"), payload.replace(",\"nonce\":\"" + nonce + "\"", ""));
+    }
+
+    @Test
+    public void encodeRegardlessOfObjectMapper() throws Exception {
+        Credential previous = ((JwtVerifiableCredential) PresentationTest.buildPresentation().getVerifiableCredentials().get(0)).getCredential();
+        Credential withStatus = Credential.builder()
+                .contexts(previous.getContexts())
+                .types(previous.getTypes())
+                .issuer(previous.getIssuer())
+                .credentialSubject(previous.getCredentialSubject())
+                .issuanceDate(previous.getIssuanceDate())
+                .credentialStatus(CredentialStatus.statusListEntry("https://example.edu/status/1", CredentialStatus.PURPOSE_REVOCATION, 94567))
+                .build();
+        byte[] expected = JwtVerifiableCredential.encode(JwtPayloadCodec.json(), withStatus, "this-is-random");
+
+        JsonCodecs.setObjectMapper(new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.ALWAYS)
+                .enable(SerializationFeature.INDENT_OUTPUT));
+        try {
+            assertEquals(PREVIOUS_PAYLOAD, new String(JwtVerifiableCredential.encode(JwtPayloadCodec.json(), previous, "this-is-random"), "UTF-8"));
+            assertArrayEquals(expected, JwtVerifiableCredential.encode(JwtPayloadCodec.json(), withStatus, "this-is-random"));
+        } finally {
+            JsonCodecs.setObjectMapper(new ObjectMapper());
+        }
+    }
+
+    @Test
+    public void createAndVerifyWithEd25519() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException, InvalidKeySpecException {
+        Credential credential = CredentialTest.buildCredential();
+        OctetKeyPair okp = new OctetKeyPairGenerator(Curve.Ed25519).generate();
+        Ed25519PrivateKey privateKey = KeyDecoder.ed25519PrivateKey(okp.getDecodedD());
+
+        String nonce = "this-is-random";
+        JwtVerifiableCredential vc = new JwtVerifiableCredential(
+                credential, "EdDSA", credential.getIssuer().getId() + "#key1", privateKey, nonce
+        );
+
+        assertEquals(credential, vc.getCredential());
+        vc.verify(KeyDecoder.ed25519PublicKey(okp.getDecodedX()), nonce);
+        try {
+            vc.verify(new ECKeyGenerator(Curve.SECP256K1).generate().toECPublicKey(), nonce);
+            fail();
+        } catch (VerifiableCredentialException e) {
+            // expected: the key type doesn't match
+        }
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void createWithAlgoNotMatchingKey() throws MalformedURLException, VerifiableCredentialException, ParseException, InvalidKeySpecException, JOSEException {
+        Credential credential = CredentialTest.buildCredential();
+        OctetKeyPair okp = new OctetKeyPairGenerator(Curve.Ed25519).generate();
+
+        new JwtVerifiableCredential(
+                credential, "ES256K", credential.getIssuer().getId() + "#key1", KeyDecoder.ed25519PrivateKey(okp.getDecodedD()), "this-is-random"
+        );
+    }
+
     @Test(expected = VerifiableCredentialException.class)
     public void createWithInvalidAlgo() throws MalformedURLException, VerifiableCredentialException, ParseException, JOSEException {
         Credential credential = CredentialTest.buildCredential();
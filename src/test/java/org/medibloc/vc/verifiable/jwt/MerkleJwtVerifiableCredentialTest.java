@@ -0,0 +1,206 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.Test;
+import org.medibloc.vc.VerifiableCredentialException;
+import org.medibloc.vc.key.KeyResolver;
+import org.medibloc.vc.model.Credential;
+import org.medibloc.vc.model.CredentialTest;
+import org.medibloc.vc.verifiable.VerifiableCredential;
+
+import java.net.URL;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MerkleJwtVerifiableCredentialTest {
+    private static final String NONCE = "this-is-random";
+
+    @Test
+    public void issueAndVerify() throws Exception {
+        final ECKey ecJWK = new ECKeyGenerator(Curve.SECP256K1).generate();
+        List<Credential> credentials = credentials(11);
+        final String keyId = credentials.get(0).getIssuer().getId() + "#key1";
+        MerkleBatchIssuer issuer = new MerkleBatchIssuer(new JwtSigner("ES256K", keyId, ecJWK.toECPrivateKey()));
+
+        List<MerkleJwtVerifiableCredential> vcs = issuer.issue(credentials, NONCE);
+        assertEquals(credentials.size(), vcs.size());
+        assertEquals(1, issuer.getBatchCount());
+        assertEquals(credentials.size(), issuer.getIssuedCount());
+
+        for (int i = 0; i < vcs.size(); i++) {
+            // parsed again from the serialized form, as a verifier would receive it
+            MerkleJwtVerifiableCredential vc = new MerkleJwtVerifiableCredential(vcs.get(i).serialize());
+            vc.verify(ecJWK.toECPublicKey(), NONCE);
+            vc.verify(new KeyResolver() {
+                @Override
+                public PublicKey resolve(String kid) throws VerifiableCredentialException {
+                    assertEquals(keyId, kid);
+                    try {
+                        return ecJWK.toECPublicKey();
+                    } catch (Exception e) {
+                        throw new VerifiableCredentialException(e);
+                    }
+                }
+            });
+            assertEquals(i, vc.getIndex());
+            assertEquals(keyId, vc.getKeyId());
+            assertEquals(credentials.get(i), vc.getCredential());
+            assertEquals(vcs.get(0).getRootJws(), vc.getRootJws());
+        }
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithKeyOfAnotherDid() throws Exception {
+        final ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        MerkleJwtVerifiableCredential vc = new MerkleBatchIssuer(new JwtSigner("ES256", "did:panacea:someone-else#key1", ecJWK.toECPrivateKey()))
+                .issue(credentials(2), NONCE).get(0);
+
+        vc.verify(new KeyResolver() {
+            @Override
+            public PublicKey resolve(String kid) throws VerifiableCredentialException {
+                try {
+                    return ecJWK.toECPublicKey();
+                } catch (Exception e) {
+                    throw new VerifiableCredentialException(e);
+                }
+            }
+        }, NONCE);
+    }
+
+    @Test
+    public void rootVerifiedOnce() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        List<MerkleJwtVerifiableCredential> vcs = new MerkleBatchIssuer(new JwtSigner("ES256", "key1", ecJWK.toECPrivateKey()))
+                .issue(credentials(8), NONCE);
+
+        long hitCount = MerkleRoots.getStats().getHitCount();
+        for (MerkleJwtVerifiableCredential vc : vcs) {
+            vc.verify(ecJWK.toECPublicKey(), NONCE);
+        }
+        assertEquals(hitCount + vcs.size() - 1, MerkleRoots.getStats().getHitCount());
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithWrongKey() throws Exception {
+        ECKey ecJWK1 = new ECKeyGenerator(Curve.P_256).generate();
+        ECKey ecJWK2 = new ECKeyGenerator(Curve.P_256).generate();
+        List<MerkleJwtVerifiableCredential> vcs = new MerkleBatchIssuer(new JwtSigner("ES256", "key1", ecJWK1.toECPrivateKey()))
+                .issue(credentials(3), NONCE);
+
+        vcs.get(0).verify(ecJWK1.toECPublicKey(), NONCE);
+        vcs.get(1).verify(ecJWK2.toECPublicKey(), NONCE);
+    }
+
+    @Test(expected = VerifiableCredentialException.class)
+    public void verifyWithWrongNonce() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        List<MerkleJwtVerifiableCredential> vcs = new MerkleBatchIssuer(new JwtSigner("ES256", "key1", ecJWK.toECPrivateKey()))
+                .issue(credentials(2), NONCE);
+
+        vcs.get(0).verify(ecJWK.toECPublicKey(), "wrong");
+    }
+
+    @Test
+    public void tamperedProofOrPayload() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        List<MerkleJwtVerifiableCredential> vcs = new MerkleBatchIssuer(new JwtSigner("ES256", "key1", ecJWK.toECPrivateKey()))
+                .issue(credentials(4), NONCE);
+        String[] first = vcs.get(0).serialize().split("~");
+        String[] second = vcs.get(1).serialize().split("~");
+        vcs.get(0).verify(ecJWK.toECPublicKey());
+
+        // the payload of another credential, with the index and the proof of the first one
+        assertInvalid(join(first[0], second[1], first[2], first[3], first[4]), ecJWK.toECPublicKey());
+        // the right payload and proof, at a wrong index
+        assertInvalid(join(first[0], first[1], first[2], "2", first[4]), ecJWK.toECPublicKey());
+        // a wrong salt
+        assertInvalid(join(first[0], first[1], second[2], first[3], first[4]), ecJWK.toECPublicKey());
+        // a malformed proof
+        assertInvalid(join(first[0], first[1], first[2], first[3], "AAAA"), ecJWK.toECPublicKey());
+        // not five segments
+        assertInvalid(join(first[0], first[1], first[2], first[3]), ecJWK.toECPublicKey());
+    }
+
+    @Test
+    public void rootIsNotCredential() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        JwtSigner signer = new JwtSigner("ES256", "key1", ecJWK.toECPrivateKey());
+        MerkleJwtVerifiableCredential vc = new MerkleBatchIssuer(signer).issue(credentials(2), NONCE).get(0);
+        String rootJws = vc.serialize().split("~")[0];
+        assertEquals(MerkleRoots.TYPE, vc.getRootJws().getType());
+
+        // the root JWS is signed by the issuer key, but it isn't a credential
+        try {
+            new JwtVerifiableCredential(rootJws).verify(ecJWK.toECPublicKey());
+            fail("a root JWS must not be verified as a credential");
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+        try {
+            new CompactJwtVerifiableCredential(CompactJws.parse(rootJws)).verify(ecJWK.toECPublicKey());
+            fail("a root JWS must not be verified as a credential");
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+
+        // a root signed without the type, as if it were an ordinary JWT
+        String[] segments = vc.serialize().split("~");
+        String untyped = signer.sign(CompactJws.parse(rootJws).decodePayload());
+        assertInvalid(join(untyped, segments[1], segments[2], segments[3], segments[4]), ecJWK.toECPublicKey());
+    }
+
+    @Test
+    public void jsonDeserialization() throws Exception {
+        ECKey ecJWK = new ECKeyGenerator(Curve.P_256).generate();
+        MerkleJwtVerifiableCredential vc = new MerkleBatchIssuer(new JwtSigner("ES256", "key1", ecJWK.toECPrivateKey()))
+                .issue(credentials(1), NONCE).get(0);
+
+        ObjectMapper mapper = new ObjectMapper();
+        VerifiableCredential decoded = mapper.readValue(mapper.writeValueAsString(vc), VerifiableCredential.class);
+        assertTrue(decoded instanceof MerkleJwtVerifiableCredential);
+        assertEquals(vc, decoded);
+        decoded.verify(ecJWK.toECPublicKey(), NONCE);
+    }
+
+    private static List<Credential> credentials(int size) throws Exception {
+        List<Credential> credentials = new ArrayList<Credential>(size);
+        for (int i = 0; i < size; i++) {
+            Credential credential = CredentialTest.buildCredential();
+            credentials.add(Credential.builder()
+                    .contexts(credential.getContexts())
+                    .types(credential.getTypes())
+                    .id(new URL("http://example.edu/credentials/" + i))
+                    .issuer(credential.getIssuer())
+                    .issuanceDate(credential.getIssuanceDate())
+                    .credentialSubject(credential.getCredentialSubject())
+                    .build());
+        }
+        return credentials;
+    }
+
+    private static void assertInvalid(String serialized, PublicKey publicKey) {
+        try {
+            new MerkleJwtVerifiableCredential(serialized).verify(publicKey);
+            fail("verified: " + serialized);
+        } catch (VerifiableCredentialException e) {
+            // expected
+        }
+    }
+
+    private static String join(String... segments) {
+        StringBuilder sb = new StringBuilder();
+        for (String segment : segments) {
+            if (sb.length() > 0) {
+                sb.append('~');
+            }
+            sb.append(segment);
+        }
+        return sb.toString();
+    }
+}
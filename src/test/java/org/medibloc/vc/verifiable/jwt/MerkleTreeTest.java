@@ -0,0 +1,73 @@
+package org.medibloc.vc.verifiable.jwt;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MerkleTreeTest {
+    @Test
+    public void proveAllLeaves() {
+        for (int size = 1; size <= 17; size++) {
+            byte[][] leaves = leaves(size);
+            MerkleTree tree = new MerkleTree(leaves);
+            assertEquals(size, tree.size());
+            for (int i = 0; i < size; i++) {
+                assertArrayEquals(tree.getRoot(), MerkleTree.rootOf(leaves[i], i, size, tree.proof(i)));
+            }
+        }
+    }
+
+    @Test
+    public void singleLeaf() {
+        byte[][] leaves = leaves(1);
+        MerkleTree tree = new MerkleTree(leaves);
+        assertArrayEquals(leaves[0], tree.getRoot());
+        assertEquals(0, tree.proof(0).length);
+    }
+
+    @Test
+    public void wrongProof() {
+        byte[][] leaves = leaves(5);
+        MerkleTree tree = new MerkleTree(leaves);
+
+        // a wrong leaf, or a wrong index
+        assertFalse(Arrays.equals(tree.getRoot(), MerkleTree.rootOf(leaves[1], 0, 5, tree.proof(0))));
+        assertFalse(Arrays.equals(tree.getRoot(), MerkleTree.rootOf(leaves[0], 1, 5, tree.proof(0))));
+        // the index out of the tree
+        assertNull(MerkleTree.rootOf(leaves[4], 5, 5, tree.proof(4)));
+        // too short or too long
+        assertNull(MerkleTree.rootOf(leaves[0], 0, 5, new byte[0][]));
+        assertNull(MerkleTree.rootOf(leaves[4], 4, 5, new byte[][]{leaves[0], leaves[1]}));
+    }
+
+    @Test
+    public void leafIsNotNode() {
+        byte[][] leaves = leaves(2);
+        assertFalse(Arrays.equals(
+                MerkleTree.nodeHash(leaves[0], leaves[1]),
+                MerkleTree.leafHash(new byte[0], concat(leaves[0], leaves[1]))
+        ));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void empty() {
+        new MerkleTree(new byte[0][]);
+    }
+
+    private static byte[][] leaves(int size) {
+        byte[][] leaves = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            leaves[i] = MerkleTree.leafHash(new byte[16], ("payload-" + i).getBytes());
+        }
+        return leaves;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] c = new byte[a.length + b.length];
+        System.arraycopy(a, 0, c, 0, a.length);
+        System.arraycopy(b, 0, c, a.length, b.length);
+        return c;
+    }
+}